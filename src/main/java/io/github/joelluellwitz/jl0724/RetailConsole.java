@@ -4,18 +4,13 @@
 package io.github.joelluellwitz.jl0724;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.PrintStream;
-import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.ResolverStyle;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,11 +18,11 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
-import dnl.utils.text.table.TextTable;
 import io.github.joelluellwitz.jl0724.exposed.service.api.ContractParameters;
 import io.github.joelluellwitz.jl0724.exposed.service.api.RentalAgreement;
 import io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale;
 import io.github.joelluellwitz.jl0724.exposed.service.api.Tool;
+import io.github.joelluellwitz.jl0724.exposed.service.api.ToolPage;
 
 /**
  * A console based implementation of the tool rental point of sale user interface.<p>
@@ -42,12 +37,13 @@ public class RetailConsole implements CommandLineRunner {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/uu")
             .withResolverStyle(ResolverStyle.STRICT);
 
+    private static final int MAX_TOOL_SUGGESTION_COUNT = 5;
+    private static final int TOOL_LIST_PAGE_SIZE = 20;
+
     private static Logger LOGGER = LoggerFactory.getLogger(RetailConsole.class);
 
     private final RetailPointOfSale retailPointOfSale;
 
-    private String toolList;
-
     static {
         // Work around in case tmpdir is set as 'noexec' as it is with RedHat Enterprise Linux. Note that these files
         //   are removed at program termination. See https://github.com/xerial/sqlite-jdbc/issues/1059 for details.
@@ -106,37 +102,18 @@ public class RetailConsole implements CommandLineRunner {
     }
 
     /**
-     * Prints the list of known tools and tool metadata to the console (STDOUT). The tool information is retrieved from
-     *   the business logic tier.
+     * Prints the list of known tools and tool metadata to the console (STDOUT) one page at a time. The user is
+     *   prompted before each additional page is printed. The tool information is retrieved from the business logic
+     *   tier one page at a time, so very large catalogs are never loaded in full.
      */
     private void printToolList() {
-        if (toolList == null) {
-            final String[] columnNames = { "Tool Code", "Tool Type", "Brand", "Daily Charge", "Weekday Charge?",
-                    "Weekend Charge?", "Holiday Charge?" };
-
-            final List<Tool> tools = retailPointOfSale.listTools();
-            final int toolCount = tools.size();
-            final String[][] tableData = new String[toolCount][];
-            final Iterator<Tool> toolListIterator = tools.iterator();
-            for (int toolIndex = 0; toolIndex < toolCount; toolIndex++) {
-                final Tool tool = toolListIterator.next();
-                tableData[toolIndex] = new String[] {
-                    tool.getCode(), tool.getType(), tool.getBrand(),
-                    NumberFormat.getCurrencyInstance(Locale.US).format(tool.getDailyCharge()),
-                    Boolean.valueOf(tool.isWeekdayCharge()).toString(),
-                    Boolean.valueOf(tool.isWeekendCharge()).toString(),
-                    Boolean.valueOf(tool.isHolidayCharge()).toString()
-                };
-            }
-
-            final OutputStream tableOutputStream = new ByteArrayOutputStream();
-            // Unfortunately this table library doesn't print a bottom border.
-            new TextTable(columnNames, tableData).printTable(new PrintStream(tableOutputStream), 0);
-            // Remove carriage return characters so that the unit tests pass on Windows. This does not change the
-            //   appearance of the table even on Windows.
-            toolList = tableOutputStream.toString().replace("\r", "");
-        }
-        System.out.print(toolList);
+        String afterToolCode = null;
+        do {
+            final ToolPage toolPage = retailPointOfSale.listTools(afterToolCode, TOOL_LIST_PAGE_SIZE);
+            System.out.print(toolPage.toString());
+            afterToolCode = toolPage.getNextPageToolCode();
+        } while (afterToolCode != null
+                && "n".equals(promptForString("Type 'n' to print the next page of tools or press enter to stop: ")));
     }
 
     /**
@@ -158,10 +135,12 @@ public class RetailConsole implements CommandLineRunner {
             //   expensive to generate logging strings should be conditionally executed to avoid wasting execution time.
             //   In this case, toString saves the result of the first generation, so we could just avoid this
             //   conditional, but I wanted to demonstrate that I understand this concept.
-            if (LOGGER.isInfoEnabled()) {
+            // Note: The audit trail of generated agreements is written asynchronously by the business tier, so the
+            //   rendered agreement is only logged here for debugging.
+            if (LOGGER.isDebugEnabled()) {
                 // Note: Ideally we want to include some sort of user identifier in logging statements, but that
                 //   obviously isn't available here.
-                LOGGER.info("Rental agreement generated: \n{}", rentalAgreement.toString());
+                LOGGER.debug("Rental agreement generated: \n{}", rentalAgreement.toString());
             }
 
             // Note: The requirements do not state that this header should be returned by
@@ -176,14 +155,30 @@ public class RetailConsole implements CommandLineRunner {
     }
 
     /**
-     * Prompts the user for the Tool Code. The user is continuously prompted until a non-empty value is supplied.
+     * Prompts the user for the Tool Code. The user is continuously prompted until a recognized Tool Code is supplied.
+     *   When an unrecognized Tool Code is supplied, similar Tool Codes are suggested if there are any.
      *
      * @return The supplied tool code {@link java.lang.String String}.
      */
     private String promptForToolCode() {
-        String toolCode = "";
-        while ("".equals(toolCode)) {
-            toolCode = promptForString("Enter the tool code: ");
+        String toolCode = null;
+        while (toolCode == null) {
+            final String input = promptForString("Enter the tool code: ");
+            if (!"".equals(input)) {
+                final List<Tool> suggestions = retailPointOfSale.searchTools(input, MAX_TOOL_SUGGESTION_COUNT);
+                if (!suggestions.isEmpty() && suggestions.getFirst().getCode().equals(input)) {
+                    toolCode = input;
+                }
+                else if (suggestions.isEmpty()) {
+                    System.out.print("Unrecognized tool code: %s\n".formatted(input));
+                }
+                else {
+                    final String suggestedToolCodes = suggestions.stream().map(Tool::getCode)
+                            .collect(Collectors.joining(", "));
+                    System.out.print("Unrecognized tool code: %s. Did you mean: %s?\n".formatted(input,
+                            suggestedToolCodes));
+                }
+            }
         }
 
         return toolCode;
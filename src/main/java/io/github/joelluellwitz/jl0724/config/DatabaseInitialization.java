@@ -3,12 +3,25 @@
  */
 package io.github.joelluellwitz.jl0724.config;
 
-import java.io.File;
 import java.io.IOException;
-import java.net.URL;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
 import org.springframework.context.ApplicationListener;
@@ -18,36 +31,198 @@ import org.springframework.core.env.PropertiesPropertySource;
 import io.github.joelluellwitz.jl0724.RetailConsole;
 
 /**
- * Creates a persisted database instance in the user's home directory and sets the spring.datasource.url property.
- *   The database is removed at program termination.<p>
+ * Opens the persistent database in the data directory and sets the spring.datasource.url property. The data directory
+ *   is set by the 'jl0724.data.directory' property ('data' in the current working directory by default).<p>
  *
- * Note: I could have used the H2 in-memory database here instead, but I wanted a more authentic persistent data tier
- *   for the non-unit testing code. This way I can demonstrate how to swap out a database implementation for use with
- *   testing (where I do use the H2 in-memory database). This class is not unit tested as it would not exist outside of
- *   a demo environment and is (somewhat deceptively) difficult mock. Normally one would define spring.datasource.url in
- *   application.properties and the value would reference a permanent database URL.
+ * On the first run, the database is seeded with a copy of the bundled tool catalog database. Later runs reuse the
+ *   existing database, so rental agreements survive a restart and startup does not pay for a copy. Before the database
+ *   is used, the data directory is locked, so that a second instance of the application cannot open the same database,
+ *   and the database is checked with SQLite's quick_check, so that a damaged database stops startup instead of failing
+ *   checkouts later.<p>
+ *
+ * A database created before request IDs were scoped to the store still declares the rental_agreement table's
+ *   request_id column unique on its own. SQLite cannot drop a column's unique constraint, so the table is rebuilt
+ *   without it before Hibernate starts. Hibernate then adds the (store_id, request_id) unique index.<p>
+ *
+ * Note: This class is not unit tested as it only runs when the application starts through
+ *   {@link org.springframework.boot.SpringApplication SpringApplication}. The unit tests configure the H2 in-memory
+ *   database instead.
  */
 public class DatabaseInitialization implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+    private static final String DATA_DIRECTORY_PROPERTY = "jl0724.data.directory";
+    private static final String DEFAULT_DATA_DIRECTORY = "data";
+    private static final String DATABASE_FILE_NAME = "pointOfSale.sqlite3";
+    private static final String LOCK_FILE_NAME = "pointOfSale.lock";
+    private static final String SEED_DATABASE_RESOURCE =
+            "/io/github/joelluellwitz/jl0724/internal/data/sqlite/pointOfSale.sqlite3";
+    private static final String RENTAL_AGREEMENT_TABLE_NAME = "rental_agreement";
+    // Matches the unique keyword of the request_id column in Hibernate's table definition.
+    private static final Pattern REQUEST_ID_UNIQUE_PATTERN =
+            Pattern.compile("(\\brequest_id\\s+[a-z]+(?:\\(\\d+\\))?)\\s+unique\\b", Pattern.CASE_INSENSITIVE);
+
+    // Note: Held for the life of the JVM. The operating system releases the lock when the process exits, even if it
+    //   crashes, so there is no stale lock to clean up. The channel must stay reachable, because closing it releases
+    //   the lock.
+    private static FileChannel dataDirectoryLockChannel;
+    private static FileLock dataDirectoryLock;
+
     /**
      * {@see DatabaseInitialization}.
      */
     @Override
     public void onApplicationEvent(final ApplicationEnvironmentPreparedEvent event) {
+        final ConfigurableEnvironment environment = event.getEnvironment();
+        final Path dataDirectory = Path.of(environment.getProperty(DATA_DIRECTORY_PROPERTY, DEFAULT_DATA_DIRECTORY))
+                .toAbsolutePath();
+        final Path database = dataDirectory.resolve(DATABASE_FILE_NAME);
         try {
-            final File tempDatabase = File.createTempFile("pointOfSale-", ".sqlite3");
-            tempDatabase.deleteOnExit();
-            final URL sourceDatabase = RetailConsole.class
-                    .getResource("/io/github/joelluellwitz/jl0724/internal/data/sqlite/pointOfSale.sqlite3");
-            Files.copy(sourceDatabase.openStream(), tempDatabase.toPath(), StandardCopyOption.REPLACE_EXISTING);
-
-            final ConfigurableEnvironment environment = event.getEnvironment();
-            final Properties properties = new Properties();
-            properties.put("spring.datasource.url", "jdbc:sqlite:" + tempDatabase.getAbsolutePath());
-            environment.getPropertySources().addFirst(new PropertiesPropertySource("myProps", properties));
-        }
-        catch (final IOException e) {
+            Files.createDirectories(dataDirectory);
+            lockDataDirectory(dataDirectory);
+            if (Files.notExists(database)) {
+                seedDatabase(database);
+            }
+            checkDatabaseIntegrity(database);
+            dropRequestIdUniqueConstraint(database);
+        }
+        catch (final IOException | SQLException exception) {
             // Any failure above should crash the application.
-            throw new RuntimeException("Cannot setup the persistent database.", e);
+            throw new RuntimeException("Cannot setup the persistent database.", exception);
+        }
+
+        final Properties properties = new Properties();
+        properties.put("spring.datasource.url", "jdbc:sqlite:" + database);
+        environment.getPropertySources().addFirst(new PropertiesPropertySource("myProps", properties));
+    }
+
+    /**
+     * Locks the data directory for the life of the JVM.
+     *
+     * @param dataDirectory The data directory.
+     * @throws IOException If the lock file cannot be opened.
+     */
+    private static synchronized void lockDataDirectory(final Path dataDirectory) throws IOException {
+        if (dataDirectoryLock != null) {
+            return;
+        }
+
+        final FileChannel lockChannel = FileChannel.open(dataDirectory.resolve(LOCK_FILE_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        }
+        catch (final OverlappingFileLockException exception) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException(String.format(
+                    "The data directory is in use by another instance of the application. You specified: %s",
+                    dataDirectory));
+        }
+
+        dataDirectoryLockChannel = lockChannel;
+        dataDirectoryLock = lock;
+    }
+
+    /**
+     * Creates the database from the bundled seed database. The copy is written to a temporary file first and moved
+     *   into place, so that a run interrupted mid-copy is seeded again rather than left with a partial database.
+     *
+     * @param database The database to create.
+     * @throws IOException If the seed database cannot be copied.
+     */
+    private static void seedDatabase(final Path database) throws IOException {
+        final Path partialDatabase = database.resolveSibling(DATABASE_FILE_NAME + ".tmp");
+        try (InputStream seedDatabase = RetailConsole.class.getResourceAsStream(SEED_DATABASE_RESOURCE)) {
+            Files.copy(seedDatabase, partialDatabase, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(partialDatabase, database, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Runs SQLite's quick_check against the database. quick_check verifies the structure of every page but skips the
+     *   index to table cross-check done by integrity_check, so it is fast enough to run on every startup.
+     *
+     * @param database The database to check.
+     * @throws SQLException If the database cannot be opened.
+     */
+    private static void checkDatabaseIntegrity(final Path database) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database);
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("PRAGMA quick_check(1)")) {
+            final String result = resultSet.next() ? resultSet.getString(1) : null;
+            if (!"ok".equals(result)) {
+                throw new IllegalStateException(String.format(
+                        "The database failed its integrity check (%s). Restore it from a backup. You specified: %s",
+                        result, database));
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the rental_agreement table without the unique constraint on its request_id column, if the table still
+     *   has it, keeping its rows, indexes and ID sequence. Runs in one transaction, so an interrupted rebuild leaves
+     *   the original table in place.
+     *
+     * @param database The database to migrate.
+     * @throws SQLException If the table cannot be rebuilt.
+     */
+    private static void dropRequestIdUniqueConstraint(final Path database) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database);
+                Statement statement = connection.createStatement()) {
+            final String tableDefinition;
+            try (ResultSet resultSet = statement.executeQuery(String.format(
+                    "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = '%s'",
+                    RENTAL_AGREEMENT_TABLE_NAME))) {
+                if (!resultSet.next()) {
+                    return;
+                }
+                tableDefinition = resultSet.getString(1);
+            }
+            final Matcher matcher = REQUEST_ID_UNIQUE_PATTERN.matcher(tableDefinition);
+            if (!matcher.find()) {
+                return;
+            }
+
+            final String migrationTableName = RENTAL_AGREEMENT_TABLE_NAME + "_migration";
+            final String migrationTableDefinition = matcher.replaceFirst("$1").replaceFirst(
+                    "(?i)^create\\s+table\\s+\"?" + RENTAL_AGREEMENT_TABLE_NAME + "\"?",
+                    "CREATE TABLE " + migrationTableName);
+            final List<String> indexDefinitions = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery(String.format(
+                    "SELECT sql FROM sqlite_master WHERE type = 'index' AND tbl_name = '%s' AND sql IS NOT NULL",
+                    RENTAL_AGREEMENT_TABLE_NAME))) {
+                while (resultSet.next()) {
+                    indexDefinitions.add(resultSet.getString(1));
+                }
+            }
+
+            connection.setAutoCommit(false);
+            try {
+                statement.execute(migrationTableDefinition);
+                statement.execute(String.format("INSERT INTO %s SELECT * FROM %s", migrationTableName,
+                        RENTAL_AGREEMENT_TABLE_NAME));
+                // Note: An AUTOINCREMENT table's sequence is dropped with it, and the copy's sequence only reaches the
+                //   highest remaining ID, so the original sequence is carried over.
+                statement.execute(String.format("UPDATE sqlite_sequence SET seq = "
+                        + "(SELECT MAX(seq) FROM sqlite_sequence WHERE name IN ('%s', '%s')) WHERE name = '%s'",
+                        RENTAL_AGREEMENT_TABLE_NAME, migrationTableName, migrationTableName));
+                statement.execute(String.format("DROP TABLE %s", RENTAL_AGREEMENT_TABLE_NAME));
+                statement.execute(String.format("ALTER TABLE %s RENAME TO %s", migrationTableName,
+                        RENTAL_AGREEMENT_TABLE_NAME));
+                for (final String indexDefinition : indexDefinitions) {
+                    statement.execute(indexDefinition);
+                }
+                connection.commit();
+            }
+            catch (final SQLException exception) {
+                connection.rollback();
+                throw exception;
+            }
+            finally {
+                connection.setAutoCommit(true);
+            }
         }
     }
-}
\ No newline at end of file
+}
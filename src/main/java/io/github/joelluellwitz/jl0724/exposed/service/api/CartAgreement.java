@@ -0,0 +1,29 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.exposed.service.api;
+
+import java.util.List;
+
+/**
+ * Represents the rental agreements of a cart checkout, along with the order level discount and total.
+ */
+public interface CartAgreement {
+    /**
+     * @return The rental agreement of each line, in line order.
+     */
+    List<RentalAgreement> getRentalAgreements();
+
+    /**
+     * Returns the combined agreement as a {@link java.lang.String String}: every line's rental agreement followed by
+     *   the order totals.
+     *
+     * @return A String representation of the cart agreement.
+     */
+    String toString();
+
+    /**
+     * Prints the combined agreement to the console.
+     */
+    void printCartAgreement();
+}
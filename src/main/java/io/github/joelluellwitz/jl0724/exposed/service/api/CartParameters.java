@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.exposed.service.api;
+
+import java.util.List;
+
+/**
+ * Contains the parameters to check out several tools at once. Each line is priced as its own rental agreement, and the
+ *   cart's discount is then applied to the total of the lines.
+ */
+public class CartParameters {
+    private List<ContractParameters> lines;
+    private int discountPercent;
+    private String storeId;
+
+    /**
+     * @return the lines
+     */
+    public List<ContractParameters> getLines() {
+        return lines;
+    }
+    /**
+     * Sets the tools to check out. Each line's own discount applies to that line only. The store ID and request ID of
+     *   the lines must be left null. The cart's store ID applies to every line.
+     *
+     * @param lines the lines to set
+     */
+    public void setLines(final List<ContractParameters> lines) {
+        this.lines = lines;
+    }
+    /**
+     * @return the discountPercent
+     */
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+    /**
+     * Sets the order level discount, applied to the total of the lines after their own discounts.
+     *
+     * @param discountPercent the discountPercent to set
+     */
+    public void setDiscountPercent(final int discountPercent) {
+        this.discountPercent = discountPercent;
+    }
+    /**
+     * @return the storeId
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+    /**
+     * Sets the ID of the store performing the checkout. See
+     *   {@link io.github.joelluellwitz.jl0724.exposed.service.api.ContractParameters#setStoreId setStoreId}.
+     *
+     * @param storeId the storeId to set. May be null.
+     */
+    public void setStoreId(final String storeId) {
+        this.storeId = storeId;
+    }
+}
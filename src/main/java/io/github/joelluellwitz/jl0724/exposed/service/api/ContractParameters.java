@@ -18,6 +18,9 @@ public class ContractParameters {
     private LocalDate checkoutDate;
     private int rentalDayCount;
     private int discountPercent;
+    private String requestId;
+    private String storeId;
+    private String couponCode;
 
     /**
      * @return the toolCode
@@ -69,4 +72,50 @@ public class ContractParameters {
     public void setDiscountPercent(final int discountPercent) {
         this.discountPercent = discountPercent;
     }
+    /**
+     * @return the requestId
+     */
+    public String getRequestId() {
+        return requestId;
+    }
+    /**
+     * Sets an optional, client generated ID that makes checkout idempotent. A retried checkout with the same request
+     *   ID returns the original rental agreement instead of creating another one. Use a new ID (e.g., a UUID) for every
+     *   distinct checkout. Request IDs are scoped to the store, so different stores may use the same request ID.
+     *
+     * @param requestId the requestId to set. May be null.
+     */
+    public void setRequestId(final String requestId) {
+        this.requestId = requestId;
+    }
+    /**
+     * @return the storeId
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+    /**
+     * Sets the ID of the store performing the checkout. Store IDs are 1 to 32 letters, digits, '-', or '_'. Leave
+     *   it null for the default store.
+     *
+     * @param storeId the storeId to set. May be null.
+     */
+    public void setStoreId(final String storeId) {
+        this.storeId = storeId;
+    }
+    /**
+     * @return the couponCode
+     */
+    public String getCouponCode() {
+        return couponCode;
+    }
+    /**
+     * Sets a coupon code presented by the customer. Coupon codes are case insensitive. Checkout fails if none of the
+     *   coupon code's promotions apply to the rental.
+     *
+     * @param couponCode the couponCode to set. May be null, but not blank.
+     */
+    public void setCouponCode(final String couponCode) {
+        this.couponCode = couponCode;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.exposed.service.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The revenue earned from one tool type on one checkout date.
+ */
+public interface DailyRevenue {
+    /**
+     * @return The checkout date.
+     */
+    LocalDate getDate();
+
+    /**
+     * @return The Tool Type.
+     */
+    String getToolType();
+
+    /**
+     * @return The number of rental agreements checked out on the date.
+     */
+    int getRentalAgreementCount();
+
+    /**
+     * @return The total number of chargeable days of those rental agreements.
+     */
+    long getChargeDayCount();
+
+    /**
+     * @return The total discount amount of those rental agreements.
+     */
+    BigDecimal getDiscountAmount();
+
+    /**
+     * @return The total final charge of those rental agreements.
+     */
+    BigDecimal getFinalCharge();
+}
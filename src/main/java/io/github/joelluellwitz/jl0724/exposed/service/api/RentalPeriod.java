@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.exposed.service.api;
+
+import java.time.LocalDate;
+
+/**
+ * The period during which a tool is out on rent under a single rental agreement. A rental period starts on the
+ *   checkout date and ends on the due date, exclusive, since the tool comes back on the due date.
+ */
+public interface RentalPeriod {
+    /**
+     * @return The ID of the rental agreement.
+     */
+    int getRentalAgreementId();
+
+    /**
+     * @return The Tool Code of the rented tool.
+     */
+    String getToolCode();
+
+    /**
+     * @return The checkout date.
+     */
+    LocalDate getCheckoutDate();
+
+    /**
+     * @return The date the tool is due back.
+     */
+    LocalDate getDueDate();
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.exposed.service.api;
+
+import java.math.BigDecimal;
+
+/**
+ * The totals of a repricing run, which recalculates every historical rental agreement using the current tool charges.
+ */
+public interface RepricingSummary {
+    /**
+     * @return The number of rental agreements repriced.
+     */
+    long getRentalAgreementCount();
+
+    /**
+     * @return The number of rental agreements whose final charge would be different today.
+     */
+    long getChangedRentalAgreementCount();
+
+    /**
+     * @return The number of rental agreements that could not be repriced because their tool no longer exists. These
+     *   are listed in the report but excluded from every other count and total.
+     */
+    long getSkippedRentalAgreementCount();
+
+    /**
+     * @return The sum of the final charges recorded at checkout.
+     */
+    BigDecimal getOriginalFinalChargeTotal();
+
+    /**
+     * @return The sum of the final charges using the current tool charges.
+     */
+    BigDecimal getRepricedFinalChargeTotal();
+}
@@ -3,7 +3,10 @@
  */
 package io.github.joelluellwitz.jl0724.exposed.service.api;
 
+import java.io.Writer;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The main exposed interface for the business tier of the Retail Point of Sale application.<p>
@@ -17,15 +20,66 @@ public interface RetailPointOfSale {
      * A {@link java.util.List List} of all tools available for rental sorted by Tool Code.<p>
      *
      * Note: This method is not required by the requirements document. I am including it because it is required to make
-     * the Retail Point of Sale UI a usable console.
+     * the Retail Point of Sale UI a usable console.<p>
+     *
+     * Note: The entire catalog is loaded into memory. Prefer {@link #listTools(String, int)} or {@link #forEachTool}
+     *   for large catalogs.
      *
      * @return A List of {@link io.github.joelluellwitz.jl0724.exposed.service.api.Tool Tools}.
      */
     List<Tool> listTools();
 
+    /**
+     * Returns one page of the tools available for rental sorted by Tool Code. Every page costs the same to retrieve,
+     *   no matter how deep into the catalog it is.
+     *
+     * @param afterToolCode The {@link io.github.joelluellwitz.jl0724.exposed.service.api.ToolPage#getNextPageToolCode
+     *   next page Tool Code} of the previous page, or null for the first page.
+     * @param pageSize The maximum number of tools on the page, between 1 and 1000 (inclusive).
+     * @return A {@link io.github.joelluellwitz.jl0724.exposed.service.api.ToolPage ToolPage}.
+     */
+    ToolPage listTools(String afterToolCode, int pageSize);
+
+    /**
+     * Supplies every tool available for rental, sorted by Tool Code, to the consumer. Tools are read from the database
+     *   incrementally and released once consumed, so memory usage does not grow with the size of the catalog.
+     *
+     * @param toolConsumer Receives each {@link io.github.joelluellwitz.jl0724.exposed.service.api.Tool Tool}. It
+     *   should not retain the tools if flat memory usage is desired.
+     */
+    void forEachTool(Consumer<? super Tool> toolConsumer);
+
+    /**
+     * Returns the list of all tools available for rental, sorted by Tool Code, rendered in the requested format. The
+     *   rendered list is cached and shared by all callers until a tool or tool type changes, so presentation tiers
+     *   should call this method every time they display the list rather than keeping their own copy.
+     *
+     * @param format The desired {@link io.github.joelluellwitz.jl0724.exposed.service.api.ToolListFormat
+     *   ToolListFormat}.
+     * @return The rendered tool list.
+     */
+    String renderToolList(ToolListFormat format);
+
+    /**
+     * Searches the tools available for rental by Tool Code, Tool Type, and brand. Matching is case insensitive and
+     *   tolerates small typos. An exact Tool Code match, if any, is always returned first. The search is served from an
+     *   in-memory index and is intended to be called on every keystroke or every invalid entry.
+     *
+     * @param query The search text, such as a partial or mistyped Tool Code.
+     * @param limit The maximum number of tools to return.
+     * @return The matching {@link io.github.joelluellwitz.jl0724.exposed.service.api.Tool Tools}, best match first.
+     */
+    List<Tool> searchTools(String query, int limit);
+
     /**
      * Checks out a {@link io.github.joelluellwitz.jl0724.exposed.service.api.Tool Tool} to a customer using the
-     *   provided {@link io.github.joelluellwitz.jl0724.exposed.service.api.ContractParameters}.
+     *   provided {@link io.github.joelluellwitz.jl0724.exposed.service.api.ContractParameters}.<p>
+     *
+     * If the contract parameters include a request ID that was already checked out, the original rental agreement is
+     *   returned and nothing new is saved, so a register can safely retry a checkout whose response was lost.<p>
+     *
+     * Each store (identified by the contract parameters' store ID) has its own stock of the catalog's tools, so the
+     *   same tool can be rented at different stores for the same dates.
      *
      * @param contractParameters Represents the user's selections in building a rental contract. Note: I used a transfer
      *   object here instead of supplying multiple arguments to the checkout method. This is because positional
@@ -36,4 +90,88 @@ public interface RetailPointOfSale {
      * @return Represents of the exact terms of the customer's tool rental agreement.
      */
     RentalAgreement checkout(ContractParameters contractParameters);
+
+    /**
+     * Checks out several {@link io.github.joelluellwitz.jl0724.exposed.service.api.Tool Tools} to a customer at once.
+     *   Each line is priced as its own rental agreement, with the lines priced concurrently, and the cart's discount is
+     *   then applied to the total of the lines. The order and the rental agreements of all the lines are saved in one
+     *   transaction, so either every tool is checked out or none is.<p>
+     *
+     * Unlike {@link #checkout(ContractParameters)}, a cart checkout is not idempotent. Its lines must not have request
+     *   IDs.
+     *
+     * @param cartParameters The tools to check out and the order level discount.
+     * @return The rental agreements of the lines and the order totals, as a
+     *   {@link io.github.joelluellwitz.jl0724.exposed.service.api.CartAgreement CartAgreement}.
+     */
+    CartAgreement checkoutCart(CartParameters cartParameters);
+
+    /**
+     * Returns the rentals that are out on the supplied date, meaning the tool was checked out on or before the date and
+     *   is due back after it. Served from an in-memory interval index, so the cost depends on the number of matching
+     *   rentals rather than the number of rental agreements.
+     *
+     * @param date The date.
+     * @return The matching {@link io.github.joelluellwitz.jl0724.exposed.service.api.RentalPeriod RentalPeriods}
+     *   sorted by checkout date.
+     */
+    List<RentalPeriod> listRentalsOutOn(LocalDate date);
+
+    /**
+     * Returns the rentals due back between the supplied dates (e.g., today, or this week). Served from an in-memory
+     *   index.
+     *
+     * @param fromDate The first due date, inclusive.
+     * @param toDate The last due date, inclusive.
+     * @return The matching {@link io.github.joelluellwitz.jl0724.exposed.service.api.RentalPeriod RentalPeriods}
+     *   sorted by due date.
+     */
+    List<RentalPeriod> listRentalsDueBetween(LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Returns the rentals that are overdue on the supplied date and were due back on or after the supplied first due
+     *   date (e.g., overdue rentals due within the last 30 days). Served from an in-memory index.<p>
+     *
+     * Note: Tool returns are not recorded yet, so every rental due back in the range is considered overdue. The index
+     *   holds the whole rental history, so the first due date is required to keep the result bounded.
+     *
+     * @param fromDueDate The first due date, inclusive.
+     * @param date The date, usually today. Rentals due back on or after this date are not overdue.
+     * @return The matching {@link io.github.joelluellwitz.jl0724.exposed.service.api.RentalPeriod RentalPeriods}
+     *   sorted by due date.
+     */
+    List<RentalPeriod> listOverdueRentals(LocalDate fromDueDate, LocalDate date);
+
+    /**
+     * Returns the revenue of the default store by checkout date and tool type. Served from an in-memory copy of a
+     *   summary table that is updated as each checkout commits, so the cost depends on the number of dates rather than
+     *   the number of rental agreements.
+     *
+     * @param fromDate The first checkout date, inclusive.
+     * @param toDate The last checkout date, inclusive.
+     * @return The matching {@link io.github.joelluellwitz.jl0724.exposed.service.api.DailyRevenue DailyRevenues}
+     *   sorted by date and then Tool Type. Dates and tool types without rentals are omitted.
+     */
+    List<DailyRevenue> listDailyRevenue(LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Recomputes the daily revenue summary from every rental agreement of the default store, including archived rental
+     *   agreements. Only needed if the summary was lost or predates some rental agreements. Checkouts wait while the
+     *   summary is rebuilt.
+     *
+     * @return The number of date and tool type combinations in the rebuilt summary.
+     */
+    int rebuildDailyRevenue();
+
+    /**
+     * Recalculates the final charge of every historical rental agreement using the current tool charges and holiday
+     *   rules, and writes a CSV report of the agreements whose final charge would be different today. Nothing is
+     *   saved. Agreements are priced in parallel across all cores.
+     *
+     * @param reportWriter Receives the report, sorted by rental agreement ID. The writer is not closed.
+     * @return The totals of the run as a
+     *   {@link io.github.joelluellwitz.jl0724.exposed.service.api.RepricingSummary RepricingSummary}.
+     * @throws java.io.UncheckedIOException If the report cannot be written.
+     */
+    RepricingSummary repriceRentalAgreements(Writer reportWriter);
 }
@@ -40,4 +40,12 @@ public interface Tool {
      * @return the holidayCharge
      */
     boolean isHolidayCharge();
+    /**
+     * @return the most charged for each 7 rental days, or null if there is no weekly cap
+     */
+    BigDecimal getWeeklyChargeCap();
+    /**
+     * @return the most charged for each 30 rental days, or null if there is no monthly cap
+     */
+    BigDecimal getMonthlyChargeCap();
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.exposed.service.api;
+
+/**
+ * The formats in which the business tier can render the list of tools available for rental.
+ */
+public enum ToolListFormat {
+    /**
+     * A human readable text table intended for display on a console.
+     */
+    TEXT_TABLE,
+    /**
+     * Comma separated values with a header row. Intended for consumption by other programs.
+     */
+    CSV
+}
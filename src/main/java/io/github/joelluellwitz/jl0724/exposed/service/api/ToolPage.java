@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.exposed.service.api;
+
+import java.util.List;
+
+/**
+ * One page of the tools available for rental, sorted by Tool Code. Intended for presentation tiers that display very
+ *   large catalogs a page at a time.
+ */
+public interface ToolPage {
+    /**
+     * @return The tools on this page, sorted by Tool Code.
+     */
+    List<Tool> getTools();
+
+    /**
+     * Returns the Tool Code to supply to
+     *   {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#listTools(String, int)
+     *   RetailPointOfSale#listTools} to retrieve the next page.
+     *
+     * @return The last Tool Code on this page, or null if this is the last page.
+     */
+    String getNextPageToolCode();
+
+    /**
+     * Returns the tools on this page rendered as a human readable text table, in the same format as
+     *   {@link io.github.joelluellwitz.jl0724.exposed.service.api.ToolListFormat#TEXT_TABLE TEXT_TABLE}.
+     *
+     * @return A String representation of the page.
+     */
+    String toString();
+}
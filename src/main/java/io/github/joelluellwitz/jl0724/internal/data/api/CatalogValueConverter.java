@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Canonicalizes catalog value columns as they are read, using
+ *   {@link io.github.joelluellwitz.jl0724.internal.data.api.CatalogValueDictionary CatalogValueDictionary}. Values are
+ *   written unchanged.
+ */
+@Converter
+public class CatalogValueConverter implements AttributeConverter<String, String> {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String convertToDatabaseColumn(final String attribute) {
+        return attribute;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String convertToEntityAttribute(final String dbData) {
+        return CatalogValueDictionary.canonicalize(dbData);
+    }
+}
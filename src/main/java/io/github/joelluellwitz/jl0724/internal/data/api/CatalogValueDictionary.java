@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonicalizes catalog values (Tool Codes, Tool Types, and tool brands) so that every tool and rental agreement read
+ *   from the database, the archive, or the audit journal shares one String instance per distinct value. The catalog
+ *   only has a handful of distinct values, while the rental agreements that copy them number in the millions.<p>
+ *
+ * Note: The dictionary holds at most MAX_SIZE values. Once full, new values are returned as is, so a corrupt or
+ *   unexpected column cannot grow the dictionary without bound. Values are never removed, but the catalog is small and
+ *   a value that leaves the catalog is still referenced by old rental agreements.
+ */
+public final class CatalogValueDictionary {
+    private static final int MAX_SIZE = 10_000;
+    private static final Map<String, String> CANONICAL_VALUES = new ConcurrentHashMap<>();
+
+    /**
+     * Intentionally private. This class only has static methods.
+     */
+    private CatalogValueDictionary() {
+    }
+
+    /**
+     * @param value A catalog value. May be null.
+     * @return The canonical instance equal to the value, or the value itself if it is null, new and the dictionary is
+     *   full.
+     */
+    public static String canonicalize(final String value) {
+        if (value == null) {
+            return null;
+        }
+
+        final String canonicalValue = CANONICAL_VALUES.get(value);
+        if (canonicalValue != null) {
+            return canonicalValue;
+        }
+        if (CANONICAL_VALUES.size() >= MAX_SIZE) {
+            return value;
+        }
+
+        final String existingValue = CANONICAL_VALUES.putIfAbsent(value, value);
+        return existingValue == null ? value : existingValue;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+/**
+ * A cheap fingerprint of the tool catalog (the tool and tool_type tables). Any insert, delete, or versioned update of
+ *   a tool, or versioned update of a tool type that is referenced by a tool, changes at least one of the components.<p>
+ *
+ * Note: Versions only ever increase, so the version sums can never return to a previously observed value without a
+ *   tool also being deleted. Deleting one tool and inserting another always changes the maximum tool ID because
+ *   SQLite's AUTOINCREMENT never reuses IDs.
+ *
+ * @param toolCount The number of tools.
+ * @param maxToolId The largest tool ID, or 0 if there are no tools.
+ * @param toolVersionSum The sum of all tool versions.
+ * @param toolTypeVersionSum The sum of the tool type versions, counted once per tool referencing the tool type.
+ */
+public record CatalogVersion(long toolCount, long maxToolId, long toolVersionSum, long toolTypeVersionSum) {
+    /**
+     * Constructor used by the JPQL constructor expression in
+     *   {@link io.github.joelluellwitz.jl0724.internal.data.api.ToolRepo#getCatalogVersion ToolRepo#getCatalogVersion}.
+     *   <p>
+     *
+     * Note: The Java types of aggregate results differ between databases and between COUNT, MAX, and SUM, so this
+     *   constructor accepts any {@link java.lang.Number Number} rather than guessing.
+     *
+     * @param toolCount The number of tools.
+     * @param maxToolId The largest tool ID, or 0 if there are no tools.
+     * @param toolVersionSum The sum of all tool versions.
+     * @param toolTypeVersionSum The sum of the tool type versions, counted once per tool referencing the tool type.
+     */
+    public CatalogVersion(final Number toolCount, final Number maxToolId, final Number toolVersionSum,
+            final Number toolTypeVersionSum) {
+        this(toolCount.longValue(), maxToolId.longValue(), toolVersionSum.longValue(),
+                toolTypeVersionSum.longValue());
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * The data tier representation of the revenue of one tool type on one checkout date. The daily_revenue table is a
+ *   summary of the default store's rental agreements, including archived rental agreements, kept up to date as each
+ *   checkout commits.
+ */
+@Entity(name = "DailyRevenue")
+@Table(name = "daily_revenue", uniqueConstraints = @UniqueConstraint(columnNames = { "revenue_date", "tool_type" }))
+public class DailyRevenueDto {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, unique = true)
+    private int id;
+    @Column(name = "revenue_date", nullable = false)
+    private LocalDate revenueDate;
+    @Column(name = "tool_type", nullable = false)
+    private String toolType;
+    @Column(name = "rental_agreement_count", nullable = false)
+    private int rentalAgreementCount;
+    @Column(name = "charge_day_count", nullable = false)
+    private long chargeDayCount;
+    @Column(name = "discount_amount", nullable = false)
+    private BigDecimal discountAmount;
+    @Column(name = "final_charge", nullable = false)
+    private BigDecimal finalCharge;
+
+    /**
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+    /**
+     * @return the revenueDate
+     */
+    public LocalDate getRevenueDate() {
+        return revenueDate;
+    }
+    /**
+     * @param revenueDate The checkout date the revenue was earned on.
+     */
+    public void setRevenueDate(final LocalDate revenueDate) {
+        this.revenueDate = revenueDate;
+    }
+    /**
+     * @return the toolType
+     */
+    public String getToolType() {
+        return toolType;
+    }
+    /**
+     * @param toolType The Tool Type of the rented tools.
+     */
+    public void setToolType(final String toolType) {
+        this.toolType = toolType;
+    }
+    /**
+     * @return the rentalAgreementCount
+     */
+    public int getRentalAgreementCount() {
+        return rentalAgreementCount;
+    }
+    /**
+     * @param rentalAgreementCount The number of rental agreements.
+     */
+    public void setRentalAgreementCount(final int rentalAgreementCount) {
+        this.rentalAgreementCount = rentalAgreementCount;
+    }
+    /**
+     * @return the chargeDayCount
+     */
+    public long getChargeDayCount() {
+        return chargeDayCount;
+    }
+    /**
+     * @param chargeDayCount The total number of chargeable days.
+     */
+    public void setChargeDayCount(final long chargeDayCount) {
+        this.chargeDayCount = chargeDayCount;
+    }
+    /**
+     * @return the discountAmount
+     */
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+    /**
+     * @param discountAmount The total discount amount.
+     */
+    public void setDiscountAmount(final BigDecimal discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+    /**
+     * @return the finalCharge
+     */
+    public BigDecimal getFinalCharge() {
+        return finalCharge;
+    }
+    /**
+     * @param finalCharge The total final charge.
+     */
+    public void setFinalCharge(final BigDecimal finalCharge) {
+        this.finalCharge = finalCharge;
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JPA Repository for {@link io.github.joelluellwitz.jl0724.internal.data.api.DailyRevenueDto DailyRevenueDto}.
+ */
+@Repository
+public interface DailyRevenueRepo extends JpaRepository<DailyRevenueDto, Integer> {
+    /**
+     * Returns the revenue of a tool type on a date. This is a lookup on the unique (revenue_date, tool_type) index.
+     *
+     * @param revenueDate The checkout date.
+     * @param toolType The Tool Type.
+     * @return The matching revenue, if any rental agreement has contributed to it.
+     */
+    @Query("SELECT dailyRevenue FROM DailyRevenue dailyRevenue WHERE dailyRevenue.revenueDate = :revenueDate "
+            + "AND dailyRevenue.toolType = :toolType")
+    Optional<DailyRevenueDto> getDailyRevenue(@Param(value = "revenueDate") LocalDate revenueDate,
+            @Param(value = "toolType") String toolType);
+
+    /**
+     * @return Every row of the daily_revenue table, in no particular order.
+     */
+    @Query("SELECT dailyRevenue FROM DailyRevenue dailyRevenue")
+    List<DailyRevenueDto> listDailyRevenue();
+
+    /**
+     * Empties the daily_revenue table.
+     *
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Query("DELETE FROM DailyRevenue dailyRevenue")
+    int deleteDailyRevenue();
+}
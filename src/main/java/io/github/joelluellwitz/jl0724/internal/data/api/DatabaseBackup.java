@@ -0,0 +1,26 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Online backups of the default database. A backup is taken while checkouts continue, and is verified before it is
+ *   kept.
+ */
+public interface DatabaseBackup {
+    /**
+     * Copies the default database to a new backup file, verifies the copy, and then removes the oldest backups beyond
+     *   the retention count.
+     *
+     * @return The new backup file.
+     */
+    Path backUp();
+
+    /**
+     * @return The backup files, oldest first.
+     */
+    List<Path> listBackups();
+}
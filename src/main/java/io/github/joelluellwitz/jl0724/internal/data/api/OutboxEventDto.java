@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The data tier representation of an event waiting in the outbox. An event is saved in the same transaction as the
+ *   change it describes, so it exists if and only if the change committed, and it is deleted once it has been relayed
+ *   to every sink.<p>
+ *
+ * Note: The ID only orders the outbox. SQLite may reuse the ID of a deleted event, so consumers must identify events
+ *   by their content (for example, the store ID and rental agreement ID), never by this ID.
+ */
+@Entity(name = "OutboxEvent")
+@Table(name = "outbox_event")
+public class OutboxEventDto {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, unique = true)
+    private int id;
+    @CreationTimestamp
+    @Column(name = "created_on", nullable = false)
+    private LocalDateTime createdOn;
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+    @Column(name = "store_id")
+    private String storeId;
+    @Column(name = "rental_agreement_id", nullable = false)
+    private int rentalAgreementId;
+    @Column(name = "payload", nullable = false, length = 4000)
+    private String payload;
+
+    /**
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+    /**
+     * @return the createdOn
+     */
+    public LocalDateTime getCreatedOn() {
+        return createdOn;
+    }
+    /**
+     * @return the eventType
+     */
+    public String getEventType() {
+        return eventType;
+    }
+    /**
+     * @param eventType The kind of change the event describes.
+     */
+    public void setEventType(final String eventType) {
+        this.eventType = eventType;
+    }
+    /**
+     * @return the storeId
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+    /**
+     * @param storeId The ID of the store the change happened at, or null for the default store.
+     */
+    public void setStoreId(final String storeId) {
+        this.storeId = storeId;
+    }
+    /**
+     * @return the rentalAgreementId
+     */
+    public int getRentalAgreementId() {
+        return rentalAgreementId;
+    }
+    /**
+     * @param rentalAgreementId The ID of the rental agreement the event describes.
+     */
+    public void setRentalAgreementId(final int rentalAgreementId) {
+        this.rentalAgreementId = rentalAgreementId;
+    }
+    /**
+     * @return the payload
+     */
+    public String getPayload() {
+        return payload;
+    }
+    /**
+     * @param payload The event details, as a JSON object.
+     */
+    public void setPayload(final String payload) {
+        this.payload = payload;
+    }
+}
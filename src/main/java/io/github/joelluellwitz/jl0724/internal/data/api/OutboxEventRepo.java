@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JPA Repository for {@link io.github.joelluellwitz.jl0724.internal.data.api.OutboxEventDto OutboxEventDto}.
+ */
+@Repository
+public interface OutboxEventRepo extends JpaRepository<OutboxEventDto, Integer> {
+    /**
+     * Returns the oldest events in the outbox.
+     *
+     * @param pageable Limits the number of events returned. Only the page size is meaningful. Use page 0.
+     * @return A List of at most 'pageable.getPageSize()' events, sorted by ID.
+     */
+    @Query("SELECT outboxEvent FROM OutboxEvent outboxEvent ORDER BY outboxEvent.id")
+    List<OutboxEventDto> listOldestOutboxEvents(Pageable pageable);
+
+    /**
+     * Deletes relayed events from the outbox.
+     *
+     * @param ids The IDs of the events to delete.
+     * @return The number of events deleted.
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent outboxEvent WHERE outboxEvent.id IN :ids")
+    int deleteOutboxEvents(@Param(value = "ids") Collection<Integer> ids);
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+/**
+ * The data tier representation of a promotion: a discount that applies to checkouts matching all of its conditions.
+ *   A null condition matches every checkout.
+ */
+@Entity(name = "Promotion")
+@Table(name = "promotion")
+public class PromotionDto {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, unique = true)
+    private int id;
+    @Version
+    @Column(name = "version", nullable = false)
+    private int version;
+    @CreationTimestamp
+    @Column(name = "created_on", nullable = false)
+    private LocalDateTime createdOn;
+    @UpdateTimestamp
+    @Column(name = "updated_on", nullable = false)
+    private LocalDateTime updatedOn;
+    @Column(name = "name", nullable = false)
+    private String name;
+    @Column(name = "coupon_code")
+    private String couponCode;
+    @Column(name = "tool_type")
+    private String toolType;
+    @Column(name = "start_date")
+    private LocalDate startDate;
+    @Column(name = "end_date")
+    private LocalDate endDate;
+    @Column(name = "minimum_rental_day_count", nullable = false)
+    private int minimumRentalDayCount;
+    @Column(name = "discount_percent", nullable = false)
+    private int discountPercent;
+
+    /**
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+    /**
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+    /**
+     * @return the createdOn
+     */
+    public LocalDateTime getCreatedOn() {
+        return createdOn;
+    }
+    /**
+     * @return the updatedOn
+     */
+    public LocalDateTime getUpdatedOn() {
+        return updatedOn;
+    }
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+    /**
+     * @return the coupon code the customer must present, or null if the promotion applies without one
+     */
+    public String getCouponCode() {
+        return couponCode;
+    }
+    /**
+     * @return the Tool Type the promotion is limited to, or null for every Tool Type
+     */
+    public String getToolType() {
+        return toolType;
+    }
+    /**
+     * @return the first checkout date of the promotion, or null if it has no start
+     */
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+    /**
+     * @return the last checkout date of the promotion (inclusive), or null if it has no end
+     */
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+    /**
+     * @return the minimum number of rental days
+     */
+    public int getMinimumRentalDayCount() {
+        return minimumRentalDayCount;
+    }
+    /**
+     * @return the discountPercent
+     */
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+}
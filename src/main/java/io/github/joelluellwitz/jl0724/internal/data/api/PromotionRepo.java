@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * JPA Repository for {@link io.github.joelluellwitz.jl0724.internal.data.api.PromotionDto PromotionDto}. Like the tool
+ *   catalog, promotions are maintained directly in the database.
+ */
+@Repository
+public interface PromotionRepo extends org.springframework.data.repository.Repository<PromotionDto, Integer> {
+    /**
+     * Returns every promotion, including expired ones. The results are read-only, so the persistence context does not
+     *   track changes to them.
+     *
+     * @return A List of promotions sorted by ID.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT promotion FROM Promotion promotion ORDER BY promotion.id")
+    List<PromotionDto> listPromotions();
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Long term storage for old rental agreements, partitioned by the month the rental was due. Archived rental agreements
+ *   are moved out of the rental_agreement table, so the table (and every query, index, and backup that touches it) only
+ *   grows with recent business.<p>
+ *
+ * Archived rental agreements keep their IDs and every column. They are read-only once archived.
+ */
+public interface RentalAgreementArchive {
+    /**
+     * @return The months that have archived rental agreements, oldest first.
+     */
+    List<YearMonth> listArchiveMonths();
+
+    /**
+     * Moves rental agreements from the rental_agreement table into a month's archive. The move is atomic: either every
+     *   supplied rental agreement is moved or none are.
+     *
+     * @param archiveMonth The month the rental agreements were due.
+     * @param rentalAgreementIds The IDs of the rental agreements to move. IDs that no longer exist are ignored.
+     * @return The number of rental agreements moved.
+     */
+    int archiveRentalAgreements(YearMonth archiveMonth, Collection<Integer> rentalAgreementIds);
+
+    /**
+     * Streams the rental period of every rental agreement in a month's archive. The Stream must be closed.
+     *
+     * @param archiveMonth An archive month.
+     * @return A Stream of rental periods in no particular order.
+     */
+    Stream<RentalPeriodDto> streamRentalPeriods(YearMonth archiveMonth);
+
+    /**
+     * Streams the pricing inputs and recorded final charge of every rental agreement in a month's archive, sorted by
+     *   ID. The Tool Code is the current code of the referenced tool. The Stream must be closed.
+     *
+     * @param archiveMonth An archive month.
+     * @return A Stream of rental agreement charges.
+     */
+    Stream<RentalAgreementChargeDto> streamRentalAgreementCharges(YearMonth archiveMonth);
+
+    /**
+     * Streams the reportable facts of every rental agreement in a month's archive. The Stream must be closed.
+     *
+     * @param archiveMonth An archive month.
+     * @return A Stream of rental agreement facts in no particular order.
+     */
+    Stream<RentalAgreementFactDto> streamRentalAgreementFacts(YearMonth archiveMonth);
+}
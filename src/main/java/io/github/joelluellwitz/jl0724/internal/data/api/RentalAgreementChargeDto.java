@@ -0,0 +1,28 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A lightweight, read-only projection of the inputs and result of pricing a
+ *   {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto RentalAgreementDto}. Used to reprice
+ *   historical rental agreements without materializing full rental agreement entities.
+ *
+ * @param rentalAgreementId The ID of the rental agreement.
+ * @param toolCode The current Tool Code of the rented tool.
+ * @param checkoutDate The checkout date.
+ * @param rentalDayCount The number of rental days.
+ * @param discountPercent The discount percentage.
+ * @param preDiscountCharge The pre-discount charge that was recorded at checkout.
+ * @param discountAmount The discount amount that was recorded at checkout. For a cart line, it includes the line's
+ *   share of the order discount.
+ * @param finalCharge The final charge that was recorded at checkout.
+ */
+public record RentalAgreementChargeDto(int rentalAgreementId, String toolCode, LocalDate checkoutDate,
+        int rentalDayCount, int discountPercent, BigDecimal preDiscountCharge, BigDecimal discountAmount,
+        BigDecimal finalCharge) {
+
+}
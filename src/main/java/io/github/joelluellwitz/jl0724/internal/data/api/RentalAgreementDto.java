@@ -12,10 +12,12 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -35,7 +37,8 @@ import jakarta.persistence.Version;
  *   but I wanted to demonstrate Hibernate table creation.
  */
 @Entity(name = "RentalAgreement")
-@Table(name = "rental_agreement")
+@Table(name = "rental_agreement", indexes = @Index(name = "rental_agreement_store_id_request_id",
+        columnList = "store_id, request_id", unique = true))
 public class RentalAgreementDto {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -54,10 +57,13 @@ public class RentalAgreementDto {
     @JoinColumn(name = "tool_id", referencedColumnName = "id")
     private ToolDto tool;
     @Column(name = "tool_code", nullable = false)
+    @Convert(converter = CatalogValueConverter.class)
     private String toolCode;
     @Column(name = "tool_type", nullable = false)
+    @Convert(converter = CatalogValueConverter.class)
     private String toolType;
     @Column(name = "tool_brand", nullable = false)
+    @Convert(converter = CatalogValueConverter.class)
     private String toolBrand;
     @Column(name = "daily_charge", nullable = false)
     private BigDecimal dailyCharge;
@@ -77,6 +83,12 @@ public class RentalAgreementDto {
     private BigDecimal discountAmount;
     @Column(name = "final_charge", nullable = false)
     private BigDecimal finalCharge;
+    // Note: Request IDs are only unique within a store, so the unique index covers both columns. An index rather than
+    //   a unique constraint, because Hibernate's SQLite dialect does not create multi-column unique constraints.
+    @Column(name = "request_id")
+    private String requestId;
+    @Column(name = "store_id")
+    private String storeId;
 
     /**
      * @return the id
@@ -266,4 +278,28 @@ public class RentalAgreementDto {
     public void setFinalCharge(final BigDecimal finalCharge) {
         this.finalCharge = finalCharge;
     }
+    /**
+     * @return The client supplied checkout request ID, or null if none was supplied.
+     */
+    public String getRequestId() {
+        return requestId;
+    }
+    /**
+     * @param requestId The client supplied checkout request ID to set. May be null.
+     */
+    public void setRequestId(final String requestId) {
+        this.requestId = requestId;
+    }
+    /**
+     * @return The ID of the store that made the rental, or null for the default store.
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+    /**
+     * @param storeId The ID of the store that made the rental to set, or null for the default store.
+     */
+    public void setStoreId(final String storeId) {
+        this.storeId = storeId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A lightweight, read-only projection of the reportable facts of a
+ *   {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto RentalAgreementDto}, as recorded at
+ *   checkout. Used to export rental agreements for analytics without materializing full rental agreement entities.
+ *
+ * @param rentalAgreementId The ID of the rental agreement.
+ * @param toolCode The Tool Code copied onto the rental agreement.
+ * @param toolType The Tool Type copied onto the rental agreement.
+ * @param toolBrand The tool brand copied onto the rental agreement.
+ * @param checkoutDate The checkout date.
+ * @param rentalDayCount The number of rental days.
+ * @param chargeDayCount The number of charged days.
+ * @param discountPercent The discount percentage.
+ * @param discountAmount The discount amount.
+ * @param finalCharge The final charge.
+ */
+public record RentalAgreementFactDto(int rentalAgreementId, String toolCode, String toolType, String toolBrand,
+        LocalDate checkoutDate, int rentalDayCount, int chargeDayCount, int discountPercent, BigDecimal discountAmount,
+        BigDecimal finalCharge) {
+
+}
@@ -3,9 +3,18 @@
  */
 package io.github.joelluellwitz.jl0724.internal.data.api;
 
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * JPA Repository for {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto RentalAgreementDto}.<p>
  *
@@ -17,5 +26,73 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface RentalAgreementRepo extends JpaRepository<RentalAgreementDto, Integer> {
+    /**
+     * Streams the rental period of every rental agreement. Only the columns needed for availability and due date
+     *   tracking are selected, and the results are not managed entities, so the persistence context does not grow. The
+     *   Stream must be consumed and closed within the calling transaction.
+     *
+     * @return A Stream of rental periods in no particular order.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new io.github.joelluellwitz.jl0724.internal.data.api.RentalPeriodDto(rentalAgreement.id, "
+            + "rentalAgreement.toolCode, rentalAgreement.checkoutDate, rentalAgreement.dueDate, "
+            + "rentalAgreement.storeId) FROM RentalAgreement rentalAgreement")
+    Stream<RentalPeriodDto> streamRentalPeriods();
+
+    /**
+     * Streams the pricing inputs and recorded final charge of every rental agreement, sorted by ID. The Tool Code is
+     *   the current code of the referenced tool, so that repricing uses the tool's current tool type. The Stream must
+     *   be consumed and closed within the calling transaction.
+     *
+     * @return A Stream of rental agreement charges.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementChargeDto("
+            + "rentalAgreement.id, tool.code, rentalAgreement.checkoutDate, rentalAgreement.rentalDayCount, "
+            + "rentalAgreement.discountPercent, rentalAgreement.preDiscountCharge, rentalAgreement.discountAmount, "
+            + "rentalAgreement.finalCharge) "
+            + "FROM RentalAgreement rentalAgreement INNER JOIN rentalAgreement.tool tool ORDER BY rentalAgreement.id")
+    Stream<RentalAgreementChargeDto> streamRentalAgreementCharges();
+
+    /**
+     * Streams the reportable facts of every rental agreement. Only the columns needed for analytics are selected, and
+     *   the results are not managed entities, so the persistence context does not grow. The Stream must be consumed
+     *   and closed within the calling transaction.
+     *
+     * @return A Stream of rental agreement facts in no particular order.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementFactDto(rentalAgreement.id, "
+            + "rentalAgreement.toolCode, rentalAgreement.toolType, rentalAgreement.toolBrand, "
+            + "rentalAgreement.checkoutDate, rentalAgreement.rentalDayCount, rentalAgreement.chargeDayCount, "
+            + "rentalAgreement.discountPercent, rentalAgreement.discountAmount, rentalAgreement.finalCharge) "
+            + "FROM RentalAgreement rentalAgreement")
+    Stream<RentalAgreementFactDto> streamRentalAgreementFacts();
+
+    /**
+     * Streams the reportable facts of every rental agreement of the default store. Otherwise the same as
+     *   {@link #streamRentalAgreementFacts()}.
+     *
+     * @return A Stream of rental agreement facts in no particular order.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementFactDto(rentalAgreement.id, "
+            + "rentalAgreement.toolCode, rentalAgreement.toolType, rentalAgreement.toolBrand, "
+            + "rentalAgreement.checkoutDate, rentalAgreement.rentalDayCount, rentalAgreement.chargeDayCount, "
+            + "rentalAgreement.discountPercent, rentalAgreement.discountAmount, rentalAgreement.finalCharge) "
+            + "FROM RentalAgreement rentalAgreement WHERE rentalAgreement.storeId IS NULL")
+    Stream<RentalAgreementFactDto> streamDefaultStoreRentalAgreementFacts();
 
+    /**
+     * Returns the rental agreement created by a store's checkout with the supplied request ID. This is a lookup on the
+     *   unique (store_id, request_id) index.
+     *
+     * @param storeId The ID of the store that made the checkout, or null for the default store.
+     * @param requestId A client supplied checkout request ID.
+     * @return The matching rental agreement.
+     */
+    @Query("SELECT rentalAgreement FROM RentalAgreement rentalAgreement WHERE rentalAgreement.requestId = :requestId "
+            + "AND (rentalAgreement.storeId = :storeId OR (:storeId IS NULL AND rentalAgreement.storeId IS NULL))")
+    Optional<RentalAgreementDto> findByStoreIdAndRequestId(@Param(value = "storeId") String storeId,
+            @Param(value = "requestId") String requestId);
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+/**
+ * The data tier representation of a cart checkout. Each line of the cart is saved as its own rental agreement in the
+ *   same transaction as the order.<p>
+ *
+ * Note: The lines are recorded by rental agreement ID rather than as a relationship, so that archiving a rental
+ *   agreement does not have to touch its order.
+ */
+@Entity(name = "RentalOrder")
+@Table(name = "rental_order")
+public class RentalOrderDto {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, unique = true)
+    private int id;
+    @Version
+    @Column(name = "version", nullable = false)
+    private int version;
+    @CreationTimestamp
+    @Column(name = "created_on", nullable = false)
+    private LocalDateTime createdOn;
+    @UpdateTimestamp
+    @Column(name = "updated_on", nullable = false)
+    private LocalDateTime updatedOn;
+    @Column(name = "store_id")
+    private String storeId;
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "rental_order_line", joinColumns = @JoinColumn(name = "rental_order_id"))
+    @OrderColumn(name = "line_number")
+    @Column(name = "rental_agreement_id", nullable = false)
+    private List<Integer> rentalAgreementIds;
+    @Column(name = "pre_discount_charge", nullable = false)
+    private BigDecimal preDiscountCharge;
+    @Column(name = "discount_percent", nullable = false)
+    private int discountPercent;
+    @Column(name = "discount_amount", nullable = false)
+    private BigDecimal discountAmount;
+    @Column(name = "final_charge", nullable = false)
+    private BigDecimal finalCharge;
+
+    /**
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+    /**
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+    /**
+     * @return the createdOn
+     */
+    public LocalDateTime getCreatedOn() {
+        return createdOn;
+    }
+    /**
+     * @return the updatedOn
+     */
+    public LocalDateTime getUpdatedOn() {
+        return updatedOn;
+    }
+    /**
+     * @return the storeId
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+    /**
+     * @param storeId The ID of the store that made the rental, or null for the default store.
+     */
+    public void setStoreId(final String storeId) {
+        this.storeId = storeId;
+    }
+    /**
+     * @return the rentalAgreementIds
+     */
+    public List<Integer> getRentalAgreementIds() {
+        return rentalAgreementIds;
+    }
+    /**
+     * @param rentalAgreementIds The IDs of the rental agreements of the lines, in line order.
+     */
+    public void setRentalAgreementIds(final List<Integer> rentalAgreementIds) {
+        this.rentalAgreementIds = rentalAgreementIds;
+    }
+    /**
+     * @return the preDiscountCharge
+     */
+    public BigDecimal getPreDiscountCharge() {
+        return preDiscountCharge;
+    }
+    /**
+     * @param preDiscountCharge The total of the lines' final charges.
+     */
+    public void setPreDiscountCharge(final BigDecimal preDiscountCharge) {
+        this.preDiscountCharge = preDiscountCharge;
+    }
+    /**
+     * @return the discountPercent
+     */
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+    /**
+     * @param discountPercent The order level discount percentage.
+     */
+    public void setDiscountPercent(final int discountPercent) {
+        this.discountPercent = discountPercent;
+    }
+    /**
+     * @return the discountAmount
+     */
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+    /**
+     * @param discountAmount The order level discount amount.
+     */
+    public void setDiscountAmount(final BigDecimal discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+    /**
+     * @return the finalCharge
+     */
+    public BigDecimal getFinalCharge() {
+        return finalCharge;
+    }
+    /**
+     * @param finalCharge The order total after the order level discount.
+     */
+    public void setFinalCharge(final BigDecimal finalCharge) {
+        this.finalCharge = finalCharge;
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JPA Repository for {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalOrderDto RentalOrderDto}.
+ */
+@Repository
+public interface RentalOrderRepo extends JpaRepository<RentalOrderDto, Integer> {
+
+}
@@ -0,0 +1,22 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.time.LocalDate;
+
+/**
+ * A lightweight, read-only projection of the rental period of a
+ *   {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto RentalAgreementDto}. Used to build
+ *   in-memory indexes without materializing full rental agreement entities.
+ *
+ * @param rentalAgreementId The ID of the rental agreement.
+ * @param toolCode The Tool Code copied onto the rental agreement.
+ * @param checkoutDate The checkout date.
+ * @param dueDate The due date.
+ * @param storeId The ID of the store that made the rental, or null for the default store.
+ */
+public record RentalPeriodDto(int rentalAgreementId, String toolCode, LocalDate checkoutDate, LocalDate dueDate,
+        String storeId) {
+
+}
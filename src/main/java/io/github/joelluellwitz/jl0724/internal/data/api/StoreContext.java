@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.util.regex.Pattern;
+
+/**
+ * Holds the ID of the store the current thread is working for. When store partitioning is enabled (see
+ *   {@link io.github.joelluellwitz.jl0724.internal.data.sqlite.StoreRoutingDataSource StoreRoutingDataSource}), the
+ *   store ID selects the database that the thread's next transaction uses. A null store ID is the default store.<p>
+ *
+ * Note: The store ID must be set before the transaction's first statement, because the database connection is chosen
+ *   when the first statement runs and is kept until the transaction ends.
+ */
+public final class StoreContext {
+    private static final Pattern STORE_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+    private static final ThreadLocal<String> STORE_ID = new ThreadLocal<>();
+
+    /**
+     * Intentionally private. This class only has static methods.
+     */
+    private StoreContext() {
+    }
+
+    /**
+     * @return The ID of the store the current thread is working for, or null for the default store.
+     */
+    public static String getStoreId() {
+        return STORE_ID.get();
+    }
+
+    /**
+     * Sets the ID of the store the current thread is working for.
+     *
+     * @param storeId The store ID, or null for the default store.
+     * @throws IllegalArgumentException If the store ID is not valid.
+     */
+    public static void setStoreId(final String storeId) {
+        if (storeId == null) {
+            STORE_ID.remove();
+        }
+        else {
+            if (!isValidStoreId(storeId)) {
+                throw new IllegalArgumentException(String.format("A store ID must be 1 to 32 letters, digits, '-', or "
+                        + "'_'. You specified: %s", storeId));
+            }
+            STORE_ID.set(storeId);
+        }
+    }
+
+    /**
+     * Store IDs are used in database file names, so they are restricted to characters that are safe in file names on
+     *   every platform.
+     *
+     * @param storeId A store ID.
+     * @return True if the store ID is valid.
+     */
+    public static boolean isValidStoreId(final String storeId) {
+        return STORE_ID_PATTERN.matcher(storeId).matches();
+    }
+}
@@ -10,6 +10,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -39,11 +40,13 @@ public class ToolDto {
     @Column(name = "updated_on", nullable = false)
     private LocalDateTime updatedOn;
     @Column(name = "code", nullable = false)
+    @Convert(converter = CatalogValueConverter.class)
     private String code;
     @ManyToOne(cascade = { CascadeType.DETACH, CascadeType.REFRESH })
     @JoinColumn(name = "tool_type_id", referencedColumnName = "id")
     private ToolTypeDto toolType;
     @Column(name = "brand", nullable = false)
+    @Convert(converter = CatalogValueConverter.class)
     private String brand;
 
     /**
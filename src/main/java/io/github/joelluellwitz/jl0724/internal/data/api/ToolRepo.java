@@ -5,11 +5,17 @@ package io.github.joelluellwitz.jl0724.internal.data.api;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * JPA Repository for {@link io.github.joelluellwitz.jl0724.internal.data.api.ToolDto ToolDto}.
  */
@@ -32,4 +38,43 @@ public interface ToolRepo extends org.springframework.data.repository.Repository
      */
     @Query("SELECT tool FROM Tool tool INNER JOIN FETCH tool.toolType toolType ORDER BY tool.code")
     List<ToolDto> listToolsSortedByToolCode();
+
+    /**
+     * Returns one page of tools sorted by Tool Code, starting after the supplied Tool Code. This is keyset (seek)
+     *   pagination, so the database seeks directly into the unique index on tool.code instead of counting past an
+     *   offset, and every page costs the same no matter how deep into the catalog it is.
+     *
+     * @param afterToolCode The last Tool Code of the previous page. Use an empty String for the first page.
+     * @param pageable Limits the number of tools returned. Only the page size is meaningful. Use page 0.
+     * @return A List of at most 'pageable.getPageSize()' data tier tools.
+     */
+    @Query("SELECT tool FROM Tool tool INNER JOIN FETCH tool.toolType toolType WHERE tool.code > :afterToolCode "
+            + "ORDER BY tool.code")
+    List<ToolDto> listToolsSortedByToolCodeAfter(@Param(value = "afterToolCode") String afterToolCode,
+            Pageable pageable);
+
+    /**
+     * Streams all tools sorted by Tool Code. Rows are fetched from the database in batches as the Stream is consumed.
+     *   The Stream must be consumed and closed within the calling transaction.<p>
+     *
+     * Note: Streamed entities still accumulate in the persistence context. Callers that want flat memory usage must
+     *   detach each tool once they are done with it.
+     *
+     * @return A Stream of data tier tools.
+     */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT tool FROM Tool tool INNER JOIN FETCH tool.toolType toolType ORDER BY tool.code")
+    Stream<ToolDto> streamToolsSortedByToolCode();
+
+    /**
+     * Returns a fingerprint of the tool catalog that changes whenever a tool or tool type changes. This is a single
+     *   aggregate query, so it is much cheaper than loading the catalog to see if it changed.
+     *
+     * @return The current catalog version.
+     */
+    @Query("SELECT new io.github.joelluellwitz.jl0724.internal.data.api.CatalogVersion(COUNT(tool), "
+            + "COALESCE(MAX(tool.id), 0), COALESCE(SUM(tool.version), 0), COALESCE(SUM(toolType.version), 0)) "
+            + "FROM Tool tool INNER JOIN tool.toolType toolType")
+    CatalogVersion getCatalogVersion();
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -37,6 +38,7 @@ public class ToolTypeDto {
     @Column(name = "updated_on", nullable = false)
     private LocalDateTime updatedOn;
     @Column(name = "name", nullable = false)
+    @Convert(converter = CatalogValueConverter.class)
     private String name;
     @Column(name = "daily_charge", nullable = false)
     private BigDecimal dailyCharge;
@@ -46,6 +48,10 @@ public class ToolTypeDto {
     private boolean weekendCharge;
     @Column(name = "holiday_charge", nullable = false)
     private boolean holidayCharge;
+    @Column(name = "weekly_charge_cap")
+    private BigDecimal weeklyChargeCap;
+    @Column(name = "monthly_charge_cap")
+    private BigDecimal monthlyChargeCap;
 
     /**
      * @return the id
@@ -101,4 +107,16 @@ public class ToolTypeDto {
     public boolean getHolidayCharge() {
         return holidayCharge;
     }
+    /**
+     * @return the most charged for each 7 rental days, or null if there is no weekly cap
+     */
+    public BigDecimal getWeeklyChargeCap() {
+        return weeklyChargeCap;
+    }
+    /**
+     * @return the most charged for each 30 rental days, or null if there is no monthly cap
+     */
+    public BigDecimal getMonthlyChargeCap() {
+        return monthlyChargeCap;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+
+/**
+ * The data tier representation of a scheduled price of a tool type. The price applies to checkouts on or after its
+ *   effective date, until the tool type's next scheduled price. Checkouts before a tool type's first scheduled price
+ *   use the charges on the tool type itself.
+ */
+@Entity(name = "ToolTypePrice")
+@Table(name = "tool_type_price",
+        uniqueConstraints = @UniqueConstraint(columnNames = { "tool_type_id", "effective_date" }))
+public class ToolTypePriceDto {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, unique = true)
+    private int id;
+    @Version
+    @Column(name = "version", nullable = false)
+    private int version;
+    @CreationTimestamp
+    @Column(name = "created_on", nullable = false)
+    private LocalDateTime createdOn;
+    @UpdateTimestamp
+    @Column(name = "updated_on", nullable = false)
+    private LocalDateTime updatedOn;
+    @ManyToOne(cascade = { CascadeType.DETACH, CascadeType.REFRESH })
+    @JoinColumn(name = "tool_type_id", referencedColumnName = "id", nullable = false)
+    private ToolTypeDto toolType;
+    @Column(name = "effective_date", nullable = false)
+    private LocalDate effectiveDate;
+    @Column(name = "daily_charge", nullable = false)
+    private BigDecimal dailyCharge;
+    @Column(name = "weekday_charge", nullable = false)
+    private boolean weekdayCharge;
+    @Column(name = "weekend_charge", nullable = false)
+    private boolean weekendCharge;
+    @Column(name = "holiday_charge", nullable = false)
+    private boolean holidayCharge;
+
+    /**
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+    /**
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+    /**
+     * @return the createdOn
+     */
+    public LocalDateTime getCreatedOn() {
+        return createdOn;
+    }
+    /**
+     * @return the updatedOn
+     */
+    public LocalDateTime getUpdatedOn() {
+        return updatedOn;
+    }
+    /**
+     * @return the toolType
+     */
+    public ToolTypeDto getToolType() {
+        return toolType;
+    }
+    /**
+     * @return the first checkout date the price applies to
+     */
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+    /**
+     * @return the dailyCharge
+     */
+    public BigDecimal getDailyCharge() {
+        return dailyCharge;
+    }
+    /**
+     * @return true if there should be a charge for renting the tool during the weekday. false otherwise.
+     */
+    public boolean getWeekdayCharge() {
+        return weekdayCharge;
+    }
+    /**
+     * @return true if there should be a charge for renting the tool during the weekend. false otherwise.
+     */
+    public boolean getWeekendCharge() {
+        return weekendCharge;
+    }
+    /**
+     * @return true if there should be a charge for renting the tool during a holiday. false otherwise.
+     */
+    public boolean getHolidayCharge() {
+        return holidayCharge;
+    }
+}
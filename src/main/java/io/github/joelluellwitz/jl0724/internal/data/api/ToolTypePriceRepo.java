@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * JPA Repository for {@link io.github.joelluellwitz.jl0724.internal.data.api.ToolTypePriceDto ToolTypePriceDto}.
+ *   Like the rest of the tool catalog, price schedules are maintained directly in the database.
+ */
+@Repository
+public interface ToolTypePriceRepo extends org.springframework.data.repository.Repository<ToolTypePriceDto, Integer> {
+    /**
+     * Returns every scheduled price of every tool type. The results are read-only, so the persistence context does not
+     *   track changes to them.
+     *
+     * @return A List of scheduled prices sorted by tool type ID and then effective date.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT toolTypePrice FROM ToolTypePrice toolTypePrice INNER JOIN FETCH toolTypePrice.toolType toolType "
+            + "ORDER BY toolType.id, toolTypePrice.effectiveDate")
+    List<ToolTypePriceDto> listToolTypePrices();
+}
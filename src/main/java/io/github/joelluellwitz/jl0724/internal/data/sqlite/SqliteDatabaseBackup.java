@@ -0,0 +1,303 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.sqlite;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.stereotype.Repository;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.core.DB;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.DatabaseBackup;
+
+/**
+ * A {@link io.github.joelluellwitz.jl0724.internal.data.api.DatabaseBackup DatabaseBackup} that uses SQLite's online
+ *   backup API to copy the default database to 'pointOfSale-&lt;UTC timestamp&gt;.sqlite3' in the
+ *   'jl0724.backup.directory' directory. Enabled by setting that property. It can also be run on demand, from another
+ *   process, with {@link #main(String[])}.<p>
+ *
+ * The backup copies 'jl0724.backup.pages-per-step' pages (100 by default) at a time, and pauses
+ *   'jl0724.backup.step-pause-millis' milliseconds (10 by default) between steps. The database is only read locked
+ *   while a step runs, so a checkout waits for at most one step, and the pauses keep the backup from saturating the
+ *   disk. The copy is written to a temporary file, checked with SQLite's integrity_check, and only then moved into
+ *   place, so every backup in the directory is complete and sound. The newest 'jl0724.backup.retain-count' backups (7
+ *   by default) are kept.<p>
+ *
+ * Note: SQLite restarts a backup from the first page when another connection writes to the database between steps.
+ *   After MAX_THROTTLED_RESTARTS restarts, the backup stops pausing between steps, so that it finishes even while
+ *   checkouts keep writing.
+ */
+@Repository
+@ConditionalOnProperty(name = "jl0724.backup.directory")
+public class SqliteDatabaseBackup implements DatabaseBackup {
+    private static final int MAX_THROTTLED_RESTARTS = 3;
+    private static final int BUSY_RETRY_MILLIS = 10;
+    private static final int BUSY_RETRY_COUNT = 3000;
+    private static final String BACKUP_FILE_PREFIX = "pointOfSale-";
+    private static final String BACKUP_FILE_SUFFIX = ".sqlite3";
+    private static final Pattern BACKUP_FILE_PATTERN = Pattern.compile(
+            Pattern.quote(BACKUP_FILE_PREFIX) + "\\d{8}T\\d{9}Z" + Pattern.quote(BACKUP_FILE_SUFFIX));
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER =
+            DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmssSSS'Z'").withZone(ZoneOffset.UTC);
+
+    private static Logger LOGGER = LoggerFactory.getLogger(SqliteDatabaseBackup.class);
+
+    private final Path databasePath;
+    private final Path directory;
+    private final int pagesPerStep;
+    private final long stepPauseMillis;
+    private final int retainCount;
+    private final Clock clock;
+
+    /**
+     * Constructor. Creates the backup directory if it does not exist.
+     *
+     * @param jdbcUrl The JDBC URL of the default database. It must be a SQLite database file.
+     * @param dataDirectory The data directory.
+     * @param directory The directory holding the backup files. A relative directory is resolved against the data
+     *   directory.
+     * @param pagesPerStep The number of pages copied at a time.
+     * @param stepPauseMillis The pause between steps, in milliseconds.
+     * @param retainCount The number of backups to keep.
+     */
+    // Intentionally package private.
+    SqliteDatabaseBackup(@Value("${spring.datasource.url}") final String jdbcUrl,
+            @Value("${jl0724.data.directory:data}") final String dataDirectory,
+            @Value("${jl0724.backup.directory}") final String directory,
+            @Value("${jl0724.backup.pages-per-step:100}") final int pagesPerStep,
+            @Value("${jl0724.backup.step-pause-millis:10}") final long stepPauseMillis,
+            @Value("${jl0724.backup.retain-count:7}") final int retainCount) {
+        this(StoreRoutingDataSource.getDatabasePath(jdbcUrl),
+                Path.of(dataDirectory).resolve(directory).toAbsolutePath(), pagesPerStep, stepPauseMillis,
+                retainCount, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor. Creates the backup directory if it does not exist.
+     *
+     * @param databasePath The default database file.
+     * @param directory The directory holding the backup files.
+     * @param pagesPerStep The number of pages copied at a time.
+     * @param stepPauseMillis The pause between steps, in milliseconds.
+     * @param retainCount The number of backups to keep.
+     * @param clock Used to name the backup files.
+     */
+    // Intentionally package private.
+    SqliteDatabaseBackup(final Path databasePath, final Path directory, final int pagesPerStep,
+            final long stepPauseMillis, final int retainCount, final Clock clock) {
+        if (pagesPerStep < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The backup pages per step must be greater than 0. You specified: %d", pagesPerStep));
+        }
+        if (stepPauseMillis < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "The backup step pause must not be negative. You specified: %d", stepPauseMillis));
+        }
+        if (retainCount < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The backup retain count must be greater than 0. You specified: %d", retainCount));
+        }
+
+        this.databasePath = databasePath;
+        this.directory = directory;
+        this.pagesPerStep = pagesPerStep;
+        this.stepPauseMillis = stepPauseMillis;
+        this.retainCount = retainCount;
+        this.clock = clock;
+
+        try {
+            Files.createDirectories(directory);
+        }
+        catch (final IOException exception) {
+            throw new UncheckedIOException(
+                    String.format("Failed to create the database backup directory '%s'.", directory), exception);
+        }
+    }
+
+    /**
+     * Backs up a database on demand, with the default pacing and retention. The database may be in use by a running
+     *   instance of the application.
+     *
+     * @param args The path of the database and the path of the backup directory.
+     */
+    public static void main(final String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: SqliteDatabaseBackup <database> <backup directory>");
+            return;
+        }
+
+        final Path backupPath = new SqliteDatabaseBackup(Path.of(args[0]).toAbsolutePath(),
+                Path.of(args[1]).toAbsolutePath(), 100, 10, 7, Clock.systemUTC()).backUp();
+        System.out.println(backupPath);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Path backUp() {
+        final Path backupPath = directory.resolve(BACKUP_FILE_PREFIX + TIMESTAMP_FORMATTER.format(clock.instant())
+                + BACKUP_FILE_SUFFIX);
+        final Path partialBackupPath = backupPath.resolveSibling(backupPath.getFileName() + ".tmp");
+        try {
+            try {
+                copyDatabase(partialBackupPath);
+                verifyBackup(partialBackupPath);
+            }
+            catch (final SQLException exception) {
+                throw new UncategorizedSQLException("Failed to back up the database.", null, exception);
+            }
+            Files.move(partialBackupPath, backupPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final IOException exception) {
+            throw new UncheckedIOException(
+                    String.format("Failed to move the database backup into place '%s'.", backupPath), exception);
+        }
+        finally {
+            deleteQuietly(partialBackupPath);
+        }
+
+        removeOldBackups();
+        LOGGER.debug("Backed up the database to '{}'.", backupPath);
+        return backupPath;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Path> listBackups() {
+        try (Stream<Path> paths = Files.list(directory)) {
+            // Note: The timestamp is fixed width, so name order is time order.
+            return paths.filter(path -> BACKUP_FILE_PATTERN.matcher(path.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+        catch (final IOException exception) {
+            throw new UncheckedIOException(
+                    String.format("Failed to list the database backup directory '%s'.", directory), exception);
+        }
+    }
+
+    /**
+     * Copies the database with the online backup API, pausing between steps.
+     *
+     * @param partialBackupPath The file to copy the database to.
+     * @throws SQLException If the database cannot be copied.
+     */
+    private void copyDatabase(final Path partialBackupPath) throws SQLException {
+        final BackupPacer backupPacer = new BackupPacer();
+        try (Connection connection = DriverManager.getConnection(
+                StoreRoutingDataSource.SQLITE_URL_PREFIX + "file:" + databasePath + "?mode=ro")) {
+            final DB database = connection.unwrap(SQLiteConnection.class).getDatabase();
+            final int resultCode = database.backup("main", partialBackupPath.toString(), backupPacer,
+                    BUSY_RETRY_MILLIS, BUSY_RETRY_COUNT, pagesPerStep);
+            if (resultCode != SQLiteErrorCode.SQLITE_OK.code) {
+                throw new SQLException(String.format("The backup failed with SQLite result code %d.", resultCode));
+            }
+        }
+
+        LOGGER.debug("Copied the database in {} steps with {} restarts.", backupPacer.stepCount,
+                backupPacer.restartCount);
+    }
+
+    /**
+     * Runs SQLite's integrity_check against a backup. The backup is not in use, so the full check does not slow
+     *   checkouts.
+     *
+     * @param partialBackupPath The backup to check.
+     * @throws SQLException If the backup cannot be opened.
+     */
+    private static void verifyBackup(final Path partialBackupPath) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                StoreRoutingDataSource.SQLITE_URL_PREFIX + "file:" + partialBackupPath + "?mode=ro");
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("PRAGMA integrity_check(1)")) {
+            final String result = resultSet.next() ? resultSet.getString(1) : null;
+            if (!"ok".equals(result)) {
+                throw new SQLException(String.format("The backup failed its integrity check: %s", result));
+            }
+        }
+    }
+
+    /**
+     * Deletes the oldest backups beyond the retention count.
+     */
+    private void removeOldBackups() {
+        final List<Path> backupPaths = listBackups();
+        for (final Path backupPath : backupPaths.subList(0, Math.max(0, backupPaths.size() - retainCount))) {
+            deleteQuietly(backupPath);
+        }
+    }
+
+    /**
+     * Deletes a file if it exists, logging rather than throwing any failure.
+     *
+     * @param path The file to delete.
+     */
+    private static void deleteQuietly(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        }
+        catch (final IOException exception) {
+            LOGGER.warn("Failed to delete '{}'.", path, exception);
+        }
+    }
+
+    /**
+     * Pauses the backup between steps and counts restarts. SQLite calls it after every step.
+     */
+    private class BackupPacer implements DB.ProgressObserver {
+        private int stepCount;
+        private int restartCount;
+        private int previousRemainingPageCount = Integer.MAX_VALUE;
+        private boolean interrupted;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void progress(final int remainingPageCount, final int pageCount) {
+            stepCount++;
+            // Note: A restart shows up as more pages remaining than after the previous step.
+            if (remainingPageCount > previousRemainingPageCount) {
+                restartCount++;
+            }
+            previousRemainingPageCount = remainingPageCount;
+
+            if (remainingPageCount == 0 || restartCount >= MAX_THROTTLED_RESTARTS || interrupted) {
+                return;
+            }
+            try {
+                Thread.sleep(stepPauseMillis);
+            }
+            catch (final InterruptedException exception) {
+                // Note: The backup cannot be cancelled from here. Finish it without pauses and restore the flag.
+                interrupted = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,401 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.sqlite;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Repository;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.CatalogValueDictionary;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementArchive;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementChargeDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementFactDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalPeriodDto;
+
+/**
+ * A {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementArchive RentalAgreementArchive} that keeps
+ *   each month in its own SQLite database file, 'rental-agreements-&lt;yyyy-MM&gt;.sqlite3', in the
+ *   'jl0724.archive.directory' directory. Enabled by setting that property.<p>
+ *
+ * Rental agreements are moved with a single connection to the default database that attaches the month's archive
+ *   file, so the copy into the archive and the delete from the rental_agreement table commit (or roll back) together.
+ *   An archive file is read through its own read-only connection, which attaches the default database read-only to
+ *   look up current Tool Codes.<p>
+ *
+ * Note: An archive's rental_agreement table is created from the default database's own table definition. When
+ *   Hibernate later adds a column to the rental_agreement table, the column is added to an archive before anything
+ *   more is moved into it, and archived rows are left with NULL in that column.<p>
+ *
+ * Note: The table definition references the tool table, which only exists in the default database. SQLite does not
+ *   enforce foreign keys unless they are enabled on the connection, and the archive is only ever written by this class.
+ */
+@Repository
+@ConditionalOnProperty(name = "jl0724.archive.directory")
+public class SqliteRentalAgreementArchive implements RentalAgreementArchive {
+    private static final String ARCHIVE_SCHEMA_NAME = "archive";
+    private static final String CATALOG_SCHEMA_NAME = "catalog";
+    private static final String TABLE_NAME = "rental_agreement";
+    private static final String ARCHIVE_FILE_PREFIX = "rental-agreements-";
+    private static final String ARCHIVE_FILE_SUFFIX = ".sqlite3";
+    private static final Pattern ARCHIVE_FILE_PATTERN = Pattern.compile(
+            Pattern.quote(ARCHIVE_FILE_PREFIX) + "(\\d{4}-\\d{2})" + Pattern.quote(ARCHIVE_FILE_SUFFIX));
+    private static final Pattern CREATE_TABLE_PATTERN = Pattern.compile(
+            "\\s*CREATE\\s+TABLE\\s+(\"?)" + TABLE_NAME + "\\1", Pattern.CASE_INSENSITIVE);
+
+    private static Logger LOGGER = LoggerFactory.getLogger(SqliteRentalAgreementArchive.class);
+
+    private final DataSource dataSource;
+    private final Path databasePath;
+    private final Path directory;
+
+    /**
+     * Constructor. Creates the archive directory if it does not exist.
+     *
+     * @param dataSource The DataSource of the default database.
+     * @param jdbcUrl The JDBC URL of the default database. It must be a SQLite database file.
+     * @param dataDirectory The data directory.
+     * @param directory The directory holding the archive files. A relative directory is resolved against the data
+     *   directory.
+     */
+    // Intentionally package private.
+    SqliteRentalAgreementArchive(final DataSource dataSource, @Value("${spring.datasource.url}") final String jdbcUrl,
+            @Value("${jl0724.data.directory:data}") final String dataDirectory,
+            @Value("${jl0724.archive.directory}") final String directory) {
+        this.dataSource = dataSource;
+        databasePath = StoreRoutingDataSource.getDatabasePath(jdbcUrl);
+        this.directory = Path.of(dataDirectory).resolve(directory).toAbsolutePath();
+
+        try {
+            Files.createDirectories(this.directory);
+        }
+        catch (final IOException exception) {
+            throw new UncheckedIOException(
+                    String.format("Failed to create the rental agreement archive directory '%s'.", this.directory),
+                    exception);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<YearMonth> listArchiveMonths() {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> ARCHIVE_FILE_PATTERN.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> YearMonth.parse(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+        catch (final IOException exception) {
+            throw new UncheckedIOException(
+                    String.format("Failed to list the rental agreement archive directory '%s'.", directory), exception);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int archiveRentalAgreements(final YearMonth archiveMonth, final Collection<Integer> rentalAgreementIds) {
+        if (rentalAgreementIds.isEmpty()) {
+            return 0;
+        }
+
+        final Path archivePath = getArchivePath(archiveMonth);
+        try (Connection connection = dataSource.getConnection()) {
+            // Note: SQLite cannot attach a database within a transaction, so this happens before the move begins.
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(String.format("ATTACH DATABASE '%s' AS %s", escape(archivePath),
+                        ARCHIVE_SCHEMA_NAME));
+            }
+            try {
+                final int movedCount = moveRentalAgreements(connection, rentalAgreementIds);
+                LOGGER.debug("Archived {} rental agreements to {}.", movedCount, archivePath);
+                return movedCount;
+            }
+            finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("DETACH DATABASE " + ARCHIVE_SCHEMA_NAME);
+                }
+            }
+        }
+        catch (final SQLException exception) {
+            throw new UncategorizedSQLException(
+                    String.format("Archiving rental agreements to %s", archivePath), null, exception);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<RentalPeriodDto> streamRentalPeriods(final YearMonth archiveMonth) {
+        return query(archiveMonth, "SELECT id, tool_code, checkout_date, due_date, store_id FROM main." + TABLE_NAME,
+                (resultSet, rowNumber) -> new RentalPeriodDto(resultSet.getInt(1),
+                        CatalogValueDictionary.canonicalize(resultSet.getString(2)), resultSet.getDate(3).toLocalDate(),
+                        resultSet.getDate(4).toLocalDate(), resultSet.getString(5)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<RentalAgreementChargeDto> streamRentalAgreementCharges(final YearMonth archiveMonth) {
+        return query(archiveMonth, String.format("SELECT rentalAgreement.id, tool.code, rentalAgreement.checkout_date, "
+                + "rentalAgreement.rental_day_count, rentalAgreement.discount_percent, "
+                + "rentalAgreement.pre_discount_charge, rentalAgreement.discount_amount, rentalAgreement.final_charge "
+                + "FROM main.%s rentalAgreement INNER JOIN %s.tool tool ON tool.id = rentalAgreement.tool_id "
+                + "ORDER BY rentalAgreement.id", TABLE_NAME, CATALOG_SCHEMA_NAME),
+                (resultSet, rowNumber) -> new RentalAgreementChargeDto(resultSet.getInt(1),
+                        CatalogValueDictionary.canonicalize(resultSet.getString(2)), resultSet.getDate(3).toLocalDate(),
+                        resultSet.getInt(4), resultSet.getInt(5), resultSet.getBigDecimal(6),
+                        resultSet.getBigDecimal(7), resultSet.getBigDecimal(8)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<RentalAgreementFactDto> streamRentalAgreementFacts(final YearMonth archiveMonth) {
+        return query(archiveMonth, "SELECT id, tool_code, tool_type, tool_brand, checkout_date, rental_day_count, "
+                + "charge_day_count, discount_percent, discount_amount, final_charge FROM main." + TABLE_NAME,
+                (resultSet, rowNumber) -> new RentalAgreementFactDto(resultSet.getInt(1),
+                        CatalogValueDictionary.canonicalize(resultSet.getString(2)),
+                        CatalogValueDictionary.canonicalize(resultSet.getString(3)),
+                        CatalogValueDictionary.canonicalize(resultSet.getString(4)), resultSet.getDate(5).toLocalDate(),
+                        resultSet.getInt(6), resultSet.getInt(7), resultSet.getInt(8), resultSet.getBigDecimal(9),
+                        resultSet.getBigDecimal(10)));
+    }
+
+    /**
+     * Copies rental agreements into the attached archive and deletes them from the rental_agreement table in a single
+     *   transaction.
+     *
+     * @param connection A connection to the default database with the archive attached.
+     * @param rentalAgreementIds The IDs of the rental agreements to move.
+     * @return The number of rental agreements moved.
+     * @throws SQLException If the rental agreements cannot be moved. Nothing is moved in that case.
+     */
+    private static int moveRentalAgreements(final Connection connection, final Collection<Integer> rentalAgreementIds)
+            throws SQLException {
+        final String columnList = String.join(", ", prepareArchiveTable(connection));
+
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            // Note: Joining on a temporary table of IDs avoids SQLite's limit on the number of bound parameters.
+            statement.execute("CREATE TEMP TABLE IF NOT EXISTS archived_rental_agreement_id (id INTEGER PRIMARY KEY)");
+            statement.execute("DELETE FROM temp.archived_rental_agreement_id");
+            try (PreparedStatement preparedStatement = connection.prepareStatement(
+                    "INSERT OR IGNORE INTO temp.archived_rental_agreement_id (id) VALUES (?)")) {
+                for (final Integer rentalAgreementId : rentalAgreementIds) {
+                    preparedStatement.setInt(1, rentalAgreementId);
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+            }
+
+            final int copiedCount = statement.executeUpdate(String.format("INSERT INTO %s.%s (%s) SELECT %s "
+                    + "FROM main.%s WHERE id IN (SELECT id FROM temp.archived_rental_agreement_id)",
+                    ARCHIVE_SCHEMA_NAME, TABLE_NAME, columnList, columnList, TABLE_NAME));
+            final int deletedCount = statement.executeUpdate(String.format("DELETE FROM main.%s "
+                    + "WHERE id IN (SELECT id FROM temp.archived_rental_agreement_id)", TABLE_NAME));
+            if (copiedCount != deletedCount) {
+                throw new IllegalStateException(String.format(
+                        "Copied %d rental agreements to the archive but deleted %d.", copiedCount, deletedCount));
+            }
+            statement.execute("DELETE FROM temp.archived_rental_agreement_id");
+
+            connection.commit();
+            return deletedCount;
+        }
+        catch (final SQLException | RuntimeException exception) {
+            connection.rollback();
+            throw exception;
+        }
+        finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Creates the rental agreement table in the attached archive if it does not exist yet, or adds any columns the
+     *   rental_agreement table gained since the archive was created.
+     *
+     * @param connection A connection to the default database with the archive attached.
+     * @return The quoted names of the rental_agreement table's columns.
+     * @throws SQLException If the archive table cannot be created or altered.
+     */
+    private static List<String> prepareArchiveTable(final Connection connection) throws SQLException {
+        final Map<String, String> columnTypes = listColumnTypes(connection, "main");
+        final Map<String, String> archiveColumnTypes = listColumnTypes(connection, ARCHIVE_SCHEMA_NAME);
+
+        try (Statement statement = connection.createStatement()) {
+            if (archiveColumnTypes.isEmpty()) {
+                final String tableDefinition;
+                try (ResultSet resultSet = statement.executeQuery(String.format(
+                        "SELECT sql FROM main.sqlite_master WHERE type = 'table' AND name = '%s'", TABLE_NAME))) {
+                    if (!resultSet.next()) {
+                        throw new IllegalStateException(String.format(
+                                "The default database has no %s table to archive.", TABLE_NAME));
+                    }
+                    tableDefinition = resultSet.getString(1);
+                }
+
+                final Matcher matcher = CREATE_TABLE_PATTERN.matcher(tableDefinition);
+                if (!matcher.lookingAt()) {
+                    throw new IllegalStateException(String.format(
+                            "Unrecognized %s table definition: %s", TABLE_NAME, tableDefinition));
+                }
+                statement.execute(String.format("CREATE TABLE %s.%s%s", ARCHIVE_SCHEMA_NAME, TABLE_NAME,
+                        tableDefinition.substring(matcher.end())));
+            }
+            else {
+                for (final Map.Entry<String, String> columnType : columnTypes.entrySet()) {
+                    if (!archiveColumnTypes.containsKey(columnType.getKey())) {
+                        statement.execute(String.format("ALTER TABLE %s.%s ADD COLUMN %s %s", ARCHIVE_SCHEMA_NAME,
+                                TABLE_NAME, quote(columnType.getKey()), columnType.getValue()));
+                    }
+                }
+            }
+        }
+
+        final List<String> quotedColumnNames = new ArrayList<>(columnTypes.size());
+        for (final String columnName : columnTypes.keySet()) {
+            quotedColumnNames.add(quote(columnName));
+        }
+        return quotedColumnNames;
+    }
+
+    /**
+     * @param connection A connection to the default database with the archive attached.
+     * @param schemaName The schema holding the rental agreement table.
+     * @return The declared type of every column keyed by column name, in column order. Empty if the table does not
+     *   exist.
+     * @throws SQLException If the table information cannot be read.
+     */
+    private static Map<String, String> listColumnTypes(final Connection connection, final String schemaName)
+            throws SQLException {
+        final Map<String, String> columnTypes = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(
+                        String.format("PRAGMA %s.table_info(%s)", schemaName, TABLE_NAME))) {
+            while (resultSet.next()) {
+                columnTypes.put(resultSet.getString("name"), resultSet.getString("type"));
+            }
+        }
+        return columnTypes;
+    }
+
+    /**
+     * Runs a query against a month's archive. The archive is opened read-only and the default database is attached
+     *   read-only as 'catalog'.
+     *
+     * @param <T> The row type.
+     * @param archiveMonth An archive month.
+     * @param sql The query.
+     * @param rowMapper Maps each row.
+     * @return A Stream of the mapped rows. Closing it closes the connection.
+     */
+    private <T> Stream<T> query(final YearMonth archiveMonth, final String sql, final RowMapper<T> rowMapper) {
+        final Path archivePath = getArchivePath(archiveMonth);
+        Connection connection = null;
+        Statement statement = null;
+        try {
+            connection = DriverManager.getConnection(
+                    StoreRoutingDataSource.SQLITE_URL_PREFIX + "file:" + archivePath + "?mode=ro");
+            statement = connection.createStatement();
+            statement.execute(String.format("ATTACH DATABASE 'file:%s?mode=ro' AS %s", escape(databasePath),
+                    CATALOG_SCHEMA_NAME));
+            final ResultSet resultSet = statement.executeQuery(sql);
+
+            final Connection openConnection = connection;
+            final Statement openStatement = statement;
+            return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                private int rowNumber;
+
+                @Override
+                public boolean tryAdvance(final Consumer<? super T> action) {
+                    try {
+                        if (!resultSet.next()) {
+                            return false;
+                        }
+                        action.accept(rowMapper.mapRow(resultSet, rowNumber++));
+                        return true;
+                    }
+                    catch (final SQLException exception) {
+                        throw new UncategorizedSQLException(
+                                String.format("Reading rental agreement archive %s", archivePath), sql, exception);
+                    }
+                }
+            }, false).onClose(() -> {
+                JdbcUtils.closeResultSet(resultSet);
+                JdbcUtils.closeStatement(openStatement);
+                JdbcUtils.closeConnection(openConnection);
+            });
+        }
+        catch (final SQLException exception) {
+            JdbcUtils.closeStatement(statement);
+            JdbcUtils.closeConnection(connection);
+            throw new UncategorizedSQLException(
+                    String.format("Opening rental agreement archive %s", archivePath), sql, exception);
+        }
+    }
+
+    /**
+     * @param archiveMonth An archive month.
+     * @return The month's archive file.
+     */
+    private Path getArchivePath(final YearMonth archiveMonth) {
+        return directory.resolve(ARCHIVE_FILE_PREFIX + archiveMonth + ARCHIVE_FILE_SUFFIX);
+    }
+
+    /**
+     * @param path A file path.
+     * @return The path, escaped for use in an SQL string literal.
+     */
+    private static String escape(final Path path) {
+        return path.toString().replace("'", "''");
+    }
+
+    /**
+     * @param identifier An SQL identifier.
+     * @return The identifier, quoted.
+     */
+    private static String quote(final String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+}
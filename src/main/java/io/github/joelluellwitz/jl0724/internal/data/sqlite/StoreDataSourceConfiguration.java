@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.sqlite;
+
+import java.nio.file.Path;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Enables store partitioning when the 'jl0724.store.directory' property is set. Replaces the auto-configured
+ *   DataSource with a {@link io.github.joelluellwitz.jl0724.internal.data.sqlite.StoreRoutingDataSource
+ *   StoreRoutingDataSource} built from the usual spring.datasource properties.<p>
+ *
+ * Note: The routing DataSource is wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
+ *   LazyConnectionDataSourceProxy}. A transaction begins before the service method that sets the store ID runs, so
+ *   without the proxy the connection (and therefore the store) would be chosen before the store ID is known. The
+ *   proxy defers choosing the connection until the first statement.<p>
+ *
+ * Note: The daily revenue view, the rental agreement archiver and the rental agreement snapshot only cover the default
+ *   store's database. A warning is logged at startup for each of them that is enabled together with store
+ *   partitioning, since their results then leave out the other stores' rental agreements.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jl0724.store.directory")
+public class StoreDataSourceConfiguration {
+    private static Logger LOGGER = LoggerFactory.getLogger(StoreDataSourceConfiguration.class);
+
+    /**
+     * Creates the routing DataSource. Spring closes it, and every connection pool it created, on shutdown.
+     *
+     * @param dataSourceProperties The spring.datasource properties of the default database.
+     * @param dataDirectory The data directory.
+     * @param storeDirectory The directory holding the store databases. A relative directory is resolved against the
+     *   data directory.
+     * @param archiveDirectory The 'jl0724.archive.directory' property, or blank if the archiver is disabled.
+     * @param snapshotFile The 'jl0724.snapshot.file' property, or blank if the snapshot exporter is disabled.
+     * @return The routing DataSource.
+     */
+    @Bean
+    public StoreRoutingDataSource storeRoutingDataSource(final DataSourceProperties dataSourceProperties,
+            @Value("${jl0724.data.directory:data}") final String dataDirectory,
+            @Value("${jl0724.store.directory}") final String storeDirectory,
+            @Value("${jl0724.archive.directory:}") final String archiveDirectory,
+            @Value("${jl0724.snapshot.file:}") final String snapshotFile) {
+        LOGGER.warn("Store partitioning is enabled. The daily revenue view only covers the default store.");
+        if (!archiveDirectory.isBlank()) {
+            LOGGER.warn("Store partitioning is enabled. The rental agreement archiver only archives the default "
+                    + "store's rental agreements.");
+        }
+        if (!snapshotFile.isBlank()) {
+            LOGGER.warn("Store partitioning is enabled. The rental agreement snapshot only exports the default "
+                    + "store's rental agreements.");
+        }
+
+        return new StoreRoutingDataSource(
+                dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build(),
+                Path.of(dataDirectory).resolve(storeDirectory).toAbsolutePath());
+    }
+
+    /**
+     * @param storeRoutingDataSource The routing DataSource.
+     * @return The DataSource used by JPA and transactions.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(final StoreRoutingDataSource storeRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(storeRoutingDataSource);
+    }
+}
@@ -0,0 +1,345 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.sqlite;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.StoreContext;
+
+/**
+ * Routes each transaction to the SQLite database of the store in
+ *   {@link io.github.joelluellwitz.jl0724.internal.data.api.StoreContext StoreContext}. The default store uses the
+ *   default database. Every other store gets its own database file, 'store-&lt;store ID&gt;.sqlite3', created on first
+ *   use in the store directory.<p>
+ *
+ * A store database only contains the rental agreement, outbox event, and rental order tables. The default database,
+ *   which holds the tool catalog, is attached read-only to every store connection under the schema name 'catalog'.
+ *   SQLite resolves unqualified table names in the main database first and then in attached databases, so the same
+ *   JPA entities and queries work unchanged against every store.<p>
+ *
+ * Note: SQLite allows one writer per database file. Giving each store its own file means checkouts at different
+ *   stores no longer wait on each other's write locks, so write throughput grows with the number of stores. Reads of
+ *   the shared catalog only take shared locks.<p>
+ *
+ * Note: The store's tables are created from the default database's own table definitions, which Hibernate keeps up
+ *   to date. When an existing store database is opened, a table it is missing is added, and so is any column (with
+ *   its unique constraint) or index a table of the default database has gained since. Like Hibernate's own schema
+ *   update, this never changes or drops an existing column.
+ */
+public class StoreRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private static final String CATALOG_SCHEMA_NAME = "catalog";
+    // Intentionally package private.
+    static final String SQLITE_URL_PREFIX = "jdbc:sqlite:";
+    private static final String STORE_TABLE_NAME = "rental_agreement";
+    private static final String OUTBOX_TABLE_NAME = "outbox_event";
+    private static final String ORDER_TABLE_NAME = "rental_order";
+    private static final String ORDER_LINE_TABLE_NAME = "rental_order_line";
+    private static final int STORE_POOL_SIZE = 4;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(StoreRoutingDataSource.class);
+
+    private final HikariDataSource defaultDataSource;
+    private final Path catalogDatabasePath;
+    private final Path storeDirectory;
+    private final Map<String, HikariDataSource> storeDataSources = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param defaultDataSource The DataSource of the default database. It must be a SQLite database file. Closed when
+     *   this DataSource is closed.
+     * @param storeDirectory The directory holding the store databases. Created if it does not exist.
+     */
+    public StoreRoutingDataSource(final HikariDataSource defaultDataSource, final Path storeDirectory) {
+        this.defaultDataSource = defaultDataSource;
+        catalogDatabasePath = getDatabasePath(defaultDataSource.getJdbcUrl());
+        this.storeDirectory = storeDirectory;
+
+        try {
+            Files.createDirectories(storeDirectory);
+        }
+        catch (final IOException exception) {
+            throw new UncheckedIOException(
+                    String.format("Failed to create the store database directory '%s'.", storeDirectory), exception);
+        }
+
+        setTargetDataSources(Map.of());
+        setDefaultTargetDataSource(defaultDataSource);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Closes every store connection pool and the default connection pool.
+     */
+    @Override
+    public void close() {
+        for (final HikariDataSource storeDataSource : storeDataSources.values()) {
+            storeDataSource.close();
+        }
+        storeDataSources.clear();
+        defaultDataSource.close();
+    }
+
+    /**
+     * Returns the file of a SQLite database.
+     *
+     * @param jdbcUrl The JDBC URL of a SQLite database.
+     * @return The absolute path of the database file.
+     * @throws IllegalArgumentException If the URL is not the URL of a SQLite database file.
+     */
+    // Intentionally package private.
+    static Path getDatabasePath(final String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith(SQLITE_URL_PREFIX) || jdbcUrl.contains(":memory:")) {
+            throw new IllegalArgumentException(
+                    String.format("A SQLite database file is required. You specified: %s", jdbcUrl));
+        }
+
+        final String databasePath = jdbcUrl.substring(SQLITE_URL_PREFIX.length());
+        return Path.of(databasePath.contains("?") ? databasePath.substring(0, databasePath.indexOf('?'))
+                : databasePath).toAbsolutePath();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return StoreContext.getStoreId();
+    }
+
+    /**
+     * Returns the default DataSource for the default store, or the store's DataSource (creating the store database
+     *   the first time) for any other store.
+     *
+     * @return The DataSource of the current store.
+     */
+    @Override
+    protected DataSource determineTargetDataSource() {
+        final String storeId = StoreContext.getStoreId();
+        if (storeId == null) {
+            return defaultDataSource;
+        }
+
+        final HikariDataSource storeDataSource = storeDataSources.get(storeId);
+        return storeDataSource != null ? storeDataSource : createStoreDataSource(storeId);
+    }
+
+    /**
+     * Creates the connection pool of a store, creating and initializing the store database if needed. Synchronized so
+     *   that a store's database is only ever initialized once.
+     *
+     * @param storeId The store ID.
+     * @return The store's DataSource.
+     */
+    private synchronized HikariDataSource createStoreDataSource(final String storeId) {
+        HikariDataSource storeDataSource = storeDataSources.get(storeId);
+        if (storeDataSource != null) {
+            return storeDataSource;
+        }
+
+        // Note: StoreContext already validated the store ID, but it becomes part of a file name, so check it again.
+        if (!StoreContext.isValidStoreId(storeId)) {
+            throw new IllegalArgumentException(String.format("Invalid store ID. You specified: %s", storeId));
+        }
+
+        final Path storeDatabasePath = storeDirectory.resolve("store-" + storeId + ".sqlite3").toAbsolutePath();
+        LOGGER.debug("Opening the database of store {} at {}.", storeId, storeDatabasePath);
+
+        storeDataSource = new HikariDataSource();
+        storeDataSource.setPoolName("store-" + storeId);
+        storeDataSource.setJdbcUrl(SQLITE_URL_PREFIX + storeDatabasePath);
+        storeDataSource.setMaximumPoolSize(STORE_POOL_SIZE);
+        storeDataSource.setConnectionInitSql(String.format("ATTACH DATABASE 'file:%s?mode=ro' AS %s",
+                catalogDatabasePath.toString().replace("'", "''"), CATALOG_SCHEMA_NAME));
+        try {
+            createStoreTable(storeDataSource, STORE_TABLE_NAME, true);
+            // Note: Optional so that a default database created without the outbox (as in some tests) still works.
+            createStoreTable(storeDataSource, OUTBOX_TABLE_NAME, false);
+            createStoreTable(storeDataSource, ORDER_TABLE_NAME, false);
+            createStoreTable(storeDataSource, ORDER_LINE_TABLE_NAME, false);
+        }
+        catch (final SQLException | RuntimeException exception) {
+            storeDataSource.close();
+            throw new IllegalStateException(
+                    String.format("Failed to initialize the database of store %s.", storeId), exception);
+        }
+
+        storeDataSources.put(storeId, storeDataSource);
+        return storeDataSource;
+    }
+
+    /**
+     * Creates a table and its indexes in a store database, if they do not exist yet, using the definitions from the
+     *   default database.
+     *
+     * @param storeDataSource The store's DataSource.
+     * @param tableName The name of the table.
+     * @param required Whether the default database must have the table. If not, a missing table is skipped.
+     * @throws SQLException If the schema cannot be read or created.
+     */
+    private void createStoreTable(final DataSource storeDataSource, final String tableName, final boolean required)
+            throws SQLException {
+        try (Connection storeConnection = storeDataSource.getConnection();
+                Statement storeStatement = storeConnection.createStatement()) {
+            try (ResultSet resultSet = storeStatement.executeQuery(String.format(
+                    "SELECT COUNT(*) FROM main.sqlite_master WHERE type = 'table' AND name = '%s'", tableName))) {
+                resultSet.next();
+                if (resultSet.getInt(1) > 0) {
+                    addMissingColumns(storeConnection, storeStatement, tableName);
+                    return;
+                }
+            }
+
+            // Note: Autoindexes (e.g., for unique columns) have no SQL and are recreated by the table definition.
+            final List<String> schemaStatements = new ArrayList<>();
+            try (ResultSet resultSet = storeStatement.executeQuery(String.format("SELECT sql FROM %s.sqlite_master "
+                    + "WHERE tbl_name = '%s' AND sql IS NOT NULL ORDER BY CASE type WHEN 'table' THEN 0 ELSE 1 END",
+                    CATALOG_SCHEMA_NAME, tableName))) {
+                while (resultSet.next()) {
+                    schemaStatements.add(resultSet.getString(1));
+                }
+            }
+            if (schemaStatements.isEmpty()) {
+                if (!required) {
+                    return;
+                }
+                throw new IllegalStateException(String.format(
+                        "The default database has no %s table to copy to the store database.", tableName));
+            }
+
+            executeSchemaStatements(storeConnection, storeStatement, schemaStatements);
+        }
+    }
+
+    /**
+     * Adds the columns, unique constraints and indexes that a store table is missing compared to the same table in the
+     *   default database.
+     *
+     * @param storeConnection A connection to the store database.
+     * @param storeStatement A statement of the connection.
+     * @param tableName The name of the table, which exists in the store database.
+     * @throws SQLException If the schema cannot be read or updated.
+     * @throws IllegalStateException If a missing column is NOT NULL without a default, since SQLite cannot add one to
+     *   a table.
+     */
+    private void addMissingColumns(final Connection storeConnection, final Statement storeStatement,
+            final String tableName) throws SQLException {
+        final Set<String> storeColumnNames = new HashSet<>();
+        try (ResultSet resultSet = storeStatement.executeQuery(
+                String.format("PRAGMA main.table_info('%s')", tableName))) {
+            while (resultSet.next()) {
+                storeColumnNames.add(resultSet.getString("name"));
+            }
+        }
+
+        final List<String> schemaStatements = new ArrayList<>();
+        final Set<String> addedColumnNames = new LinkedHashSet<>();
+        try (ResultSet resultSet = storeStatement.executeQuery(
+                String.format("PRAGMA %s.table_info('%s')", CATALOG_SCHEMA_NAME, tableName))) {
+            while (resultSet.next()) {
+                final String columnName = resultSet.getString("name");
+                if (storeColumnNames.contains(columnName)) {
+                    continue;
+                }
+
+                final String defaultValue = resultSet.getString("dflt_value");
+                final boolean notNull = resultSet.getInt("notnull") != 0;
+                if (notNull && defaultValue == null) {
+                    throw new IllegalStateException(String.format("The %s.%s column is NOT NULL without a default, so "
+                            + "it cannot be added to the existing store database.", tableName, columnName));
+                }
+                schemaStatements.add(String.format("ALTER TABLE main.%s ADD COLUMN \"%s\" %s%s%s", tableName,
+                        columnName, resultSet.getString("type"), defaultValue == null ? "" : " DEFAULT " + defaultValue,
+                        notNull ? " NOT NULL" : ""));
+                addedColumnNames.add(columnName);
+            }
+        }
+
+        // Note: SQLite cannot add a UNIQUE column, so a unique constraint of an added column becomes a unique index.
+        final List<String> uniqueIndexNames = new ArrayList<>();
+        try (ResultSet resultSet = storeStatement.executeQuery(
+                String.format("PRAGMA %s.index_list('%s')", CATALOG_SCHEMA_NAME, tableName))) {
+            while (resultSet.next()) {
+                if (resultSet.getInt("unique") != 0 && "u".equals(resultSet.getString("origin"))) {
+                    uniqueIndexNames.add(resultSet.getString("name"));
+                }
+            }
+        }
+        for (final String uniqueIndexName : uniqueIndexNames) {
+            final List<String> columnNames = new ArrayList<>();
+            try (ResultSet resultSet = storeStatement.executeQuery(
+                    String.format("PRAGMA %s.index_info('%s')", CATALOG_SCHEMA_NAME, uniqueIndexName))) {
+                while (resultSet.next()) {
+                    columnNames.add(resultSet.getString("name"));
+                }
+            }
+            if (columnNames.stream().anyMatch(addedColumnNames::contains)) {
+                schemaStatements.add(String.format("CREATE UNIQUE INDEX main.\"%s_%s_unique\" ON %s (\"%s\")",
+                        tableName, String.join("_", columnNames), tableName, String.join("\", \"", columnNames)));
+            }
+        }
+
+        try (ResultSet resultSet = storeStatement.executeQuery(String.format("SELECT sql FROM %s.sqlite_master "
+                + "WHERE type = 'index' AND tbl_name = '%s' AND sql IS NOT NULL AND name NOT IN "
+                + "(SELECT name FROM main.sqlite_master WHERE type = 'index')", CATALOG_SCHEMA_NAME, tableName))) {
+            while (resultSet.next()) {
+                schemaStatements.add(resultSet.getString(1));
+            }
+        }
+        if (schemaStatements.isEmpty()) {
+            return;
+        }
+
+        LOGGER.info("Updating the {} table of a store database. Adding columns: {}", tableName, addedColumnNames);
+        executeSchemaStatements(storeConnection, storeStatement, schemaStatements);
+    }
+
+    /**
+     * Executes schema statements against a store database in one transaction.
+     *
+     * @param storeConnection A connection to the store database.
+     * @param storeStatement A statement of the connection.
+     * @param schemaStatements The statements.
+     * @throws SQLException If a statement fails. No statement is then applied.
+     */
+    private static void executeSchemaStatements(final Connection storeConnection, final Statement storeStatement,
+            final List<String> schemaStatements) throws SQLException {
+        storeConnection.setAutoCommit(false);
+        try {
+            for (final String schemaStatement : schemaStatements) {
+                storeStatement.execute(schemaStatement);
+            }
+            storeConnection.commit();
+        }
+        catch (final SQLException exception) {
+            storeConnection.rollback();
+            throw exception;
+        }
+        finally {
+            storeConnection.setAutoCommit(true);
+        }
+    }
+}
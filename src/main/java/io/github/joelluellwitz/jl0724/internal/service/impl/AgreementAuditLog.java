@@ -0,0 +1,222 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * An asynchronous, bounded, batched audit log of generated rental agreements.<p>
+ *
+ * Accepting a checkout only places an {@link io.github.joelluellwitz.jl0724.internal.service.impl.AgreementAuditRecord
+ *   AgreementAuditRecord} on a bounded queue. A dedicated writer thread drains the queue in batches and hands each
+ *   batch to every {@link io.github.joelluellwitz.jl0724.internal.service.impl.AgreementAuditSink AgreementAuditSink},
+ *   so slow sinks never add latency to checkout.<p>
+ *
+ * When the queue is full, the 'jl0724.audit.overflow-policy' property decides what happens:
+ * <ul>
+ *   <li>DROP (the default) - The record is dropped immediately. Checkout never waits.</li>
+ *   <li>BLOCK - The consumer thread waits up to 'jl0724.audit.block-timeout-millis' for room, then drops the
+ *     record.</li>
+ * </ul>
+ * Dropped records are counted and the count is logged as a warning by the writer thread.<p>
+ *
+ * Checkouts reach the log only as a
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.CompletedCheckoutConsumer CompletedCheckoutConsumer},
+ *   so the overflow policy also protects the rental agreement writer from slow sinks.<p>
+ *
+ * Note: The completed checkout ring only carries committed checkouts, so the audit log never contains a rental
+ *   agreement that was rolled back.
+ */
+@Component
+public class AgreementAuditLog implements CompletedCheckoutConsumer {
+    /**
+     * What to do with a record when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the record immediately.
+         */
+        DROP,
+        /**
+         * Wait for room for a bounded time, then drop the record.
+         */
+        BLOCK
+    }
+
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(AgreementAuditLog.class);
+
+    private final List<AgreementAuditSink> agreementAuditSinks;
+    private final BlockingQueue<AgreementAuditRecord> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private final AtomicLong droppedRecordCount = new AtomicLong();
+    private final Thread writerThread;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor. Starts the writer thread.
+     *
+     * @param agreementAuditSinks Every sink that receives audit records.
+     * @param queueCapacity The maximum number of records waiting to be written.
+     * @param overflowPolicy What to do with a record when the queue is full.
+     * @param blockTimeoutMillis How long to wait for room under the BLOCK policy, in milliseconds.
+     */
+    // Intentionally package private.
+    AgreementAuditLog(final List<AgreementAuditSink> agreementAuditSinks,
+            @Value("${jl0724.audit.queue-capacity:8192}") final int queueCapacity,
+            @Value("${jl0724.audit.overflow-policy:DROP}") final OverflowPolicy overflowPolicy,
+            @Value("${jl0724.audit.block-timeout-millis:50}") final long blockTimeoutMillis) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The audit queue capacity must be greater than 0. You specified: %d", queueCapacity));
+        }
+
+        this.agreementAuditSinks = List.copyOf(agreementAuditSinks);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+
+        writerThread = new Thread(this::writeRecords, "agreement-audit-writer");
+        // Note: Daemon so that a stuck sink can never keep the JVM alive. Orderly shutdown drains through close().
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Publishes an audit record of a committed checkout. Called on the log's completed checkout consumer thread.
+     *
+     * @param completedCheckout The ring slot holding the checkout.
+     * @param endOfBatch Unused. The writer thread does its own batching.
+     */
+    @Override
+    public void accept(final CompletedCheckout completedCheckout, final boolean endOfBatch) {
+        enqueue(completedCheckout.toAgreementAuditRecord());
+    }
+
+    /**
+     * @return The number of records dropped because the queue was full or the log was closed.
+     */
+    public long getDroppedRecordCount() {
+        return droppedRecordCount.get();
+    }
+
+    /**
+     * Stops accepting records, writes every queued record, and closes the sinks. Waits a bounded time for the writer
+     *   thread so that a stuck sink cannot hang shutdown.
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            LOGGER.warn("The agreement audit writer did not finish within {} ms. {} records were not written.",
+                    SHUTDOWN_TIMEOUT_MILLIS, queue.size());
+        }
+    }
+
+    /**
+     * Places a record on the queue according to the overflow policy.
+     *
+     * @param record The audit record.
+     */
+    private void enqueue(final AgreementAuditRecord record) {
+        boolean enqueued = false;
+        if (!closed) {
+            if (overflowPolicy == OverflowPolicy.BLOCK) {
+                try {
+                    enqueued = queue.offer(record, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+                }
+                catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            else {
+                enqueued = queue.offer(record);
+            }
+        }
+
+        if (!enqueued) {
+            droppedRecordCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * The writer thread loop. Drains the queue in batches until the log is closed and the queue is empty.
+     */
+    private void writeRecords() {
+        final List<AgreementAuditRecord> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        long reportedDroppedRecordCount = 0;
+
+        while (!closed || !queue.isEmpty()) {
+            try {
+                final AgreementAuditRecord firstRecord = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (firstRecord != null) {
+                    batch.add(firstRecord);
+                    queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+            }
+            catch (final InterruptedException exception) {
+                // Nothing interrupts this thread on purpose. Keep draining until closed.
+                LOGGER.debug("The agreement audit writer was interrupted.");
+            }
+
+            final long currentDroppedRecordCount = droppedRecordCount.get();
+            if (currentDroppedRecordCount != reportedDroppedRecordCount) {
+                LOGGER.warn("{} agreement audit records have been dropped because the audit queue was full.",
+                        currentDroppedRecordCount);
+                reportedDroppedRecordCount = currentDroppedRecordCount;
+            }
+        }
+
+        for (final AgreementAuditSink agreementAuditSink : agreementAuditSinks) {
+            try {
+                agreementAuditSink.close();
+            }
+            catch (final RuntimeException exception) {
+                LOGGER.error("Failed to close an agreement audit sink.", exception);
+            }
+        }
+    }
+
+    /**
+     * Hands a batch to every sink. A failing sink is logged and skipped so that it cannot stop the other sinks or
+     *   the writer thread.
+     *
+     * @param batch The records to write.
+     */
+    private void writeBatch(final List<AgreementAuditRecord> batch) {
+        for (final AgreementAuditSink agreementAuditSink : agreementAuditSinks) {
+            try {
+                agreementAuditSink.write(batch);
+            }
+            catch (final RuntimeException exception) {
+                LOGGER.error(String.format("Failed to write %d agreement audit records.", batch.size()), exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto;
+
+/**
+ * An immutable, structured audit record of a generated rental agreement. Records hold the saved values rather than
+ *   the rendered agreement text, so audit sinks can format, index, or replay them.
+ *
+ * @param rentalAgreementId The ID of the rental agreement.
+ * @param createdOn When the rental agreement was saved.
+ * @param toolCode The Tool Code.
+ * @param toolType The Tool Type.
+ * @param toolBrand The tool brand.
+ * @param dailyCharge The daily rental charge.
+ * @param rentalDayCount The number of rental days.
+ * @param checkoutDate The checkout date.
+ * @param dueDate The due date.
+ * @param chargeDayCount The number of chargeable days.
+ * @param preDiscountCharge The charge before the discount.
+ * @param discountPercent The discount percentage.
+ * @param discountAmount The discount amount.
+ * @param finalCharge The final charge.
+ */
+public record AgreementAuditRecord(int rentalAgreementId, LocalDateTime createdOn, String toolCode, String toolType,
+        String toolBrand, BigDecimal dailyCharge, int rentalDayCount, LocalDate checkoutDate, LocalDate dueDate,
+        int chargeDayCount, BigDecimal preDiscountCharge, int discountPercent, BigDecimal discountAmount,
+        BigDecimal finalCharge) {
+
+    /**
+     * Creates an audit record from a saved rental agreement.
+     *
+     * @param rentalAgreementDto A rental agreement that has been saved and flushed, so its ID and creation time are
+     *   populated.
+     * @return The audit record.
+     */
+    // Intentionally package private.
+    static AgreementAuditRecord fromRentalAgreementDto(final RentalAgreementDto rentalAgreementDto) {
+        return new AgreementAuditRecord(rentalAgreementDto.getId(), rentalAgreementDto.getCreatedOn(),
+                rentalAgreementDto.getToolCode(), rentalAgreementDto.getToolType(), rentalAgreementDto.getToolBrand(),
+                rentalAgreementDto.getDailyCharge(), rentalAgreementDto.getRentalDayCount(),
+                rentalAgreementDto.getCheckoutDate(), rentalAgreementDto.getDueDate(),
+                rentalAgreementDto.getChargeDayCount(), rentalAgreementDto.getPreDiscountCharge(),
+                rentalAgreementDto.getDiscountPercent(), rentalAgreementDto.getDiscountAmount(),
+                rentalAgreementDto.getFinalCharge());
+    }
+}
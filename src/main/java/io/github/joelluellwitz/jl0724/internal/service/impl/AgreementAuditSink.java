@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.List;
+
+/**
+ * A destination for {@link io.github.joelluellwitz.jl0724.internal.service.impl.AgreementAuditRecord
+ *   AgreementAuditRecords}. Every Spring bean implementing this interface receives every record written to the
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.AgreementAuditLog AgreementAuditLog}.<p>
+ *
+ * Sinks are only ever called from the audit log's writer thread, so implementations do not need to be thread safe
+ *   and may block without slowing down checkout.
+ */
+public interface AgreementAuditSink {
+    /**
+     * Writes a batch of records.
+     *
+     * @param records The records, in the order they were published. Never empty. The List is reused for the next
+     *   batch, so implementations must not keep a reference to it.
+     */
+    void write(List<AgreementAuditRecord> records);
+
+    /**
+     * Releases any resources held by the sink. Called once, after the last batch, when the application shuts down.
+     */
+    default void close() {
+    }
+}
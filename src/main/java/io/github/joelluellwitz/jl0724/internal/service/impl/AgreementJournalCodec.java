@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.CatalogValueDictionary;
+
+/**
+ * Converts {@link io.github.joelluellwitz.jl0724.internal.service.impl.AgreementAuditRecord AgreementAuditRecords} to
+ *   and from single line JSON objects.<p>
+ *
+ * Note: There is no JSON library on the classpath and the journal only ever contains flat objects of strings, numbers,
+ *   and nulls, so a small purpose built encoder and parser is used instead of adding a dependency. Monetary amounts are
+ *   written as JSON numbers using their exact decimal representation.
+ */
+// Intentionally package private.
+class AgreementJournalCodec {
+    /**
+     * Intentionally private. This class only has static methods.
+     */
+    private AgreementJournalCodec() {
+    }
+
+    /**
+     * Appends a record as a single line of JSON, including the trailing line feed.
+     *
+     * @param record The record.
+     * @param jsonStringBuilder The StringBuilder to append to.
+     */
+    static void encode(final AgreementAuditRecord record, final StringBuilder jsonStringBuilder) {
+        jsonStringBuilder.append("{\"rentalAgreementId\":").append(record.rentalAgreementId());
+        appendString(jsonStringBuilder, "createdOn", record.createdOn());
+        appendString(jsonStringBuilder, "toolCode", record.toolCode());
+        appendString(jsonStringBuilder, "toolType", record.toolType());
+        appendString(jsonStringBuilder, "toolBrand", record.toolBrand());
+        appendNumber(jsonStringBuilder, "dailyCharge", record.dailyCharge());
+        jsonStringBuilder.append(",\"rentalDayCount\":").append(record.rentalDayCount());
+        appendString(jsonStringBuilder, "checkoutDate", record.checkoutDate());
+        appendString(jsonStringBuilder, "dueDate", record.dueDate());
+        jsonStringBuilder.append(",\"chargeDayCount\":").append(record.chargeDayCount());
+        appendNumber(jsonStringBuilder, "preDiscountCharge", record.preDiscountCharge());
+        jsonStringBuilder.append(",\"discountPercent\":").append(record.discountPercent());
+        appendNumber(jsonStringBuilder, "discountAmount", record.discountAmount());
+        appendNumber(jsonStringBuilder, "finalCharge", record.finalCharge());
+        jsonStringBuilder.append("}\n");
+    }
+
+    /**
+     * Parses a line written by {@link #encode}.
+     *
+     * @param line A single line of JSON, without the line feed.
+     * @return The record.
+     * @throws IllegalArgumentException If the line is not a valid journal entry.
+     */
+    static AgreementAuditRecord decode(final String line) {
+        final Map<String, String> values = parseFlatObject(line);
+
+        return new AgreementAuditRecord(parseInt(values, "rentalAgreementId"),
+                values.get("createdOn") == null ? null : LocalDateTime.parse(values.get("createdOn")),
+                CatalogValueDictionary.canonicalize(values.get("toolCode")),
+                CatalogValueDictionary.canonicalize(values.get("toolType")),
+                CatalogValueDictionary.canonicalize(values.get("toolBrand")),
+                parseBigDecimal(values, "dailyCharge"), parseInt(values, "rentalDayCount"),
+                values.get("checkoutDate") == null ? null : LocalDate.parse(values.get("checkoutDate")),
+                values.get("dueDate") == null ? null : LocalDate.parse(values.get("dueDate")),
+                parseInt(values, "chargeDayCount"), parseBigDecimal(values, "preDiscountCharge"),
+                parseInt(values, "discountPercent"), parseBigDecimal(values, "discountAmount"),
+                parseBigDecimal(values, "finalCharge"));
+    }
+
+    /**
+     * Appends a string member, or null.
+     *
+     * @param jsonStringBuilder The StringBuilder to append to.
+     * @param name The member name.
+     * @param value The value, converted with toString. May be null.
+     */
+    private static void appendString(final StringBuilder jsonStringBuilder, final String name, final Object value) {
+        jsonStringBuilder.append(",\"").append(name).append("\":");
+        if (value == null) {
+            jsonStringBuilder.append("null");
+            return;
+        }
+
+        final String stringValue = value.toString();
+        jsonStringBuilder.append('"');
+        for (int charIndex = 0; charIndex < stringValue.length(); charIndex++) {
+            final char character = stringValue.charAt(charIndex);
+            switch (character) {
+                case '"' -> jsonStringBuilder.append("\\\"");
+                case '\\' -> jsonStringBuilder.append("\\\\");
+                case '\n' -> jsonStringBuilder.append("\\n");
+                case '\r' -> jsonStringBuilder.append("\\r");
+                case '\t' -> jsonStringBuilder.append("\\t");
+                default -> {
+                    if (character < 0x20) {
+                        jsonStringBuilder.append(String.format("\\u%04x", (int) character));
+                    }
+                    else {
+                        jsonStringBuilder.append(character);
+                    }
+                }
+            }
+        }
+        jsonStringBuilder.append('"');
+    }
+
+    /**
+     * Appends a number member, or null.
+     *
+     * @param jsonStringBuilder The StringBuilder to append to.
+     * @param name The member name.
+     * @param value The value. May be null.
+     */
+    private static void appendNumber(final StringBuilder jsonStringBuilder, final String name,
+            final BigDecimal value) {
+        jsonStringBuilder.append(",\"").append(name).append("\":")
+                .append(value == null ? "null" : value.toPlainString());
+    }
+
+    /**
+     * Parses a flat JSON object whose values are strings, numbers, or nulls.
+     *
+     * @param line The JSON object.
+     * @return The member values keyed by name. Strings are unescaped, numbers are returned as written, and nulls are
+     *   returned as null.
+     */
+    private static Map<String, String> parseFlatObject(final String line) {
+        final Map<String, String> values = new HashMap<>();
+        final int[] position = { skipWhitespace(line, 0) };
+        expect(line, position, '{');
+        position[0] = skipWhitespace(line, position[0]);
+        if (position[0] < line.length() && line.charAt(position[0]) == '}') {
+            return values;
+        }
+
+        while (true) {
+            position[0] = skipWhitespace(line, position[0]);
+            final String name = parseString(line, position);
+            position[0] = skipWhitespace(line, position[0]);
+            expect(line, position, ':');
+            position[0] = skipWhitespace(line, position[0]);
+
+            final String value;
+            if (position[0] < line.length() && line.charAt(position[0]) == '"') {
+                value = parseString(line, position);
+            }
+            else {
+                final int valueStart = position[0];
+                while (position[0] < line.length() && ",} \t".indexOf(line.charAt(position[0])) < 0) {
+                    position[0]++;
+                }
+                final String literal = line.substring(valueStart, position[0]);
+                if (literal.isEmpty()) {
+                    throw new IllegalArgumentException(String.format(
+                            "Missing value for '%s' in journal line. You specified: %s", name, line));
+                }
+                value = literal.equals("null") ? null : literal;
+            }
+            values.put(name, value);
+
+            position[0] = skipWhitespace(line, position[0]);
+            if (position[0] < line.length() && line.charAt(position[0]) == ',') {
+                position[0]++;
+            }
+            else {
+                expect(line, position, '}');
+                return values;
+            }
+        }
+    }
+
+    /**
+     * Parses a JSON string starting at the current position and advances past it.
+     *
+     * @param line The JSON text.
+     * @param position The current position. Updated in place.
+     * @return The unescaped string.
+     */
+    private static String parseString(final String line, final int[] position) {
+        expect(line, position, '"');
+        final StringBuilder valueStringBuilder = new StringBuilder();
+        while (position[0] < line.length()) {
+            final char character = line.charAt(position[0]++);
+            if (character == '"') {
+                return valueStringBuilder.toString();
+            }
+            if (character != '\\') {
+                valueStringBuilder.append(character);
+                continue;
+            }
+            if (position[0] >= line.length()) {
+                break;
+            }
+            final char escapedCharacter = line.charAt(position[0]++);
+            switch (escapedCharacter) {
+                case 'n' -> valueStringBuilder.append('\n');
+                case 'r' -> valueStringBuilder.append('\r');
+                case 't' -> valueStringBuilder.append('\t');
+                case 'b' -> valueStringBuilder.append('\b');
+                case 'f' -> valueStringBuilder.append('\f');
+                case 'u' -> {
+                    if (position[0] + 4 > line.length()) {
+                        throw new IllegalArgumentException(String.format(
+                                "Truncated unicode escape in journal line. You specified: %s", line));
+                    }
+                    valueStringBuilder.append((char) Integer.parseInt(line.substring(position[0], position[0] + 4),
+                            16));
+                    position[0] += 4;
+                }
+                default -> valueStringBuilder.append(escapedCharacter);
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unterminated string in journal line. You specified: %s",
+                line));
+    }
+
+    /**
+     * Consumes the expected character.
+     *
+     * @param line The JSON text.
+     * @param position The current position. Updated in place.
+     * @param expectedCharacter The expected character.
+     */
+    private static void expect(final String line, final int[] position, final char expectedCharacter) {
+        if (position[0] >= line.length() || line.charAt(position[0]) != expectedCharacter) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected '%c' at position %d of journal line. You specified: %s", expectedCharacter,
+                    position[0], line));
+        }
+        position[0]++;
+    }
+
+    /**
+     * @param line The JSON text.
+     * @param position The current position.
+     * @return The position of the next non-whitespace character.
+     */
+    private static int skipWhitespace(final String line, final int position) {
+        int newPosition = position;
+        while (newPosition < line.length() && Character.isWhitespace(line.charAt(newPosition))) {
+            newPosition++;
+        }
+
+        return newPosition;
+    }
+
+    /**
+     * @param values The parsed member values.
+     * @param name The member name.
+     * @return The member as an int.
+     */
+    private static int parseInt(final Map<String, String> values, final String name) {
+        final String value = values.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException(String.format("The journal line is missing '%s'.", name));
+        }
+
+        return Integer.parseInt(value);
+    }
+
+    /**
+     * @param values The parsed member values.
+     * @param name The member name.
+     * @return The member as a BigDecimal, or null.
+     */
+    private static BigDecimal parseBigDecimal(final Map<String, String> values, final String name) {
+        final String value = values.get(name);
+        return value == null ? null : new BigDecimal(value);
+    }
+}
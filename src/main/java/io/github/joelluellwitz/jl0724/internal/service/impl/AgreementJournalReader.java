@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the agreement journal written by
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.AgreementJournalSink AgreementJournalSink}.
+ *   Segments are read sequentially through large buffers, so scanning a day's journal is limited by disk (or
+ *   decompression) speed.
+ *   No database access is needed, which makes the journal a cheap source for replays and analytics.<p>
+ *
+ * Journal segments are named 'agreements-&lt;date&gt;-&lt;index&gt;.jsonl', optionally followed by '.gz', where the
+ *   date is the day the rental agreements were created.
+ */
+public class AgreementJournalReader {
+    // Intentionally package private.
+    static final Pattern SEGMENT_FILE_PATTERN =
+            Pattern.compile("agreements-(\\d{4}-\\d{2}-\\d{2})-(\\d{6})\\.jsonl(\\.gz)?");
+    // Intentionally package private.
+    static final String COMPRESSED_SUFFIX = ".gz";
+
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(AgreementJournalReader.class);
+
+    /**
+     * Intentionally private. This class only has static methods.
+     */
+    private AgreementJournalReader() {
+    }
+
+    /**
+     * Supplies every journaled record created on the supplied day to the consumer, in the order it was written.<p>
+     *
+     * Note: A process that crashes while writing can leave a partial last line in an uncompressed segment. Such a line
+     *   is skipped with a warning. A malformed line anywhere else is treated as corruption and fails the scan.
+     *
+     * @param directory The journal directory.
+     * @param date The day to read.
+     * @param recordConsumer Receives each record.
+     * @return The number of records read.
+     * @throws IOException If a segment cannot be read.
+     */
+    public static long forEachRecord(final Path directory, final LocalDate date,
+            final Consumer<? super AgreementAuditRecord> recordConsumer) throws IOException {
+        long recordCount = 0;
+        for (final Path segmentPath : listSegments(directory, date).values()) {
+            try (BufferedReader segmentReader = new BufferedReader(
+                    new InputStreamReader(openSegment(segmentPath), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+                String line = segmentReader.readLine();
+                while (line != null) {
+                    final String nextLine = segmentReader.readLine();
+                    if (!line.isBlank()) {
+                        final AgreementAuditRecord record;
+                        try {
+                            record = AgreementJournalCodec.decode(line);
+                        }
+                        catch (final IllegalArgumentException exception) {
+                            if (nextLine != null || isCompressed(segmentPath)) {
+                                throw exception;
+                            }
+                            LOGGER.warn("Skipping the partial last line of journal segment {}.", segmentPath);
+                            break;
+                        }
+                        recordConsumer.accept(record);
+                        recordCount++;
+                    }
+                    line = nextLine;
+                }
+            }
+        }
+
+        return recordCount;
+    }
+
+    /**
+     * Lists the segments of a day, keyed by segment index. If a segment exists both compressed and uncompressed (the
+     *   writer stopped while compressing it), the uncompressed segment is used.
+     *
+     * @param directory The journal directory.
+     * @param date The day.
+     * @return The segment paths sorted by segment index.
+     * @throws IOException If the directory cannot be listed.
+     */
+    // Intentionally package private.
+    static NavigableMap<Integer, Path> listSegments(final Path directory, final LocalDate date) throws IOException {
+        final NavigableMap<Integer, Path> segmentPaths = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return segmentPaths;
+        }
+
+        final String dateString = date.toString();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory,
+                "agreements-" + dateString + "-*")) {
+            for (final Path path : directoryStream) {
+                final Matcher matcher = SEGMENT_FILE_PATTERN.matcher(path.getFileName().toString());
+                if (matcher.matches() && matcher.group(1).equals(dateString)) {
+                    final int segmentIndex = Integer.parseInt(matcher.group(2));
+                    final Path existingPath = segmentPaths.get(segmentIndex);
+                    if (existingPath == null || isCompressed(existingPath)) {
+                        segmentPaths.put(segmentIndex, path);
+                    }
+                }
+            }
+        }
+
+        return segmentPaths;
+    }
+
+    /**
+     * Returns the file name of a segment.
+     *
+     * @param date The day of the segment.
+     * @param segmentIndex The index of the segment within the day.
+     * @return The uncompressed file name.
+     */
+    // Intentionally package private.
+    static String getSegmentFileName(final LocalDate date, final int segmentIndex) {
+        return String.format("agreements-%s-%06d.jsonl", date, segmentIndex);
+    }
+
+    /**
+     * @param segmentPath A segment path.
+     * @return An InputStream of the segment's uncompressed content.
+     * @throws IOException If the segment cannot be opened.
+     */
+    private static InputStream openSegment(final Path segmentPath) throws IOException {
+        final InputStream inputStream = Files.newInputStream(segmentPath);
+        if (!isCompressed(segmentPath)) {
+            return inputStream;
+        }
+
+        try {
+            return new GZIPInputStream(inputStream, READ_BUFFER_SIZE);
+        }
+        catch (final IOException exception) {
+            inputStream.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * @param segmentPath A segment path.
+     * @return True if the segment is gzip compressed.
+     */
+    private static boolean isCompressed(final Path segmentPath) {
+        return segmentPath.getFileName().toString().endsWith(COMPRESSED_SUFFIX);
+    }
+}
@@ -0,0 +1,297 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * An append-only journal of every generated rental agreement, written as one JSON object per line. Enabled by setting
+ *   the 'jl0724.audit.journal.directory' property. A relative directory is resolved against the
+ *   'jl0724.data.directory' data directory, like the database.<p>
+ *
+ * The journal is fed by the {@link io.github.joelluellwitz.jl0724.internal.service.impl.OutboxRelay OutboxRelay}
+ *   rather than the {@link io.github.joelluellwitz.jl0724.internal.service.impl.AgreementAuditLog AgreementAuditLog},
+ *   which drops records under load. Outbox events are only deleted once every sink has returned, so every committed
+ *   rental agreement reaches the journal even if a write fails or the application stops. Delivery is at least once,
+ *   so a record can appear more than once after a failure. Duplicates share a rental agreement ID and creation
+ *   time.<p>
+ *
+ * Records are grouped into segment files by the day the rental agreement was created. A segment is closed and a new
+ *   one started when the day changes or the segment would grow past 'jl0724.audit.journal.max-segment-bytes'. Closed
+ *   segments are gzip compressed unless 'jl0724.audit.journal.compression' is NONE. A segment is never reopened, not
+ *   even after a restart, so a closed segment is immutable.<p>
+ *
+ * Each batch from the relay is encoded into a single buffer and written with one
+ *   {@link java.nio.channels.FileChannel FileChannel} write. Unless 'jl0724.audit.journal.force' is false, the channel
+ *   is forced to disk after every batch, so a batch is durable once the sink returns. Use
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.AgreementJournalReader AgreementJournalReader} to read
+ *   the journal.<p>
+ *
+ * Note: zstd compression would compress better and faster, but it needs a native library. gzip is built into the JDK
+ *   and is compressed off the checkout path by the outbox relay thread.
+ */
+@Component
+@ConditionalOnProperty(name = "jl0724.audit.journal.directory")
+public class AgreementJournalSink implements OutboxEventSink {
+    /**
+     * How closed segments are compressed.
+     */
+    public enum Compression {
+        /**
+         * Closed segments are left as plain JSON lines.
+         */
+        NONE,
+        /**
+         * Closed segments are gzip compressed.
+         */
+        GZIP
+    }
+
+    private static final int COMPRESSION_BUFFER_SIZE = 1 << 16;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(AgreementJournalSink.class);
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final Compression compression;
+    private final boolean force;
+    private final StringBuilder batchStringBuilder = new StringBuilder();
+
+    private FileChannel segmentChannel;
+    private Path segmentPath;
+    private LocalDate segmentDate;
+    private long segmentSize;
+
+    /**
+     * Constructor. Creates the journal directory if it does not exist.
+     *
+     * @param dataDirectory The data directory.
+     * @param directory The journal directory. A relative directory is resolved against the data directory.
+     * @param maxSegmentBytes The size at which a segment is closed and a new one started.
+     * @param compression How closed segments are compressed.
+     * @param force Whether to force every batch to disk before returning.
+     */
+    // Intentionally package private.
+    AgreementJournalSink(@Value("${jl0724.data.directory:data}") final String dataDirectory,
+            @Value("${jl0724.audit.journal.directory}") final String directory,
+            @Value("${jl0724.audit.journal.max-segment-bytes:67108864}") final long maxSegmentBytes,
+            @Value("${jl0724.audit.journal.compression:GZIP}") final Compression compression,
+            @Value("${jl0724.audit.journal.force:true}") final boolean force) {
+        if (maxSegmentBytes < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The maximum journal segment size must be greater than 0. You specified: %d", maxSegmentBytes));
+        }
+
+        this.directory = Path.of(dataDirectory).resolve(directory).toAbsolutePath();
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.compression = compression;
+        this.force = force;
+
+        try {
+            Files.createDirectories(this.directory);
+        }
+        catch (final IOException exception) {
+            throw new UncheckedIOException(
+                    String.format("Failed to create the agreement journal directory '%s'.", this.directory),
+                    exception);
+        }
+    }
+
+    /**
+     * Journals the {@value OutboxRelay#RENTAL_AGREEMENT_CREATED} events of a batch. Other events are ignored.
+     *
+     * @param events The events of one store, oldest first.
+     * @throws UncheckedIOException If the journal cannot be written. The relay then delivers the batch again.
+     */
+    @Override
+    public void publish(final List<OutboxEvent> events) {
+        final List<AgreementAuditRecord> records = new ArrayList<>(events.size());
+        for (final OutboxEvent event : events) {
+            if (OutboxRelay.RENTAL_AGREEMENT_CREATED.equals(event.eventType())) {
+                // Note: The payload is the journal encoding of the rental agreement.
+                records.add(AgreementJournalCodec.decode(event.payload()));
+            }
+        }
+        if (!records.isEmpty()) {
+            write(records);
+        }
+    }
+
+    /**
+     * Writes a batch of records and, unless forcing is disabled, forces them to disk.
+     *
+     * @param records The records, in the order they were saved.
+     * @throws UncheckedIOException If the journal cannot be written.
+     */
+    // Intentionally package private.
+    void write(final List<AgreementAuditRecord> records) {
+        try {
+            int runStart = 0;
+            while (runStart < records.size()) {
+                // Records of the same day are written together, since they belong in the same segment.
+                final LocalDate runDate = getJournalDate(records.get(runStart));
+                int runEnd = runStart + 1;
+                while (runEnd < records.size() && getJournalDate(records.get(runEnd)).equals(runDate)) {
+                    runEnd++;
+                }
+
+                batchStringBuilder.setLength(0);
+                for (final AgreementAuditRecord record : records.subList(runStart, runEnd)) {
+                    AgreementJournalCodec.encode(record, batchStringBuilder);
+                }
+                writeToSegment(runDate, batchStringBuilder.toString().getBytes(StandardCharsets.UTF_8));
+
+                runStart = runEnd;
+            }
+
+            if (force && segmentChannel != null) {
+                segmentChannel.force(false);
+            }
+        }
+        catch (final IOException exception) {
+            // Start a new segment for the next batch rather than appending after a possibly partial write.
+            closeSegmentQuietly();
+            throw new UncheckedIOException("Failed to write to the agreement journal.", exception);
+        }
+    }
+
+    /**
+     * Closes (and compresses) the current segment.
+     */
+    @Override
+    public void close() {
+        try {
+            closeSegment();
+        }
+        catch (final IOException exception) {
+            throw new UncheckedIOException("Failed to close the agreement journal.", exception);
+        }
+    }
+
+    /**
+     * Writes encoded records to the segment for the supplied day, rotating segments as needed.
+     *
+     * @param date The day the records belong to.
+     * @param bytes The encoded records.
+     * @throws IOException If the segment cannot be written.
+     */
+    private void writeToSegment(final LocalDate date, final byte[] bytes) throws IOException {
+        if (segmentChannel != null
+                && (!date.equals(segmentDate) || (segmentSize > 0 && segmentSize + bytes.length > maxSegmentBytes))) {
+            closeSegment();
+        }
+        if (segmentChannel == null) {
+            openSegment(date);
+        }
+
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        while (byteBuffer.hasRemaining()) {
+            segmentSize += segmentChannel.write(byteBuffer);
+        }
+    }
+
+    /**
+     * Opens a new segment after the last existing segment of the day.
+     *
+     * @param date The day of the segment.
+     * @throws IOException If the segment cannot be created.
+     */
+    private void openSegment(final LocalDate date) throws IOException {
+        final NavigableMap<Integer, Path> existingSegments = AgreementJournalReader.listSegments(directory, date);
+        final int segmentIndex = existingSegments.isEmpty() ? 0 : existingSegments.lastKey() + 1;
+
+        segmentPath = directory.resolve(AgreementJournalReader.getSegmentFileName(date, segmentIndex));
+        segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentDate = date;
+        segmentSize = 0;
+        LOGGER.debug("Opened agreement journal segment {}.", segmentPath);
+    }
+
+    /**
+     * Closes the current segment, if any, and compresses it if configured.
+     *
+     * @throws IOException If the segment cannot be closed or compressed.
+     */
+    private void closeSegment() throws IOException {
+        if (segmentChannel == null) {
+            return;
+        }
+
+        final Path closedSegmentPath = segmentPath;
+        try {
+            segmentChannel.force(false);
+            segmentChannel.close();
+        }
+        finally {
+            segmentChannel = null;
+            segmentPath = null;
+            segmentDate = null;
+        }
+
+        if (compression == Compression.GZIP) {
+            compress(closedSegmentPath);
+        }
+    }
+
+    /**
+     * Closes the current segment after a failure, logging rather than throwing any further error.
+     */
+    private void closeSegmentQuietly() {
+        try {
+            closeSegment();
+        }
+        catch (final IOException exception) {
+            LOGGER.error("Failed to close agreement journal segment after a write failure.", exception);
+        }
+    }
+
+    /**
+     * Replaces a closed segment with a gzip compressed copy. The copy is written to a temporary file and moved into
+     *   place before the uncompressed segment is deleted, so the segment is readable at every step.
+     *
+     * @param closedSegmentPath The closed segment.
+     * @throws IOException If the segment cannot be compressed.
+     */
+    private static void compress(final Path closedSegmentPath) throws IOException {
+        final Path compressedPath = closedSegmentPath.resolveSibling(
+                closedSegmentPath.getFileName() + AgreementJournalReader.COMPRESSED_SUFFIX);
+        final Path temporaryPath = closedSegmentPath.resolveSibling(compressedPath.getFileName() + ".tmp");
+
+        try (OutputStream compressedOutputStream = new GZIPOutputStream(Files.newOutputStream(temporaryPath),
+                COMPRESSION_BUFFER_SIZE)) {
+            Files.copy(closedSegmentPath, compressedOutputStream);
+        }
+        Files.move(temporaryPath, compressedPath, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(closedSegmentPath);
+        LOGGER.debug("Compressed agreement journal segment {}.", compressedPath);
+    }
+
+    /**
+     * @param record An audit record.
+     * @return The day whose journal the record belongs in.
+     */
+    private static LocalDate getJournalDate(final AgreementAuditRecord record) {
+        return record.createdOn() == null ? LocalDate.now() : record.createdOn().toLocalDate();
+    }
+}
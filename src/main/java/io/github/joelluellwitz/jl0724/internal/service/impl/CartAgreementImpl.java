@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.CartAgreement;
+import io.github.joelluellwitz.jl0724.exposed.service.api.RentalAgreement;
+
+/**
+ * Business logic tier representation of a cart checkout. This class is immutable.<p>
+ *
+ * The order level discount is applied to the total of the lines' final charges, so it stacks with any line discount.
+ *   It is rounded half up to the cent, like a line discount.<p>
+ *
+ * The order discount is also allocated across the lines in proportion to their final charges, so that each line's
+ *   saved rental agreement (and the revenue and events derived from it) carries its net charge. Each line's exact
+ *   share is rounded down to the cent, and the cents left over go to the lines with the largest rounded off fractions.
+ *   The shares therefore add up to the order discount, and no line's share exceeds its final charge.
+ */
+public class CartAgreementImpl implements CartAgreement {
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+    // The scale of a line's exact share of the order discount, far below a cent.
+    private static final int SHARE_SCALE = 12;
+
+    private final List<RentalAgreementImpl> rentalAgreements;
+    private final BigDecimal preDiscountCharge;
+    private final int discountPercent;
+    private final BigDecimal discountAmount;
+    private final BigDecimal finalCharge;
+    private final List<BigDecimal> lineDiscountAmounts;
+
+    private String cartAgreement;
+
+    /**
+     * Constructs an immutable CartAgreementImpl.
+     *
+     * @param rentalAgreements The priced rental agreement of each line, in line order.
+     * @param discountPercent The order level discount percentage.
+     */
+    // Intentionally package private.
+    CartAgreementImpl(final List<RentalAgreementImpl> rentalAgreements, final int discountPercent) {
+        this.rentalAgreements = List.copyOf(rentalAgreements);
+        this.discountPercent = discountPercent;
+
+        preDiscountCharge = this.rentalAgreements.stream().map(RentalAgreementImpl::getFinalCharge)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        discountAmount = preDiscountCharge.multiply(BigDecimal.valueOf(discountPercent)).multiply(CENT)
+                .divide(CENT, 0, RoundingMode.HALF_UP).multiply(CENT);
+        finalCharge = preDiscountCharge.subtract(discountAmount);
+        lineDiscountAmounts = allocateDiscountAmount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<RentalAgreement> getRentalAgreements() {
+        return List.copyOf(rentalAgreements);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void printCartAgreement() {
+        System.out.print(toString());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        if (cartAgreement == null) {
+            final StringBuilder agreementStringBuilder = new StringBuilder();
+            for (final RentalAgreementImpl rentalAgreement : rentalAgreements) {
+                agreementStringBuilder.append(rentalAgreement).append('\n');
+            }
+            agreementStringBuilder.append("Order subtotal: ").append(formatCurrency(preDiscountCharge)).append('\n');
+            agreementStringBuilder.append("Order discount percent: ")
+                    .append(NumberFormat.getPercentInstance(Locale.US)
+                            .format(BigDecimal.valueOf(discountPercent).multiply(CENT)))
+                    .append('\n');
+            agreementStringBuilder.append("Order discount amount: ").append(formatCurrency(discountAmount))
+                    .append('\n');
+            agreementStringBuilder.append("Order total: ").append(formatCurrency(finalCharge)).append('\n');
+
+            cartAgreement = agreementStringBuilder.toString();
+        }
+
+        return cartAgreement;
+    }
+
+    /**
+     * @return The rental agreement of each line, in line order.
+     */
+    // Intentionally package private.
+    List<RentalAgreementImpl> getRentalAgreementImpls() {
+        return rentalAgreements;
+    }
+
+    /**
+     * @return The share of the order discount allocated to each line, in line order. The shares add up to the order
+     *   discount amount.
+     */
+    // Intentionally package private.
+    List<BigDecimal> getLineDiscountAmounts() {
+        return lineDiscountAmounts;
+    }
+
+    /**
+     * @return The total of the lines' final charges.
+     */
+    public BigDecimal getPreDiscountCharge() {
+        return preDiscountCharge;
+    }
+
+    /**
+     * @return The order level discount percentage.
+     */
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    /**
+     * @return The order level discount amount.
+     */
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+
+    /**
+     * @return The order total after the order level discount.
+     */
+    public BigDecimal getFinalCharge() {
+        return finalCharge;
+    }
+
+    /**
+     * Allocates the order discount across the lines in proportion to their final charges, using the largest remainder
+     *   method.
+     *
+     * @return The share of each line, in line order.
+     */
+    private List<BigDecimal> allocateDiscountAmount() {
+        final List<BigDecimal> shares = new ArrayList<>(rentalAgreements.size());
+        final List<BigDecimal> fractions = new ArrayList<>(rentalAgreements.size());
+        BigDecimal allocatedAmount = BigDecimal.ZERO;
+        for (final RentalAgreementImpl rentalAgreement : rentalAgreements) {
+            final BigDecimal exactShare = preDiscountCharge.signum() == 0 ? BigDecimal.ZERO
+                    : rentalAgreement.getFinalCharge().multiply(discountAmount).divide(preDiscountCharge,
+                            SHARE_SCALE, RoundingMode.DOWN);
+            final BigDecimal share = exactShare.setScale(CENT.scale(), RoundingMode.DOWN);
+            shares.add(share);
+            fractions.add(exactShare.subtract(share));
+            allocatedAmount = allocatedAmount.add(share);
+        }
+
+        // Note: The leftover is less than one cent per line with a nonzero fraction, so each such line gets at most
+        //   one more cent. The sort is stable, so ties go to the earlier line.
+        final int leftoverCentCount = discountAmount.subtract(allocatedAmount).divide(CENT).intValueExact();
+        final List<Integer> lineIndexes = IntStream.range(0, shares.size()).boxed()
+                .sorted(Comparator.comparing(fractions::get, Comparator.reverseOrder()))
+                .limit(leftoverCentCount)
+                .toList();
+        for (final int lineIndex : lineIndexes) {
+            shares.set(lineIndex, shares.get(lineIndex).add(CENT));
+        }
+
+        return List.copyOf(shares);
+    }
+
+    /**
+     * Formats a currency amount assuming a United States of America locale.
+     *
+     * @param amount The amount.
+     * @return The formatted currency amount.
+     */
+    private static String formatCurrency(final BigDecimal amount) {
+        return NumberFormat.getCurrencyInstance(Locale.US).format(amount);
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event spanning an entire checkout. The phases of the checkout are recorded as nested
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.CheckoutPhaseEvent CheckoutPhaseEvents}.<p>
+ *
+ * Note: Like every JFR event, this event costs almost nothing when recording is off. The JIT compiler removes the
+ *   allocation and the commit becomes a single enabled check.
+ */
+@Name(CheckoutEvent.NAME)
+@Label("Checkout")
+@Category({ "Retail Point of Sale", "Checkout" })
+@Description("A complete checkout, from validation through persistence.")
+@StackTrace(false)
+public class CheckoutEvent extends Event {
+    /**
+     * The event name used in recordings.
+     */
+    public static final String NAME = "io.github.joelluellwitz.jl0724.Checkout";
+
+    @Label("Tool Code")
+    String toolCode;
+
+    @Label("Rental Days")
+    int rentalDayCount;
+
+    @Label("Succeeded")
+    @Description("False if the checkout was rejected or failed.")
+    boolean succeeded;
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event spanning one phase of a checkout. An event is only committed if its phase completes, so
+ *   a checkout that fails validation records no validation phase event, only a failed
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.CheckoutEvent CheckoutEvent}.
+ */
+@Name(CheckoutPhaseEvent.NAME)
+@Label("Checkout Phase")
+@Category({ "Retail Point of Sale", "Checkout" })
+@Description("One phase of a checkout.")
+@StackTrace(false)
+public class CheckoutPhaseEvent extends Event {
+    /**
+     * The event name used in recordings.
+     */
+    public static final String NAME = "io.github.joelluellwitz.jl0724.CheckoutPhase";
+
+    /**
+     * The phases of a checkout, in the order they run.
+     */
+    public enum Phase {
+        /**
+         * Contract parameter validation.
+         */
+        VALIDATION,
+        /**
+         * Tool lookup and mapping to the business tier.
+         */
+        TOOL_LOOKUP,
+        /**
+         * Rental agreement charge calculation.
+         */
+        PRICING,
+        /**
+         * Tool availability reservation.
+         */
+        AVAILABILITY,
+        /**
+         * Mapping the rental agreement to the data tier. Recorded on the rental agreement writer's thread.
+         */
+        MAPPING,
+        /**
+         * Saving the rental agreement through the rental agreement writer, including waiting for its commit.
+         */
+        PERSISTENCE
+    }
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Tool Code")
+    String toolCode;
+
+    @Label("Rental Days")
+    int rentalDayCount;
+
+    /**
+     * Creates and begins timing a phase event.
+     *
+     * @param phase The checkout phase.
+     * @param toolCode The Tool Code being checked out.
+     * @param rentalDayCount The number of rental days.
+     * @return The started event. Call {@link jdk.jfr.Event#commit() commit} when the phase completes.
+     */
+    // Intentionally package private.
+    static CheckoutPhaseEvent begin(final Phase phase, final String toolCode, final int rentalDayCount) {
+        final CheckoutPhaseEvent checkoutPhaseEvent = new CheckoutPhaseEvent();
+        checkoutPhaseEvent.phase = phase.name();
+        checkoutPhaseEvent.toolCode = toolCode;
+        checkoutPhaseEvent.rentalDayCount = rentalDayCount;
+        checkoutPhaseEvent.begin();
+
+        return checkoutPhaseEvent;
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarizes the checkout and pricing events in a Java Flight Recorder recording. For every checkout phase, this
+ *   prints how many times the phase ran and its mean, median, 95th percentile, and maximum duration, followed by the
+ *   slowest checkouts. Run it against a recording made with the bundled checkout.jfc settings:
+ *
+ * <pre>
+ * java -cp target/classes io.github.joelluellwitz.jl0724.internal.service.impl.CheckoutRecordingAnalyzer checkout.jfr
+ * </pre>
+ */
+public class CheckoutRecordingAnalyzer {
+    private static final int SLOWEST_CHECKOUT_COUNT = 5;
+    private static final String SUCCEEDED_CHECKOUT_LABEL = "Checkout";
+    private static final String FAILED_CHECKOUT_LABEL = "Checkout (failed)";
+    private static final String PRICING_LABEL = "Pricing";
+    private static final String ROW_FORMAT = "%-20s %8s %12s %12s %12s %12s\n";
+
+    /**
+     * Intentionally private. Use {@link #main(String[])} or {@link #analyze(Path)}.
+     */
+    private CheckoutRecordingAnalyzer() {
+    }
+
+    /**
+     * Prints a summary of a recording to standard out.
+     *
+     * @param args The path of the recording.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: CheckoutRecordingAnalyzer <recording.jfr>");
+            return;
+        }
+
+        System.out.print(analyze(Path.of(args[0])));
+    }
+
+    /**
+     * Summarizes a recording.
+     *
+     * @param recordingPath The path of the recording.
+     * @return The summary.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static String analyze(final Path recordingPath) throws IOException {
+        // Insertion order is the report order.
+        final Map<String, List<Duration>> durationsByLabel = new LinkedHashMap<>();
+        durationsByLabel.put(SUCCEEDED_CHECKOUT_LABEL, new ArrayList<>());
+        durationsByLabel.put(FAILED_CHECKOUT_LABEL, new ArrayList<>());
+        for (final CheckoutPhaseEvent.Phase phase : CheckoutPhaseEvent.Phase.values()) {
+            durationsByLabel.put(phase.name(), new ArrayList<>());
+        }
+        durationsByLabel.put(PRICING_LABEL, new ArrayList<>());
+        final List<RecordedEvent> checkoutEvents = new ArrayList<>();
+
+        try (RecordingFile recordingFile = new RecordingFile(recordingPath)) {
+            while (recordingFile.hasMoreEvents()) {
+                final RecordedEvent recordedEvent = recordingFile.readEvent();
+                switch (recordedEvent.getEventType().getName()) {
+                    case CheckoutEvent.NAME -> {
+                        final boolean succeeded = recordedEvent.getBoolean("succeeded");
+                        durationsByLabel.get(succeeded ? SUCCEEDED_CHECKOUT_LABEL : FAILED_CHECKOUT_LABEL)
+                                .add(recordedEvent.getDuration());
+                        checkoutEvents.add(recordedEvent);
+                    }
+                    case CheckoutPhaseEvent.NAME -> durationsByLabel
+                            .computeIfAbsent(recordedEvent.getString("phase"), key -> new ArrayList<>())
+                            .add(recordedEvent.getDuration());
+                    case PricingEvent.NAME -> durationsByLabel.get(PRICING_LABEL).add(recordedEvent.getDuration());
+                    default -> {
+                        // Other events (e.g., JDK events) are not summarized.
+                    }
+                }
+            }
+        }
+
+        final StringBuilder summaryStringBuilder = new StringBuilder();
+        summaryStringBuilder.append(String.format(ROW_FORMAT, "Event", "Count", "Mean (ms)", "Median (ms)",
+                "p95 (ms)", "Max (ms)"));
+        for (final Map.Entry<String, List<Duration>> durationsEntry : durationsByLabel.entrySet()) {
+            final List<Duration> durations = durationsEntry.getValue();
+            if (durations.isEmpty()) {
+                continue;
+            }
+            Collections.sort(durations);
+
+            Duration totalDuration = Duration.ZERO;
+            for (final Duration duration : durations) {
+                totalDuration = totalDuration.plus(duration);
+            }
+            summaryStringBuilder.append(String.format(ROW_FORMAT, durationsEntry.getKey(), durations.size(),
+                    formatMillis(totalDuration.dividedBy(durations.size())), formatMillis(percentile(durations, 50)),
+                    formatMillis(percentile(durations, 95)), formatMillis(durations.get(durations.size() - 1))));
+        }
+
+        checkoutEvents.sort(Comparator.comparing(RecordedEvent::getDuration, Comparator.reverseOrder()));
+        summaryStringBuilder.append("\nSlowest checkouts:\n");
+        for (final RecordedEvent checkoutEvent : checkoutEvents.subList(0,
+                Math.min(SLOWEST_CHECKOUT_COUNT, checkoutEvents.size()))) {
+            summaryStringBuilder.append(String.format("%12s ms  %s, %d days%s\n",
+                    formatMillis(checkoutEvent.getDuration()), checkoutEvent.getString("toolCode"),
+                    checkoutEvent.getInt("rentalDayCount"), checkoutEvent.getBoolean("succeeded") ? "" : " (failed)"));
+        }
+
+        return summaryStringBuilder.toString();
+    }
+
+    /**
+     * Returns a percentile using the nearest rank method.
+     *
+     * @param sortedDurations The durations, sorted ascending. Must not be empty.
+     * @param percentile The percentile, between 1 and 100.
+     * @return The duration at the percentile.
+     */
+    private static Duration percentile(final List<Duration> sortedDurations, final int percentile) {
+        final int rank = (int) Math.ceil(percentile / 100.0 * sortedDurations.size());
+        return sortedDurations.get(Math.max(rank, 1) - 1);
+    }
+
+    /**
+     * Formats a duration as milliseconds with microsecond precision.
+     *
+     * @param duration The duration.
+     * @return The formatted duration.
+     */
+    private static String formatMillis(final Duration duration) {
+        return String.format(Locale.ROOT, "%.3f", duration.toNanos() / 1_000_000.0);
+    }
+}
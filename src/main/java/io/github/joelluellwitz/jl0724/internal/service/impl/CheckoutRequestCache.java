@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * A bounded, least recently used cache of the rental agreements created by checkouts that supplied a request ID. A
+ *   retried checkout is answered from this cache without pricing the rental again or touching the database.<p>
+ *
+ * The cache holds at most 'jl0724.checkout.request-cache-size' rental agreements. Evicted (and pre-restart) request
+ *   IDs are still deduplicated, but through a lookup on the unique (store_id, request_id) index instead.<p>
+ *
+ * A checkout also registers its request ID as pending while it is in progress, so a retry that arrives before the
+ *   original checkout commits (for example, while the rental agreement waits for the group commit writer) waits for
+ *   the original rather than checking out a second time.<p>
+ *
+ * Note: A LinkedHashMap in access order guarded by a single lock is used rather than a concurrent map. Every operation
+ *   is a hash lookup plus a link update, so the lock is held for well under a microsecond, and checkout already
+ *   serializes on the database far more heavily than on this lock.
+ */
+@Component
+public class CheckoutRequestCache {
+    private final Map<RequestKey, RentalAgreementImpl> rentalAgreements;
+    private final ConcurrentMap<RequestKey, CompletableFuture<RentalAgreementImpl>> pendingCheckouts =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize The maximum number of rental agreements to cache.
+     */
+    // Intentionally package private.
+    CheckoutRequestCache(@Value("${jl0724.checkout.request-cache-size:10000}") final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The checkout request cache size must be greater than 0. You specified: %d", maxSize));
+        }
+
+        rentalAgreements = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<RequestKey, RentalAgreementImpl> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param storeId The ID of the store that made the checkout, or null for the default store.
+     * @param requestId A checkout request ID.
+     * @return The rental agreement created for the request ID, or null if it is not cached.
+     */
+    public RentalAgreementImpl get(final String storeId, final String requestId) {
+        synchronized (rentalAgreements) {
+            return rentalAgreements.get(new RequestKey(storeId, requestId));
+        }
+    }
+
+    /**
+     * Caches a rental agreement once the surrounding transaction commits, or immediately if there is no transaction.
+     *   A rental agreement that is rolled back is never cached.
+     *
+     * @param storeId The ID of the store that made the checkout, or null for the default store.
+     * @param requestId The checkout request ID.
+     * @param rentalAgreement The rental agreement created for the request ID.
+     */
+    public void put(final String storeId, final String requestId, final RentalAgreementImpl rentalAgreement) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putNow(new RequestKey(storeId, requestId), rentalAgreement);
+                }
+            });
+        }
+        else {
+            putNow(new RequestKey(storeId, requestId), rentalAgreement);
+        }
+    }
+
+    /**
+     * Registers a checkout in progress, unless another checkout with the same request ID is already in progress.
+     *
+     * @param storeId The ID of the store making the checkout, or null for the default store.
+     * @param requestId The checkout request ID.
+     * @param pendingCheckout Completed by the caller with the checkout's rental agreement, or exceptionally if the
+     *   checkout fails. The caller must call {@link #removePending(String, String, CompletableFuture) removePending}
+     *   before completing it.
+     * @return null if the checkout was registered, or the pending checkout already in progress.
+     */
+    public CompletableFuture<RentalAgreementImpl> putPendingIfAbsent(final String storeId, final String requestId,
+            final CompletableFuture<RentalAgreementImpl> pendingCheckout) {
+        return pendingCheckouts.putIfAbsent(new RequestKey(storeId, requestId), pendingCheckout);
+    }
+
+    /**
+     * Unregisters a checkout in progress. Called once the checkout's rental agreement is committed (and so cached), or
+     *   once the checkout fails.
+     *
+     * @param storeId The ID of the store making the checkout, or null for the default store.
+     * @param requestId The checkout request ID.
+     * @param pendingCheckout The pending checkout registered by the caller.
+     */
+    public void removePending(final String storeId, final String requestId,
+            final CompletableFuture<RentalAgreementImpl> pendingCheckout) {
+        pendingCheckouts.remove(new RequestKey(storeId, requestId), pendingCheckout);
+    }
+
+    /**
+     * Caches a rental agreement.
+     *
+     * @param requestKey Identifies the checkout request.
+     * @param rentalAgreement The rental agreement created for the request.
+     */
+    private void putNow(final RequestKey requestKey, final RentalAgreementImpl rentalAgreement) {
+        synchronized (rentalAgreements) {
+            rentalAgreements.put(requestKey, rentalAgreement);
+        }
+    }
+
+    /**
+     * Identifies a checkout request. The store is part of the key so that a retry can never return another store's
+     *   rental agreement.
+     *
+     * @param storeId The store ID, or null for the default store.
+     * @param requestId The checkout request ID.
+     */
+    private record RequestKey(String storeId, String requestId) {
+
+    }
+}
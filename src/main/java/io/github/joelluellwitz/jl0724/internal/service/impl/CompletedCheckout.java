@@ -0,0 +1,181 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto;
+
+/**
+ * A slot of the {@link io.github.joelluellwitz.jl0724.internal.service.impl.CompletedCheckoutRing
+ *   CompletedCheckoutRing} holding a committed rental agreement.<p>
+ *
+ * Note: Slots are allocated once, when the ring is created, and overwritten as the ring wraps around. Consumers must
+ *   copy anything they keep beyond the call they receive the slot in.
+ */
+public class CompletedCheckout {
+    private String storeId;
+    private int rentalAgreementId;
+    private LocalDateTime createdOn;
+    private String toolCode;
+    private String toolType;
+    private String toolBrand;
+    private BigDecimal dailyCharge;
+    private int rentalDayCount;
+    private LocalDate checkoutDate;
+    private LocalDate dueDate;
+    private Integer chargeDayCount;
+    private BigDecimal preDiscountCharge;
+    private int discountPercent;
+    private BigDecimal discountAmount;
+    private BigDecimal finalCharge;
+
+    /**
+     * Constructor. Creates an empty slot.
+     */
+    // Intentionally package private.
+    CompletedCheckout() {
+    }
+
+    /**
+     * Overwrites this slot with a rental agreement. Only the ring's producer calls this.
+     *
+     * @param rentalAgreementDto A rental agreement that has been saved and flushed, so its ID and creation time are
+     *   populated.
+     */
+    // Intentionally package private.
+    void set(final RentalAgreementDto rentalAgreementDto) {
+        storeId = rentalAgreementDto.getStoreId();
+        rentalAgreementId = rentalAgreementDto.getId();
+        createdOn = rentalAgreementDto.getCreatedOn();
+        toolCode = rentalAgreementDto.getToolCode();
+        toolType = rentalAgreementDto.getToolType();
+        toolBrand = rentalAgreementDto.getToolBrand();
+        dailyCharge = rentalAgreementDto.getDailyCharge();
+        rentalDayCount = rentalAgreementDto.getRentalDayCount();
+        checkoutDate = rentalAgreementDto.getCheckoutDate();
+        dueDate = rentalAgreementDto.getDueDate();
+        chargeDayCount = rentalAgreementDto.getChargeDayCount();
+        preDiscountCharge = rentalAgreementDto.getPreDiscountCharge();
+        discountPercent = rentalAgreementDto.getDiscountPercent();
+        discountAmount = rentalAgreementDto.getDiscountAmount();
+        finalCharge = rentalAgreementDto.getFinalCharge();
+    }
+
+    /**
+     * @return An audit record of the rental agreement in this slot.
+     */
+    public AgreementAuditRecord toAgreementAuditRecord() {
+        return new AgreementAuditRecord(rentalAgreementId, createdOn, toolCode, toolType, toolBrand, dailyCharge,
+                rentalDayCount, checkoutDate, dueDate, chargeDayCount, preDiscountCharge, discountPercent,
+                discountAmount, finalCharge);
+    }
+
+    /**
+     * @return The ID of the store that made the rental, or null for the default store.
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * @return The rental agreement ID. Only unique within the store's database when store partitioning is enabled.
+     */
+    public int getRentalAgreementId() {
+        return rentalAgreementId;
+    }
+
+    /**
+     * @return When the rental agreement was saved.
+     */
+    public LocalDateTime getCreatedOn() {
+        return createdOn;
+    }
+
+    /**
+     * @return The rented tool's Tool Code.
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * @return The rented tool's Tool Type.
+     */
+    public String getToolType() {
+        return toolType;
+    }
+
+    /**
+     * @return The rented tool's brand.
+     */
+    public String getToolBrand() {
+        return toolBrand;
+    }
+
+    /**
+     * @return The daily rental charge at checkout.
+     */
+    public BigDecimal getDailyCharge() {
+        return dailyCharge;
+    }
+
+    /**
+     * @return The number of rental days.
+     */
+    public int getRentalDayCount() {
+        return rentalDayCount;
+    }
+
+    /**
+     * @return The checkout date.
+     */
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    /**
+     * @return The due date.
+     */
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    /**
+     * @return The number of chargeable days.
+     */
+    public Integer getChargeDayCount() {
+        return chargeDayCount;
+    }
+
+    /**
+     * @return The charge before the discount.
+     */
+    public BigDecimal getPreDiscountCharge() {
+        return preDiscountCharge;
+    }
+
+    /**
+     * @return The discount percentage.
+     */
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    /**
+     * @return The discount amount.
+     */
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+
+    /**
+     * @return The final charge.
+     */
+    public BigDecimal getFinalCharge() {
+        return finalCharge;
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+/**
+ * An in-process consumer of committed checkouts. Every Spring bean implementing this interface receives every
+ *   checkout published to the {@link io.github.joelluellwitz.jl0724.internal.service.impl.CompletedCheckoutRing
+ *   CompletedCheckoutRing}, in commit order, on a thread of its own.<p>
+ *
+ * Consumers are only ever called from their own thread, so implementations do not need to be thread safe. A slow
+ *   consumer does not slow down other consumers, but once it falls a full ring behind, the rental agreement writer
+ *   waits for it, so consumers should not block for long.
+ */
+public interface CompletedCheckoutConsumer {
+    /**
+     * Consumes a committed checkout.
+     *
+     * @param completedCheckout The ring slot holding the checkout. The slot is reused once this method returns, so
+     *   implementations must not keep a reference to it.
+     * @param endOfBatch True if this is the last checkout currently available. Consumers that batch their work
+     *   should flush it now.
+     */
+    void accept(CompletedCheckout completedCheckout, boolean endOfBatch);
+}
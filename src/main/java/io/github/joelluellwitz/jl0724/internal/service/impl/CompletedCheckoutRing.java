@@ -0,0 +1,264 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A lock-free, single-producer, multi-consumer ring buffer of committed checkouts. Every
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.CompletedCheckoutConsumer CompletedCheckoutConsumer}
+ *   bean sees every checkout, in commit order, on a thread of its own.<p>
+ *
+ * The ring holds 'jl0724.checkout.ring.capacity' pre-allocated
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.CompletedCheckout CompletedCheckout} slots (1024 by
+ *   default, which must be a power of two). Publishing copies the rental agreement into the next slot and advances a
+ *   sequence number, so it costs the same no matter how many consumers there are or what they do. Each consumer
+ *   tracks its own sequence number and takes everything published since its last run as one batch. The producer only
+ *   waits when the slowest consumer is a full ring behind.<p>
+ *
+ * Note: There is exactly one producer, the rental agreement writer thread, because checkouts are published from the
+ *   writer's transaction as it commits. The producer therefore needs no compare-and-set, and consumers see checkouts
+ *   in the order they committed.
+ */
+@Component
+public class CompletedCheckoutRing {
+    private static final int SPIN_COUNT = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(CompletedCheckoutRing.class);
+
+    private final CompletedCheckout[] slots;
+    private final int indexMask;
+    // The sequence number of the last published slot.
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<ConsumerWorker> consumerWorkers;
+
+    // Only accessed by the producer.
+    private long nextSequence;
+    private long cachedGatingSequence = -1;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor. Starts a thread per consumer.
+     *
+     * @param completedCheckoutConsumers Every consumer of committed checkouts.
+     * @param capacity The number of slots. Must be a power of two.
+     */
+    // Intentionally package private.
+    CompletedCheckoutRing(final List<CompletedCheckoutConsumer> completedCheckoutConsumers,
+            @Value("${jl0724.checkout.ring.capacity:1024}") final int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The completed checkout ring capacity must be a power of two. You specified: %d", capacity));
+        }
+
+        slots = new CompletedCheckout[capacity];
+        for (int index = 0; index < capacity; index++) {
+            slots[index] = new CompletedCheckout();
+        }
+        indexMask = capacity - 1;
+
+        final List<ConsumerWorker> consumerWorkers = new ArrayList<>(completedCheckoutConsumers.size());
+        for (final CompletedCheckoutConsumer completedCheckoutConsumer : completedCheckoutConsumers) {
+            consumerWorkers.add(new ConsumerWorker(completedCheckoutConsumer));
+        }
+        this.consumerWorkers = List.copyOf(consumerWorkers);
+        this.consumerWorkers.forEach(consumerWorker -> consumerWorker.thread.start());
+    }
+
+    /**
+     * Publishes a rental agreement once the surrounding transaction commits, or immediately if there is no
+     *   transaction. Nothing is published if the transaction rolls back.<p>
+     *
+     * Note: Must only ever be called from one thread at a time. In the application, that is the rental agreement
+     *   writer thread.
+     *
+     * @param rentalAgreementDto A rental agreement that has been saved and flushed, so its ID and creation time are
+     *   populated.
+     */
+    public void publish(final RentalAgreementDto rentalAgreementDto) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishNow(rentalAgreementDto);
+                }
+            });
+        }
+        else {
+            publishNow(rentalAgreementDto);
+        }
+    }
+
+    /**
+     * Stops the consumer threads once they have consumed everything published. Waits a bounded time so that a stuck
+     *   consumer cannot hang shutdown. Checkouts published after this are dropped.
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MILLIS);
+        for (final ConsumerWorker consumerWorker : consumerWorkers) {
+            LockSupport.unpark(consumerWorker.thread);
+            try {
+                consumerWorker.thread.join(Math.max(1,
+                        TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+            }
+            catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (consumerWorker.thread.isAlive()) {
+                LOGGER.warn("The completed checkout consumer {} did not finish within {} ms.",
+                        consumerWorker.thread.getName(), SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Copies a rental agreement into the next slot and makes it visible to the consumers, first waiting for the
+     *   slowest consumer if the ring is full.
+     *
+     * @param rentalAgreementDto The committed rental agreement.
+     */
+    private void publishNow(final RentalAgreementDto rentalAgreementDto) {
+        final long sequence = nextSequence;
+        final long wrapSequence = sequence - slots.length;
+        // Note: The minimum consumer sequence is cached, so that consumers' sequences are only read once the producer
+        //   catches up with where they last were.
+        while (wrapSequence > cachedGatingSequence) {
+            if (closed) {
+                LOGGER.warn("Dropped completed checkout of rental agreement {} because the ring is closed.",
+                        rentalAgreementDto.getId());
+                return;
+            }
+
+            cachedGatingSequence = getMinimumConsumerSequence(sequence - 1);
+            if (wrapSequence > cachedGatingSequence) {
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        }
+
+        slots[(int) sequence & indexMask].set(rentalAgreementDto);
+        // Note: A volatile write, rather than a lazy one, so that a consumer about to park either sees the new
+        //   sequence or is seen as waiting below.
+        cursor.set(sequence);
+        nextSequence = sequence + 1;
+
+        for (final ConsumerWorker consumerWorker : consumerWorkers) {
+            if (consumerWorker.waiting) {
+                LockSupport.unpark(consumerWorker.thread);
+            }
+        }
+    }
+
+    /**
+     * @param defaultSequence Returned if there are no consumers.
+     * @return The sequence number of the last slot every consumer has finished with.
+     */
+    private long getMinimumConsumerSequence(final long defaultSequence) {
+        long minimumSequence = defaultSequence;
+        for (final ConsumerWorker consumerWorker : consumerWorkers) {
+            minimumSequence = Math.min(minimumSequence, consumerWorker.sequence.get());
+        }
+
+        return minimumSequence;
+    }
+
+    /**
+     * A consumer, its thread, and its position in the ring.
+     */
+    private class ConsumerWorker {
+        private final CompletedCheckoutConsumer completedCheckoutConsumer;
+        // The sequence number of the last slot this consumer has finished with.
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private final Thread thread;
+
+        private volatile boolean waiting;
+
+        /**
+         * Constructor. Creates, but does not start, the consumer's thread.
+         *
+         * @param completedCheckoutConsumer The consumer.
+         */
+        private ConsumerWorker(final CompletedCheckoutConsumer completedCheckoutConsumer) {
+            this.completedCheckoutConsumer = completedCheckoutConsumer;
+            thread = new Thread(this::run, "completed-checkout-"
+                    + completedCheckoutConsumer.getClass().getSimpleName());
+            // Note: Daemon so that a stuck consumer can never keep the JVM alive. Orderly shutdown drains through
+            //   close().
+            thread.setDaemon(true);
+        }
+
+        /**
+         * The consumer thread loop. Consumes every available slot as a batch, spinning briefly and then parking when
+         *   there is nothing to consume, until the ring is closed and everything published is consumed.
+         */
+        private void run() {
+            long consumedSequence = -1;
+            int idleCount = 0;
+            while (true) {
+                // Note: Read before the cursor, so that nothing published before close() is left unconsumed.
+                final boolean closing = closed;
+                final long availableSequence = cursor.get();
+                if (availableSequence > consumedSequence) {
+                    for (long nextSequence = consumedSequence + 1; nextSequence <= availableSequence; nextSequence++) {
+                        consume(slots[(int) nextSequence & indexMask], nextSequence == availableSequence);
+                    }
+                    consumedSequence = availableSequence;
+                    sequence.lazySet(consumedSequence);
+                    idleCount = 0;
+                }
+                else if (closing) {
+                    return;
+                }
+                else if (idleCount < SPIN_COUNT) {
+                    idleCount++;
+                    Thread.onSpinWait();
+                }
+                else {
+                    waiting = true;
+                    if (cursor.get() == consumedSequence && !closed) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    waiting = false;
+                }
+            }
+        }
+
+        /**
+         * Hands a slot to the consumer. A failure is logged and skipped so that it cannot stop the consumer thread.
+         *
+         * @param completedCheckout The slot.
+         * @param endOfBatch True if this is the last slot currently available.
+         */
+        private void consume(final CompletedCheckout completedCheckout, final boolean endOfBatch) {
+            try {
+                completedCheckoutConsumer.accept(completedCheckout, endOfBatch);
+            }
+            catch (final RuntimeException exception) {
+                LOGGER.error(String.format("The completed checkout consumer %s failed on rental agreement %d.",
+                        thread.getName(), completedCheckout.getRentalAgreementId()), exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.DailyRevenue;
+import io.github.joelluellwitz.jl0724.internal.data.api.DailyRevenueDto;
+
+/**
+ * Business logic tier representation of the revenue of one tool type on one checkout date. This class is immutable.
+ */
+public class DailyRevenueImpl implements DailyRevenue {
+    private final LocalDate date;
+    private final String toolType;
+    private final int rentalAgreementCount;
+    private final long chargeDayCount;
+    private final BigDecimal discountAmount;
+    private final BigDecimal finalCharge;
+
+    /**
+     * Constructs an immutable DailyRevenueImpl from a row of the daily_revenue table.<p>
+     *
+     * Note: SQLite stores decimals as floating point or integer values, so the amounts are rounded back to cents.
+     *
+     * @param dailyRevenueDto The row.
+     */
+    // Intentionally package private.
+    DailyRevenueImpl(final DailyRevenueDto dailyRevenueDto) {
+        date = dailyRevenueDto.getRevenueDate();
+        toolType = dailyRevenueDto.getToolType();
+        rentalAgreementCount = dailyRevenueDto.getRentalAgreementCount();
+        chargeDayCount = dailyRevenueDto.getChargeDayCount();
+        discountAmount = dailyRevenueDto.getDiscountAmount().setScale(2, RoundingMode.HALF_UP);
+        finalCharge = dailyRevenueDto.getFinalCharge().setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getToolType() {
+        return toolType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRentalAgreementCount() {
+        return rentalAgreementCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getChargeDayCount() {
+        return chargeDayCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BigDecimal getFinalCharge() {
+        return finalCharge;
+    }
+
+    /**
+     * Two daily revenues are equal if all their fields are equal.
+     *
+     * @param object The object to compare.
+     * @return true if the object is an equal DailyRevenueImpl.
+     */
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof DailyRevenueImpl)) {
+            return false;
+        }
+
+        final DailyRevenueImpl dailyRevenue = (DailyRevenueImpl) object;
+        return date.equals(dailyRevenue.date) && toolType.equals(dailyRevenue.toolType)
+                && rentalAgreementCount == dailyRevenue.rentalAgreementCount
+                && chargeDayCount == dailyRevenue.chargeDayCount && discountAmount.equals(dailyRevenue.discountAmount)
+                && finalCharge.equals(dailyRevenue.finalCharge);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, toolType, rentalAgreementCount, chargeDayCount, discountAmount, finalCharge);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("DailyRevenueImpl[date=%s, toolType=%s, rentalAgreementCount=%d, chargeDayCount=%d, "
+                + "discountAmount=%s, finalCharge=%s]", date, toolType, rentalAgreementCount, chargeDayCount,
+                discountAmount, finalCharge);
+    }
+}
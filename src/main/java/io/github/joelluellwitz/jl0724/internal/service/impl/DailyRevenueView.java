@@ -0,0 +1,307 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.DailyRevenue;
+import io.github.joelluellwitz.jl0724.internal.data.api.DailyRevenueDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.DailyRevenueRepo;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementFactDto;
+
+/**
+ * An incrementally maintained, materialized view of revenue by checkout date and tool type, so that revenue reports
+ *   read O(days) rows rather than summing O(rental agreements) rows.<p>
+ *
+ * The view is the daily_revenue table plus an in-memory mirror of it:
+ * <ul>
+ *   <li>Each checkout adds its rental agreement to the table in the same transaction that saves the rental agreement,
+ *     so the table always matches the committed rental agreements.</li>
+ *   <li>The mirror is loaded from the table on first use. Once the checkout transaction commits, the mirror takes the
+ *     updated row as is. Reports are answered from the mirror alone.</li>
+ *   <li>{@link #rebuild()} recomputes the table from every rental agreement, archived or not, for example after
+ *     upgrading a database that predates the table. Starting the application with
+ *     '--jl0724.daily-revenue.rebuild=true' rebuilds it at startup.</li>
+ * </ul>
+ *
+ * Note: The view only covers rentals of the default store (checkouts without a store ID), like the rental period
+ *   index, since reports have no store dimension.<p>
+ *
+ * Note: Only the rental agreement writer thread adds to the view, and each of its transactions commits (and updates
+ *   the mirror) before the next begins. The mirror can therefore copy committed rows rather than add to its own
+ *   totals, so a load that races with a checkout cannot count the checkout twice.
+ */
+@Component
+public class DailyRevenueView {
+    private static Logger LOGGER = LoggerFactory.getLogger(DailyRevenueView.class);
+
+    private final DailyRevenueRepo dailyRevenueRepo;
+    private final RentalAgreementHistory rentalAgreementHistory;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+    // Maps a checkout date to the revenue of each tool type on that date.
+    private final NavigableMap<LocalDate, NavigableMap<String, DailyRevenueImpl>> dailyRevenues = new TreeMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * Constructor.
+     *
+     * @param dailyRevenueRepo JPA Repository for
+     *   {@link io.github.joelluellwitz.jl0724.internal.data.api.DailyRevenueDto DailyRevenueDto}.
+     * @param rentalAgreementHistory Reads every rental agreement, including archived rental agreements.
+     * @param platformTransactionManager Used to rebuild the view at startup.
+     * @param rebuildOnStartup True to rebuild the view when the application starts.
+     */
+    // Intentionally package private.
+    DailyRevenueView(final DailyRevenueRepo dailyRevenueRepo, final RentalAgreementHistory rentalAgreementHistory,
+            final PlatformTransactionManager platformTransactionManager,
+            @Value("${jl0724.daily-revenue.rebuild:false}") final boolean rebuildOnStartup) {
+        this.dailyRevenueRepo = dailyRevenueRepo;
+        this.rentalAgreementHistory = rentalAgreementHistory;
+        transactionTemplate = new TransactionTemplate(platformTransactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * Adds a rental agreement to the daily_revenue table, and to the mirror once the surrounding transaction commits.
+     *   Must be called within the transaction that saves the rental agreement. Nothing is added for other stores.
+     *
+     * @param rentalAgreementDto A rental agreement that has been saved and flushed.
+     */
+    public void add(final RentalAgreementDto rentalAgreementDto) {
+        if (rentalAgreementDto.getStoreId() != null) {
+            return;
+        }
+
+        final Optional<DailyRevenueDto> dailyRevenueDtoOptional = dailyRevenueRepo.getDailyRevenue(
+                rentalAgreementDto.getCheckoutDate(), rentalAgreementDto.getToolType());
+        final DailyRevenueDto dailyRevenueDto = dailyRevenueDtoOptional.orElseGet(() -> createDailyRevenueDto(
+                rentalAgreementDto.getCheckoutDate(), rentalAgreementDto.getToolType()));
+        addToDailyRevenueDto(dailyRevenueDto, rentalAgreementDto.getChargeDayCount(),
+                rentalAgreementDto.getDiscountAmount(), rentalAgreementDto.getFinalCharge());
+        dailyRevenueRepo.save(dailyRevenueDto);
+
+        final DailyRevenueImpl dailyRevenue = new DailyRevenueImpl(dailyRevenueDto);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putNow(dailyRevenue);
+                }
+            });
+        }
+        else {
+            putNow(dailyRevenue);
+        }
+    }
+
+    /**
+     * Returns the revenue of every tool type on every checkout date between the supplied dates.
+     *
+     * @param fromDate The first checkout date, inclusive.
+     * @param toDate The last checkout date, inclusive.
+     * @return The matching daily revenues sorted by date and then Tool Type. Dates and tool types without rentals are
+     *   omitted.
+     */
+    public List<DailyRevenue> listDailyRevenue(final LocalDate fromDate, final LocalDate toDate) {
+        ensureLoaded();
+
+        readWriteLock.readLock().lock();
+        try {
+            final List<DailyRevenue> matchingDailyRevenues = new ArrayList<>();
+            for (final Map<String, DailyRevenueImpl> toolTypeRevenues
+                    : dailyRevenues.subMap(fromDate, true, toDate, true).values()) {
+                matchingDailyRevenues.addAll(toolTypeRevenues.values());
+            }
+            return matchingDailyRevenues;
+        }
+        finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recomputes the daily_revenue table from every rental agreement of the default store, including archived rental
+     *   agreements. The mirror is reloaded on next use once the surrounding transaction commits. Must be called within
+     *   a transaction.<p>
+     *
+     * Note: The table is emptied first so that the transaction holds the database's write lock while it reads. No
+     *   checkout can commit in between, so none is missed or counted twice.
+     *
+     * @return The number of rows in the rebuilt table.
+     */
+    public int rebuild() {
+        LOGGER.debug("Rebuilding the daily revenue view.");
+        dailyRevenueRepo.deleteDailyRevenue();
+
+        final Map<LocalDate, Map<String, DailyRevenueDto>> dailyRevenueDtos = new TreeMap<>();
+        try (Stream<RentalAgreementFactDto> rentalAgreementFactDtos =
+                rentalAgreementHistory.streamDefaultStoreRentalAgreementFacts()) {
+            rentalAgreementFactDtos.forEach(rentalAgreementFactDto -> addToDailyRevenueDto(
+                    dailyRevenueDtos.computeIfAbsent(rentalAgreementFactDto.checkoutDate(), key -> new TreeMap<>())
+                            .computeIfAbsent(rentalAgreementFactDto.toolType(), key -> createDailyRevenueDto(
+                                    rentalAgreementFactDto.checkoutDate(), rentalAgreementFactDto.toolType())),
+                    rentalAgreementFactDto.chargeDayCount(), rentalAgreementFactDto.discountAmount(),
+                    rentalAgreementFactDto.finalCharge()));
+        }
+
+        int rowCount = 0;
+        for (final Map<String, DailyRevenueDto> toolTypeRevenueDtos : dailyRevenueDtos.values()) {
+            dailyRevenueRepo.saveAll(toolTypeRevenueDtos.values());
+            rowCount += toolTypeRevenueDtos.size();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    unload();
+                }
+            });
+        }
+        else {
+            unload();
+        }
+
+        LOGGER.debug("Rebuilt the daily revenue view with {} rows.", rowCount);
+        return rowCount;
+    }
+
+    /**
+     * Rebuilds the view when the application starts, if the 'jl0724.daily-revenue.rebuild' property is true. Runs
+     *   before the console starts taking checkouts.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            transactionTemplate.execute(status -> rebuild());
+        }
+    }
+
+    /**
+     * Creates an empty daily_revenue row.
+     *
+     * @param revenueDate The checkout date.
+     * @param toolType The Tool Type.
+     * @return The unsaved row.
+     */
+    private static DailyRevenueDto createDailyRevenueDto(final LocalDate revenueDate, final String toolType) {
+        final DailyRevenueDto dailyRevenueDto = new DailyRevenueDto();
+        dailyRevenueDto.setRevenueDate(revenueDate);
+        dailyRevenueDto.setToolType(toolType);
+        dailyRevenueDto.setDiscountAmount(BigDecimal.ZERO);
+        dailyRevenueDto.setFinalCharge(BigDecimal.ZERO);
+        return dailyRevenueDto;
+    }
+
+    /**
+     * Adds one rental agreement to a daily_revenue row.
+     *
+     * @param dailyRevenueDto The row.
+     * @param chargeDayCount The rental agreement's number of chargeable days.
+     * @param discountAmount The rental agreement's discount amount.
+     * @param finalCharge The rental agreement's final charge.
+     */
+    private static void addToDailyRevenueDto(final DailyRevenueDto dailyRevenueDto, final int chargeDayCount,
+            final BigDecimal discountAmount, final BigDecimal finalCharge) {
+        dailyRevenueDto.setRentalAgreementCount(dailyRevenueDto.getRentalAgreementCount() + 1);
+        dailyRevenueDto.setChargeDayCount(dailyRevenueDto.getChargeDayCount() + chargeDayCount);
+        // Note: Summed as BigDecimals and rounded to cents, since SQLite would sum the stored values as floating point.
+        dailyRevenueDto.setDiscountAmount(dailyRevenueDto.getDiscountAmount().add(discountAmount)
+                .setScale(2, RoundingMode.HALF_UP));
+        dailyRevenueDto.setFinalCharge(dailyRevenueDto.getFinalCharge().add(finalCharge)
+                .setScale(2, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Replaces a row of the mirror if the mirror is loaded. Otherwise, the row will be read from the table when the
+     *   mirror is loaded.
+     *
+     * @param dailyRevenue The committed row.
+     */
+    private void putNow(final DailyRevenueImpl dailyRevenue) {
+        readWriteLock.writeLock().lock();
+        try {
+            if (loaded) {
+                putLocked(dailyRevenue);
+            }
+        }
+        finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the mirror from the daily_revenue table the first time it is used after startup or a rebuild.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        readWriteLock.writeLock().lock();
+        try {
+            if (!loaded) {
+                LOGGER.debug("Loading the daily revenue view.");
+                for (final DailyRevenueDto dailyRevenueDto : dailyRevenueRepo.listDailyRevenue()) {
+                    putLocked(new DailyRevenueImpl(dailyRevenueDto));
+                }
+                loaded = true;
+                LOGGER.debug("Loaded revenue for {} dates.", dailyRevenues.size());
+            }
+        }
+        finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Empties the mirror so that it is loaded again on next use.
+     */
+    private void unload() {
+        readWriteLock.writeLock().lock();
+        try {
+            loaded = false;
+            dailyRevenues.clear();
+        }
+        finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a row of the mirror. The caller must hold the write lock.
+     *
+     * @param dailyRevenue The row.
+     */
+    private void putLocked(final DailyRevenueImpl dailyRevenue) {
+        dailyRevenues.computeIfAbsent(dailyRevenue.getDate(), key -> new TreeMap<>())
+                .put(dailyRevenue.getToolType(), dailyRevenue);
+    }
+}
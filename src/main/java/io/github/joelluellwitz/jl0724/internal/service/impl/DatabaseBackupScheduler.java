@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.DatabaseBackup;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Periodically backs up the default database with the
+ *   {@link io.github.joelluellwitz.jl0724.internal.data.api.DatabaseBackup DatabaseBackup}. Runs every
+ *   'jl0724.backup.interval-minutes' minutes (1440, once a day, by default) on a background thread. Enabled by setting
+ *   the 'jl0724.backup.directory' property.
+ */
+@Component
+@ConditionalOnProperty(name = "jl0724.backup.directory")
+public class DatabaseBackupScheduler {
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(DatabaseBackupScheduler.class);
+
+    private final DatabaseBackup databaseBackup;
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * Constructor. Schedules the first run one interval after startup.
+     *
+     * @param databaseBackup Takes the backups.
+     * @param intervalMinutes The time between runs, in minutes.
+     */
+    // Intentionally package private.
+    DatabaseBackupScheduler(final DatabaseBackup databaseBackup,
+            @Value("${jl0724.backup.interval-minutes:1440}") final long intervalMinutes) {
+        if (intervalMinutes < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The backup interval must be greater than 0. You specified: %d", intervalMinutes));
+        }
+
+        this.databaseBackup = databaseBackup;
+
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "database-backup");
+            // Note: Daemon so that a long run can never keep the JVM alive. An interrupted backup is never moved into
+            //   place.
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutorService.scheduleWithFixedDelay(this::backUpQuietly, intervalMinutes, intervalMinutes,
+                TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops the background thread, waiting a bounded time for a run in progress to finish.
+     */
+    @PreDestroy
+    public void close() {
+        scheduledExecutorService.shutdown();
+        try {
+            if (!scheduledExecutorService.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("The database backup did not finish within {} ms.", SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes a backup, logging rather than throwing any failure so that later runs are still scheduled.
+     */
+    private void backUpQuietly() {
+        try {
+            final Path backupPath = databaseBackup.backUp();
+            LOGGER.info("Backed up the database to '{}'.", backupPath);
+        }
+        catch (final RuntimeException exception) {
+            LOGGER.error("Failed to back up the database.", exception);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * An {@link io.github.joelluellwitz.jl0724.internal.service.impl.OutboxEventSink OutboxEventSink} that appends every
+ *   event as a line of JSON to the 'jl0724.outbox.file' file, forcing each batch to disk before the batch is removed
+ *   from the outbox. Enabled by setting that property. Consumers tail the file.
+ */
+@Component
+@ConditionalOnProperty(name = "jl0724.outbox.file")
+public class FileOutboxEventSink implements OutboxEventSink {
+    private final Path path;
+    private final StringBuilder batchStringBuilder = new StringBuilder();
+
+    private FileChannel fileChannel;
+
+    /**
+     * Constructor. Creates the file's directory if it does not exist.
+     *
+     * @param path The file events are appended to.
+     */
+    // Intentionally package private.
+    FileOutboxEventSink(@Value("${jl0724.outbox.file}") final String path) {
+        this.path = Path.of(path).toAbsolutePath();
+
+        try {
+            Files.createDirectories(this.path.getParent());
+        }
+        catch (final IOException exception) {
+            throw new UncheckedIOException(
+                    String.format("Failed to create the directory of the outbox file '%s'.", path), exception);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final List<OutboxEvent> events) {
+        batchStringBuilder.setLength(0);
+        for (final OutboxEvent event : events) {
+            event.appendJsonLine(batchStringBuilder);
+        }
+
+        try {
+            if (fileChannel == null) {
+                fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            final ByteBuffer byteBuffer = ByteBuffer.wrap(batchStringBuilder.toString()
+                    .getBytes(StandardCharsets.UTF_8));
+            while (byteBuffer.hasRemaining()) {
+                fileChannel.write(byteBuffer);
+            }
+            fileChannel.force(false);
+        }
+        catch (final IOException exception) {
+            // Reopen the file for the retry rather than keep a channel in an unknown state.
+            closeQuietly();
+            throw new UncheckedIOException(String.format("Failed to write to the outbox file '%s'.", path), exception);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        closeQuietly();
+    }
+
+    /**
+     * Closes the file, if open, ignoring any failure. Every written batch has already been forced to disk.
+     */
+    private void closeQuietly() {
+        if (fileChannel != null) {
+            try {
+                fileChannel.close();
+            }
+            catch (final IOException exception) {
+                // Nothing was left unwritten.
+            }
+            fileChannel = null;
+        }
+    }
+}
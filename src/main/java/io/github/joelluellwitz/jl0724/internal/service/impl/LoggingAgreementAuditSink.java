@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes audit records to the 'io.github.joelluellwitz.jl0724.audit' logger at INFO, one record per line.
+ */
+@Component
+public class LoggingAgreementAuditSink implements AgreementAuditSink {
+    // Note: A dedicated logger name lets the audit trail be routed to its own appender without also capturing the
+    //   application's debug logging.
+    private static Logger LOGGER = LoggerFactory.getLogger("io.github.joelluellwitz.jl0724.audit");
+
+    /**
+     * Constructor.
+     */
+    // Intentionally package private.
+    LoggingAgreementAuditSink() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final List<AgreementAuditRecord> records) {
+        if (LOGGER.isInfoEnabled()) {
+            for (final AgreementAuditRecord record : records) {
+                LOGGER.info("{}", record);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.time.LocalDateTime;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.OutboxEventDto;
+
+/**
+ * An immutable event relayed from the outbox to the
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.OutboxEventSink OutboxEventSinks}. An event may be
+ *   delivered more than once, so consumers should deduplicate on the event type, store ID, and rental agreement ID.
+ *
+ * @param eventType The kind of change, for example {@value OutboxRelay#RENTAL_AGREEMENT_CREATED}.
+ * @param storeId The ID of the store the change happened at, or null for the default store.
+ * @param rentalAgreementId The ID of the rental agreement. Unique within a store.
+ * @param createdOn When the event was saved.
+ * @param payload The event details, as a JSON object.
+ */
+public record OutboxEvent(String eventType, String storeId, int rentalAgreementId, LocalDateTime createdOn,
+        String payload) {
+
+    /**
+     * Creates an event from an outbox row.
+     *
+     * @param outboxEventDto An outbox row.
+     * @return The event.
+     */
+    // Intentionally package private.
+    static OutboxEvent fromOutboxEventDto(final OutboxEventDto outboxEventDto) {
+        return new OutboxEvent(outboxEventDto.getEventType(), outboxEventDto.getStoreId(),
+                outboxEventDto.getRentalAgreementId(), outboxEventDto.getCreatedOn(), outboxEventDto.getPayload());
+    }
+
+    /**
+     * Appends the event as a single line of JSON, including the trailing line feed.<p>
+     *
+     * Note: The event type is a constant and store IDs are restricted to letters, digits, '-', and '_', so neither
+     *   needs escaping. The payload is already JSON.
+     *
+     * @param jsonStringBuilder The builder to append to.
+     */
+    public void appendJsonLine(final StringBuilder jsonStringBuilder) {
+        jsonStringBuilder.append("{\"eventType\":\"").append(eventType).append('"')
+                .append(",\"storeId\":").append(storeId == null ? "null" : "\"" + storeId + "\"")
+                .append(",\"rentalAgreementId\":").append(rentalAgreementId)
+                .append(",\"createdOn\":\"").append(createdOn).append('"')
+                .append(",\"payload\":").append(payload)
+                .append("}\n");
+    }
+}
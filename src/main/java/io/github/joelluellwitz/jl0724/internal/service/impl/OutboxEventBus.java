@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * An {@link io.github.joelluellwitz.jl0724.internal.service.impl.OutboxEventSink OutboxEventSink} that hands every
+ *   event to in-process subscribers.<p>
+ *
+ * Note: Subscribers run on the relay thread and should hand events off rather than do slow work. A subscriber that
+ *   throws is logged and skipped. The event is not redelivered to it, so that one broken subscriber cannot hold up
+ *   the outbox for every other sink.
+ */
+@Component
+public class OutboxEventBus implements OutboxEventSink {
+    private static Logger LOGGER = LoggerFactory.getLogger(OutboxEventBus.class);
+
+    private final List<Consumer<OutboxEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Subscribes to every event relayed from now on.
+     *
+     * @param subscriber Called once per event, on the relay thread.
+     * @return Unsubscribes when run.
+     */
+    public Runnable subscribe(final Consumer<OutboxEvent> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final List<OutboxEvent> events) {
+        for (final Consumer<OutboxEvent> subscriber : subscribers) {
+            for (final OutboxEvent event : events) {
+                try {
+                    subscriber.accept(event);
+                }
+                catch (final RuntimeException exception) {
+                    LOGGER.error(String.format("An outbox subscriber failed on the %s event of rental agreement %d.",
+                            event.eventType(), event.rentalAgreementId()), exception);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.List;
+
+/**
+ * A destination for {@link io.github.joelluellwitz.jl0724.internal.service.impl.OutboxEvent OutboxEvents}. Every
+ *   Spring bean implementing this interface receives every event relayed by the
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.OutboxRelay OutboxRelay}.<p>
+ *
+ * Sinks are only ever called from the relay thread, so implementations do not need to be thread safe and may block
+ *   without slowing down checkout. A sink that throws causes the batch to stay in the outbox and be relayed again to
+ *   every sink, so every sink must tolerate duplicates.
+ */
+public interface OutboxEventSink {
+    /**
+     * Publishes a batch of events. Returns only once the events are safely delivered.
+     *
+     * @param events The events of one store, oldest first. Never empty.
+     */
+    void publish(List<OutboxEvent> events);
+
+    /**
+     * Releases any resources held by the sink. Called once, when the application shuts down.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.OutboxEventDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.OutboxEventRepo;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.StoreContext;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A transactional outbox for completed checkouts. Checkout saves an event in the outbox table in the same transaction
+ *   as the rental agreement, and a background thread relays the outbox to every
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.OutboxEventSink OutboxEventSink}, so downstream systems
+ *   learn about every committed rental agreement (and no rolled back one) without polling the rental_agreement table
+ *   or slowing down checkout.<p>
+ *
+ * The relay runs every 'jl0724.outbox.poll-interval-millis' milliseconds (100 by default). It reads up to
+ *   'jl0724.outbox.batch-size' events (256 by default) of a store at a time, publishes them to every sink, and then
+ *   deletes them. Delivery is at least once: if a sink fails or the application stops before the delete commits, the
+ *   events are published again to every sink.<p>
+ *
+ * Note: With store partitioning, each store's outbox lives in the store's database, so it commits with the store's
+ *   rental agreements. The relay polls the default store and every store that has checked out since startup. Events
+ *   left in the outbox of another store by an earlier run are relayed after the store's next checkout.
+ */
+@Component
+public class OutboxRelay {
+    /**
+     * The event type of a saved rental agreement.
+     */
+    public static final String RENTAL_AGREEMENT_CREATED = "RentalAgreementCreated";
+
+    // The default store is represented by an empty String, which is never a valid store ID.
+    private static final String DEFAULT_STORE_KEY = "";
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final List<OutboxEventSink> outboxEventSinks;
+    private final OutboxEventRepo outboxEventRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int batchSize;
+    private final Set<String> storeKeys = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * Constructor. Starts relaying immediately, so that events left by an earlier run are delivered.
+     *
+     * @param outboxEventSinks Every sink that receives outbox events.
+     * @param outboxEventRepo JPA Repository for
+     *   {@link io.github.joelluellwitz.jl0724.internal.data.api.OutboxEventDto OutboxEventDto}.
+     * @param platformTransactionManager Used to read and delete outbox events.
+     * @param pollIntervalMillis The time between runs, in milliseconds.
+     * @param batchSize The maximum number of events published at a time.
+     */
+    // Intentionally package private.
+    OutboxRelay(final List<OutboxEventSink> outboxEventSinks, final OutboxEventRepo outboxEventRepo,
+            final PlatformTransactionManager platformTransactionManager,
+            @Value("${jl0724.outbox.poll-interval-millis:100}") final long pollIntervalMillis,
+            @Value("${jl0724.outbox.batch-size:256}") final int batchSize) {
+        if (pollIntervalMillis < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The outbox poll interval must be greater than 0. You specified: %d", pollIntervalMillis));
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The outbox batch size must be greater than 0. You specified: %d", batchSize));
+        }
+
+        this.outboxEventSinks = List.copyOf(outboxEventSinks);
+        this.outboxEventRepo = outboxEventRepo;
+        transactionTemplate = new TransactionTemplate(platformTransactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(platformTransactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        this.batchSize = batchSize;
+        storeKeys.add(DEFAULT_STORE_KEY);
+
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "outbox-relay");
+            // Note: Daemon so that a stuck sink can never keep the JVM alive. Undelivered events stay in the outbox.
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutorService.scheduleWithFixedDelay(this::relayQuietly, 0, pollIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Saves a {@value #RENTAL_AGREEMENT_CREATED} event for a rental agreement. Must be called within the transaction
+     *   that saves the rental agreement, after it is flushed.
+     *
+     * @param rentalAgreementDto A rental agreement that has been saved and flushed, so its ID and creation time are
+     *   populated.
+     */
+    public void add(final RentalAgreementDto rentalAgreementDto) {
+        final StringBuilder payloadStringBuilder = new StringBuilder();
+        AgreementJournalCodec.encode(AgreementAuditRecord.fromRentalAgreementDto(rentalAgreementDto),
+                payloadStringBuilder);
+        // The journal line ends with a line feed, which is not part of the JSON object.
+        payloadStringBuilder.setLength(payloadStringBuilder.length() - 1);
+
+        final OutboxEventDto outboxEventDto = new OutboxEventDto();
+        outboxEventDto.setEventType(RENTAL_AGREEMENT_CREATED);
+        outboxEventDto.setStoreId(rentalAgreementDto.getStoreId());
+        outboxEventDto.setRentalAgreementId(rentalAgreementDto.getId());
+        outboxEventDto.setPayload(payloadStringBuilder.toString());
+        outboxEventRepo.save(outboxEventDto);
+
+        storeKeys.add(rentalAgreementDto.getStoreId() == null ? DEFAULT_STORE_KEY : rentalAgreementDto.getStoreId());
+    }
+
+    /**
+     * Relays every event currently in the outbox of every known store.
+     *
+     * @return The number of events relayed.
+     */
+    public int relay() {
+        int relayedCount = 0;
+        for (final String storeKey : storeKeys) {
+            final String storeId = DEFAULT_STORE_KEY.equals(storeKey) ? null : storeKey;
+            int batchRelayedCount;
+            do {
+                batchRelayedCount = relayBatch(storeId);
+                relayedCount += batchRelayedCount;
+            } while (batchRelayedCount == batchSize);
+        }
+
+        return relayedCount;
+    }
+
+    /**
+     * Stops the relay thread, waiting a bounded time for a run in progress to finish, and closes the sinks. Events not
+     *   yet relayed stay in the outbox for the next run.
+     */
+    @PreDestroy
+    public void close() {
+        scheduledExecutorService.shutdown();
+        try {
+            if (!scheduledExecutorService.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("The outbox relay did not finish within {} ms.", SHUTDOWN_TIMEOUT_MILLIS);
+                return;
+            }
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        for (final OutboxEventSink outboxEventSink : outboxEventSinks) {
+            try {
+                outboxEventSink.close();
+            }
+            catch (final RuntimeException exception) {
+                LOGGER.error("Failed to close an outbox event sink.", exception);
+            }
+        }
+    }
+
+    /**
+     * Runs {@link #relay()}, logging rather than throwing any failure so that later runs are still scheduled.
+     */
+    private void relayQuietly() {
+        try {
+            relay();
+        }
+        catch (final RuntimeException exception) {
+            LOGGER.error("Failed to relay outbox events.", exception);
+        }
+    }
+
+    /**
+     * Publishes the oldest events of a store's outbox to every sink, then deletes them.
+     *
+     * @param storeId The store ID, or null for the default store.
+     * @return The number of events relayed.
+     */
+    private int relayBatch(final String storeId) {
+        StoreContext.setStoreId(storeId);
+        try {
+            final List<OutboxEventDto> outboxEventDtos = readOnlyTransactionTemplate
+                    .execute(status -> outboxEventRepo.listOldestOutboxEvents(PageRequest.ofSize(batchSize)));
+            if (outboxEventDtos.isEmpty()) {
+                return 0;
+            }
+
+            final List<OutboxEvent> outboxEvents = outboxEventDtos.stream().map(OutboxEvent::fromOutboxEventDto)
+                    .toList();
+            for (final OutboxEventSink outboxEventSink : outboxEventSinks) {
+                outboxEventSink.publish(outboxEvents);
+            }
+
+            final List<Integer> ids = outboxEventDtos.stream().map(OutboxEventDto::getId).toList();
+            transactionTemplate.execute(status -> outboxEventRepo.deleteOutboxEvents(ids));
+            LOGGER.debug("Relayed {} outbox events.", outboxEvents.size());
+            return outboxEvents.size();
+        }
+        finally {
+            StoreContext.setStoreId(null);
+        }
+    }
+}
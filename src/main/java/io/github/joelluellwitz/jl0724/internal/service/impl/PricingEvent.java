@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event spanning the calculation of a rental agreement's charges by
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementImpl RentalAgreementImpl}. Emitted for
+ *   checkouts as well as repricing runs.
+ */
+@Name(PricingEvent.NAME)
+@Label("Rental Agreement Pricing")
+@Category({ "Retail Point of Sale", "Pricing" })
+@Description("Calculation of charge days and charges for one rental agreement.")
+@StackTrace(false)
+public class PricingEvent extends Event {
+    /**
+     * The event name used in recordings.
+     */
+    public static final String NAME = "io.github.joelluellwitz.jl0724.Pricing";
+
+    @Label("Tool Code")
+    String toolCode;
+
+    @Label("Rental Days")
+    int rentalDayCount;
+
+    @Label("Charge Days")
+    int chargeDayCount;
+}
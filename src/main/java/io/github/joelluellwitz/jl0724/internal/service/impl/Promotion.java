@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.PromotionDto;
+
+/**
+ * The business tier representation of a promotion. This record is immutable.
+ *
+ * @param id The promotion's ID. Breaks ties between promotions with the same discount.
+ * @param name The promotion's name.
+ * @param couponCode The upper case coupon code the customer must present, or null if none is needed.
+ * @param toolType The Tool Type the promotion is limited to, or null for every Tool Type.
+ * @param startDate The first checkout date of the promotion, or null if it has no start.
+ * @param endDate The last checkout date of the promotion (inclusive), or null if it has no end.
+ * @param minimumRentalDayCount The minimum number of rental days.
+ * @param discountPercent The discount percentage, between 1 and 100 (inclusive).
+ */
+public record Promotion(int id, String name, String couponCode, String toolType, LocalDate startDate,
+        LocalDate endDate, int minimumRentalDayCount, int discountPercent) {
+
+    /**
+     * Creates a promotion from its data tier representation.
+     *
+     * @param promotionDto The data tier promotion.
+     * @return The promotion.
+     */
+    // Intentionally package private.
+    static Promotion fromPromotionDto(final PromotionDto promotionDto) {
+        return new Promotion(promotionDto.getId(), promotionDto.getName(),
+                normalizeCouponCode(promotionDto.getCouponCode()), promotionDto.getToolType(),
+                promotionDto.getStartDate(), promotionDto.getEndDate(), promotionDto.getMinimumRentalDayCount(),
+                promotionDto.getDiscountPercent());
+    }
+
+    /**
+     * Normalizes a coupon code so that coupon codes are case insensitive.
+     *
+     * @param couponCode The coupon code, or null.
+     * @return The upper case coupon code, or null.
+     */
+    // Intentionally package private.
+    static String normalizeCouponCode(final String couponCode) {
+        return couponCode == null ? null : couponCode.strip().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.ContractParameters;
+import io.github.joelluellwitz.jl0724.internal.data.api.PromotionDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.PromotionRepo;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Finds the discount of a checkout: the greater of the clerk's discount and the best promotion that applies. A
+ *   promotion applies if the checkout matches its Tool Type, its checkout date window, and its minimum rental length,
+ *   and, for a coupon promotion, if the customer presents its coupon code. Promotions do not stack.<p>
+ *
+ * Promotions are compiled into a
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.PromotionIndex PromotionIndex}, so a checkout costs a
+ *   few map lookups no matter how many promotions there are. The index is compiled on first use and recompiled in the
+ *   background every 'jl0724.promotion.refresh-interval-millis' milliseconds (10 seconds by default), so a promotion
+ *   added to the database is picked up without a restart.<p>
+ *
+ * Note: Each recompile publishes a new index through a single volatile write, so checkouts never lock and always see
+ *   one complete set of promotions.
+ */
+@Component
+public class PromotionEngine {
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(PromotionEngine.class);
+
+    private final PromotionRepo promotionRepo;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    private volatile PromotionIndex promotionIndex;
+
+    /**
+     * Constructor. Schedules the background recompile.
+     *
+     * @param promotionRepo JPA Repository for
+     *   {@link io.github.joelluellwitz.jl0724.internal.data.api.PromotionDto PromotionDto}.
+     * @param platformTransactionManager Used to reload the promotions in the background.
+     * @param refreshIntervalMillis The time between recompiles, in milliseconds.
+     */
+    // Intentionally package private.
+    PromotionEngine(final PromotionRepo promotionRepo, final PlatformTransactionManager platformTransactionManager,
+            @Value("${jl0724.promotion.refresh-interval-millis:10000}") final long refreshIntervalMillis) {
+        if (refreshIntervalMillis < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The promotion refresh interval must be greater than 0. You specified: %d",
+                    refreshIntervalMillis));
+        }
+
+        this.promotionRepo = promotionRepo;
+        readOnlyTransactionTemplate = new TransactionTemplate(platformTransactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "promotion-refresher");
+            // Note: Daemon so that a slow reload can never keep the JVM alive.
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutorService.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMillis,
+                refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the discount percentage of a checkout. Compiles the promotions within the caller's transaction on first
+     *   use.
+     *
+     * @param contractParameters The user's selections, including the clerk's discount and any coupon code.
+     * @param toolType The Tool Type of the rented tool.
+     * @return The greater of the clerk's discount and the best applicable promotion's discount.
+     * @throws IllegalArgumentException If a coupon code is supplied but none of its promotions apply to the checkout.
+     */
+    public int getDiscountPercent(final ContractParameters contractParameters, final String toolType) {
+        PromotionIndex currentPromotionIndex = promotionIndex;
+        if (currentPromotionIndex == null) {
+            currentPromotionIndex = load();
+        }
+
+        int discountPercent = contractParameters.getDiscountPercent();
+        final Promotion promotion = currentPromotionIndex.findBestPromotion(null, toolType,
+                contractParameters.getCheckoutDate(), contractParameters.getRentalDayCount());
+        if (promotion != null) {
+            discountPercent = Math.max(discountPercent, promotion.discountPercent());
+        }
+
+        final String couponCode = Promotion.normalizeCouponCode(contractParameters.getCouponCode());
+        if (couponCode != null) {
+            final Promotion couponPromotion = currentPromotionIndex.findBestPromotion(couponCode, toolType,
+                    contractParameters.getCheckoutDate(), contractParameters.getRentalDayCount());
+            if (couponPromotion == null) {
+                throw new IllegalArgumentException(String.format(
+                        "The coupon code does not apply to this checkout. You specified: %s",
+                        contractParameters.getCouponCode()));
+            }
+            discountPercent = Math.max(discountPercent, couponPromotion.discountPercent());
+        }
+
+        return discountPercent;
+    }
+
+    /**
+     * Recompiles the promotions from the database now, rather than waiting for the next background recompile.
+     */
+    public void refresh() {
+        readOnlyTransactionTemplate.executeWithoutResult(status -> load());
+    }
+
+    /**
+     * Stops the background recompile, waiting a bounded time for a recompile in progress to finish.
+     */
+    @PreDestroy
+    public void close() {
+        scheduledExecutorService.shutdown();
+        try {
+            if (!scheduledExecutorService.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("The promotion refresher did not finish within {} ms.", SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs {@link #refresh()}, logging rather than throwing any failure so that later recompiles are still scheduled.
+     *   The previous index stays in use until a recompile succeeds.
+     */
+    private void refreshQuietly() {
+        try {
+            refresh();
+        }
+        catch (final RuntimeException exception) {
+            LOGGER.error("Failed to reload the promotions.", exception);
+        }
+    }
+
+    /**
+     * Reads every promotion and publishes a newly compiled index. Promotions with a discount outside 1 to 100 percent
+     *   are skipped with a warning. Must be called within a transaction.
+     *
+     * @return The new index.
+     */
+    private PromotionIndex load() {
+        final List<Promotion> promotions = new ArrayList<>();
+        for (final PromotionDto promotionDto : promotionRepo.listPromotions()) {
+            if (promotionDto.getDiscountPercent() < 1 || promotionDto.getDiscountPercent() > 100) {
+                LOGGER.warn("Skipping promotion {} ('{}') with a discount of {}%.", promotionDto.getId(),
+                        promotionDto.getName(), promotionDto.getDiscountPercent());
+                continue;
+            }
+            promotions.add(Promotion.fromPromotionDto(promotionDto));
+        }
+
+        final PromotionIndex loadedPromotionIndex = new PromotionIndex(promotions);
+        promotionIndex = loadedPromotionIndex;
+        LOGGER.debug("Compiled {} promotions.", loadedPromotionIndex.size());
+        return loadedPromotionIndex;
+    }
+}
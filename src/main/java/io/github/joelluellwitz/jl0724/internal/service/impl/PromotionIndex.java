@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The promotions compiled into a decision structure, so that finding the best promotion for a checkout does not
+ *   depend on the number of promotions. This class is immutable.<p>
+ *
+ * Promotions are grouped by coupon code and Tool Type. Within a group, the checkout dates are split into segments at
+ *   every promotion's start date and the day after every promotion's end date, so that the same promotions are active
+ *   throughout each segment. Each segment holds its active promotions sorted by discount, best first. Finding the best
+ *   promotion is then a floor lookup of the checkout date in at most four groups (with and without the coupon code,
+ *   for the Tool Type and for every Tool Type), followed by a scan for the first promotion whose minimum rental length
+ *   is met.<p>
+ *
+ * Note: A segment copies references to its active promotions, so memory grows with the number of overlapping
+ *   promotions. Promotions are expected to overlap a little, not all at once.
+ */
+public class PromotionIndex {
+    // Note: The key for promotions without a coupon code, or for promotions of every Tool Type.
+    private static final String ANY = "";
+    private static final Promotion[] NO_PROMOTIONS = new Promotion[0];
+    private static final Comparator<Promotion> BEST_FIRST = Comparator.comparingInt(Promotion::discountPercent)
+            .reversed().thenComparingInt(Promotion::id);
+
+    // Maps a coupon code, then a Tool Type, to the promotion segments by segment start date.
+    private final Map<String, Map<String, NavigableMap<LocalDate, Promotion[]>>> promotionSegments;
+    private final int promotionCount;
+
+    /**
+     * Compiles the supplied promotions.
+     *
+     * @param promotions The promotions. Promotions whose end date is before their start date never apply.
+     */
+    // Intentionally package private.
+    PromotionIndex(final List<Promotion> promotions) {
+        final Map<String, Map<String, List<Promotion>>> groupedPromotions = new HashMap<>();
+        for (final Promotion promotion : promotions) {
+            groupedPromotions
+                    .computeIfAbsent(promotion.couponCode() == null ? ANY : promotion.couponCode(),
+                            key -> new HashMap<>())
+                    .computeIfAbsent(promotion.toolType() == null ? ANY : promotion.toolType(),
+                            key -> new ArrayList<>())
+                    .add(promotion);
+        }
+
+        final Map<String, Map<String, NavigableMap<LocalDate, Promotion[]>>> compiledPromotionSegments =
+                new HashMap<>();
+        for (final Map.Entry<String, Map<String, List<Promotion>>> couponEntry : groupedPromotions.entrySet()) {
+            final Map<String, NavigableMap<LocalDate, Promotion[]>> toolTypeSegments = new HashMap<>();
+            for (final Map.Entry<String, List<Promotion>> toolTypeEntry : couponEntry.getValue().entrySet()) {
+                toolTypeSegments.put(toolTypeEntry.getKey(), compileSegments(toolTypeEntry.getValue()));
+            }
+            compiledPromotionSegments.put(couponEntry.getKey(), toolTypeSegments);
+        }
+
+        promotionSegments = compiledPromotionSegments;
+        promotionCount = promotions.size();
+    }
+
+    /**
+     * Finds the promotion with the greatest discount that applies to a checkout.
+     *
+     * @param couponCode The normalized coupon code, to find only the promotions of that coupon code, or null to find
+     *   only the promotions without a coupon code.
+     * @param toolType The Tool Type of the rented tool.
+     * @param checkoutDate The checkout date.
+     * @param rentalDayCount The number of rental days.
+     * @return The best applicable promotion, or null if none applies.
+     */
+    // Intentionally package private.
+    Promotion findBestPromotion(final String couponCode, final String toolType, final LocalDate checkoutDate,
+            final int rentalDayCount) {
+        final Map<String, NavigableMap<LocalDate, Promotion[]>> toolTypeSegments =
+                promotionSegments.get(couponCode == null ? ANY : couponCode);
+        if (toolTypeSegments == null) {
+            return null;
+        }
+
+        final Promotion toolTypePromotion = findBestPromotion(toolTypeSegments.get(toolType), checkoutDate,
+                rentalDayCount);
+        final Promotion anyToolTypePromotion = findBestPromotion(toolTypeSegments.get(ANY), checkoutDate,
+                rentalDayCount);
+        if (toolTypePromotion == null) {
+            return anyToolTypePromotion;
+        }
+        if (anyToolTypePromotion == null) {
+            return toolTypePromotion;
+        }
+        return BEST_FIRST.compare(toolTypePromotion, anyToolTypePromotion) <= 0 ? toolTypePromotion
+                : anyToolTypePromotion;
+    }
+
+    /**
+     * @return The number of compiled promotions.
+     */
+    // Intentionally package private.
+    int size() {
+        return promotionCount;
+    }
+
+    /**
+     * Finds the promotion with the greatest discount in one group that applies to a checkout.
+     *
+     * @param segments The group's segments, or null if the group is empty.
+     * @param checkoutDate The checkout date.
+     * @param rentalDayCount The number of rental days.
+     * @return The best applicable promotion, or null if none applies.
+     */
+    private static Promotion findBestPromotion(final NavigableMap<LocalDate, Promotion[]> segments,
+            final LocalDate checkoutDate, final int rentalDayCount) {
+        if (segments == null) {
+            return null;
+        }
+        final Map.Entry<LocalDate, Promotion[]> segment = segments.floorEntry(checkoutDate);
+        if (segment == null) {
+            return null;
+        }
+
+        for (final Promotion promotion : segment.getValue()) {
+            if (rentalDayCount >= promotion.minimumRentalDayCount()) {
+                return promotion;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Splits a group's checkout dates into segments with the same active promotions.
+     *
+     * @param promotions The promotions of one coupon code and Tool Type.
+     * @return The active promotions, best first, by segment start date. The last segment is open ended.
+     */
+    private static NavigableMap<LocalDate, Promotion[]> compileSegments(final List<Promotion> promotions) {
+        final TreeSet<LocalDate> segmentStartDates = new TreeSet<>();
+        for (final Promotion promotion : promotions) {
+            segmentStartDates.add(getStartDate(promotion));
+            if (promotion.endDate() != null && promotion.endDate().isBefore(LocalDate.MAX)) {
+                segmentStartDates.add(promotion.endDate().plusDays(1));
+            }
+        }
+
+        final List<Promotion> sortedPromotions = new ArrayList<>(promotions);
+        sortedPromotions.sort(BEST_FIRST);
+
+        final NavigableMap<LocalDate, Promotion[]> segments = new TreeMap<>();
+        for (final LocalDate segmentStartDate : segmentStartDates) {
+            final List<Promotion> activePromotions = new ArrayList<>();
+            for (final Promotion promotion : sortedPromotions) {
+                if (!getStartDate(promotion).isAfter(segmentStartDate)
+                        && (promotion.endDate() == null || !promotion.endDate().isBefore(segmentStartDate))) {
+                    activePromotions.add(promotion);
+                }
+            }
+            segments.put(segmentStartDate, activePromotions.isEmpty() ? NO_PROMOTIONS
+                    : activePromotions.toArray(NO_PROMOTIONS));
+        }
+
+        return segments;
+    }
+
+    /**
+     * @param promotion A promotion.
+     * @return The promotion's start date, or {@link java.time.LocalDate#MIN LocalDate.MIN} if it has no start.
+     */
+    private static LocalDate getStartDate(final Promotion promotion) {
+        return promotion.startDate() == null ? LocalDate.MIN : promotion.startDate();
+    }
+}
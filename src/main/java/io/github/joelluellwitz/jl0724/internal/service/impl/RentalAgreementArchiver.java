@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementArchive;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementRepo;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalPeriodDto;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Periodically moves rental agreements of the default store that were due more than 'jl0724.archive.horizon-days'
+ *   days ago (365 by default) into the {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementArchive
+ *   RentalAgreementArchive}, so the rental_agreement table only holds recent rental agreements. Runs every
+ *   'jl0724.archive.interval-minutes' minutes (60 by default) on a background thread. Enabled by setting the
+ *   'jl0724.archive.directory' property.<p>
+ *
+ * Rental agreements are moved in batches of at most 1000, each in its own short transaction, so checkouts only ever
+ *   wait on the rental_agreement table's write lock for one batch.<p>
+ *
+ * Note: The rental agreement with the highest ID is never archived. SQLite assigns a new row the highest existing ID
+ *   plus one, so keeping that row in the table guarantees an archived ID is never reused.
+ */
+@Component
+@ConditionalOnProperty(name = "jl0724.archive.directory")
+public class RentalAgreementArchiver {
+    private static final int BATCH_SIZE = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(RentalAgreementArchiver.class);
+
+    private final RentalAgreementArchive rentalAgreementArchive;
+    private final RentalAgreementRepo rentalAgreementRepo;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int horizonDays;
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * Constructor. Schedules the first run one interval after startup.
+     *
+     * @param rentalAgreementArchive The archive that rental agreements are moved to.
+     * @param rentalAgreementRepo JPA Repository for
+     *   {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto RentalAgreementDto}.
+     * @param platformTransactionManager Used to read the rental agreements to archive.
+     * @param horizonDays How many days after its due date a rental agreement is archived.
+     * @param intervalMinutes The time between runs, in minutes.
+     */
+    // Intentionally package private.
+    RentalAgreementArchiver(final RentalAgreementArchive rentalAgreementArchive,
+            final RentalAgreementRepo rentalAgreementRepo, final PlatformTransactionManager platformTransactionManager,
+            @Value("${jl0724.archive.horizon-days:365}") final int horizonDays,
+            @Value("${jl0724.archive.interval-minutes:60}") final long intervalMinutes) {
+        if (horizonDays < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "The archive horizon must not be negative. You specified: %d", horizonDays));
+        }
+        if (intervalMinutes < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The archive interval must be greater than 0. You specified: %d", intervalMinutes));
+        }
+
+        this.rentalAgreementArchive = rentalAgreementArchive;
+        this.rentalAgreementRepo = rentalAgreementRepo;
+        readOnlyTransactionTemplate = new TransactionTemplate(platformTransactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        this.horizonDays = horizonDays;
+
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "rental-agreement-archiver");
+            // Note: Daemon so that a long run can never keep the JVM alive. A move interrupted by exit rolls back.
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutorService.scheduleWithFixedDelay(this::archiveQuietly, intervalMinutes, intervalMinutes,
+                TimeUnit.MINUTES);
+    }
+
+    /**
+     * Moves every rental agreement of the default store that is due before the archive horizon into the archive.
+     *
+     * @param today The current date. The archive horizon is counted back from this date.
+     * @return The number of rental agreements moved.
+     */
+    public int archive(final LocalDate today) {
+        final LocalDate cutoffDate = today.minusDays(horizonDays);
+        final Map<YearMonth, List<Integer>> rentalAgreementIdsByMonth =
+                readOnlyTransactionTemplate.execute(status -> listArchivableRentalAgreementIds(cutoffDate));
+
+        int movedCount = 0;
+        for (final Map.Entry<YearMonth, List<Integer>> monthRentalAgreementIds : rentalAgreementIdsByMonth.entrySet()) {
+            final List<Integer> rentalAgreementIds = monthRentalAgreementIds.getValue();
+            for (int batchStart = 0; batchStart < rentalAgreementIds.size(); batchStart += BATCH_SIZE) {
+                movedCount += rentalAgreementArchive.archiveRentalAgreements(monthRentalAgreementIds.getKey(),
+                        rentalAgreementIds.subList(batchStart,
+                                Math.min(batchStart + BATCH_SIZE, rentalAgreementIds.size())));
+            }
+        }
+
+        LOGGER.debug("Archived {} rental agreements due before {}.", movedCount, cutoffDate);
+        return movedCount;
+    }
+
+    /**
+     * Stops the background thread, waiting a bounded time for a run in progress to finish.
+     */
+    @PreDestroy
+    public void close() {
+        scheduledExecutorService.shutdown();
+        try {
+            if (!scheduledExecutorService.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("The rental agreement archiver did not finish within {} ms.", SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs {@link #archive(LocalDate)} for today, logging rather than throwing any failure so that later runs are
+     *   still scheduled.
+     */
+    private void archiveQuietly() {
+        try {
+            archive(LocalDate.now());
+        }
+        catch (final RuntimeException exception) {
+            LOGGER.error("Failed to archive rental agreements.", exception);
+        }
+    }
+
+    /**
+     * Finds the rental agreements of the default store that are due before the cutoff date. Must be called within a
+     *   transaction.
+     *
+     * @param cutoffDate The first due date that is kept in the rental_agreement table.
+     * @return The IDs of the rental agreements to archive, grouped by due month.
+     */
+    private Map<YearMonth, List<Integer>> listArchivableRentalAgreementIds(final LocalDate cutoffDate) {
+        final Map<YearMonth, List<Integer>> rentalAgreementIdsByMonth = new TreeMap<>();
+        int maxRentalAgreementId = Integer.MIN_VALUE;
+        YearMonth maxRentalAgreementMonth = null;
+
+        try (Stream<RentalPeriodDto> rentalPeriodDtos = rentalAgreementRepo.streamRentalPeriods()) {
+            for (final RentalPeriodDto rentalPeriodDto : (Iterable<RentalPeriodDto>) rentalPeriodDtos::iterator) {
+                final boolean archivable = rentalPeriodDto.storeId() == null
+                        && rentalPeriodDto.dueDate().isBefore(cutoffDate);
+                if (archivable) {
+                    rentalAgreementIdsByMonth.computeIfAbsent(YearMonth.from(rentalPeriodDto.dueDate()),
+                            key -> new ArrayList<>()).add(rentalPeriodDto.rentalAgreementId());
+                }
+                if (rentalPeriodDto.rentalAgreementId() > maxRentalAgreementId) {
+                    maxRentalAgreementId = rentalPeriodDto.rentalAgreementId();
+                    maxRentalAgreementMonth = archivable ? YearMonth.from(rentalPeriodDto.dueDate()) : null;
+                }
+            }
+        }
+
+        if (maxRentalAgreementMonth != null) {
+            final List<Integer> rentalAgreementIds = rentalAgreementIdsByMonth.get(maxRentalAgreementMonth);
+            rentalAgreementIds.remove(Integer.valueOf(maxRentalAgreementId));
+            if (rentalAgreementIds.isEmpty()) {
+                rentalAgreementIdsByMonth.remove(maxRentalAgreementMonth);
+            }
+        }
+        return rentalAgreementIdsByMonth;
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.stereotype.Component;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementArchive;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementChargeDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementFactDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementRepo;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalPeriodDto;
+
+/**
+ * Reads every rental agreement, whether it is still in the rental_agreement table or has been moved to the
+ *   {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementArchive RentalAgreementArchive}. Reports
+ *   and indexes read through this class so that archiving never changes their results. Without an archive, this class
+ *   simply delegates to {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementRepo
+ *   RentalAgreementRepo}.<p>
+ *
+ * Note: The rental_agreement table is always queried first, within the caller's transaction. The archiver cannot
+ *   commit a move while that transaction holds its read lock, so every rental agreement is read exactly once.
+ */
+@Component
+public class RentalAgreementHistory {
+    private final Optional<RentalAgreementArchive> rentalAgreementArchive;
+    private final RentalAgreementRepo rentalAgreementRepo;
+
+    /**
+     * Constructor.
+     *
+     * @param rentalAgreementArchive The archive of old rental agreements, if archiving is enabled.
+     * @param rentalAgreementRepo JPA Repository for
+     *   {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto RentalAgreementDto}.
+     */
+    // Intentionally package private.
+    RentalAgreementHistory(final Optional<RentalAgreementArchive> rentalAgreementArchive,
+            final RentalAgreementRepo rentalAgreementRepo) {
+        this.rentalAgreementArchive = rentalAgreementArchive;
+        this.rentalAgreementRepo = rentalAgreementRepo;
+    }
+
+    /**
+     * Streams the rental period of every rental agreement, including archived rental agreements. Archives are opened
+     *   one at a time as the Stream reaches them. Must be called within a transaction, and the Stream must be consumed
+     *   and closed within it.
+     *
+     * @return A Stream of rental periods in no particular order.
+     */
+    public Stream<RentalPeriodDto> streamRentalPeriods() {
+        final Stream<RentalPeriodDto> rentalPeriodDtos = rentalAgreementRepo.streamRentalPeriods();
+        if (rentalAgreementArchive.isEmpty()) {
+            return rentalPeriodDtos;
+        }
+
+        final RentalAgreementArchive archive = rentalAgreementArchive.get();
+        return Stream.concat(rentalPeriodDtos,
+                archive.listArchiveMonths().stream().flatMap(archive::streamRentalPeriods));
+    }
+
+    /**
+     * Streams the reportable facts of every rental agreement, including archived rental agreements. Archives are
+     *   opened one at a time as the Stream reaches them. Must be called within a transaction, and the Stream must be
+     *   consumed and closed within it.
+     *
+     * @return A Stream of rental agreement facts in no particular order.
+     */
+    public Stream<RentalAgreementFactDto> streamRentalAgreementFacts() {
+        final Stream<RentalAgreementFactDto> rentalAgreementFactDtos = rentalAgreementRepo.streamRentalAgreementFacts();
+        if (rentalAgreementArchive.isEmpty()) {
+            return rentalAgreementFactDtos;
+        }
+
+        final RentalAgreementArchive archive = rentalAgreementArchive.get();
+        return Stream.concat(rentalAgreementFactDtos,
+                archive.listArchiveMonths().stream().flatMap(archive::streamRentalAgreementFacts));
+    }
+
+    /**
+     * Streams the reportable facts of every rental agreement of the default store, including archived rental
+     *   agreements, which only ever belong to the default store. Must be called within a transaction, and the Stream
+     *   must be consumed and closed within it.
+     *
+     * @return A Stream of rental agreement facts in no particular order.
+     */
+    public Stream<RentalAgreementFactDto> streamDefaultStoreRentalAgreementFacts() {
+        final Stream<RentalAgreementFactDto> rentalAgreementFactDtos =
+                rentalAgreementRepo.streamDefaultStoreRentalAgreementFacts();
+        if (rentalAgreementArchive.isEmpty()) {
+            return rentalAgreementFactDtos;
+        }
+
+        final RentalAgreementArchive archive = rentalAgreementArchive.get();
+        return Stream.concat(rentalAgreementFactDtos,
+                archive.listArchiveMonths().stream().flatMap(archive::streamRentalAgreementFacts));
+    }
+
+    /**
+     * Streams the pricing inputs and recorded final charge of every rental agreement, including archived rental
+     *   agreements, sorted by ID. Must be called within a transaction, and the Stream must be consumed and closed
+     *   within it.<p>
+     *
+     * Note: Archives are partitioned by due date, so IDs interleave across archives. Every archive is opened up front
+     *   and the already sorted Streams are merged, which keeps memory usage flat at the cost of one open file per
+     *   archive month.
+     *
+     * @return A Stream of rental agreement charges.
+     */
+    public Stream<RentalAgreementChargeDto> streamRentalAgreementCharges() {
+        final Stream<RentalAgreementChargeDto> rentalAgreementChargeDtos =
+                rentalAgreementRepo.streamRentalAgreementCharges();
+        if (rentalAgreementArchive.isEmpty()) {
+            return rentalAgreementChargeDtos;
+        }
+
+        final List<Stream<RentalAgreementChargeDto>> sortedStreams = new ArrayList<>();
+        sortedStreams.add(rentalAgreementChargeDtos);
+        try {
+            for (final YearMonth archiveMonth : rentalAgreementArchive.get().listArchiveMonths()) {
+                sortedStreams.add(rentalAgreementArchive.get().streamRentalAgreementCharges(archiveMonth));
+            }
+        }
+        catch (final RuntimeException exception) {
+            closeAll(sortedStreams);
+            throw exception;
+        }
+
+        return mergeSorted(sortedStreams, Comparator.comparingInt(RentalAgreementChargeDto::rentalAgreementId));
+    }
+
+    /**
+     * Merges sorted Streams into a single sorted Stream. Closing the merged Stream closes every source Stream.
+     *
+     * @param <T> The element type.
+     * @param sortedStreams Streams that are each sorted by the comparator.
+     * @param comparator The sort order.
+     * @return The merged Stream.
+     */
+    // Intentionally package private.
+    static <T> Stream<T> mergeSorted(final List<Stream<T>> sortedStreams, final Comparator<? super T> comparator) {
+        final PriorityQueue<MergeSource<T>> mergeSources = new PriorityQueue<>(Math.max(1, sortedStreams.size()),
+                (first, second) -> comparator.compare(first.head, second.head));
+        try {
+            for (final Stream<T> sortedStream : sortedStreams) {
+                final Iterator<T> iterator = sortedStream.iterator();
+                if (iterator.hasNext()) {
+                    mergeSources.add(new MergeSource<>(iterator.next(), iterator));
+                }
+            }
+        }
+        catch (final RuntimeException exception) {
+            closeAll(sortedStreams);
+            throw exception;
+        }
+
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(final Consumer<? super T> action) {
+                final MergeSource<T> mergeSource = mergeSources.poll();
+                if (mergeSource == null) {
+                    return false;
+                }
+
+                final T head = mergeSource.head;
+                if (mergeSource.iterator.hasNext()) {
+                    mergeSource.head = mergeSource.iterator.next();
+                    mergeSources.add(mergeSource);
+                }
+                action.accept(head);
+                return true;
+            }
+        }, false).onClose(() -> closeAll(sortedStreams));
+    }
+
+    /**
+     * Closes every Stream, even if closing one of them fails. The first failure is rethrown once all are closed.
+     *
+     * @param streams The Streams to close.
+     */
+    private static void closeAll(final List<? extends Stream<?>> streams) {
+        RuntimeException firstException = null;
+        for (final Stream<?> stream : streams) {
+            try {
+                stream.close();
+            }
+            catch (final RuntimeException exception) {
+                if (firstException == null) {
+                    firstException = exception;
+                }
+                else {
+                    firstException.addSuppressed(exception);
+                }
+            }
+        }
+        if (firstException != null) {
+            throw firstException;
+        }
+    }
+
+    /**
+     * A source Stream of a merge and its next element.
+     *
+     * @param <T> The element type.
+     */
+    private static class MergeSource<T> {
+        private T head;
+        private final Iterator<T> iterator;
+
+        /**
+         * Constructor.
+         *
+         * @param head The next element of the source.
+         * @param iterator The rest of the source.
+         */
+        private MergeSource(final T head, final Iterator<T> iterator) {
+            this.head = head;
+            this.iterator = iterator;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import org.springframework.util.Assert;
 import io.github.joelluellwitz.jl0724.exposed.service.api.ContractParameters;
 import io.github.joelluellwitz.jl0724.exposed.service.api.RentalAgreement;
 import io.github.joelluellwitz.jl0724.exposed.service.api.Tool;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto;
 
 /**
  * Business logic tier representation of a rental agreement. This class is immutable.<p>
@@ -32,18 +33,32 @@ import io.github.joelluellwitz.jl0724.exposed.service.api.Tool;
  *   requirement out to the reviewer. This requirement is the reason for most of the "plusDays(1)" found throughout
  *   the class.<p>
  *
- * Note: I realize that, as written, this class cannot be constructed from an existing
- *   {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto}. Of course, for the purposes of this
- *   demo application, there is no reason to construct a RentalAgreementImpl from a RentalAgreementDto. As this class is
- *   written, I can demonstrate immutable classes and saving computed results for later use. In my opinion, the benefits
- *   of demonstrating these concepts outweighs any disadvantages.
+ * Note: A RentalAgreementImpl can also be reconstructed from a saved
+ *   {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto} (e.g., to answer a retried checkout).
+ *   In that case the saved charges are used as is rather than recalculated, so the agreement reads exactly as it did
+ *   when it was created, even if the tool or holiday rules have since changed.<p>
+ *
+ * Note: A tool type may cap the charge of each 30 rental days (a month) and each 7 rental days (a week). The rental
+ *   period is split into as many whole months as possible (if there is a monthly cap), then as many whole weeks as
+ *   possible (if there is a weekly cap), then the remaining days, in that order. Each whole month, each whole week,
+ *   and the remaining days are charged their own daily charges up to their cap (one week's cap for the remaining
+ *   days), and the remaining weeks and days together are charged no more than one month's cap. So a cap never raises
+ *   the charge of any month, week, or day.<p>
+ *
+ * Note: Every week has 5 weekdays and 2 weekend days, and months 7 months apart start on the same day of the week
+ *   and so have the same weekdays, so whole weeks and months only differ in charge when they hold an uncharged
+ *   holiday. The capped charge is therefore calculated from a handful of charge day counts, each without iterating
+ *   days. Only the holidays of the whole months are visited, two per year, to find which months hold them.
  */
 public class RentalAgreementImpl implements RentalAgreement {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/uu");
+    private static final int WEEK_DAY_COUNT = 7;
+    private static final int MONTH_DAY_COUNT = 30;
+    private static final int WEEKEND_DAY_COUNT = 2;
+    private static final BigDecimal CENT = new BigDecimal("0.01");
 
     private static Logger LOGGER = LoggerFactory.getLogger(RentalAgreementImpl.class);
 
-    private final BigDecimal cent = new BigDecimal("0.01");
     private final String toolCode;
     private final String toolType;
     private final String toolBrand;
@@ -51,6 +66,8 @@ public class RentalAgreementImpl implements RentalAgreement {
     private final int rentalDayCount;
     private final LocalDate checkoutDate;
     private final int discountPercent;
+    private final BigDecimal weeklyChargeCap;
+    private final BigDecimal monthlyChargeCap;
     private boolean holidayCharge;
     private boolean weekdayCharge;
     private boolean weekendCharge;
@@ -71,6 +88,19 @@ public class RentalAgreementImpl implements RentalAgreement {
      */
     // Intentionally package private.
     RentalAgreementImpl(final ContractParameters contractParameters, final Tool tool) {
+        this(contractParameters, tool, contractParameters.getDiscountPercent());
+    }
+
+    /**
+     * Constructs an immutable RentalAgreementImpl with a discount other than the one in the contract parameters (e.g.,
+     *   a promotion's).
+     *
+     * @param contractParameters Contains the contract parameters as specified by the user.
+     * @param tool The business logic tier representation of a tool.
+     * @param discountPercent The discount percentage to apply.
+     */
+    // Intentionally package private.
+    RentalAgreementImpl(final ContractParameters contractParameters, final Tool tool, final int discountPercent) {
         Assert.isTrue(contractParameters.getToolCode().equals(tool.getCode()), "Tool codes do not match.");
 
         // Copy all needed values in case 'tool' or 'contractParameters' are changed later.
@@ -81,9 +111,59 @@ public class RentalAgreementImpl implements RentalAgreement {
         holidayCharge = tool.isHolidayCharge();
         weekdayCharge = tool.isWeekdayCharge();
         weekendCharge = tool.isWeekendCharge();
+        weeklyChargeCap = tool.getWeeklyChargeCap();
+        monthlyChargeCap = tool.getMonthlyChargeCap();
         rentalDayCount = contractParameters.getRentalDayCount();
         checkoutDate = contractParameters.getCheckoutDate();
-        discountPercent = contractParameters.getDiscountPercent();
+        this.discountPercent = discountPercent;
+    }
+
+    /**
+     * Constructs an uncapped, undiscounted RentalAgreementImpl covering part of another rental agreement's rental
+     *   period. Used to count the charge days and weekdays of whole months and weeks and of the days left over.
+     *
+     * @param rentalAgreement The rental agreement to take the tool from.
+     * @param checkoutDate The day before the first day to cover.
+     * @param rentalDayCount The number of days to cover.
+     */
+    private RentalAgreementImpl(final RentalAgreementImpl rentalAgreement, final LocalDate checkoutDate,
+            final int rentalDayCount) {
+        toolCode = rentalAgreement.toolCode;
+        toolType = rentalAgreement.toolType;
+        toolBrand = rentalAgreement.toolBrand;
+        dailyCharge = rentalAgreement.dailyCharge;
+        holidayCharge = rentalAgreement.holidayCharge;
+        weekdayCharge = rentalAgreement.weekdayCharge;
+        weekendCharge = rentalAgreement.weekendCharge;
+        weeklyChargeCap = null;
+        monthlyChargeCap = null;
+        this.rentalDayCount = rentalDayCount;
+        this.checkoutDate = checkoutDate;
+        discountPercent = 0;
+    }
+
+    /**
+     * Reconstructs an immutable RentalAgreementImpl from a saved rental agreement. No charges are recalculated.
+     *
+     * @param rentalAgreementDto The data tier representation of a saved rental agreement.
+     */
+    // Intentionally package private.
+    RentalAgreementImpl(final RentalAgreementDto rentalAgreementDto) {
+        toolCode = rentalAgreementDto.getToolCode();
+        toolType = rentalAgreementDto.getToolType();
+        toolBrand = rentalAgreementDto.getToolBrand();
+        dailyCharge = rentalAgreementDto.getDailyCharge();
+        rentalDayCount = rentalAgreementDto.getRentalDayCount();
+        checkoutDate = rentalAgreementDto.getCheckoutDate();
+        discountPercent = rentalAgreementDto.getDiscountPercent();
+        // The caps and charge flags are only used to calculate the charges, which are already known.
+        weeklyChargeCap = null;
+        monthlyChargeCap = null;
+        dueDate = rentalAgreementDto.getDueDate();
+        chargeDayCount = rentalAgreementDto.getChargeDayCount();
+        preDiscountCharge = rentalAgreementDto.getPreDiscountCharge();
+        discountAmount = rentalAgreementDto.getDiscountAmount();
+        finalCharge = rentalAgreementDto.getFinalCharge();
     }
 
     /**
@@ -208,13 +288,14 @@ public class RentalAgreementImpl implements RentalAgreement {
     }
 
     /**
-     * Calculates and returns the total rental charge before the discount is applied.
+     * Calculates and returns the total rental charge before the discount is applied. Any weekly and monthly caps of
+     *   the tool type are applied.
      *
      * @return The total rental charge before the discount is applied.
      */
     public BigDecimal getPreDiscountCharge() {
         if (preDiscountCharge == null) {
-            preDiscountCharge = getDailyCharge().multiply(BigDecimal.valueOf(getChargeDayCount()));
+            preDiscountCharge = getCappedCharge();
             LOGGER.debug("Calculated pre-discount charge: {}", preDiscountCharge);
         }
 
@@ -228,15 +309,27 @@ public class RentalAgreementImpl implements RentalAgreement {
      */
     public BigDecimal getDiscountAmount() {
         if (discountAmount == null) {
-            final BigDecimal discount = BigDecimal.valueOf(getDiscountPercent()).multiply(cent);
-            final BigDecimal unroundedDiscountAmount = getPreDiscountCharge().multiply(discount);
-            discountAmount = unroundedDiscountAmount.divide(cent, 0, RoundingMode.HALF_UP).multiply(cent);
+            discountAmount = calculateDiscountAmount(getPreDiscountCharge(), getDiscountPercent());
             LOGGER.debug("Calculated discount amount: {}", discountAmount);
         }
 
         return discountAmount;
     }
 
+    /**
+     * Calculates the discount of a rental agreement, rounded half up to the cent.
+     *
+     * @param preDiscountCharge The pre-discount charge.
+     * @param discountPercent The discount percentage.
+     * @return The discount amount.
+     */
+    // Intentionally package private.
+    static BigDecimal calculateDiscountAmount(final BigDecimal preDiscountCharge, final int discountPercent) {
+        final BigDecimal discount = BigDecimal.valueOf(discountPercent).multiply(CENT);
+        final BigDecimal unroundedDiscountAmount = preDiscountCharge.multiply(discount);
+        return unroundedDiscountAmount.divide(CENT, 0, RoundingMode.HALF_UP).multiply(CENT);
+    }
+
     /**
      * Calculates and returns the final rental charge after the discount is applied.
      *
@@ -244,13 +337,162 @@ public class RentalAgreementImpl implements RentalAgreement {
      */
     public BigDecimal getFinalCharge() {
         if (finalCharge == null) {
+            // Note: Every other charge is calculated on demand by this call unless a getter was called earlier, so the
+            //   event normally spans the whole pricing calculation.
+            final PricingEvent pricingEvent = new PricingEvent();
+            pricingEvent.begin();
+
             finalCharge = getPreDiscountCharge().subtract(getDiscountAmount());
             LOGGER.debug("Calculated final charge amount: {}", finalCharge);
+
+            pricingEvent.toolCode = toolCode;
+            pricingEvent.rentalDayCount = rentalDayCount;
+            pricingEvent.chargeDayCount = getChargeDayCount();
+            pricingEvent.commit();
         }
 
         return finalCharge;
     }
 
+    /**
+     * Calculates the rental charge with any weekly and monthly caps applied. See the class documentation for how the
+     *   rental period is split into months, weeks, and remaining days.
+     *
+     * @return The capped rental charge.
+     */
+    private BigDecimal getCappedCharge() {
+        if (weeklyChargeCap == null && monthlyChargeCap == null) {
+            return getDailyCharge().multiply(BigDecimal.valueOf(getChargeDayCount()));
+        }
+
+        final int monthCount = monthlyChargeCap == null ? 0 : rentalDayCount / MONTH_DAY_COUNT;
+        final int weekTierDayCount = rentalDayCount - monthCount * MONTH_DAY_COUNT;
+        final int weekCount = weeklyChargeCap == null ? 0 : weekTierDayCount / WEEK_DAY_COUNT;
+        final int remainingDayCount = weekTierDayCount - weekCount * WEEK_DAY_COUNT;
+
+        BigDecimal cappedCharge = getDailyCharge().multiply(BigDecimal.valueOf(
+                getLastDaysChargeDayCount(remainingDayCount)));
+        if (weeklyChargeCap != null) {
+            cappedCharge = getWeeksCharge(weekCount, weekTierDayCount, remainingDayCount)
+                    .add(cappedCharge.min(weeklyChargeCap));
+        }
+        if (monthlyChargeCap != null) {
+            cappedCharge = getMonthsCharge(monthCount).add(cappedCharge.min(monthlyChargeCap));
+        }
+
+        LOGGER.debug("Capped {} months and {} weeks.", monthCount, weekCount);
+        return cappedCharge;
+    }
+
+    /**
+     * Calculates and returns the charge of the whole weeks, each capped at the weekly cap. A week holding an uncharged
+     *   holiday has one charge day less than the others.
+     *
+     * @param weekCount The number of whole weeks.
+     * @param weekTierDayCount The number of days at the end of the rental period, starting with the whole weeks.
+     * @param remainingDayCount The number of days at the end of the rental period after the whole weeks.
+     * @return The capped charge of the whole weeks.
+     */
+    private BigDecimal getWeeksCharge(final int weekCount, final int weekTierDayCount, final int remainingDayCount) {
+        final int weekChargeDayCount = (weekdayCharge ? WEEK_DAY_COUNT - WEEKEND_DAY_COUNT : 0)
+                + (weekendCharge ? WEEKEND_DAY_COUNT : 0);
+        // Note: No week holds more than one holiday, so each charge day short of full weeks is one holiday week.
+        final int holidayWeekCount = weekCount * weekChargeDayCount
+                - (getLastDaysChargeDayCount(weekTierDayCount) - getLastDaysChargeDayCount(remainingDayCount));
+
+        return getCappedUnitsCharge(weekCount - holidayWeekCount, weekChargeDayCount, weeklyChargeCap)
+                .add(getCappedUnitsCharge(holidayWeekCount, weekChargeDayCount - 1, weeklyChargeCap));
+    }
+
+    /**
+     * Calculates and returns the charge of the whole months, each capped at the monthly cap. Months 7 months apart
+     *   have the same charge days, apart from a month holding an uncharged holiday, which has one charge day less.
+     *
+     * @param monthCount The number of whole months.
+     * @return The capped charge of the whole months.
+     */
+    private BigDecimal getMonthsCharge(final int monthCount) {
+        final int[] holidayMonthCounts = getHolidayMonthCounts(monthCount);
+
+        BigDecimal monthsCharge = BigDecimal.ZERO;
+        for (int firstMonth = 0; firstMonth < Math.min(monthCount, WEEK_DAY_COUNT); firstMonth++) {
+            final int weekdayCount = new RentalAgreementImpl(this,
+                    getCheckoutDate().plusDays((long) firstMonth * MONTH_DAY_COUNT), MONTH_DAY_COUNT).getWeekdayCount();
+            final int monthChargeDayCount = (weekdayCharge ? weekdayCount : 0)
+                    + (weekendCharge ? MONTH_DAY_COUNT - weekdayCount : 0);
+            final int sameMonthCount = (monthCount - firstMonth + WEEK_DAY_COUNT - 1) / WEEK_DAY_COUNT;
+            final int holidayMonthCount = holidayMonthCounts[firstMonth];
+
+            monthsCharge = monthsCharge
+                    .add(getCappedUnitsCharge(sameMonthCount - holidayMonthCount, monthChargeDayCount,
+                            monthlyChargeCap))
+                    .add(getCappedUnitsCharge(holidayMonthCount, monthChargeDayCount - 1, monthlyChargeCap));
+        }
+
+        return monthsCharge;
+    }
+
+    /**
+     * Counts the whole months holding an uncharged holiday. No month holds more than one holiday.
+     *
+     * @param monthCount The number of whole months.
+     * @return The number of holiday months, indexed by month number modulo 7.
+     */
+    private int[] getHolidayMonthCounts(final int monthCount) {
+        final int[] holidayMonthCounts = new int[WEEK_DAY_COUNT];
+        if (weekdayCharge && !holidayCharge && monthCount > 0) {
+            final LocalDate firstDate = getCheckoutDate().plusDays(1);
+            final LocalDate lastDate = getCheckoutDate().plusDays((long) monthCount * MONTH_DAY_COUNT);
+            for (int year = firstDate.getYear(); year <= lastDate.getYear(); year++) {
+                for (final LocalDate holidayDate : new LocalDate[] {
+                        findNearestWeekday(LocalDate.of(year, 7, 4)), findLaborDay(year) }) {
+                    if (!holidayDate.isBefore(firstDate) && !holidayDate.isAfter(lastDate)) {
+                        final long month = ChronoUnit.DAYS.between(firstDate, holidayDate) / MONTH_DAY_COUNT;
+                        holidayMonthCounts[(int) (month % WEEK_DAY_COUNT)]++;
+                    }
+                }
+            }
+        }
+
+        return holidayMonthCounts;
+    }
+
+    /**
+     * Calculates and returns the charge of several months or weeks with the same number of charge days.
+     *
+     * @param unitCount The number of months or weeks.
+     * @param unitChargeDayCount The number of charge days in each month or week.
+     * @param chargeCap The cap on the charge of each month or week.
+     * @return The charge of each month or week, capped, times their number.
+     */
+    private BigDecimal getCappedUnitsCharge(final int unitCount, final int unitChargeDayCount,
+            final BigDecimal chargeCap) {
+        return getDailyCharge().multiply(BigDecimal.valueOf(unitChargeDayCount)).min(chargeCap)
+                .multiply(BigDecimal.valueOf(unitCount));
+    }
+
+    /**
+     * Calculates and returns the number of charge days among the last days of the rental period.
+     *
+     * @param lastDayCount The number of days at the end of the rental period.
+     * @return The number of charge days among those days.
+     */
+    private int getLastDaysChargeDayCount(final int lastDayCount) {
+        final int lastChargeDayCount;
+        if (lastDayCount == 0) {
+            lastChargeDayCount = 0;
+        }
+        else if (lastDayCount == rentalDayCount) {
+            lastChargeDayCount = getChargeDayCount();
+        }
+        else {
+            lastChargeDayCount = new RentalAgreementImpl(this, getDueDate().minusDays(lastDayCount), lastDayCount)
+                    .getChargeDayCount();
+        }
+
+        return lastChargeDayCount;
+    }
+
     /**
      * Formats a currency amount assuming a United States of America locale.
      *
@@ -266,7 +508,7 @@ public class RentalAgreementImpl implements RentalAgreement {
      * @return The formatted percentage.
      */
     private String formatPercentage(final int discounPercent) {
-        final BigDecimal discount = BigDecimal.valueOf(getDiscountPercent()).multiply(cent);
+        final BigDecimal discount = BigDecimal.valueOf(getDiscountPercent()).multiply(CENT);
         return NumberFormat.getPercentInstance(Locale.US).format(discount);
     }
 
@@ -313,18 +555,24 @@ public class RentalAgreementImpl implements RentalAgreement {
             final LocalDate effectiveDueDate = getDueDate()
                     .plusDays(1 - Math.max(0, getDueDate().getDayOfWeek().getValue() - 5));
 
-            // Week count can never be greater than rentalDayCount, so the 'long' result can be safely casted back to an
-            //   'int'.
-            final int weekCount = (int) ChronoUnit.WEEKS.between(effectiveCheckoutDate, effectiveDueDate);
+            if (!effectiveCheckoutDate.isBefore(effectiveDueDate)) {
+                // Note: The chargeable rental period falls entirely on a weekend, so the effective dates cross.
+                weekdayCount = 0;
+            }
+            else {
+                // Week count can never be greater than rentalDayCount, so the 'long' result can be safely casted back
+                //   to an 'int'.
+                final int weekCount = (int) ChronoUnit.WEEKS.between(effectiveCheckoutDate, effectiveDueDate);
 
-            final int effectiveCheckoutDayOfWeek = effectiveCheckoutDate.getDayOfWeek().getValue();
-            final int effectiveDueDayOfWeek = effectiveDueDate.getDayOfWeek().getValue();
+                final int effectiveCheckoutDayOfWeek = effectiveCheckoutDate.getDayOfWeek().getValue();
+                final int effectiveDueDayOfWeek = effectiveDueDate.getDayOfWeek().getValue();
 
-            // Handles the case where the effective week starts on Monday and ends on Friday.
-            final int additionalWeek = effectiveDueDayOfWeek - effectiveCheckoutDayOfWeek == 5 ? 1 : 0;
+                // Handles the case where the effective week starts on Monday and ends on Friday.
+                final int additionalWeek = effectiveDueDayOfWeek - effectiveCheckoutDayOfWeek == 5 ? 1 : 0;
 
-            final int weekPortionCount = Math.floorMod(effectiveDueDayOfWeek - effectiveCheckoutDayOfWeek, 5);
-            weekdayCount = (weekCount + additionalWeek) * 5 + weekPortionCount;
+                final int weekPortionCount = Math.floorMod(effectiveDueDayOfWeek - effectiveCheckoutDayOfWeek, 5);
+                weekdayCount = (weekCount + additionalWeek) * 5 + weekPortionCount;
+            }
         }
 
         return weekdayCount.intValue();
@@ -349,17 +597,8 @@ public class RentalAgreementImpl implements RentalAgreement {
      * @return The number of Labor Days during the rental period.
      */
     private int getLaborDayCount() {
-        final LocalDate firstYearFirstSeptemberDay = LocalDate.of(getCheckoutDate().plusDays(1).getYear(), 9, 1);
-        final int firstYearFirstSeptemberDayOfWeek = firstYearFirstSeptemberDay.getDayOfWeek().getValue();
-        final LocalDate firstYearLaborDay = firstYearFirstSeptemberDay
-                .withDayOfMonth((8 - firstYearFirstSeptemberDayOfWeek) % 7 + 1);
-
-        final LocalDate lastYearFirstSeptemberDay = LocalDate.of(getDueDate().getYear(), 9, 1);
-        final int lastYearFirstSeptemberDayOfWeek = lastYearFirstSeptemberDay.getDayOfWeek().getValue();
-        final LocalDate lastYearLaborDay = lastYearFirstSeptemberDay
-                .withDayOfMonth((8 - lastYearFirstSeptemberDayOfWeek) % 7 + 1);
-
-        return getHolidayCount(firstYearLaborDay, lastYearLaborDay);
+        return getHolidayCount(findLaborDay(getCheckoutDate().plusDays(1).getYear()),
+                findLaborDay(getDueDate().getYear()));
     }
 
     /**
@@ -393,6 +632,18 @@ public class RentalAgreementImpl implements RentalAgreement {
         return Math.max(0, lastYear - firstYear);
     }
 
+    /**
+     * Calculates and returns the date of Labor Day, the first Monday in September.
+     *
+     * @param year The year.
+     * @return The date of Labor Day in the year.
+     */
+    private LocalDate findLaborDay(final int year) {
+        final LocalDate firstSeptemberDay = LocalDate.of(year, 9, 1);
+        final int firstSeptemberDayOfWeek = firstSeptemberDay.getDayOfWeek().getValue();
+        return firstSeptemberDay.withDayOfMonth((8 - firstSeptemberDayOfWeek) % 7 + 1);
+    }
+
     /**
      * Calculates and returns the weekday date that is closest to the weekend date. Used to determine the observed
      *   holiday date for some holidays.
@@ -29,5 +29,7 @@ public interface RentalAgreementMapper {
     @Mapping(target = "createdOn", ignore = true)
     @Mapping(target = "updatedOn", ignore = true)
     @Mapping(target = "tool", ignore = true)
+    @Mapping(target = "requestId", ignore = true)
+    @Mapping(target = "storeId", ignore = true)
     RentalAgreementDto rentalAgreementToRentalAgreementDto(RentalAgreementImpl tool);
 }
\ No newline at end of file
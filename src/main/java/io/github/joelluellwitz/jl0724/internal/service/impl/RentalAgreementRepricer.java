@@ -0,0 +1,254 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.ContractParameters;
+import io.github.joelluellwitz.jl0724.exposed.service.api.RepricingSummary;
+import io.github.joelluellwitz.jl0724.exposed.service.api.Tool;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementChargeDto;
+
+/**
+ * Recalculates the final charge of every historical rental agreement using the current tool charges and writes a
+ *   report of the agreements whose final charge would be different today. Like checkout, each rental agreement is
+ *   priced with the scheduled price of its tool type in effect on its checkout date, if there is one.<p>
+ *
+ * Rental agreements (including archived rental agreements) are streamed from the database in ID order and grouped
+ *   into chunks. Each chunk is priced by a {@link java.util.concurrent.ForkJoinPool#commonPool() common pool} task
+ *   using the same {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementImpl
+ *   RentalAgreementImpl} logic as checkout, while the calling thread keeps reading the next chunks. Only a
+ *   bounded number of chunks are in flight at once, so memory usage does not grow with the number of rental
+ *   agreements. Chunks are reported in submission order, so the report is sorted by rental
+ *   agreement ID no matter which task finishes first.<p>
+ *
+ * A cart line's recorded discount also includes its share of the cart's order discount. That share is kept as is, so
+ *   only a change in the line's own charges is reported.<p>
+ *
+ * A rental agreement whose tool has since been removed or renamed cannot be repriced. It is listed in the report with
+ *   empty repriced columns and counted as skipped rather than aborting the run.<p>
+ *
+ * Note: Reading rows and writing the report happen on the calling thread. Pricing dominates the cost of a row, so
+ *   throughput scales with the number of cores until the single database reader becomes the bottleneck.
+ */
+@Component
+public class RentalAgreementRepricer {
+    // Note: Large enough to amortize task overhead and small enough to keep every core busy near the end of a run.
+    private static final int CHUNK_SIZE = 1024;
+    private static final String REPORT_HEADER = "rentalAgreementId,toolCode,checkoutDate,rentalDayCount,"
+            + "discountPercent,originalFinalCharge,repricedFinalCharge,difference\n";
+
+    private static Logger LOGGER = LoggerFactory.getLogger(RentalAgreementRepricer.class);
+
+    private final RentalAgreementHistory rentalAgreementHistory;
+    private final ToolCatalogCache toolCatalogCache;
+    private final ToolMapper toolMapper;
+    private final ToolTypePriceIndex toolTypePriceIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param rentalAgreementHistory Reads every rental agreement, including archived rental agreements.
+     * @param toolCatalogCache Supplies the current tool charges.
+     * @param toolMapper Copies a cached tool before its scheduled price is applied.
+     * @param toolTypePriceIndex Supplies the scheduled tool type prices.
+     */
+    // Intentionally package private.
+    RentalAgreementRepricer(final RentalAgreementHistory rentalAgreementHistory,
+            final ToolCatalogCache toolCatalogCache, final ToolMapper toolMapper,
+            final ToolTypePriceIndex toolTypePriceIndex) {
+        this.rentalAgreementHistory = rentalAgreementHistory;
+        this.toolCatalogCache = toolCatalogCache;
+        this.toolMapper = toolMapper;
+        this.toolTypePriceIndex = toolTypePriceIndex;
+    }
+
+    /**
+     * Reprices every rental agreement. Must be called within a transaction.
+     *
+     * @param reportWriter Receives the CSV report of the rental agreements whose final charge changed, sorted by
+     *   rental agreement ID. The writer is not closed.
+     * @return The totals of the run.
+     * @throws IOException If the report cannot be written.
+     */
+    public RepricingSummary reprice(final Writer reportWriter) throws IOException {
+        LOGGER.debug("Starting repricing.");
+
+        final Map<String, Tool> toolsByCode = new HashMap<>();
+        for (final Tool tool : toolCatalogCache.getToolCatalog().getTools()) {
+            toolsByCode.put(tool.getCode(), tool);
+        }
+        // Note: Reloaded in the calling transaction, so the run uses the current schedule and the pool threads never
+        //   have to load the index outside of a transaction.
+        toolTypePriceIndex.refresh();
+
+        final ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+        final int maxPendingChunkCount = forkJoinPool.getParallelism() * 2;
+        final Deque<ForkJoinTask<List<RepricedRentalAgreement>>> pendingChunks = new ArrayDeque<>();
+        final RepricingTotals repricingTotals = new RepricingTotals();
+
+        reportWriter.write(REPORT_HEADER);
+        try (Stream<RentalAgreementChargeDto> rentalAgreementChargeDtos =
+                rentalAgreementHistory.streamRentalAgreementCharges()) {
+            final Iterator<RentalAgreementChargeDto> rentalAgreementChargeDtoIterator =
+                    rentalAgreementChargeDtos.iterator();
+            while (rentalAgreementChargeDtoIterator.hasNext()) {
+                final List<RentalAgreementChargeDto> chunk = new ArrayList<>(CHUNK_SIZE);
+                while (chunk.size() < CHUNK_SIZE && rentalAgreementChargeDtoIterator.hasNext()) {
+                    chunk.add(rentalAgreementChargeDtoIterator.next());
+                }
+                pendingChunks.addLast(forkJoinPool.submit(() -> repriceChunk(chunk, toolsByCode)));
+
+                if (pendingChunks.size() >= maxPendingChunkCount) {
+                    report(pendingChunks.removeFirst().join(), repricingTotals, reportWriter);
+                }
+            }
+        }
+        while (!pendingChunks.isEmpty()) {
+            report(pendingChunks.removeFirst().join(), repricingTotals, reportWriter);
+        }
+
+        LOGGER.debug("Finished repricing {} rental agreements.", repricingTotals.rentalAgreementCount);
+        return new RepricingSummaryImpl(repricingTotals.rentalAgreementCount,
+                repricingTotals.changedRentalAgreementCount, repricingTotals.skippedRentalAgreementCount,
+                repricingTotals.originalFinalChargeTotal, repricingTotals.repricedFinalChargeTotal);
+    }
+
+    /**
+     * Reprices one chunk of rental agreements. Runs on a fork join pool thread. Only touches the supplied values and
+     *   the already loaded scheduled prices, never the database, so it is safe to run outside the calling transaction.
+     *
+     * @param chunk The rental agreements to reprice.
+     * @param toolsByCode The current tools keyed by Tool Code.
+     * @return The repriced rental agreements in the same order. The repriced final charge is null if the tool no
+     *   longer exists.
+     */
+    private List<RepricedRentalAgreement> repriceChunk(final List<RentalAgreementChargeDto> chunk,
+            final Map<String, Tool> toolsByCode) {
+        final List<RepricedRentalAgreement> repricedRentalAgreements = new ArrayList<>(chunk.size());
+        for (final RentalAgreementChargeDto rentalAgreementChargeDto : chunk) {
+            final Tool tool = toolsByCode.get(rentalAgreementChargeDto.toolCode());
+            if (tool == null) {
+                repricedRentalAgreements.add(new RepricedRentalAgreement(rentalAgreementChargeDto, null));
+                continue;
+            }
+
+            final ContractParameters contractParameters = new ContractParameters();
+            contractParameters.setToolCode(rentalAgreementChargeDto.toolCode());
+            contractParameters.setCheckoutDate(rentalAgreementChargeDto.checkoutDate());
+            contractParameters.setRentalDayCount(rentalAgreementChargeDto.rentalDayCount());
+            contractParameters.setDiscountPercent(rentalAgreementChargeDto.discountPercent());
+
+            // Note: The cached tool is shared, so the scheduled price is applied to a copy.
+            final ToolImpl pricedTool = toolMapper.copyTool(tool);
+            toolTypePriceIndex.applyPrice(pricedTool, rentalAgreementChargeDto.checkoutDate());
+
+            final RentalAgreementImpl rentalAgreement = new RentalAgreementImpl(contractParameters, pricedTool);
+            // Zero unless the rental agreement is a cart line.
+            final BigDecimal orderDiscountAmount = rentalAgreementChargeDto.discountAmount()
+                    .subtract(RentalAgreementImpl.calculateDiscountAmount(rentalAgreementChargeDto.preDiscountCharge(),
+                            rentalAgreementChargeDto.discountPercent()));
+            repricedRentalAgreements.add(new RepricedRentalAgreement(rentalAgreementChargeDto,
+                    rentalAgreement.getFinalCharge().subtract(orderDiscountAmount).max(BigDecimal.ZERO)));
+        }
+
+        return repricedRentalAgreements;
+    }
+
+    /**
+     * Adds a priced chunk to the totals and writes its changed rental agreements to the report.
+     *
+     * @param repricedRentalAgreements The repriced chunk.
+     * @param repricingTotals The running totals. Updated in place.
+     * @param reportWriter The report.
+     * @throws IOException If the report cannot be written.
+     */
+    private static void report(final List<RepricedRentalAgreement> repricedRentalAgreements,
+            final RepricingTotals repricingTotals, final Writer reportWriter) throws IOException {
+        final StringBuilder reportStringBuilder = new StringBuilder();
+        for (final RepricedRentalAgreement repricedRentalAgreement : repricedRentalAgreements) {
+            final RentalAgreementChargeDto original = repricedRentalAgreement.original();
+            final BigDecimal repricedFinalCharge = repricedRentalAgreement.repricedFinalCharge();
+
+            if (repricedFinalCharge == null) {
+                LOGGER.warn("Skipping rental agreement {}; tool {} no longer exists.", original.rentalAgreementId(),
+                        original.toolCode());
+                repricingTotals.skippedRentalAgreementCount++;
+                appendReportLine(reportStringBuilder, original, "", "");
+                continue;
+            }
+
+            repricingTotals.rentalAgreementCount++;
+            repricingTotals.originalFinalChargeTotal = repricingTotals.originalFinalChargeTotal
+                    .add(original.finalCharge());
+            repricingTotals.repricedFinalChargeTotal = repricingTotals.repricedFinalChargeTotal
+                    .add(repricedFinalCharge);
+
+            if (original.finalCharge().compareTo(repricedFinalCharge) != 0) {
+                repricingTotals.changedRentalAgreementCount++;
+                appendReportLine(reportStringBuilder, original, repricedFinalCharge.toPlainString(),
+                        repricedFinalCharge.subtract(original.finalCharge()).toPlainString());
+            }
+        }
+        reportWriter.write(reportStringBuilder.toString());
+    }
+
+    /**
+     * Appends one rental agreement to the report.
+     *
+     * @param reportStringBuilder The report being built.
+     * @param original The rental agreement as recorded at checkout.
+     * @param repricedFinalCharge The repriced final charge column.
+     * @param difference The difference column.
+     */
+    private static void appendReportLine(final StringBuilder reportStringBuilder,
+            final RentalAgreementChargeDto original, final String repricedFinalCharge, final String difference) {
+        reportStringBuilder.append(original.rentalAgreementId()).append(',')
+                .append(original.toolCode()).append(',')
+                .append(original.checkoutDate()).append(',')
+                .append(original.rentalDayCount()).append(',')
+                .append(original.discountPercent()).append(',')
+                .append(original.finalCharge().toPlainString()).append(',')
+                .append(repricedFinalCharge).append(',')
+                .append(difference).append('\n');
+    }
+
+    /**
+     * A rental agreement paired with its repriced final charge.
+     *
+     * @param original The rental agreement as recorded at checkout.
+     * @param repricedFinalCharge The final charge using the current tool charges, or null if the tool no longer
+     *   exists.
+     */
+    private record RepricedRentalAgreement(RentalAgreementChargeDto original, BigDecimal repricedFinalCharge) {
+
+    }
+
+    /**
+     * Running totals of a repricing run. Only accessed by the calling thread.
+     */
+    private static class RepricingTotals {
+        private long rentalAgreementCount;
+        private long changedRentalAgreementCount;
+        private long skippedRentalAgreementCount;
+        private BigDecimal originalFinalChargeTotal = BigDecimal.ZERO;
+        private BigDecimal repricedFinalChargeTotal = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A read-only, memory-mapped rental agreement snapshot written by
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementSnapshotExporter
+ *   RentalAgreementSnapshotExporter}. Queries scan only the columns they use, straight from the page cache, without
+ *   touching the database. An instance is safe to share between threads.<p>
+ *
+ * Note: Java cannot unmap a mapped file explicitly. The mapping is released when the instance is garbage collected,
+ *   so replacing the snapshot file while it is open is safe; the instance keeps reading the old snapshot.
+ */
+public final class RentalAgreementSnapshot {
+    private final ByteBuffer byteBuffer;
+    private final RentalAgreementSnapshotLayout layout;
+    private final LocalDate baseDate;
+    private final int checkoutDaySpan;
+    private final Instant createdOn;
+    private final String[][] dictionaryValues = new String[RentalAgreementSnapshotLayout.DICTIONARY_COUNT][];
+    private final Map<String, Integer>[] dictionaryIndexes;
+
+    /**
+     * Constructor.
+     *
+     * @param byteBuffer The mapped snapshot file.
+     */
+    @SuppressWarnings("unchecked")
+    private RentalAgreementSnapshot(final ByteBuffer byteBuffer) {
+        this.byteBuffer = byteBuffer;
+
+        final int magic = byteBuffer.getInt(RentalAgreementSnapshotLayout.MAGIC_POSITION);
+        final int version = byteBuffer.getInt(RentalAgreementSnapshotLayout.VERSION_POSITION);
+        if (magic != RentalAgreementSnapshotLayout.MAGIC || version != RentalAgreementSnapshotLayout.VERSION) {
+            throw new IllegalArgumentException(String.format(
+                    "The file is not a version %d rental agreement snapshot. Found magic %08x, version %d.",
+                    RentalAgreementSnapshotLayout.VERSION, magic, version));
+        }
+
+        baseDate = LocalDate.ofEpochDay(byteBuffer.getInt(RentalAgreementSnapshotLayout.BASE_EPOCH_DAY_POSITION));
+        checkoutDaySpan = byteBuffer.getInt(RentalAgreementSnapshotLayout.CHECKOUT_DAY_SPAN_POSITION);
+        createdOn = Instant.ofEpochMilli(
+                byteBuffer.getLong(RentalAgreementSnapshotLayout.CREATED_ON_EPOCH_MILLI_POSITION));
+
+        dictionaryIndexes = new Map[RentalAgreementSnapshotLayout.DICTIONARY_COUNT];
+        final int[] dictionaryWidths = new int[RentalAgreementSnapshotLayout.DICTIONARY_COUNT];
+        int position = RentalAgreementSnapshotLayout.HEADER_SIZE;
+        for (int dictionary = 0; dictionary < RentalAgreementSnapshotLayout.DICTIONARY_COUNT; dictionary++) {
+            dictionaryWidths[dictionary] =
+                    byteBuffer.get(RentalAgreementSnapshotLayout.DICTIONARY_WIDTH_POSITION + dictionary);
+            final int dictionarySize = byteBuffer.getInt(
+                    RentalAgreementSnapshotLayout.DICTIONARY_SIZE_POSITION + dictionary * Integer.BYTES);
+            dictionaryValues[dictionary] = new String[dictionarySize];
+            dictionaryIndexes[dictionary] = new HashMap<>();
+            for (int index = 0; index < dictionarySize; index++) {
+                final byte[] encodedValue = new byte[byteBuffer.getInt(position)];
+                byteBuffer.get(position + Integer.BYTES, encodedValue);
+                position += Integer.BYTES + encodedValue.length;
+                dictionaryValues[dictionary][index] = new String(encodedValue, StandardCharsets.UTF_8);
+                dictionaryIndexes[dictionary].put(dictionaryValues[dictionary][index], index);
+            }
+        }
+
+        layout = new RentalAgreementSnapshotLayout(position,
+                byteBuffer.getInt(RentalAgreementSnapshotLayout.ROW_COUNT_POSITION),
+                byteBuffer.get(RentalAgreementSnapshotLayout.DATE_WIDTH_POSITION), dictionaryWidths);
+        if (layout.fileSize != byteBuffer.capacity()) {
+            throw new IllegalArgumentException(String.format(
+                    "The snapshot is truncated or corrupt. Expected %d bytes, found %d.", layout.fileSize,
+                    byteBuffer.capacity()));
+        }
+    }
+
+    /**
+     * Opens a snapshot file.
+     *
+     * @param path The snapshot file.
+     * @return The snapshot.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the file is not a snapshot.
+     */
+    public static RentalAgreementSnapshot open(final Path path) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new RentalAgreementSnapshot(fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * @return The number of rental agreements in the snapshot.
+     */
+    public int getRowCount() {
+        return layout.rowCount;
+    }
+
+    /**
+     * @return When the rental agreements in the snapshot were read.
+     */
+    public Instant getCreatedOn() {
+        return createdOn;
+    }
+
+    /**
+     * @return A new query over the snapshot.
+     */
+    public RentalAgreementSnapshotQuery query() {
+        return new RentalAgreementSnapshotQuery(this);
+    }
+
+    /**
+     * @return The checkout date stored as day offset 0.
+     */
+    // Intentionally package private.
+    LocalDate getBaseDate() {
+        return baseDate;
+    }
+
+    /**
+     * @return The number of days from the earliest to the latest checkout date, inclusive. 0 if the snapshot is empty.
+     */
+    // Intentionally package private.
+    int getCheckoutDaySpan() {
+        return checkoutDaySpan;
+    }
+
+    /**
+     * @param dictionary The dictionary.
+     * @return The number of values in the dictionary.
+     */
+    // Intentionally package private.
+    int getDictionarySize(final int dictionary) {
+        return dictionaryValues[dictionary].length;
+    }
+
+    /**
+     * @param dictionary The dictionary.
+     * @param index An index into the dictionary.
+     * @return The dictionary value at the index.
+     */
+    // Intentionally package private.
+    String getDictionaryValue(final int dictionary, final int index) {
+        return dictionaryValues[dictionary][index];
+    }
+
+    /**
+     * @param dictionary The dictionary.
+     * @param value A value.
+     * @return The index of the value in the dictionary, or -1 if no rental agreement has the value.
+     */
+    // Intentionally package private.
+    int findDictionaryIndex(final int dictionary, final String value) {
+        return dictionaryIndexes[dictionary].getOrDefault(value, -1);
+    }
+
+    /**
+     * @param dictionary The dictionary.
+     * @param row The row.
+     * @return The dictionary index stored for the row.
+     */
+    // Intentionally package private.
+    int getDictionaryIndex(final int dictionary, final int row) {
+        return getIndex((int) layout.dictionaryOffsets[dictionary], layout.dictionaryWidths[dictionary], row);
+    }
+
+    /**
+     * @param row The row.
+     * @return The number of days between the base date and the checkout date of the row.
+     */
+    // Intentionally package private.
+    int getCheckoutDayOffset(final int row) {
+        return getIndex((int) layout.checkoutDateOffset, layout.dateWidth, row);
+    }
+
+    /**
+     * @param row The row.
+     * @return The rental day count of the row.
+     */
+    // Intentionally package private.
+    int getRentalDayCount(final int row) {
+        return byteBuffer.getInt((int) layout.rentalDayCountOffset + row * Integer.BYTES);
+    }
+
+    /**
+     * @param row The row.
+     * @return The charge day count of the row.
+     */
+    // Intentionally package private.
+    int getChargeDayCount(final int row) {
+        return byteBuffer.getInt((int) layout.chargeDayCountOffset + row * Integer.BYTES);
+    }
+
+    /**
+     * @param row The row.
+     * @return The discount amount of the row, in cents.
+     */
+    // Intentionally package private.
+    long getDiscountAmountCents(final int row) {
+        return byteBuffer.getLong((int) layout.discountAmountOffset + row * Long.BYTES);
+    }
+
+    /**
+     * @param row The row.
+     * @return The final charge of the row, in cents.
+     */
+    // Intentionally package private.
+    long getFinalChargeCents(final int row) {
+        return byteBuffer.getLong((int) layout.finalChargeOffset + row * Long.BYTES);
+    }
+
+    /**
+     * Reads an unsigned index from a column.
+     *
+     * @param columnOffset The position of the column.
+     * @param width The width of the column, in bytes.
+     * @param row The row.
+     * @return The index.
+     */
+    private int getIndex(final int columnOffset, final int width, final int row) {
+        switch (width) {
+            case Byte.BYTES:
+                return Byte.toUnsignedInt(byteBuffer.get(columnOffset + row));
+            case Short.BYTES:
+                return Short.toUnsignedInt(byteBuffer.getShort(columnOffset + row * Short.BYTES));
+            default:
+                return byteBuffer.getInt(columnOffset + row * Integer.BYTES);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementFactDto;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Periodically exports every rental agreement of the default store, including archived rental agreements, to the
+ *   columnar snapshot file named by the 'jl0724.snapshot.file' property. Runs every 'jl0724.snapshot.interval-minutes'
+ *   minutes (60 by default) on a background thread, starting at startup. Reporting queries then run against the
+ *   snapshot (see {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementSnapshot
+ *   RentalAgreementSnapshot}) instead of scanning the rental_agreement table.<p>
+ *
+ * Note: The rental agreements are read in one read-only transaction so the snapshot is consistent, and the file is
+ *   written after the transaction ends so checkouts are not blocked while it is written.
+ */
+@Component
+@ConditionalOnProperty(name = "jl0724.snapshot.file")
+public class RentalAgreementSnapshotExporter {
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(RentalAgreementSnapshotExporter.class);
+
+    private final RentalAgreementHistory rentalAgreementHistory;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Path snapshotPath;
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * Constructor. Schedules the first export immediately.
+     *
+     * @param rentalAgreementHistory Reads rental agreements from the rental_agreement table and the archive.
+     * @param platformTransactionManager Used to read the rental agreements.
+     * @param dataDirectory The data directory.
+     * @param snapshotFile The snapshot file. A relative file is resolved against the data directory.
+     * @param intervalMinutes The time between exports, in minutes.
+     */
+    // Intentionally package private.
+    RentalAgreementSnapshotExporter(final RentalAgreementHistory rentalAgreementHistory,
+            final PlatformTransactionManager platformTransactionManager,
+            @Value("${jl0724.data.directory:data}") final String dataDirectory,
+            @Value("${jl0724.snapshot.file}") final String snapshotFile,
+            @Value("${jl0724.snapshot.interval-minutes:60}") final long intervalMinutes) {
+        if (intervalMinutes < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The snapshot interval must be greater than 0. You specified: %d", intervalMinutes));
+        }
+
+        this.rentalAgreementHistory = rentalAgreementHistory;
+        readOnlyTransactionTemplate = new TransactionTemplate(platformTransactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        snapshotPath = Path.of(dataDirectory).resolve(snapshotFile).toAbsolutePath();
+
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "rental-agreement-snapshot-exporter");
+            // Note: Daemon so that a long export can never keep the JVM alive. An interrupted export leaves the
+            //   previous snapshot in place.
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutorService.scheduleWithFixedDelay(this::exportQuietly, 0, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @return The snapshot file.
+     */
+    public Path getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    /**
+     * Exports every rental agreement of the default store to the snapshot file, replacing the previous snapshot.
+     *
+     * @return The number of rental agreements exported.
+     */
+    public int export() {
+        final RentalAgreementSnapshotWriter rentalAgreementSnapshotWriter = new RentalAgreementSnapshotWriter();
+        final Instant createdOn = readOnlyTransactionTemplate.execute(status -> {
+            try (Stream<RentalAgreementFactDto> rentalAgreementFactDtos =
+                    rentalAgreementHistory.streamRentalAgreementFacts()) {
+                rentalAgreementFactDtos.forEach(rentalAgreementSnapshotWriter::add);
+            }
+            return Instant.now();
+        });
+
+        try {
+            Files.createDirectories(snapshotPath.getParent());
+            rentalAgreementSnapshotWriter.write(snapshotPath, createdOn);
+        }
+        catch (final IOException exception) {
+            throw new UncheckedIOException(String.format(
+                    "Failed to write the rental agreement snapshot: %s", snapshotPath), exception);
+        }
+
+        LOGGER.debug("Exported {} rental agreements to {}.", rentalAgreementSnapshotWriter.getRowCount(),
+                snapshotPath);
+        return rentalAgreementSnapshotWriter.getRowCount();
+    }
+
+    /**
+     * Stops the background thread, waiting a bounded time for an export in progress to finish.
+     */
+    @PreDestroy
+    public void close() {
+        scheduledExecutorService.shutdown();
+        try {
+            if (!scheduledExecutorService.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("The rental agreement snapshot exporter did not finish within {} ms.",
+                        SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs {@link #export()}, logging rather than throwing any failure so that later exports are still scheduled.
+     */
+    private void exportQuietly() {
+        try {
+            export();
+        }
+        catch (final RuntimeException exception) {
+            LOGGER.error("Failed to export the rental agreement snapshot.", exception);
+        }
+    }
+}
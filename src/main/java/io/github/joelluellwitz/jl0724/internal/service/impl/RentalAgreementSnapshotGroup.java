@@ -0,0 +1,17 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.math.BigDecimal;
+
+/**
+ * One group of a {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementSnapshotQuery
+ *   RentalAgreementSnapshotQuery} result.
+ *
+ * @param key The value of the group by dimension (for example, "LADW" or "2015-09"). null if the query is not grouped.
+ * @param rentalAgreementCount The number of rental agreements in the group.
+ * @param sum The sum of the measure over the rental agreements in the group.
+ */
+public record RentalAgreementSnapshotGroup(String key, long rentalAgreementCount, BigDecimal sum) {
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+/**
+ * The byte layout of a rental agreement snapshot file, shared by
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementSnapshotWriter
+ *   RentalAgreementSnapshotWriter} and
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementSnapshot RentalAgreementSnapshot}.
+ *   All values are little-endian.<p>
+ *
+ * A snapshot file is made of:
+ * <ol>
+ *   <li>A fixed size header (see the *_POSITION constants).</li>
+ *   <li>The Tool Code, Tool Type, and tool brand dictionaries, in that order. Each entry is an int byte length followed
+ *     by that many UTF-8 bytes. A row stores the index of its value in the dictionary.</li>
+ *   <li>One column per field, each starting on an 8 byte boundary, in the order of the *Offset fields of this class.
+ *     Dictionary columns use 1, 2, or 4 bytes per row depending on the dictionary size. The checkout date column holds
+ *     the number of days after the header's base date (the earliest checkout date), using 1, 2, or 4 bytes per row
+ *     depending on how many days the checkout dates span. Money columns hold long cents.</li>
+ * </ol>
+ */
+// Intentionally package private.
+final class RentalAgreementSnapshotLayout {
+    // Intentionally package private.
+    static final int MAGIC = 0x41524C4A; // "JLRA" when read as little-endian bytes.
+    static final int VERSION = 1;
+    static final int MAGIC_POSITION = 0;
+    static final int VERSION_POSITION = 4;
+    static final int ROW_COUNT_POSITION = 8;
+    static final int BASE_EPOCH_DAY_POSITION = 12;
+    static final int DATE_WIDTH_POSITION = 16;
+    static final int DICTIONARY_WIDTH_POSITION = 17;
+    static final int DICTIONARY_SIZE_POSITION = 20;
+    static final int CREATED_ON_EPOCH_MILLI_POSITION = 32;
+    static final int CHECKOUT_DAY_SPAN_POSITION = 40;
+    static final int HEADER_SIZE = 48;
+    static final int DICTIONARY_COUNT = 3;
+    static final int TOOL_CODE_DICTIONARY = 0;
+    static final int TOOL_TYPE_DICTIONARY = 1;
+    static final int TOOL_BRAND_DICTIONARY = 2;
+
+    final int rowCount;
+    final int dateWidth;
+    final int[] dictionaryWidths;
+    final long idOffset;
+    final long[] dictionaryOffsets = new long[DICTIONARY_COUNT];
+    final long checkoutDateOffset;
+    final long rentalDayCountOffset;
+    final long chargeDayCountOffset;
+    final long discountPercentOffset;
+    final long discountAmountOffset;
+    final long finalChargeOffset;
+    final long fileSize;
+
+    /**
+     * Constructor. Computes the position of every column.
+     *
+     * @param columnsStart The position just after the dictionaries.
+     * @param rowCount The number of rows.
+     * @param dateWidth The width of the checkout date column.
+     * @param dictionaryWidths The width of each dictionary column.
+     */
+    RentalAgreementSnapshotLayout(final long columnsStart, final int rowCount, final int dateWidth,
+            final int[] dictionaryWidths) {
+        this.rowCount = rowCount;
+        this.dateWidth = dateWidth;
+        this.dictionaryWidths = dictionaryWidths.clone();
+
+        long offset = align(columnsStart);
+        idOffset = offset;
+        offset = align(offset + (long) rowCount * Integer.BYTES);
+        for (int dictionary = 0; dictionary < DICTIONARY_COUNT; dictionary++) {
+            dictionaryOffsets[dictionary] = offset;
+            offset = align(offset + (long) rowCount * dictionaryWidths[dictionary]);
+        }
+        checkoutDateOffset = offset;
+        offset = align(offset + (long) rowCount * dateWidth);
+        rentalDayCountOffset = offset;
+        offset = align(offset + (long) rowCount * Integer.BYTES);
+        chargeDayCountOffset = offset;
+        offset = align(offset + (long) rowCount * Integer.BYTES);
+        discountPercentOffset = offset;
+        offset = align(offset + rowCount);
+        discountAmountOffset = offset;
+        offset = align(offset + (long) rowCount * Long.BYTES);
+        finalChargeOffset = offset;
+        fileSize = offset + (long) rowCount * Long.BYTES;
+    }
+
+    /**
+     * @param valueCount The number of distinct values.
+     * @return The number of bytes needed to store an index into a dictionary of that size.
+     */
+    static int getIndexWidth(final int valueCount) {
+        if (valueCount <= 1 << Byte.SIZE) {
+            return Byte.BYTES;
+        }
+        return valueCount <= 1 << Short.SIZE ? Short.BYTES : Integer.BYTES;
+    }
+
+    /**
+     * @param position A file position.
+     * @return The position rounded up to the next multiple of 8.
+     */
+    static long align(final long position) {
+        return (position + 7) & ~7L;
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A filter, group by, and sum query over a
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementSnapshot RentalAgreementSnapshot}.
+ *   For example, revenue by tool brand for September 2015:
+ * <pre>
+ * snapshot.query()
+ *         .checkoutBetween(LocalDate.of(2015, 9, 1), LocalDate.of(2015, 9, 30))
+ *         .groupBy(Dimension.TOOL_BRAND)
+ *         .sum(Measure.FINAL_CHARGE);
+ * </pre>
+ *
+ * Note: Filters on Tool Code, Tool Type, and tool brand are resolved to a dictionary index once, so the scan compares
+ *   small integers instead of strings. Sums are accumulated as long cents, so they are exact.
+ */
+public final class RentalAgreementSnapshotQuery {
+    /**
+     * A rental agreement attribute that can be filtered on or grouped by.
+     */
+    public enum Dimension {
+        TOOL_CODE(RentalAgreementSnapshotLayout.TOOL_CODE_DICTIONARY),
+        TOOL_TYPE(RentalAgreementSnapshotLayout.TOOL_TYPE_DICTIONARY),
+        TOOL_BRAND(RentalAgreementSnapshotLayout.TOOL_BRAND_DICTIONARY),
+        CHECKOUT_YEAR(-1),
+        CHECKOUT_MONTH(-1);
+
+        private final int dictionary;
+
+        /**
+         * Constructor.
+         *
+         * @param dictionary The dictionary holding the dimension's values, or -1 if the dimension is derived from the
+         *   checkout date.
+         */
+        Dimension(final int dictionary) {
+            this.dictionary = dictionary;
+        }
+    }
+
+    /**
+     * A rental agreement value that can be summed.
+     */
+    public enum Measure {
+        RENTAL_DAY_COUNT(0),
+        CHARGE_DAY_COUNT(0),
+        PRE_DISCOUNT_CHARGE(2),
+        DISCOUNT_AMOUNT(2),
+        FINAL_CHARGE(2);
+
+        private final int scale;
+
+        /**
+         * Constructor.
+         *
+         * @param scale The number of decimal places of the stored value.
+         */
+        Measure(final int scale) {
+            this.scale = scale;
+        }
+    }
+
+    private final RentalAgreementSnapshot snapshot;
+    private final Map<Dimension, String> filters = new EnumMap<>(Dimension.class);
+
+    private LocalDate checkoutFrom = LocalDate.MIN;
+    private LocalDate checkoutTo = LocalDate.MAX;
+    private Dimension groupByDimension;
+
+    /**
+     * Constructor.
+     *
+     * @param snapshot The snapshot to query.
+     */
+    // Intentionally package private.
+    RentalAgreementSnapshotQuery(final RentalAgreementSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Limits the query to rental agreements checked out within a date range.
+     *
+     * @param from The first checkout date, inclusive.
+     * @param to The last checkout date, inclusive.
+     * @return This query.
+     */
+    public RentalAgreementSnapshotQuery checkoutBetween(final LocalDate from, final LocalDate to) {
+        checkoutFrom = from;
+        checkoutTo = to;
+        return this;
+    }
+
+    /**
+     * Limits the query to rental agreements with a Tool Code, Tool Type, or tool brand.
+     *
+     * @param dimension TOOL_CODE, TOOL_TYPE, or TOOL_BRAND.
+     * @param value The value to match exactly.
+     * @return This query.
+     */
+    public RentalAgreementSnapshotQuery where(final Dimension dimension, final String value) {
+        if (dimension.dictionary < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Only Tool Code, Tool Type, and tool brand can be matched. Use checkoutBetween for dates. "
+                            + "You specified: %s", dimension));
+        }
+
+        filters.put(dimension, value);
+        return this;
+    }
+
+    /**
+     * Groups the query result.
+     *
+     * @param dimension The dimension to group by.
+     * @return This query.
+     */
+    public RentalAgreementSnapshotQuery groupBy(final Dimension dimension) {
+        groupByDimension = dimension;
+        return this;
+    }
+
+    /**
+     * Runs the query.
+     *
+     * @param measure The value to sum.
+     * @return The matching groups, sorted by key. Groups without rental agreements are omitted. If the query is not
+     *   grouped, a single group with a null key is returned, even if no rental agreements match.
+     */
+    public List<RentalAgreementSnapshotGroup> sum(final Measure measure) {
+        final int[] filterIndexes = new int[RentalAgreementSnapshotLayout.DICTIONARY_COUNT];
+        Arrays.fill(filterIndexes, -1);
+        boolean matchable = true;
+        for (final Map.Entry<Dimension, String> filter : filters.entrySet()) {
+            filterIndexes[filter.getKey().dictionary] =
+                    snapshot.findDictionaryIndex(filter.getKey().dictionary, filter.getValue());
+            matchable &= filterIndexes[filter.getKey().dictionary] >= 0;
+        }
+
+        final LocalDate baseDate = snapshot.getBaseDate();
+        final long firstDayOffset = Math.max(0, checkoutFrom.toEpochDay() - baseDate.toEpochDay());
+        final long lastDayOffset = Math.min(snapshot.getCheckoutDaySpan() - 1,
+                checkoutTo.toEpochDay() - baseDate.toEpochDay());
+
+        final String[] groupKeys;
+        final int[] dayOffsetGroups;
+        if (groupByDimension == null) {
+            groupKeys = new String[] {null};
+            dayOffsetGroups = null;
+        }
+        else if (groupByDimension.dictionary >= 0) {
+            groupKeys = new String[snapshot.getDictionarySize(groupByDimension.dictionary)];
+            for (int index = 0; index < groupKeys.length; index++) {
+                groupKeys[index] = snapshot.getDictionaryValue(groupByDimension.dictionary, index);
+            }
+            dayOffsetGroups = null;
+        }
+        else {
+            // Note: Checkout dates are grouped through a day offset to group lookup table so the scan never builds a
+            //   LocalDate.
+            final List<String> dateGroupKeys = new ArrayList<>();
+            dayOffsetGroups = new int[snapshot.getCheckoutDaySpan()];
+            for (int dayOffset = 0; dayOffset < dayOffsetGroups.length; dayOffset++) {
+                final LocalDate date = baseDate.plusDays(dayOffset);
+                final String groupKey = groupByDimension == Dimension.CHECKOUT_YEAR
+                        ? String.valueOf(date.getYear()) : YearMonth.from(date).toString();
+                if (dateGroupKeys.isEmpty() || !dateGroupKeys.get(dateGroupKeys.size() - 1).equals(groupKey)) {
+                    dateGroupKeys.add(groupKey);
+                }
+                dayOffsetGroups[dayOffset] = dateGroupKeys.size() - 1;
+            }
+            groupKeys = dateGroupKeys.toArray(new String[0]);
+        }
+
+        final long[] counts = new long[groupKeys.length];
+        final long[] sums = new long[groupKeys.length];
+        final int rowCount = matchable && firstDayOffset <= lastDayOffset ? snapshot.getRowCount() : 0;
+        for (int row = 0; row < rowCount; row++) {
+            final int dayOffset = snapshot.getCheckoutDayOffset(row);
+            if (dayOffset < firstDayOffset || dayOffset > lastDayOffset || !matchesFilters(filterIndexes, row)) {
+                continue;
+            }
+
+            final int group;
+            if (groupByDimension == null) {
+                group = 0;
+            }
+            else if (dayOffsetGroups == null) {
+                group = snapshot.getDictionaryIndex(groupByDimension.dictionary, row);
+            }
+            else {
+                group = dayOffsetGroups[dayOffset];
+            }
+            counts[group]++;
+            sums[group] += getMeasureValue(measure, row);
+        }
+
+        final List<RentalAgreementSnapshotGroup> groups = new ArrayList<>();
+        for (int group = 0; group < groupKeys.length; group++) {
+            if (counts[group] > 0 || groupByDimension == null) {
+                groups.add(new RentalAgreementSnapshotGroup(groupKeys[group], counts[group],
+                        BigDecimal.valueOf(sums[group], measure.scale)));
+            }
+        }
+        if (groupByDimension != null) {
+            groups.sort(Comparator.comparing(RentalAgreementSnapshotGroup::key));
+        }
+        return groups;
+    }
+
+    /**
+     * @param filterIndexes The dictionary index each dictionary column must hold, or -1 if the column is not filtered.
+     * @param row The row.
+     * @return true if the row matches every filter.
+     */
+    private boolean matchesFilters(final int[] filterIndexes, final int row) {
+        for (int dictionary = 0; dictionary < RentalAgreementSnapshotLayout.DICTIONARY_COUNT; dictionary++) {
+            if (filterIndexes[dictionary] >= 0
+                    && snapshot.getDictionaryIndex(dictionary, row) != filterIndexes[dictionary]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param measure The measure.
+     * @param row The row.
+     * @return The unscaled value of the measure for the row.
+     */
+    private long getMeasureValue(final Measure measure, final int row) {
+        return switch (measure) {
+            case RENTAL_DAY_COUNT -> snapshot.getRentalDayCount(row);
+            case CHARGE_DAY_COUNT -> snapshot.getChargeDayCount(row);
+            case PRE_DISCOUNT_CHARGE -> snapshot.getFinalChargeCents(row) + snapshot.getDiscountAmountCents(row);
+            case DISCOUNT_AMOUNT -> snapshot.getDiscountAmountCents(row);
+            case FINAL_CHARGE -> snapshot.getFinalChargeCents(row);
+        };
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementFactDto;
+
+/**
+ * Builds a columnar rental agreement snapshot file (see
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementSnapshotLayout
+ *   RentalAgreementSnapshotLayout}) from rental agreement facts.<p>
+ *
+ * Note: The columns are collected in primitive arrays (about 45 bytes per rental agreement) because the dictionary
+ *   sizes and date span, and therefore the column widths, are only known once every rental agreement has been read.
+ *   Reading the rental agreements twice instead would hold the database read lock twice as long.
+ */
+// Intentionally package private.
+final class RentalAgreementSnapshotWriter {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final List<Map<String, Integer>> dictionaryIndexes = new ArrayList<>();
+    private final List<List<String>> dictionaryValues = new ArrayList<>();
+
+    private int rowCount;
+    private int minEpochDay = Integer.MAX_VALUE;
+    private int maxEpochDay = Integer.MIN_VALUE;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[][] dictionaryColumns = new int[RentalAgreementSnapshotLayout.DICTIONARY_COUNT][INITIAL_CAPACITY];
+    private int[] checkoutEpochDays = new int[INITIAL_CAPACITY];
+    private int[] rentalDayCounts = new int[INITIAL_CAPACITY];
+    private int[] chargeDayCounts = new int[INITIAL_CAPACITY];
+    private byte[] discountPercents = new byte[INITIAL_CAPACITY];
+    private long[] discountAmounts = new long[INITIAL_CAPACITY];
+    private long[] finalCharges = new long[INITIAL_CAPACITY];
+
+    /**
+     * Constructor.
+     */
+    RentalAgreementSnapshotWriter() {
+        for (int dictionary = 0; dictionary < RentalAgreementSnapshotLayout.DICTIONARY_COUNT; dictionary++) {
+            dictionaryIndexes.add(new HashMap<>());
+            dictionaryValues.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Adds a rental agreement to the snapshot.
+     *
+     * @param rentalAgreementFactDto The rental agreement.
+     */
+    void add(final RentalAgreementFactDto rentalAgreementFactDto) {
+        if (rowCount == ids.length) {
+            grow();
+        }
+
+        final int checkoutEpochDay = Math.toIntExact(rentalAgreementFactDto.checkoutDate().toEpochDay());
+        minEpochDay = Math.min(minEpochDay, checkoutEpochDay);
+        maxEpochDay = Math.max(maxEpochDay, checkoutEpochDay);
+
+        ids[rowCount] = rentalAgreementFactDto.rentalAgreementId();
+        dictionaryColumns[RentalAgreementSnapshotLayout.TOOL_CODE_DICTIONARY][rowCount] = getDictionaryIndex(
+                RentalAgreementSnapshotLayout.TOOL_CODE_DICTIONARY, rentalAgreementFactDto.toolCode());
+        dictionaryColumns[RentalAgreementSnapshotLayout.TOOL_TYPE_DICTIONARY][rowCount] = getDictionaryIndex(
+                RentalAgreementSnapshotLayout.TOOL_TYPE_DICTIONARY, rentalAgreementFactDto.toolType());
+        dictionaryColumns[RentalAgreementSnapshotLayout.TOOL_BRAND_DICTIONARY][rowCount] = getDictionaryIndex(
+                RentalAgreementSnapshotLayout.TOOL_BRAND_DICTIONARY, rentalAgreementFactDto.toolBrand());
+        checkoutEpochDays[rowCount] = checkoutEpochDay;
+        rentalDayCounts[rowCount] = rentalAgreementFactDto.rentalDayCount();
+        chargeDayCounts[rowCount] = rentalAgreementFactDto.chargeDayCount();
+        discountPercents[rowCount] = (byte) rentalAgreementFactDto.discountPercent();
+        discountAmounts[rowCount] = toCents(rentalAgreementFactDto.discountAmount());
+        finalCharges[rowCount] = toCents(rentalAgreementFactDto.finalCharge());
+        rowCount++;
+    }
+
+    /**
+     * @return The number of rental agreements added.
+     */
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Writes the snapshot. The file is written under a temporary name and then moved into place, so readers only ever
+     *   see a complete snapshot.
+     *
+     * @param path The snapshot file. Replaced if it exists.
+     * @param createdOn When the rental agreements were read.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    void write(final Path path, final Instant createdOn) throws IOException {
+        final List<List<byte[]>> encodedDictionaries = new ArrayList<>();
+        long dictionariesSize = 0;
+        final int[] dictionaryWidths = new int[RentalAgreementSnapshotLayout.DICTIONARY_COUNT];
+        for (int dictionary = 0; dictionary < RentalAgreementSnapshotLayout.DICTIONARY_COUNT; dictionary++) {
+            final List<byte[]> encodedValues = new ArrayList<>();
+            for (final String value : dictionaryValues.get(dictionary)) {
+                final byte[] encodedValue = value.getBytes(StandardCharsets.UTF_8);
+                encodedValues.add(encodedValue);
+                dictionariesSize += Integer.BYTES + encodedValue.length;
+            }
+            encodedDictionaries.add(encodedValues);
+            dictionaryWidths[dictionary] = RentalAgreementSnapshotLayout.getIndexWidth(encodedValues.size());
+        }
+
+        final int baseEpochDay = rowCount == 0 ? 0 : minEpochDay;
+        final int checkoutDaySpan = rowCount == 0 ? 0 : maxEpochDay - minEpochDay + 1;
+        final RentalAgreementSnapshotLayout layout = new RentalAgreementSnapshotLayout(
+                RentalAgreementSnapshotLayout.HEADER_SIZE + dictionariesSize, rowCount,
+                RentalAgreementSnapshotLayout.getIndexWidth(checkoutDaySpan), dictionaryWidths);
+        if (layout.fileSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException(String.format(
+                    "A snapshot of %d rental agreements exceeds the 2 GiB limit of a single mapped file.", rowCount));
+        }
+
+        final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel fileChannel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer mappedByteBuffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    layout.fileSize);
+            final ByteBuffer byteBuffer = mappedByteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            byteBuffer.putInt(RentalAgreementSnapshotLayout.MAGIC_POSITION, RentalAgreementSnapshotLayout.MAGIC);
+            byteBuffer.putInt(RentalAgreementSnapshotLayout.VERSION_POSITION, RentalAgreementSnapshotLayout.VERSION);
+            byteBuffer.putInt(RentalAgreementSnapshotLayout.ROW_COUNT_POSITION, rowCount);
+            byteBuffer.putInt(RentalAgreementSnapshotLayout.BASE_EPOCH_DAY_POSITION, baseEpochDay);
+            byteBuffer.put(RentalAgreementSnapshotLayout.DATE_WIDTH_POSITION, (byte) layout.dateWidth);
+            byteBuffer.putLong(RentalAgreementSnapshotLayout.CREATED_ON_EPOCH_MILLI_POSITION, createdOn.toEpochMilli());
+            byteBuffer.putInt(RentalAgreementSnapshotLayout.CHECKOUT_DAY_SPAN_POSITION, checkoutDaySpan);
+
+            int position = RentalAgreementSnapshotLayout.HEADER_SIZE;
+            for (int dictionary = 0; dictionary < RentalAgreementSnapshotLayout.DICTIONARY_COUNT; dictionary++) {
+                byteBuffer.put(RentalAgreementSnapshotLayout.DICTIONARY_WIDTH_POSITION + dictionary,
+                        (byte) dictionaryWidths[dictionary]);
+                byteBuffer.putInt(RentalAgreementSnapshotLayout.DICTIONARY_SIZE_POSITION + dictionary * Integer.BYTES,
+                        encodedDictionaries.get(dictionary).size());
+                for (final byte[] encodedValue : encodedDictionaries.get(dictionary)) {
+                    byteBuffer.putInt(position, encodedValue.length);
+                    byteBuffer.put(position + Integer.BYTES, encodedValue);
+                    position += Integer.BYTES + encodedValue.length;
+                }
+            }
+
+            for (int row = 0; row < rowCount; row++) {
+                byteBuffer.putInt((int) layout.idOffset + row * Integer.BYTES, ids[row]);
+                for (int dictionary = 0; dictionary < RentalAgreementSnapshotLayout.DICTIONARY_COUNT; dictionary++) {
+                    putIndex(byteBuffer, (int) layout.dictionaryOffsets[dictionary], dictionaryWidths[dictionary], row,
+                            dictionaryColumns[dictionary][row]);
+                }
+                putIndex(byteBuffer, (int) layout.checkoutDateOffset, layout.dateWidth, row,
+                        checkoutEpochDays[row] - baseEpochDay);
+                byteBuffer.putInt((int) layout.rentalDayCountOffset + row * Integer.BYTES, rentalDayCounts[row]);
+                byteBuffer.putInt((int) layout.chargeDayCountOffset + row * Integer.BYTES, chargeDayCounts[row]);
+                byteBuffer.put((int) layout.discountPercentOffset + row, discountPercents[row]);
+                byteBuffer.putLong((int) layout.discountAmountOffset + row * Long.BYTES, discountAmounts[row]);
+                byteBuffer.putLong((int) layout.finalChargeOffset + row * Long.BYTES, finalCharges[row]);
+            }
+
+            mappedByteBuffer.force();
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @param dictionary The dictionary.
+     * @param value A value.
+     * @return The index of the value in the dictionary. The value is added if it is new.
+     */
+    private int getDictionaryIndex(final int dictionary, final String value) {
+        final Integer index = dictionaryIndexes.get(dictionary).get(value);
+        if (index != null) {
+            return index;
+        }
+
+        final int newIndex = dictionaryValues.get(dictionary).size();
+        dictionaryIndexes.get(dictionary).put(value, newIndex);
+        dictionaryValues.get(dictionary).add(value);
+        return newIndex;
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow() {
+        final int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        for (int dictionary = 0; dictionary < RentalAgreementSnapshotLayout.DICTIONARY_COUNT; dictionary++) {
+            dictionaryColumns[dictionary] = Arrays.copyOf(dictionaryColumns[dictionary], capacity);
+        }
+        checkoutEpochDays = Arrays.copyOf(checkoutEpochDays, capacity);
+        rentalDayCounts = Arrays.copyOf(rentalDayCounts, capacity);
+        chargeDayCounts = Arrays.copyOf(chargeDayCounts, capacity);
+        discountPercents = Arrays.copyOf(discountPercents, capacity);
+        discountAmounts = Arrays.copyOf(discountAmounts, capacity);
+        finalCharges = Arrays.copyOf(finalCharges, capacity);
+    }
+
+    /**
+     * Writes an unsigned index to a column.
+     *
+     * @param byteBuffer The snapshot.
+     * @param columnOffset The position of the column.
+     * @param width The width of the column, in bytes.
+     * @param row The row.
+     * @param index The index.
+     */
+    private static void putIndex(final ByteBuffer byteBuffer, final int columnOffset, final int width, final int row,
+            final int index) {
+        switch (width) {
+            case Byte.BYTES:
+                byteBuffer.put(columnOffset + row, (byte) index);
+                break;
+            case Short.BYTES:
+                byteBuffer.putShort(columnOffset + row * Short.BYTES, (short) index);
+                break;
+            default:
+                byteBuffer.putInt(columnOffset + row * Integer.BYTES, index);
+        }
+    }
+
+    /**
+     * @param amount A dollar amount.
+     * @return The amount in cents.
+     */
+    private static long toCents(final BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
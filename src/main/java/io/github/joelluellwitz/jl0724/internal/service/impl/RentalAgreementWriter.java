@@ -0,0 +1,326 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementRepo;
+import io.github.joelluellwitz.jl0724.internal.data.api.StoreContext;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Saves every new rental agreement on a single writer thread, committing many rental agreements per transaction (group
+ *   commit). Checkouts hand their rental agreement to a bounded queue and wait for the returned future, which completes
+ *   once the rental agreement's transaction commits.<p>
+ *
+ * SQLite allows one writer per database at a time and most of a small transaction's cost is the commit itself. With a
+ *   transaction per checkout, concurrent checkouts queue on the write lock (and fail with SQLITE_BUSY once the busy
+ *   timeout expires), so throughput falls as load rises. With one writer there is no lock contention, and the more
+ *   checkouts arrive while a commit is in progress, the more the next commit carries.<p>
+ *
+ * The writer takes whatever is queued, up to 'jl0724.checkout.writer.max-batch-size' rental agreements (256 by
+ *   default), and commits them in one transaction per store. If that transaction fails, each rental agreement of the
+ *   batch is retried in a transaction of its own, so that one bad rental agreement (for example, a duplicate request
+ *   ID) only fails its own checkout. The queue holds at most 'jl0724.checkout.writer.queue-capacity' rental agreements
+ *   (1024 by default). When it is full, checkouts wait for room.<p>
+ *
+ * The rental agreements of a cart checkout are queued together with
+ *   {@link #writeAll(String, Supplier, Consumer) writeAll}. They always commit in the same transaction, and are
+ *   retried (or fail) as a unit.<p>
+ *
+ * Note: Rental agreements are created by a factory on the writer thread rather than by the checkout, because a
+ *   rental agreement entity whose insert was rolled back keeps its generated ID and cannot be saved again.
+ */
+@Component
+public class RentalAgreementWriter {
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(RentalAgreementWriter.class);
+
+    private final RentalAgreementRepo rentalAgreementRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingWrite> pendingWrites;
+    private final int maxBatchSize;
+    private final Thread writerThread;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor. Starts the writer thread.
+     *
+     * @param rentalAgreementRepo JPA Repository for
+     *   {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto RentalAgreementDto}.
+     * @param platformTransactionManager Used to commit the rental agreements.
+     * @param queueCapacity The maximum number of rental agreements waiting to be written.
+     * @param maxBatchSize The maximum number of rental agreements committed in one transaction.
+     */
+    // Intentionally package private.
+    RentalAgreementWriter(final RentalAgreementRepo rentalAgreementRepo,
+            final PlatformTransactionManager platformTransactionManager,
+            @Value("${jl0724.checkout.writer.queue-capacity:1024}") final int queueCapacity,
+            @Value("${jl0724.checkout.writer.max-batch-size:256}") final int maxBatchSize) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The writer queue capacity must be greater than 0. You specified: %d", queueCapacity));
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The writer batch size must be greater than 0. You specified: %d", maxBatchSize));
+        }
+
+        this.rentalAgreementRepo = rentalAgreementRepo;
+        transactionTemplate = new TransactionTemplate(platformTransactionManager);
+        pendingWrites = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+
+        writerThread = new Thread(this::run, "rental-agreement-writer");
+        // Note: Daemon so that the writer can never keep the JVM alive. close() lets it finish the queued rental
+        //   agreements on an orderly shutdown, and a batch interrupted by exit rolls back.
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues a rental agreement to be saved, waiting for room if the queue is full.
+     *
+     * @param storeId The ID of the store making the rental, or null for the default store. Selects the database.
+     * @param rentalAgreementDtoFactory Creates the rental agreement to save. Called on the writer thread, and called
+     *   again if the rental agreement is retried after its batch fails.
+     * @param savedCallback Called on the writer thread, within the rental agreement's transaction, after the rental
+     *   agreement is saved and flushed. Work that should only happen once the rental agreement commits must be
+     *   registered as a transaction synchronization.
+     * @return A future that completes with the saved rental agreement once its transaction commits, or completes
+     *   exceptionally if it cannot be saved.
+     * @throws IllegalStateException If the writer is closed or the calling thread is interrupted while waiting for
+     *   room.
+     */
+    public CompletableFuture<RentalAgreementDto> write(final String storeId,
+            final Supplier<RentalAgreementDto> rentalAgreementDtoFactory,
+            final Consumer<RentalAgreementDto> savedCallback) {
+        return writeAll(storeId, () -> List.of(rentalAgreementDtoFactory.get()),
+                rentalAgreementDtos -> savedCallback.accept(rentalAgreementDtos.get(0)))
+                .thenApply(rentalAgreementDtos -> rentalAgreementDtos.get(0));
+    }
+
+    /**
+     * Queues rental agreements to be saved in one transaction, waiting for room if the queue is full. They take a
+     *   single place in the queue and commit or fail together.
+     *
+     * @param storeId The ID of the store making the rentals, or null for the default store. Selects the database.
+     * @param rentalAgreementDtosFactory Creates the rental agreements to save. Called on the writer thread, and called
+     *   again if the rental agreements are retried after their batch fails.
+     * @param savedCallback Called on the writer thread, within the rental agreements' transaction, after all of them
+     *   are saved and flushed. Work that should only happen once the rental agreements commit must be registered as a
+     *   transaction synchronization.
+     * @return A future that completes with the saved rental agreements, in the order created, once their transaction
+     *   commits, or completes exceptionally if they cannot be saved.
+     * @throws IllegalStateException If the writer is closed or the calling thread is interrupted while waiting for
+     *   room.
+     */
+    public CompletableFuture<List<RentalAgreementDto>> writeAll(final String storeId,
+            final Supplier<List<RentalAgreementDto>> rentalAgreementDtosFactory,
+            final Consumer<List<RentalAgreementDto>> savedCallback) {
+        if (closed) {
+            throw new IllegalStateException("The rental agreement writer is closed.");
+        }
+
+        final PendingWrite pendingWrite = new PendingWrite(storeId, rentalAgreementDtosFactory, savedCallback,
+                new CompletableFuture<>());
+        try {
+            pendingWrites.put(pendingWrite);
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to queue the rental agreement.", exception);
+        }
+
+        // Note: The writer may have exited between the closed check and the put, in which case nothing else will ever
+        //   take the rental agreement off the queue.
+        if (closed && !writerThread.isAlive()) {
+            failPendingWrites();
+        }
+        return pendingWrite.future();
+    }
+
+    /**
+     * Stops accepting rental agreements and waits a bounded time for the writer to save the ones already queued. Any
+     *   rental agreement still queued after that fails.
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writerThread.isAlive()) {
+            LOGGER.warn("The rental agreement writer did not finish within {} ms.", SHUTDOWN_TIMEOUT_MILLIS);
+        }
+        else {
+            failPendingWrites();
+        }
+    }
+
+    /**
+     * The writer thread's main loop. Waits for a rental agreement, then commits it along with everything else queued,
+     *   until the writer is closed and the queue is empty.
+     */
+    private void run() {
+        final List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            final PendingWrite firstPendingWrite;
+            try {
+                firstPendingWrite = pendingWrites.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            catch (final InterruptedException exception) {
+                LOGGER.warn("The rental agreement writer was interrupted.");
+                return;
+            }
+            if (firstPendingWrite == null) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+
+            batch.add(firstPendingWrite);
+            pendingWrites.drainTo(batch, maxBatchSize - 1);
+            try {
+                writeBatch(batch);
+            }
+            catch (final RuntimeException | Error exception) {
+                // Note: writeBatch completes every future itself. This only guards the writer thread.
+                LOGGER.error("Unexpected failure in the rental agreement writer.", exception);
+                batch.forEach(pendingWrite -> pendingWrite.future().completeExceptionally(exception));
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Commits a batch of rental agreements in one transaction per store, retrying them one at a time if a store's
+     *   transaction fails.
+     *
+     * @param batch The rental agreements to save, in queue order.
+     */
+    private void writeBatch(final List<PendingWrite> batch) {
+        // Note: A transaction can only write to one store's database when store partitioning is enabled.
+        final Map<String, List<PendingWrite>> pendingWritesByStoreId = new LinkedHashMap<>();
+        for (final PendingWrite pendingWrite : batch) {
+            pendingWritesByStoreId.computeIfAbsent(pendingWrite.storeId(), key -> new ArrayList<>()).add(pendingWrite);
+        }
+
+        for (final Map.Entry<String, List<PendingWrite>> storePendingWrites : pendingWritesByStoreId.entrySet()) {
+            final List<PendingWrite> storeBatch = storePendingWrites.getValue();
+            try {
+                complete(storeBatch, commit(storePendingWrites.getKey(), storeBatch));
+                LOGGER.debug("Committed {} checkouts in one transaction.", storeBatch.size());
+            }
+            catch (final RuntimeException exception) {
+                if (storeBatch.size() == 1) {
+                    storeBatch.get(0).future().completeExceptionally(exception);
+                    continue;
+                }
+
+                LOGGER.debug("A group commit of {} rental agreements failed. Retrying them one at a time.",
+                        storeBatch.size(), exception);
+                for (final PendingWrite pendingWrite : storeBatch) {
+                    try {
+                        complete(List.of(pendingWrite), commit(pendingWrite.storeId(), List.of(pendingWrite)));
+                    }
+                    catch (final RuntimeException retryException) {
+                        pendingWrite.future().completeExceptionally(retryException);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Saves rental agreements of one store in a single transaction.
+     *
+     * @param storeId The store ID, or null for the default store.
+     * @param storeBatch The rental agreements to save.
+     * @return The saved rental agreements of each pending write, in the same order.
+     */
+    private List<List<RentalAgreementDto>> commit(final String storeId, final List<PendingWrite> storeBatch) {
+        StoreContext.setStoreId(storeId);
+        try {
+            return transactionTemplate.execute(status -> {
+                final List<List<RentalAgreementDto>> rentalAgreementDtoLists = new ArrayList<>(storeBatch.size());
+                for (final PendingWrite pendingWrite : storeBatch) {
+                    final List<RentalAgreementDto> rentalAgreementDtos =
+                            pendingWrite.rentalAgreementDtosFactory().get();
+                    rentalAgreementRepo.saveAllAndFlush(rentalAgreementDtos);
+                    pendingWrite.savedCallback().accept(rentalAgreementDtos);
+                    rentalAgreementDtoLists.add(rentalAgreementDtos);
+                }
+                return rentalAgreementDtoLists;
+            });
+        }
+        finally {
+            StoreContext.setStoreId(null);
+        }
+    }
+
+    /**
+     * Completes the futures of committed rental agreements.
+     *
+     * @param pendingWrites The committed rental agreements' pending writes.
+     * @param rentalAgreementDtoLists The saved rental agreements of each pending write, in the same order.
+     */
+    private static void complete(final List<PendingWrite> pendingWrites,
+            final List<List<RentalAgreementDto>> rentalAgreementDtoLists) {
+        for (int index = 0; index < pendingWrites.size(); index++) {
+            pendingWrites.get(index).future().complete(rentalAgreementDtoLists.get(index));
+        }
+    }
+
+    /**
+     * Fails every rental agreement still queued.
+     */
+    private void failPendingWrites() {
+        final List<PendingWrite> abandonedPendingWrites = new ArrayList<>();
+        pendingWrites.drainTo(abandonedPendingWrites);
+        for (final PendingWrite pendingWrite : abandonedPendingWrites) {
+            pendingWrite.future().completeExceptionally(
+                    new IllegalStateException("The rental agreement writer is closed."));
+        }
+    }
+
+    /**
+     * Rental agreements waiting to be written together.
+     *
+     * @param storeId The store ID, or null for the default store.
+     * @param rentalAgreementDtosFactory Creates the rental agreements to save.
+     * @param savedCallback Called within the transaction after the rental agreements are saved.
+     * @param future Completed once the rental agreements commit or fail.
+     */
+    private record PendingWrite(String storeId, Supplier<List<RentalAgreementDto>> rentalAgreementDtosFactory,
+            Consumer<List<RentalAgreementDto>> savedCallback, CompletableFuture<List<RentalAgreementDto>> future) {
+
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.RentalPeriod;
+
+/**
+ * Business logic tier representation of a rental period. This class is immutable.
+ */
+public class RentalPeriodImpl implements RentalPeriod {
+    private final int rentalAgreementId;
+    private final String toolCode;
+    private final LocalDate checkoutDate;
+    private final LocalDate dueDate;
+
+    /**
+     * Constructs an immutable RentalPeriodImpl.
+     *
+     * @param rentalAgreementId The ID of the rental agreement.
+     * @param toolCode The Tool Code of the rented tool.
+     * @param checkoutDate The checkout date.
+     * @param dueDate The date the tool is due back.
+     */
+    // Intentionally package private.
+    RentalPeriodImpl(final int rentalAgreementId, final String toolCode, final LocalDate checkoutDate,
+            final LocalDate dueDate) {
+        this.rentalAgreementId = rentalAgreementId;
+        this.toolCode = toolCode;
+        this.checkoutDate = checkoutDate;
+        this.dueDate = dueDate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRentalAgreementId() {
+        return rentalAgreementId;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    /**
+     * Two rental periods are equal if all their fields are equal. Rental periods read from
+     *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalPeriodStore RentalPeriodStore} are new
+     *   instances on every read, so identity cannot be used.
+     *
+     * @param object The object to compare.
+     * @return true if the object is an equal RentalPeriodImpl.
+     */
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof RentalPeriodImpl)) {
+            return false;
+        }
+
+        final RentalPeriodImpl rentalPeriod = (RentalPeriodImpl) object;
+        return rentalAgreementId == rentalPeriod.rentalAgreementId && toolCode.equals(rentalPeriod.toolCode)
+                && checkoutDate.equals(rentalPeriod.checkoutDate) && dueDate.equals(rentalPeriod.dueDate);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(rentalAgreementId, toolCode, checkoutDate, dueDate);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("RentalPeriodImpl[rentalAgreementId=%d, toolCode=%s, checkoutDate=%s, dueDate=%s]",
+                rentalAgreementId, toolCode, checkoutDate, dueDate);
+    }
+}
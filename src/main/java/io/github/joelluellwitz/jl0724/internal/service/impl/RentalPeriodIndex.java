@@ -0,0 +1,241 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.RentalPeriod;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalPeriodDto;
+
+/**
+ * An in-memory index of the rental period of every rental agreement, used to answer "what is out" and "what is due"
+ *   questions without scanning the rental_agreement table.<p>
+ *
+ * The rental periods are kept off-heap in a
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalPeriodStore RentalPeriodStore}, and two
+ *   structures are maintained over its records:
+ * <ul>
+ *   <li>A {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalPeriodTree RentalPeriodTree} for
+ *     stabbing and overlap queries (which rentals are out on a date).</li>
+ *   <li>A {@link java.util.TreeMap TreeMap} from due date (as an epoch day) to a chain of the records due that day,
+ *     linked through the store, for due date range queries.</li>
+ * </ul>
+ * Both answer queries in O(log n + k) for k results. Only the k results are materialized as objects, so the index
+ *   can hold tens of millions of rental periods without adding to garbage collection work.<p>
+ *
+ * The index is loaded from the database, including any archived rental agreements, on first use and a rental period
+ *   is added whenever a checkout commits. Reads share a read lock, so concurrent queries do not block each other.<p>
+ *
+ * Note: The index only covers rentals of the default store (checkouts without a store ID). Rental agreement IDs are
+ *   only unique within a store's database when store partitioning is enabled, and the queries have no store dimension.
+ */
+@Component
+public class RentalPeriodIndex {
+    private static Logger LOGGER = LoggerFactory.getLogger(RentalPeriodIndex.class);
+
+    private final RentalAgreementHistory rentalAgreementHistory;
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+    private final RentalPeriodStore rentalPeriodStore = new RentalPeriodStore();
+    private final RentalPeriodTree rentalPeriodTree = new RentalPeriodTree(rentalPeriodStore);
+    // Maps a due epoch day to the first and last record of its chain.
+    private final NavigableMap<Integer, int[]> dueDateChains = new TreeMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * Constructor.
+     *
+     * @param rentalAgreementHistory Reads every rental agreement, including archived rental agreements.
+     */
+    // Intentionally package private.
+    RentalPeriodIndex(final RentalAgreementHistory rentalAgreementHistory) {
+        this.rentalAgreementHistory = rentalAgreementHistory;
+    }
+
+    /**
+     * Adds a rental period to the index once the surrounding transaction commits, or immediately if there is no
+     *   transaction. Nothing is added if the transaction rolls back.
+     *
+     * @param rentalPeriod The rental period of a newly saved rental agreement.
+     */
+    public void add(final RentalPeriod rentalPeriod) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(rentalPeriod);
+                }
+            });
+        }
+        else {
+            addNow(rentalPeriod);
+        }
+    }
+
+    /**
+     * Returns the rentals that are out on the supplied date, meaning they were checked out on or before the date and
+     *   are due back after it.
+     *
+     * @param date The date.
+     * @return The matching rental periods sorted by checkout date.
+     */
+    public List<RentalPeriod> listRentalPeriodsOutOn(final LocalDate date) {
+        ensureLoaded();
+
+        readWriteLock.readLock().lock();
+        try {
+            return rentalPeriodTree.findOverlapping(date, date.plusDays(1));
+        }
+        finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the rentals due back between the supplied dates.
+     *
+     * @param fromDate The first due date, inclusive.
+     * @param toDate The last due date, inclusive.
+     * @return The matching rental periods sorted by due date.
+     */
+    public List<RentalPeriod> listRentalPeriodsDueBetween(final LocalDate fromDate, final LocalDate toDate) {
+        ensureLoaded();
+
+        readWriteLock.readLock().lock();
+        try {
+            return flatten(dueDateChains.subMap(RentalPeriodStore.toQueryEpochDay(fromDate), true,
+                    RentalPeriodStore.toQueryEpochDay(toDate), true));
+        }
+        finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the rentals due back on or after the supplied first due date and before the supplied date.
+     *
+     * @param fromDate The first due date, inclusive.
+     * @param date The date, exclusive.
+     * @return The matching rental periods sorted by due date.
+     */
+    public List<RentalPeriod> listRentalPeriodsDueBefore(final LocalDate fromDate, final LocalDate date) {
+        ensureLoaded();
+
+        readWriteLock.readLock().lock();
+        try {
+            return flatten(dueDateChains.subMap(RentalPeriodStore.toQueryEpochDay(fromDate), true,
+                    RentalPeriodStore.toQueryEpochDay(date), false));
+        }
+        finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a rental period if the index is already loaded. Otherwise, the rental period will be read from the database
+     *   when the index is loaded.
+     *
+     * @param rentalPeriod The rental period to add.
+     */
+    private void addNow(final RentalPeriod rentalPeriod) {
+        readWriteLock.writeLock().lock();
+        try {
+            if (loaded) {
+                addLocked(rentalPeriod.getRentalAgreementId(), rentalPeriod.getToolCode(),
+                        rentalPeriod.getCheckoutDate(), rentalPeriod.getDueDate());
+            }
+        }
+        finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the rental period of every rental agreement the first time the index is used.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        readWriteLock.writeLock().lock();
+        try {
+            if (!loaded) {
+                LOGGER.debug("Loading the rental period index.");
+                try (Stream<RentalPeriodDto> rentalPeriodDtos = rentalAgreementHistory.streamRentalPeriods()) {
+                    rentalPeriodDtos.filter(rentalPeriodDto -> rentalPeriodDto.storeId() == null)
+                            .forEach(rentalPeriodDto -> addLocked(rentalPeriodDto.rentalAgreementId(),
+                                    rentalPeriodDto.toolCode(), rentalPeriodDto.checkoutDate(),
+                                    rentalPeriodDto.dueDate()));
+                }
+                loaded = true;
+                LOGGER.debug("Loaded {} rental periods into {} bytes of native memory.", rentalPeriodTree.size(),
+                        rentalPeriodStore.getAllocatedBytes());
+            }
+        }
+        finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a rental period to both structures. The caller must hold the write lock.<p>
+     *
+     * Note: A checkout that commits while the index is loading may be read by the load and then added again after
+     *   commit. The tree rejects the duplicate, which keeps both structures consistent.
+     *
+     * @param rentalAgreementId The ID of the rental agreement.
+     * @param toolCode The Tool Code of the rented tool.
+     * @param checkoutDate The checkout date.
+     * @param dueDate The date the tool is due back.
+     */
+    private void addLocked(final int rentalAgreementId, final String toolCode, final LocalDate checkoutDate,
+            final LocalDate dueDate) {
+        final int record = rentalPeriodTree.insert(rentalAgreementId, toolCode, checkoutDate, dueDate);
+        if (record == RentalPeriodStore.NO_RECORD) {
+            return;
+        }
+
+        final int dueEpochDay = rentalPeriodStore.getInt(record, RentalPeriodStore.DUE_EPOCH_DAY_FIELD);
+        final int[] dueDateChain = dueDateChains.get(dueEpochDay);
+        if (dueDateChain == null) {
+            dueDateChains.put(dueEpochDay, new int[] {record, record});
+        }
+        else {
+            rentalPeriodStore.setInt(dueDateChain[1], RentalPeriodStore.NEXT_SAME_DUE_DATE_FIELD, record);
+            dueDateChain[1] = record;
+        }
+    }
+
+    /**
+     * Copies the rental periods of a due date range into a single List.
+     *
+     * @param dueDateRange The due date chains of the range.
+     * @return The rental periods sorted by due date, and in the order they were added within a due date.
+     */
+    private List<RentalPeriod> flatten(final NavigableMap<Integer, int[]> dueDateRange) {
+        final List<RentalPeriod> rentalPeriods = new ArrayList<>();
+        for (final int[] dueDateChain : dueDateRange.values()) {
+            for (int record = dueDateChain[0]; record != RentalPeriodStore.NO_RECORD;
+                    record = rentalPeriodStore.getInt(record, RentalPeriodStore.NEXT_SAME_DUE_DATE_FIELD)) {
+                rentalPeriods.add(rentalPeriodStore.toRentalPeriod(record));
+            }
+        }
+
+        return rentalPeriods;
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.RentalPeriod;
+
+/**
+ * An off-heap store of rental periods. Every rental period is a fixed width record of int fields (see the *_FIELD
+ *   constants) in direct {@link java.nio.ByteBuffer ByteBuffers} allocated in fixed size chunks, so a rental period
+ *   costs 36 bytes of native memory and no heap objects. Dates are stored as epoch days and Tool Codes as an index
+ *   into a table of distinct Tool Codes. Records are addressed by their position in the store, starting at 0.<p>
+ *
+ * Besides the rental period itself, each record has link fields for the indexes built over the store (see
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalPeriodTree RentalPeriodTree} and
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalPeriodIndex RentalPeriodIndex}), so the indexes
+ *   need no per rental period objects either.<p>
+ *
+ * Note: Direct buffers count against the JVM's -XX:MaxDirectMemorySize limit, which defaults to the maximum heap size.
+ *   <p>
+ *
+ * Note: This class is not thread safe. Callers must synchronize access.
+ */
+// Intentionally package private.
+final class RentalPeriodStore {
+    // Intentionally package private.
+    static final int RENTAL_AGREEMENT_ID_FIELD = 0;
+    static final int TOOL_CODE_FIELD = 1;
+    static final int CHECKOUT_EPOCH_DAY_FIELD = 2;
+    static final int DUE_EPOCH_DAY_FIELD = 3;
+    static final int LEFT_FIELD = 4;
+    static final int RIGHT_FIELD = 5;
+    static final int HEIGHT_FIELD = 6;
+    static final int MAX_DUE_EPOCH_DAY_FIELD = 7;
+    static final int NEXT_SAME_DUE_DATE_FIELD = 8;
+    static final int NO_RECORD = -1;
+
+    private static final int FIELD_COUNT = 9;
+    private static final int RECORD_SIZE = FIELD_COUNT * Integer.BYTES;
+    private static final int RECORDS_PER_CHUNK_SHIFT = 16;
+    private static final int RECORDS_PER_CHUNK = 1 << RECORDS_PER_CHUNK_SHIFT;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final Map<String, Integer> toolCodeIndexes = new HashMap<>();
+    private final List<String> toolCodes = new ArrayList<>();
+
+    private int size;
+
+    /**
+     * Appends a rental period. The new record starts out as an unlinked tree leaf: every link field is set to
+     *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalPeriodStore#NO_RECORD NO_RECORD}, the height
+     *   to 1, and the latest due date of the subtree to the record's own due date.
+     *
+     * @param rentalAgreementId The ID of the rental agreement.
+     * @param toolCode The Tool Code of the rented tool.
+     * @param checkoutDate The checkout date.
+     * @param dueDate The date the tool is due back.
+     * @return The new record.
+     */
+    // Intentionally package private.
+    int append(final int rentalAgreementId, final String toolCode, final LocalDate checkoutDate,
+            final LocalDate dueDate) {
+        if (size == chunks.size() * RECORDS_PER_CHUNK) {
+            chunks.add(ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * RECORD_SIZE).order(ByteOrder.nativeOrder()));
+        }
+
+        Integer toolCodeIndex = toolCodeIndexes.get(toolCode);
+        if (toolCodeIndex == null) {
+            toolCodeIndex = toolCodes.size();
+            toolCodeIndexes.put(toolCode, toolCodeIndex);
+            toolCodes.add(toolCode);
+        }
+
+        final int record = size++;
+        setInt(record, RENTAL_AGREEMENT_ID_FIELD, rentalAgreementId);
+        setInt(record, TOOL_CODE_FIELD, toolCodeIndex);
+        setInt(record, CHECKOUT_EPOCH_DAY_FIELD, Math.toIntExact(checkoutDate.toEpochDay()));
+        setInt(record, DUE_EPOCH_DAY_FIELD, Math.toIntExact(dueDate.toEpochDay()));
+        setInt(record, LEFT_FIELD, NO_RECORD);
+        setInt(record, RIGHT_FIELD, NO_RECORD);
+        setInt(record, HEIGHT_FIELD, 1);
+        setInt(record, MAX_DUE_EPOCH_DAY_FIELD, getInt(record, DUE_EPOCH_DAY_FIELD));
+        setInt(record, NEXT_SAME_DUE_DATE_FIELD, NO_RECORD);
+        return record;
+    }
+
+    /**
+     * Removes the most recently appended record. The Tool Code table is left as is.
+     */
+    // Intentionally package private.
+    void removeLast() {
+        size--;
+    }
+
+    /**
+     * @param record A record.
+     * @param field The field, one of the *_FIELD constants.
+     * @return The value of the field.
+     */
+    // Intentionally package private.
+    int getInt(final int record, final int field) {
+        return chunks.get(record >>> RECORDS_PER_CHUNK_SHIFT).getInt(getPosition(record, field));
+    }
+
+    /**
+     * @param record A record.
+     * @param field The field, one of the *_FIELD constants.
+     * @param value The new value of the field.
+     */
+    // Intentionally package private.
+    void setInt(final int record, final int field, final int value) {
+        chunks.get(record >>> RECORDS_PER_CHUNK_SHIFT).putInt(getPosition(record, field), value);
+    }
+
+    /**
+     * @param record A record.
+     * @return A new RentalPeriod holding the record's rental period.
+     */
+    // Intentionally package private.
+    RentalPeriod toRentalPeriod(final int record) {
+        return new RentalPeriodImpl(getInt(record, RENTAL_AGREEMENT_ID_FIELD),
+                toolCodes.get(getInt(record, TOOL_CODE_FIELD)),
+                LocalDate.ofEpochDay(getInt(record, CHECKOUT_EPOCH_DAY_FIELD)),
+                LocalDate.ofEpochDay(getInt(record, DUE_EPOCH_DAY_FIELD)));
+    }
+
+    /**
+     * @return The number of records.
+     */
+    // Intentionally package private.
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return The native memory allocated for records, in bytes.
+     */
+    // Intentionally package private.
+    long getAllocatedBytes() {
+        return (long) chunks.size() * RECORDS_PER_CHUNK * RECORD_SIZE;
+    }
+
+    /**
+     * Converts a query date to an epoch day. Dates beyond the range of an int epoch day (for example,
+     *   {@link java.time.LocalDate#MAX LocalDate.MAX}) are clamped, since no stored date can lie beyond them.
+     *
+     * @param date A date.
+     * @return The epoch day.
+     */
+    // Intentionally package private.
+    static int toQueryEpochDay(final LocalDate date) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, date.toEpochDay()));
+    }
+
+    /**
+     * @param record A record.
+     * @param field A field.
+     * @return The position of the field within the record's chunk.
+     */
+    private static int getPosition(final int record, final int field) {
+        return (record & (RECORDS_PER_CHUNK - 1)) * RECORD_SIZE + field * Integer.BYTES;
+    }
+}
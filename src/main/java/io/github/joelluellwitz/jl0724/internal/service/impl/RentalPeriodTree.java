@@ -0,0 +1,312 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.RentalPeriod;
+
+/**
+ * An augmented interval tree of {@link io.github.joelluellwitz.jl0724.exposed.service.api.RentalPeriod RentalPeriods}.
+ *   The tree is an AVL tree ordered by checkout date (then rental agreement ID), and every node also records the
+ *   latest due date in its subtree. That lets an overlap query skip any subtree whose rentals all ended before the
+ *   query window and stop as soon as checkout dates pass the end of the window, so a query costs O(log n + k) for k
+ *   results. Insertion costs O(log n).<p>
+ *
+ * The nodes are the records of a {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalPeriodStore
+ *   RentalPeriodStore}, linked through the store's tree fields, so the tree holds no objects per rental period.<p>
+ *
+ * Note: This class is not thread safe. Callers must synchronize access.
+ */
+// Intentionally package private.
+class RentalPeriodTree {
+    private final RentalPeriodStore rentalPeriodStore;
+
+    private int root = RentalPeriodStore.NO_RECORD;
+    private boolean inserted;
+
+    /**
+     * Constructor. The tree uses a store of its own.
+     */
+    // Intentionally package private.
+    RentalPeriodTree() {
+        this(new RentalPeriodStore());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param rentalPeriodStore The store holding the tree's nodes. Every rental period inserted into the tree is
+     *   appended to the store. The store must be empty.
+     */
+    // Intentionally package private.
+    RentalPeriodTree(final RentalPeriodStore rentalPeriodStore) {
+        this.rentalPeriodStore = rentalPeriodStore;
+    }
+
+    /**
+     * Inserts a rental period. A rental period with the same checkout date and rental agreement ID as one already in
+     *   the tree is ignored.
+     *
+     * @param rentalPeriod The rental period to insert.
+     * @return True if the rental period was inserted.
+     */
+    // Intentionally package private.
+    boolean insert(final RentalPeriod rentalPeriod) {
+        return insert(rentalPeriod.getRentalAgreementId(), rentalPeriod.getToolCode(), rentalPeriod.getCheckoutDate(),
+                rentalPeriod.getDueDate()) != RentalPeriodStore.NO_RECORD;
+    }
+
+    /**
+     * Inserts a rental period. A rental period with the same checkout date and rental agreement ID as one already in
+     *   the tree is ignored.
+     *
+     * @param rentalAgreementId The ID of the rental agreement.
+     * @param toolCode The Tool Code of the rented tool.
+     * @param checkoutDate The checkout date.
+     * @param dueDate The date the tool is due back.
+     * @return The store record of the inserted rental period, or
+     *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalPeriodStore#NO_RECORD NO_RECORD} if it was
+     *   ignored.
+     */
+    // Intentionally package private.
+    int insert(final int rentalAgreementId, final String toolCode, final LocalDate checkoutDate,
+            final LocalDate dueDate) {
+        final int record = rentalPeriodStore.append(rentalAgreementId, toolCode, checkoutDate, dueDate);
+        inserted = false;
+        root = insert(root, record);
+        if (!inserted) {
+            rentalPeriodStore.removeLast();
+            return RentalPeriodStore.NO_RECORD;
+        }
+
+        return record;
+    }
+
+    /**
+     * Finds every rental period that overlaps the supplied window, meaning the tool was out on at least one day of the
+     *   window.
+     *
+     * @param fromDate The first day of the window.
+     * @param toDate The day after the last day of the window.
+     * @return The overlapping rental periods sorted by checkout date.
+     */
+    // Intentionally package private.
+    List<RentalPeriod> findOverlapping(final LocalDate fromDate, final LocalDate toDate) {
+        final List<RentalPeriod> rentalPeriods = new ArrayList<>();
+        collectOverlapping(root, RentalPeriodStore.toQueryEpochDay(fromDate),
+                RentalPeriodStore.toQueryEpochDay(toDate), rentalPeriods);
+
+        return rentalPeriods;
+    }
+
+    /**
+     * @return The number of rental periods in the tree.
+     */
+    // Intentionally package private.
+    int size() {
+        return rentalPeriodStore.size();
+    }
+
+    /**
+     * Inserts a record into a subtree and rebalances it.
+     *
+     * @param node The root of the subtree. May be NO_RECORD.
+     * @param record The record to insert.
+     * @return The new root of the subtree.
+     */
+    private int insert(final int node, final int record) {
+        if (node == RentalPeriodStore.NO_RECORD) {
+            inserted = true;
+            return record;
+        }
+
+        final int comparison = compare(record, node);
+        if (comparison < 0) {
+            setLeft(node, insert(getLeft(node), record));
+        }
+        else if (comparison > 0) {
+            setRight(node, insert(getRight(node), record));
+        }
+        else {
+            return node;
+        }
+
+        return rebalance(node);
+    }
+
+    /**
+     * Adds the rental periods in a subtree that overlap the window, in checkout date order.
+     *
+     * @param node The root of the subtree. May be NO_RECORD.
+     * @param fromEpochDay The first day of the window.
+     * @param toEpochDay The day after the last day of the window.
+     * @param rentalPeriods The overlapping rental periods found so far. Updated in place.
+     */
+    private void collectOverlapping(final int node, final int fromEpochDay, final int toEpochDay,
+            final List<RentalPeriod> rentalPeriods) {
+        // Every rental in this subtree was due back on or before the first day of the window.
+        if (node == RentalPeriodStore.NO_RECORD
+                || rentalPeriodStore.getInt(node, RentalPeriodStore.MAX_DUE_EPOCH_DAY_FIELD) <= fromEpochDay) {
+            return;
+        }
+
+        collectOverlapping(getLeft(node), fromEpochDay, toEpochDay, rentalPeriods);
+
+        // This rental, and every rental in the right subtree, was checked out after the window.
+        if (rentalPeriodStore.getInt(node, RentalPeriodStore.CHECKOUT_EPOCH_DAY_FIELD) >= toEpochDay) {
+            return;
+        }
+        if (rentalPeriodStore.getInt(node, RentalPeriodStore.DUE_EPOCH_DAY_FIELD) > fromEpochDay) {
+            rentalPeriods.add(rentalPeriodStore.toRentalPeriod(node));
+        }
+
+        collectOverlapping(getRight(node), fromEpochDay, toEpochDay, rentalPeriods);
+    }
+
+    /**
+     * Restores the AVL balance of a node whose subtrees differ in height by at most two.
+     *
+     * @param node The node to rebalance.
+     * @return The new root of the subtree.
+     */
+    private int rebalance(final int node) {
+        update(node);
+        final int balance = height(getLeft(node)) - height(getRight(node));
+
+        final int newRoot;
+        if (balance > 1) {
+            if (height(getLeft(getLeft(node))) < height(getRight(getLeft(node)))) {
+                setLeft(node, rotateLeft(getLeft(node)));
+            }
+            newRoot = rotateRight(node);
+        }
+        else if (balance < -1) {
+            if (height(getRight(getRight(node))) < height(getLeft(getRight(node)))) {
+                setRight(node, rotateRight(getRight(node)));
+            }
+            newRoot = rotateLeft(node);
+        }
+        else {
+            newRoot = node;
+        }
+
+        return newRoot;
+    }
+
+    /**
+     * Rotates a subtree to the left.
+     *
+     * @param node The root of the subtree.
+     * @return The new root of the subtree.
+     */
+    private int rotateLeft(final int node) {
+        final int newRoot = getRight(node);
+        setRight(node, getLeft(newRoot));
+        setLeft(newRoot, node);
+        update(node);
+        update(newRoot);
+
+        return newRoot;
+    }
+
+    /**
+     * Rotates a subtree to the right.
+     *
+     * @param node The root of the subtree.
+     * @return The new root of the subtree.
+     */
+    private int rotateRight(final int node) {
+        final int newRoot = getLeft(node);
+        setLeft(node, getRight(newRoot));
+        setRight(newRoot, node);
+        update(node);
+        update(newRoot);
+
+        return newRoot;
+    }
+
+    /**
+     * Recomputes the height and latest due date of a node from its children.
+     *
+     * @param node The node.
+     */
+    private void update(final int node) {
+        final int left = getLeft(node);
+        final int right = getRight(node);
+        rentalPeriodStore.setInt(node, RentalPeriodStore.HEIGHT_FIELD, 1 + Math.max(height(left), height(right)));
+        int subtreeMaxDueEpochDay = rentalPeriodStore.getInt(node, RentalPeriodStore.DUE_EPOCH_DAY_FIELD);
+        if (left != RentalPeriodStore.NO_RECORD) {
+            subtreeMaxDueEpochDay = Math.max(subtreeMaxDueEpochDay,
+                    rentalPeriodStore.getInt(left, RentalPeriodStore.MAX_DUE_EPOCH_DAY_FIELD));
+        }
+        if (right != RentalPeriodStore.NO_RECORD) {
+            subtreeMaxDueEpochDay = Math.max(subtreeMaxDueEpochDay,
+                    rentalPeriodStore.getInt(right, RentalPeriodStore.MAX_DUE_EPOCH_DAY_FIELD));
+        }
+        rentalPeriodStore.setInt(node, RentalPeriodStore.MAX_DUE_EPOCH_DAY_FIELD, subtreeMaxDueEpochDay);
+    }
+
+    /**
+     * Orders nodes by checkout date, then rental agreement ID.
+     *
+     * @param node A node.
+     * @param otherNode Another node.
+     * @return A negative number, zero, or a positive number as the first node sorts before, equal to, or after the
+     *   other node.
+     */
+    private int compare(final int node, final int otherNode) {
+        final int comparison = Integer.compare(
+                rentalPeriodStore.getInt(node, RentalPeriodStore.CHECKOUT_EPOCH_DAY_FIELD),
+                rentalPeriodStore.getInt(otherNode, RentalPeriodStore.CHECKOUT_EPOCH_DAY_FIELD));
+        if (comparison != 0) {
+            return comparison;
+        }
+
+        return Integer.compare(rentalPeriodStore.getInt(node, RentalPeriodStore.RENTAL_AGREEMENT_ID_FIELD),
+                rentalPeriodStore.getInt(otherNode, RentalPeriodStore.RENTAL_AGREEMENT_ID_FIELD));
+    }
+
+    /**
+     * @param node A node. May be NO_RECORD.
+     * @return The height of the node, or 0 for NO_RECORD.
+     */
+    private int height(final int node) {
+        return node == RentalPeriodStore.NO_RECORD ? 0 : rentalPeriodStore.getInt(node, RentalPeriodStore.HEIGHT_FIELD);
+    }
+
+    /**
+     * @param node A node.
+     * @return The left child of the node, or NO_RECORD.
+     */
+    private int getLeft(final int node) {
+        return rentalPeriodStore.getInt(node, RentalPeriodStore.LEFT_FIELD);
+    }
+
+    /**
+     * @param node A node.
+     * @param left The new left child of the node, or NO_RECORD.
+     */
+    private void setLeft(final int node, final int left) {
+        rentalPeriodStore.setInt(node, RentalPeriodStore.LEFT_FIELD, left);
+    }
+
+    /**
+     * @param node A node.
+     * @return The right child of the node, or NO_RECORD.
+     */
+    private int getRight(final int node) {
+        return rentalPeriodStore.getInt(node, RentalPeriodStore.RIGHT_FIELD);
+    }
+
+    /**
+     * @param node A node.
+     * @param right The new right child of the node, or NO_RECORD.
+     */
+    private void setRight(final int node, final int right) {
+        rentalPeriodStore.setInt(node, RentalPeriodStore.RIGHT_FIELD, right);
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.math.BigDecimal;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.RepricingSummary;
+
+/**
+ * Business logic tier representation of the totals of a repricing run. This class is immutable.
+ */
+public class RepricingSummaryImpl implements RepricingSummary {
+    private final long rentalAgreementCount;
+    private final long changedRentalAgreementCount;
+    private final long skippedRentalAgreementCount;
+    private final BigDecimal originalFinalChargeTotal;
+    private final BigDecimal repricedFinalChargeTotal;
+
+    /**
+     * Constructs an immutable RepricingSummaryImpl.
+     *
+     * @param rentalAgreementCount The number of rental agreements repriced.
+     * @param changedRentalAgreementCount The number of rental agreements whose final charge changed.
+     * @param skippedRentalAgreementCount The number of rental agreements whose tool no longer exists.
+     * @param originalFinalChargeTotal The sum of the recorded final charges.
+     * @param repricedFinalChargeTotal The sum of the repriced final charges.
+     */
+    // Intentionally package private.
+    RepricingSummaryImpl(final long rentalAgreementCount, final long changedRentalAgreementCount,
+            final long skippedRentalAgreementCount, final BigDecimal originalFinalChargeTotal,
+            final BigDecimal repricedFinalChargeTotal) {
+        this.rentalAgreementCount = rentalAgreementCount;
+        this.changedRentalAgreementCount = changedRentalAgreementCount;
+        this.skippedRentalAgreementCount = skippedRentalAgreementCount;
+        this.originalFinalChargeTotal = originalFinalChargeTotal;
+        this.repricedFinalChargeTotal = repricedFinalChargeTotal;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRentalAgreementCount() {
+        return rentalAgreementCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getChangedRentalAgreementCount() {
+        return changedRentalAgreementCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSkippedRentalAgreementCount() {
+        return skippedRentalAgreementCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BigDecimal getOriginalFinalChargeTotal() {
+        return originalFinalChargeTotal;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BigDecimal getRepricedFinalChargeTotal() {
+        return repricedFinalChargeTotal;
+    }
+}
@@ -3,22 +3,52 @@
  */
 package io.github.joelluellwitz.jl0724.internal.service.impl;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import io.github.joelluellwitz.jl0724.exposed.service.api.CartAgreement;
+import io.github.joelluellwitz.jl0724.exposed.service.api.CartParameters;
 import io.github.joelluellwitz.jl0724.exposed.service.api.ContractParameters;
+import io.github.joelluellwitz.jl0724.exposed.service.api.DailyRevenue;
 import io.github.joelluellwitz.jl0724.exposed.service.api.RentalAgreement;
+import io.github.joelluellwitz.jl0724.exposed.service.api.RentalPeriod;
+import io.github.joelluellwitz.jl0724.exposed.service.api.RepricingSummary;
 import io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale;
 import io.github.joelluellwitz.jl0724.exposed.service.api.Tool;
+import io.github.joelluellwitz.jl0724.exposed.service.api.ToolListFormat;
+import io.github.joelluellwitz.jl0724.exposed.service.api.ToolPage;
 import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto;
 import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementRepo;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalOrderDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalOrderRepo;
+import io.github.joelluellwitz.jl0724.internal.data.api.StoreContext;
 import io.github.joelluellwitz.jl0724.internal.data.api.ToolDto;
 import io.github.joelluellwitz.jl0724.internal.data.api.ToolRepo;
+import jakarta.persistence.EntityManager;
 
 /**
  * The main business tier implementation of the Retail Point of Sale application.
@@ -26,32 +56,86 @@ import io.github.joelluellwitz.jl0724.internal.data.api.ToolRepo;
 @Service
 @Transactional
 public class RetailPointOfSaleImpl implements RetailPointOfSale {
+    private static final int MAX_TOOL_PAGE_SIZE = 1000;
+
     private static Logger LOGGER = LoggerFactory.getLogger(RetailPointOfSaleImpl.class);
 
+    private final CheckoutRequestCache checkoutRequestCache;
+    private final CompletedCheckoutRing completedCheckoutRing;
+    private final DailyRevenueView dailyRevenueView;
+    private final EntityManager entityManager;
+    private final OutboxRelay outboxRelay;
+    private final PromotionEngine promotionEngine;
+    private final TransactionTemplate readOnlyTransactionTemplate;
     private final RentalAgreementMapper rentalAgreementMapper;
     private final RentalAgreementRepo rentalAgreementRepo;
+    private final RentalAgreementRepricer rentalAgreementRepricer;
+    private final RentalAgreementWriter rentalAgreementWriter;
+    private final RentalOrderRepo rentalOrderRepo;
+    private final RentalPeriodIndex rentalPeriodIndex;
+    private final ToolAvailabilityIndex toolAvailabilityIndex;
+    private final ToolCatalogCache toolCatalogCache;
     private final ToolMapper toolMapper;
     private final ToolRepo toolRepo;
+    private final ToolTypePriceIndex toolTypePriceIndex;
 
     /**
      * Constructor.
      *
+     * @param checkoutRequestCache Answers retried checkouts without pricing or saving them again.
+     * @param completedCheckoutRing Hands every committed rental agreement to the in-process consumers, such as the
+     *   audit log.
+     * @param dailyRevenueView Summarizes revenue by checkout date and tool type, in the same transaction as each
+     *   checkout.
+     * @param entityManager Used to release streamed entities from the persistence context.
+     * @param outboxRelay Records an outbox event for every saved rental agreement, in the same transaction.
+     * @param platformTransactionManager Used to read within a transaction during checkout.
+     * @param promotionEngine Finds the discount of a checkout, including any promotion.
      * @param rentalAgreementMapper Mapper to convert a business tier
      *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementImpl RentalAgreementImpl} to a data
      *   tier {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto RentalAgreementDto}.
      * @param rentalAgreementRepo JPA Repository for RentalAgreementDto.
+     * @param rentalAgreementRepricer Reprices historical rental agreements using the current tool charges.
+     * @param rentalAgreementWriter Saves new rental agreements, committing many per transaction.
+     * @param rentalOrderRepo JPA Repository for RentalOrderDto.
+     * @param rentalPeriodIndex Answers due date and overdue queries from memory.
+     * @param toolAvailabilityIndex Tracks rental periods to prevent double booking a tool.
+     * @param toolCatalogCache Holds the current, pre-rendered tool catalog snapshot.
      * @param toolMapper Mapper to convert data tier
      *   {@link io.github.joelluellwitz.jl0724.internal.data.api.ToolDto ToolDtos} to business tier
      *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.ToolImpl ToolImpls}.
      * @param toolRepo JPA Repository for ToolDto.
+     * @param toolTypePriceIndex Finds the tool type price in effect on a checkout date.
      */
     // Intentionally package private.
-    RetailPointOfSaleImpl(final RentalAgreementMapper rentalAgreementMapper,
-            final RentalAgreementRepo rentalAgreementRepo, final ToolMapper toolMapper, final ToolRepo toolRepo) {
+    RetailPointOfSaleImpl(final CheckoutRequestCache checkoutRequestCache,
+            final CompletedCheckoutRing completedCheckoutRing, final DailyRevenueView dailyRevenueView,
+            final EntityManager entityManager, final OutboxRelay outboxRelay,
+            final PlatformTransactionManager platformTransactionManager, final PromotionEngine promotionEngine,
+            final RentalAgreementMapper rentalAgreementMapper, final RentalAgreementRepo rentalAgreementRepo,
+            final RentalAgreementRepricer rentalAgreementRepricer, final RentalAgreementWriter rentalAgreementWriter,
+            final RentalOrderRepo rentalOrderRepo, final RentalPeriodIndex rentalPeriodIndex,
+            final ToolAvailabilityIndex toolAvailabilityIndex, final ToolCatalogCache toolCatalogCache,
+            final ToolMapper toolMapper, final ToolRepo toolRepo, final ToolTypePriceIndex toolTypePriceIndex) {
+        this.checkoutRequestCache = checkoutRequestCache;
+        this.completedCheckoutRing = completedCheckoutRing;
+        this.dailyRevenueView = dailyRevenueView;
+        this.entityManager = entityManager;
+        this.outboxRelay = outboxRelay;
+        this.promotionEngine = promotionEngine;
+        readOnlyTransactionTemplate = new TransactionTemplate(platformTransactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
         this.rentalAgreementMapper = rentalAgreementMapper;
         this.rentalAgreementRepo = rentalAgreementRepo;
+        this.rentalAgreementRepricer = rentalAgreementRepricer;
+        this.rentalAgreementWriter = rentalAgreementWriter;
+        this.rentalOrderRepo = rentalOrderRepo;
+        this.rentalPeriodIndex = rentalPeriodIndex;
+        this.toolAvailabilityIndex = toolAvailabilityIndex;
+        this.toolCatalogCache = toolCatalogCache;
         this.toolMapper = toolMapper;
         this.toolRepo = toolRepo;
+        this.toolTypePriceIndex = toolTypePriceIndex;
     }
 
     /**
@@ -67,40 +151,697 @@ public class RetailPointOfSaleImpl implements RetailPointOfSale {
      * {@inheritDoc}
      */
     @Override
+    public ToolPage listTools(final String afterToolCode, final int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_TOOL_PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "Page size must be between 1 and %d (inclusive). You specified: %d", MAX_TOOL_PAGE_SIZE, pageSize));
+        }
+
+        LOGGER.debug("Retrieving the tool page after '{}'.", afterToolCode);
+        // One extra tool is requested to find out if there is another page without a separate count query.
+        final List<Tool> tools = toolMapper.toolDtosToTools(toolRepo.listToolsSortedByToolCodeAfter(
+                afterToolCode == null ? "" : afterToolCode, PageRequest.ofSize(pageSize + 1)));
+
+        final ToolPage toolPage;
+        if (tools.size() > pageSize) {
+            toolPage = new ToolPageImpl(tools.subList(0, pageSize), tools.get(pageSize - 1).getCode());
+        }
+        else {
+            toolPage = new ToolPageImpl(tools, null);
+        }
+
+        return toolPage;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachTool(final Consumer<? super Tool> toolConsumer) {
+        LOGGER.debug("Streaming the tool list.");
+        // Each tool is detached as soon as it is read. Its data was fetched with the row, so mapping still works, and
+        //   the persistence context does not grow with the catalog.
+        try (Stream<ToolDto> toolDtos = toolRepo.streamToolsSortedByToolCode()) {
+            toolMapper.toolDtosToTools(toolDtos.peek(entityManager::detach)).forEachOrdered(toolConsumer);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String renderToolList(final ToolListFormat format) {
+        LOGGER.debug("Rendering the tool list as {}.", format);
+        return toolCatalogCache.getToolCatalog().getRenderedToolList(format);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Tool> searchTools(final String query, final int limit) {
+        LOGGER.debug("Searching for tools matching '{}'.", query);
+        return toolCatalogCache.getToolCatalog().getSearchIndex().search(query, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<RentalPeriod> listRentalsOutOn(final LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("A date is required.");
+        }
+
+        LOGGER.debug("Listing the rentals out on {}.", date);
+        return rentalPeriodIndex.listRentalPeriodsOutOn(date);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<RentalPeriod> listRentalsDueBetween(final LocalDate fromDate, final LocalDate toDate) {
+        if (fromDate == null || toDate == null) {
+            throw new IllegalArgumentException("Both a start date and an end date are required.");
+        }
+        if (toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException(String.format(
+                    "The end date must not be before the start date. You specified: %s to %s", fromDate, toDate));
+        }
+
+        LOGGER.debug("Listing the rentals due between {} and {}.", fromDate, toDate);
+        return rentalPeriodIndex.listRentalPeriodsDueBetween(fromDate, toDate);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<RentalPeriod> listOverdueRentals(final LocalDate fromDueDate, final LocalDate date) {
+        if (fromDueDate == null || date == null) {
+            throw new IllegalArgumentException("Both a first due date and a date are required.");
+        }
+        if (date.isBefore(fromDueDate)) {
+            throw new IllegalArgumentException(String.format(
+                    "The date must not be before the first due date. You specified: %s to %s", fromDueDate, date));
+        }
+
+        LOGGER.debug("Listing the rentals due from {} and overdue on {}.", fromDueDate, date);
+        return rentalPeriodIndex.listRentalPeriodsDueBefore(fromDueDate, date);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailyRevenue> listDailyRevenue(final LocalDate fromDate, final LocalDate toDate) {
+        if (fromDate == null || toDate == null) {
+            throw new IllegalArgumentException("Both a start date and an end date are required.");
+        }
+        if (toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException(String.format(
+                    "The end date must not be before the start date. You specified: %s to %s", fromDate, toDate));
+        }
+
+        LOGGER.debug("Listing the daily revenue between {} and {}.", fromDate, toDate);
+        return dailyRevenueView.listDailyRevenue(fromDate, toDate);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int rebuildDailyRevenue() {
+        return dailyRevenueView.rebuild();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public RepricingSummary repriceRentalAgreements(final Writer reportWriter) {
+        try {
+            return rentalAgreementRepricer.reprice(reportWriter);
+        }
+        catch (final IOException exception) {
+            throw new UncheckedIOException("Failed to write the repricing report.", exception);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    // Note: Checkout reads in a short read-only transaction of its own and leaves the write to the rental agreement
+    //   writer, so it must not hold a transaction (and with it a connection) while waiting for the writer.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public RentalAgreement checkout(final ContractParameters contractParameters) {
         LOGGER.debug("Starting checkout.");
 
-        final int discountPercent = contractParameters.getDiscountPercent();
+        // Note: The rental agreement writer commits before the checkout returns, so commit time is part of the checkout
+        //   event.
+        final CheckoutEvent checkoutEvent = new CheckoutEvent();
+        checkoutEvent.toolCode = contractParameters.getToolCode();
+        checkoutEvent.rentalDayCount = contractParameters.getRentalDayCount();
+        checkoutEvent.begin();
+        // Note: This must happen before the first statement of the read transaction, which selects the store's
+        //   database.
+        final String previousStoreId = StoreContext.getStoreId();
+        StoreContext.setStoreId(contractParameters.getStoreId());
+        try {
+            final RentalAgreement rentalAgreement = checkout(contractParameters, checkoutEvent.toolCode,
+                    checkoutEvent.rentalDayCount);
+            checkoutEvent.succeeded = true;
+
+            LOGGER.debug("Finishing checkout.");
+            return rentalAgreement;
+        }
+        finally {
+            StoreContext.setStoreId(previousStoreId);
+            checkoutEvent.commit();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    // Note: Like a single checkout, a cart checkout must not hold a transaction while waiting for the writer.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CartAgreement checkoutCart(final CartParameters cartParameters) {
+        LOGGER.debug("Starting cart checkout.");
+
+        final List<ContractParameters> lines = cartParameters.getLines();
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("A cart checkout requires at least one line.");
+        }
+        final int discountPercent = cartParameters.getDiscountPercent();
         if (discountPercent < 0 || discountPercent > 100) {
             throw new IllegalArgumentException(String.format(
                     "Discount percentage must be between 0 and 100 (inclusive). You specified: %d", discountPercent));
         }
+        for (final ContractParameters line : lines) {
+            if (line.getStoreId() != null || line.getRequestId() != null) {
+                throw new IllegalArgumentException(String.format(
+                        "Cart lines must not have a store ID or request ID of their own. You specified: %s, %s",
+                        line.getStoreId(), line.getRequestId()));
+            }
+            validateContractParameters(line);
+        }
 
-        final int rentalDayCount = contractParameters.getRentalDayCount();
-        if (rentalDayCount < 1) {
-            throw new IllegalArgumentException(String
-                    .format("The number of rental days must be greater than 1. You specified: %d", rentalDayCount));
+        final String storeId = cartParameters.getStoreId();
+        final String previousStoreId = StoreContext.getStoreId();
+        StoreContext.setStoreId(storeId);
+        try {
+            final PreparedCart preparedCart = readOnlyTransactionTemplate.execute(
+                    status -> prepareCart(lines, discountPercent, storeId));
+            final CartAgreementImpl cartAgreement = preparedCart.cartAgreement();
+            final List<RentalAgreementImpl> rentalAgreements = cartAgreement.getRentalAgreementImpls();
+            try {
+                rentalAgreementWriter.writeAll(storeId, () -> {
+                    final List<RentalAgreementDto> rentalAgreementDtos = new ArrayList<>(rentalAgreements.size());
+                    for (int index = 0; index < rentalAgreements.size(); index++) {
+                        final RentalAgreementDto rentalAgreementDto = toRentalAgreementDto(rentalAgreements.get(index),
+                                preparedCart.toolDtos().get(index), null, storeId);
+                        // Note: Each line carries its share of the order discount, so the rental agreement, the daily
+                        //   revenue and the outbox event all record what the customer actually pays for the line.
+                        final BigDecimal orderDiscountAmount = cartAgreement.getLineDiscountAmounts().get(index);
+                        rentalAgreementDto.setDiscountAmount(
+                                rentalAgreementDto.getDiscountAmount().add(orderDiscountAmount));
+                        rentalAgreementDto.setFinalCharge(
+                                rentalAgreementDto.getFinalCharge().subtract(orderDiscountAmount));
+                        rentalAgreementDtos.add(rentalAgreementDto);
+                    }
+                    return rentalAgreementDtos;
+                }, rentalAgreementDtos -> {
+                    for (int index = 0; index < rentalAgreements.size(); index++) {
+                        onRentalAgreementSaved(rentalAgreements.get(index), rentalAgreementDtos.get(index), null,
+                                storeId);
+                    }
+                    rentalOrderRepo.save(toRentalOrderDto(cartAgreement, rentalAgreementDtos, storeId));
+                }).join();
+            }
+            catch (final RuntimeException exception) {
+                // Note: The reservations were made in the read transaction, which committed, so they are not released
+                //   automatically.
+                for (final RentalAgreementImpl rentalAgreement : rentalAgreements) {
+                    toolAvailabilityIndex.release(storeId, rentalAgreement.getToolCode(),
+                            rentalAgreement.getCheckoutDate(), rentalAgreement.getDueDate());
+                }
+                if (exception instanceof CompletionException
+                        && exception.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw exception;
+            }
+
+            LOGGER.debug("Finishing cart checkout.");
+            return cartAgreement;
+        }
+        finally {
+            StoreContext.setStoreId(previousStoreId);
+        }
+    }
+
+    /**
+     * Performs the checkout, recording a
+     *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.CheckoutPhaseEvent CheckoutPhaseEvent} for each
+     *   phase that completes.
+     *
+     * @param contractParameters The user's selections.
+     * @param toolCode The requested Tool Code, for the phase events.
+     * @param rentalDayCount The requested number of rental days, for the phase events.
+     * @return The rental agreement.
+     */
+    private RentalAgreement checkout(final ContractParameters contractParameters, final String toolCode,
+            final int rentalDayCount) {
+        final CheckoutPhaseEvent validationEvent = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.Phase.VALIDATION,
+                toolCode, rentalDayCount);
+        validateContractParameters(contractParameters);
+        final String storeId = contractParameters.getStoreId();
+        final String requestId = contractParameters.getRequestId();
+        validationEvent.commit();
+
+        if (requestId == null) {
+            return checkoutOnce(contractParameters, toolCode, rentalDayCount);
         }
 
+        final CompletableFuture<RentalAgreementImpl> pendingCheckout = new CompletableFuture<>();
+        CompletableFuture<RentalAgreementImpl> inProgressCheckout;
+        while ((inProgressCheckout = checkoutRequestCache.putPendingIfAbsent(storeId, requestId,
+                pendingCheckout)) != null) {
+            // Note: A retry that arrives while the original checkout is still in progress is found neither in the
+            //   cache nor in the database, so it waits for the original instead.
+            try {
+                final RentalAgreementImpl originalRentalAgreement = inProgressCheckout.join();
+                verifyRetriedCheckout(contractParameters, originalRentalAgreement);
+                LOGGER.debug("Returning the original rental agreement for in progress request ID '{}'.", requestId);
+                return originalRentalAgreement;
+            }
+            catch (final CompletionException | CancellationException exception) {
+                // The original checkout failed without creating a rental agreement, so check out again.
+                LOGGER.debug("The in progress checkout for request ID '{}' failed. Checking out again.", requestId);
+            }
+        }
+
+        RentalAgreementImpl rentalAgreement = null;
+        try {
+            rentalAgreement = checkoutOnce(contractParameters, toolCode, rentalDayCount);
+            return rentalAgreement;
+        }
+        finally {
+            // Note: Removed before completing, so a waiting retry whose original failed registers its own checkout
+            //   rather than finding the failed one again. A successful rental agreement is already cached.
+            checkoutRequestCache.removePending(storeId, requestId, pendingCheckout);
+            if (rentalAgreement == null) {
+                pendingCheckout.completeExceptionally(new IllegalStateException(
+                        String.format("The checkout for request ID '%s' failed.", requestId)));
+            }
+            else {
+                pendingCheckout.complete(rentalAgreement);
+            }
+        }
+    }
+
+    /**
+     * Prices, reserves and saves one checkout, or answers it from the original rental agreement of a committed
+     *   retry.
+     *
+     * @param contractParameters The validated user's selections.
+     * @param toolCode The requested Tool Code, for the phase events.
+     * @param rentalDayCount The requested number of rental days, for the phase events.
+     * @return The rental agreement.
+     */
+    private RentalAgreementImpl checkoutOnce(final ContractParameters contractParameters, final String toolCode,
+            final int rentalDayCount) {
+        final String storeId = contractParameters.getStoreId();
+        final String requestId = contractParameters.getRequestId();
+        final PreparedCheckout preparedCheckout = readOnlyTransactionTemplate.execute(
+                status -> prepareCheckout(contractParameters, toolCode, rentalDayCount));
+        final RentalAgreementImpl rentalAgreement = preparedCheckout.rentalAgreement();
+        if (preparedCheckout.toolDto() == null) {
+            return rentalAgreement;
+        }
+
+        final CheckoutPhaseEvent persistenceEvent = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.Phase.PERSISTENCE,
+                toolCode, rentalDayCount);
+        try {
+            rentalAgreementWriter.write(storeId,
+                    () -> toRentalAgreementDto(rentalAgreement, preparedCheckout.toolDto(), requestId, storeId),
+                    rentalAgreementDto -> onRentalAgreementSaved(rentalAgreement, rentalAgreementDto, requestId,
+                            storeId)).join();
+        }
+        catch (final RuntimeException exception) {
+            // Note: The reservation was made in the read transaction, which committed, so it is not released
+            //   automatically.
+            toolAvailabilityIndex.release(storeId, rentalAgreement.getToolCode(), rentalAgreement.getCheckoutDate(),
+                    rentalAgreement.getDueDate());
+            if (exception instanceof CompletionException && exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+        persistenceEvent.commit();
+
+        return rentalAgreement;
+    }
+
+    /**
+     * Answers a retried checkout, or looks up the tool, prices the rental agreement and reserves the tool. Must be
+     *   called within a transaction.
+     *
+     * @param contractParameters The user's selections.
+     * @param toolCode The requested Tool Code, for the phase events.
+     * @param rentalDayCount The requested number of rental days, for the phase events.
+     * @return The priced rental agreement and its tool, or the original rental agreement of a retried checkout.
+     */
+    private PreparedCheckout prepareCheckout(final ContractParameters contractParameters, final String toolCode,
+            final int rentalDayCount) {
+        final String storeId = contractParameters.getStoreId();
+        final String requestId = contractParameters.getRequestId();
+        if (requestId != null) {
+            final RentalAgreementImpl originalRentalAgreement = findRentalAgreementByRequestId(storeId, requestId);
+            if (originalRentalAgreement != null) {
+                verifyRetriedCheckout(contractParameters, originalRentalAgreement);
+                LOGGER.debug("Returning the original rental agreement for request ID '{}'.", requestId);
+                return new PreparedCheckout(originalRentalAgreement, null);
+            }
+        }
+
+        final CheckoutPhaseEvent toolLookupEvent = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.Phase.TOOL_LOOKUP,
+                toolCode, rentalDayCount);
+        final ToolDto toolDto = getToolDto(toolCode);
+        final ToolImpl tool = toCheckoutTool(toolDto, contractParameters.getCheckoutDate());
+        toolLookupEvent.commit();
+
+        final CheckoutPhaseEvent pricingEvent = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.Phase.PRICING, toolCode,
+                rentalDayCount);
+        final int discountPercent = promotionEngine.getDiscountPercent(contractParameters, tool.getType());
+        final RentalAgreementImpl rentalAgreement = new RentalAgreementImpl(contractParameters, tool,
+                discountPercent);
+        // Charges are calculated on demand. Calculate them now so that the time is not attributed to mapping.
+        rentalAgreement.getFinalCharge();
+        pricingEvent.commit();
+
+        final CheckoutPhaseEvent availabilityEvent = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.Phase.AVAILABILITY,
+                toolCode, rentalDayCount);
+        // Released by the caller if the rental agreement fails to save.
+        toolAvailabilityIndex.reserve(storeId, tool.getCode(), rentalAgreement.getCheckoutDate(),
+                rentalAgreement.getDueDate());
+        availabilityEvent.commit();
+
+        return new PreparedCheckout(rentalAgreement, toolDto);
+    }
+
+    /**
+     * Looks up the tools of a cart, prices its lines and reserves the tools. Must be called within a transaction.
+     *
+     * @param lines The lines of the cart.
+     * @param discountPercent The order level discount percentage.
+     * @param storeId The ID of the store making the rentals, or null for the default store.
+     * @return The priced cart and the tool of each line.
+     */
+    private PreparedCart prepareCart(final List<ContractParameters> lines, final int discountPercent,
+            final String storeId) {
+        final List<ToolDto> toolDtos = new ArrayList<>(lines.size());
+        final List<ToolImpl> tools = new ArrayList<>(lines.size());
+        final List<Integer> discountPercents = new ArrayList<>(lines.size());
+        for (final ContractParameters line : lines) {
+            final ToolDto toolDto = getToolDto(line.getToolCode());
+            final ToolImpl tool = toCheckoutTool(toolDto, line.getCheckoutDate());
+            toolDtos.add(toolDto);
+            tools.add(tool);
+            discountPercents.add(promotionEngine.getDiscountPercent(line, tool.getType()));
+        }
+
+        final List<RentalAgreementImpl> rentalAgreements = priceLines(lines, tools, discountPercents);
+
+        // Note: If a later line's tool is unavailable, the exception rolls back the read transaction, which releases
+        //   the reservations already made for earlier lines.
+        for (final RentalAgreementImpl rentalAgreement : rentalAgreements) {
+            toolAvailabilityIndex.reserve(storeId, rentalAgreement.getToolCode(), rentalAgreement.getCheckoutDate(),
+                    rentalAgreement.getDueDate());
+        }
+
+        return new PreparedCart(new CartAgreementImpl(rentalAgreements, discountPercent), toolDtos);
+    }
+
+    /**
+     * Prices each line of a cart on a virtual thread of its own.<p>
+     *
+     * Note: Structured concurrency (StructuredTaskScope) is still a preview API in Java 21, so the lines are forked
+     *   onto a virtual thread per task executor instead. Closing the executor waits for every line, so no pricing
+     *   outlives the checkout, and the first failing line fails the cart.
+     *
+     * @param lines The lines of the cart.
+     * @param tools The tool of each line, priced for the line's checkout date.
+     * @param discountPercents The discount of each line, including any promotion.
+     * @return The priced rental agreement of each line, in line order.
+     */
+    private static List<RentalAgreementImpl> priceLines(final List<ContractParameters> lines,
+            final List<ToolImpl> tools, final List<Integer> discountPercents) {
+        try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<RentalAgreementImpl>> rentalAgreementFutures = new ArrayList<>(lines.size());
+            for (int index = 0; index < lines.size(); index++) {
+                final ContractParameters line = lines.get(index);
+                final ToolImpl tool = tools.get(index);
+                final int discountPercent = discountPercents.get(index);
+                rentalAgreementFutures.add(executorService.submit(() -> {
+                    final RentalAgreementImpl rentalAgreement = new RentalAgreementImpl(line, tool, discountPercent);
+                    // Charges are calculated on demand. Calculate them now, on the line's own thread.
+                    rentalAgreement.getFinalCharge();
+                    return rentalAgreement;
+                }));
+            }
+
+            final List<RentalAgreementImpl> rentalAgreements = new ArrayList<>(lines.size());
+            for (final Future<RentalAgreementImpl> rentalAgreementFuture : rentalAgreementFutures) {
+                rentalAgreements.add(rentalAgreementFuture.get());
+            }
+            return rentalAgreements;
+        }
+        catch (final ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to price the cart.", exception.getCause());
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while pricing the cart.", exception);
+        }
+    }
+
+    /**
+     * Maps a priced cart to a new data tier rental order.
+     *
+     * @param cartAgreement The priced cart.
+     * @param rentalAgreementDtos The saved rental agreement of each line, in line order.
+     * @param storeId The ID of the store making the rentals, or null for the default store.
+     * @return A new, unsaved RentalOrderDto.
+     */
+    private static RentalOrderDto toRentalOrderDto(final CartAgreementImpl cartAgreement,
+            final List<RentalAgreementDto> rentalAgreementDtos, final String storeId) {
+        final List<Integer> rentalAgreementIds = new ArrayList<>(rentalAgreementDtos.size());
+        for (final RentalAgreementDto rentalAgreementDto : rentalAgreementDtos) {
+            rentalAgreementIds.add(rentalAgreementDto.getId());
+        }
+
+        final RentalOrderDto rentalOrderDto = new RentalOrderDto();
+        rentalOrderDto.setStoreId(storeId);
+        rentalOrderDto.setRentalAgreementIds(rentalAgreementIds);
+        rentalOrderDto.setPreDiscountCharge(cartAgreement.getPreDiscountCharge());
+        rentalOrderDto.setDiscountPercent(cartAgreement.getDiscountPercent());
+        rentalOrderDto.setDiscountAmount(cartAgreement.getDiscountAmount());
+        rentalOrderDto.setFinalCharge(cartAgreement.getFinalCharge());
+
+        return rentalOrderDto;
+    }
+
+    /**
+     * Looks up a tool for checkout.
+     *
+     * @param toolCode The requested Tool Code.
+     * @return The tool.
+     * @throws IllegalArgumentException If there is no such tool.
+     */
+    private ToolDto getToolDto(final String toolCode) {
         // Note: The fact that the requirements document does not say anything about Tool Code validation leads me to
         //   believe the requirements author intended for Tool Code to be represented as an {@link java.lang.Enum Enum}.
         //   In this demo, I opted to back Tool Code with a database entry which I think is a reasonable justification
         //   for not having a ToolCode Enum.
-        final Optional<ToolDto> toolOptional = toolRepo.getToolByCode(contractParameters.getToolCode());
+        final Optional<ToolDto> toolOptional = toolRepo.getToolByCode(toolCode);
         if (toolOptional.isEmpty()) {
             throw new IllegalArgumentException(
-                    String.format("Unrecognized tool code. You specified: %s", contractParameters.getToolCode()));
+                    String.format("Unrecognized tool code. You specified: %s", toolCode));
         }
-        final Tool tool = toolMapper.toolDtoToTool(toolOptional.get());
 
-        final RentalAgreementImpl rentalAgreement = new RentalAgreementImpl(contractParameters, tool);
+        return toolOptional.get();
+    }
+
+    /**
+     * Maps a tool to the business tier, charging the tool type price in effect on the checkout date.
+     *
+     * @param toolDto The tool.
+     * @param checkoutDate The checkout date.
+     * @return The tool, as priced for the checkout.
+     */
+    private ToolImpl toCheckoutTool(final ToolDto toolDto, final LocalDate checkoutDate) {
+        final ToolImpl tool = toolMapper.toolDtoToTool(toolDto);
+        toolTypePriceIndex.applyPrice(tool, checkoutDate);
+
+        return tool;
+    }
+
+    /**
+     * Records a saved rental agreement everywhere else it is needed. Called on the rental agreement writer thread,
+     *   within the rental agreement's transaction.
+     *
+     * @param rentalAgreement The priced rental agreement.
+     * @param rentalAgreementDto The saved rental agreement.
+     * @param requestId The checkout request ID, or null.
+     * @param storeId The ID of the store making the rental, or null for the default store.
+     */
+    private void onRentalAgreementSaved(final RentalAgreementImpl rentalAgreement,
+            final RentalAgreementDto rentalAgreementDto, final String requestId, final String storeId) {
+        // Saved in the writer's transaction, so the event and the revenue summary commit (or roll back) with the
+        //   rental agreement.
+        outboxRelay.add(rentalAgreementDto);
+        dailyRevenueView.add(rentalAgreementDto);
+        // Added to the index and published to the ring only once the writer's transaction commits. The index is
+        //   updated before the checkout returns, so the rental shows up in the very next query.
+        if (storeId == null) {
+            rentalPeriodIndex.add(new RentalPeriodImpl(rentalAgreementDto.getId(), rentalAgreement.getToolCode(),
+                    rentalAgreement.getCheckoutDate(), rentalAgreement.getDueDate()));
+        }
+        completedCheckoutRing.publish(rentalAgreementDto);
+        if (requestId != null) {
+            checkoutRequestCache.put(storeId, requestId, rentalAgreement);
+        }
+    }
+
+    /**
+     * Maps a priced rental agreement to a new data tier rental agreement. Called by the rental agreement writer, once
+     *   per attempt to save the rental agreement.
+     *
+     * @param rentalAgreement The priced rental agreement.
+     * @param toolDto The rented tool.
+     * @param requestId The checkout request ID, or null.
+     * @param storeId The ID of the store making the rental, or null for the default store.
+     * @return A new, unsaved RentalAgreementDto.
+     */
+    private RentalAgreementDto toRentalAgreementDto(final RentalAgreementImpl rentalAgreement, final ToolDto toolDto,
+            final String requestId, final String storeId) {
+        final CheckoutPhaseEvent mappingEvent = CheckoutPhaseEvent.begin(CheckoutPhaseEvent.Phase.MAPPING,
+                rentalAgreement.getToolCode(), rentalAgreement.getRentalDayCount());
         final RentalAgreementDto rentalAgreementDto = rentalAgreementMapper
                 .rentalAgreementToRentalAgreementDto(rentalAgreement);
+        rentalAgreementDto.setTool(toolDto);
+        rentalAgreementDto.setRequestId(requestId);
+        rentalAgreementDto.setStoreId(storeId);
+        mappingEvent.commit();
 
-        rentalAgreementDto.setTool(toolOptional.get());
-        rentalAgreementRepo.saveAndFlush(rentalAgreementDto);
+        return rentalAgreementDto;
+    }
+
+    /**
+     * Finds the rental agreement already created for a store's checkout request ID. The cache answers retries in the
+     *   common case. The unique (store_id, request_id) index answers retries of evicted or pre-restart requests. Like
+     *   the cache, the lookup is scoped to the store, so different stores may use the same request ID.
+     *
+     * @param storeId The ID of the store making the checkout, or null for the default store.
+     * @param requestId The checkout request ID.
+     * @return The original rental agreement, or null if the request ID has not been used.
+     */
+    private RentalAgreementImpl findRentalAgreementByRequestId(final String storeId, final String requestId) {
+        RentalAgreementImpl rentalAgreement = checkoutRequestCache.get(storeId, requestId);
+        if (rentalAgreement == null) {
+            final Optional<RentalAgreementDto> rentalAgreementDtoOptional = rentalAgreementRepo
+                    .findByStoreIdAndRequestId(storeId, requestId);
+            if (rentalAgreementDtoOptional.isPresent()) {
+                rentalAgreement = new RentalAgreementImpl(rentalAgreementDtoOptional.get());
+                checkoutRequestCache.put(storeId, requestId, rentalAgreement);
+            }
+        }
 
-        LOGGER.debug("Finishing checkout.");
         return rentalAgreement;
     }
-}
\ No newline at end of file
+
+    /**
+     * Validates the parameters of a checkout, or of one line of a cart checkout.
+     *
+     * @param contractParameters The user's selections.
+     * @throws IllegalArgumentException If a parameter is out of range.
+     */
+    private static void validateContractParameters(final ContractParameters contractParameters) {
+        final int discountPercent = contractParameters.getDiscountPercent();
+        if (discountPercent < 0 || discountPercent > 100) {
+            throw new IllegalArgumentException(String.format(
+                    "Discount percentage must be between 0 and 100 (inclusive). You specified: %d", discountPercent));
+        }
+
+        final int rentalDayCount = contractParameters.getRentalDayCount();
+        if (rentalDayCount < 1) {
+            throw new IllegalArgumentException(String
+                    .format("The number of rental days must be greater than 1. You specified: %d", rentalDayCount));
+        }
+
+        final String requestId = contractParameters.getRequestId();
+        if (requestId != null && requestId.isBlank()) {
+            throw new IllegalArgumentException(
+                    String.format("The request ID must not be blank. You specified: '%s'", requestId));
+        }
+
+        // Note: A blank coupon code would otherwise normalize to an empty coupon code that no promotion has.
+        final String couponCode = contractParameters.getCouponCode();
+        if (couponCode != null && couponCode.isBlank()) {
+            throw new IllegalArgumentException(
+                    String.format("The coupon code must not be blank. You specified: '%s'", couponCode));
+        }
+    }
+
+    /**
+     * Verifies a retried checkout asks for the same rental as the original checkout. Reusing a request ID for a
+     *   different rental is a client bug, and silently returning the original rental agreement would hide it.<p>
+     *
+     * Note: The saved discount includes any promotion, which can only raise the clerk's discount, and the promotions
+     *   may have changed since. So the retry's clerk discount only has to be no greater than the saved discount.
+     *
+     * @param contractParameters The retried checkout's parameters.
+     * @param originalRentalAgreement The rental agreement created by the original checkout.
+     */
+    private static void verifyRetriedCheckout(final ContractParameters contractParameters,
+            final RentalAgreementImpl originalRentalAgreement) {
+        if (!originalRentalAgreement.getToolCode().equals(contractParameters.getToolCode())
+                || !originalRentalAgreement.getCheckoutDate().equals(contractParameters.getCheckoutDate())
+                || originalRentalAgreement.getRentalDayCount() != contractParameters.getRentalDayCount()
+                || originalRentalAgreement.getDiscountPercent() < contractParameters.getDiscountPercent()) {
+            throw new IllegalArgumentException(String.format(
+                    "The request ID was already used for a different checkout. You specified: %s",
+                    contractParameters.getRequestId()));
+        }
+    }
+
+    /**
+     * The outcome of the read phase of a checkout.
+     *
+     * @param rentalAgreement The priced rental agreement, or the original rental agreement of a retried checkout.
+     * @param toolDto The reserved tool, or null if the checkout is a retry and there is nothing to save.
+     */
+    private record PreparedCheckout(RentalAgreementImpl rentalAgreement, ToolDto toolDto) {
+
+    }
+
+    /**
+     * The outcome of the read phase of a cart checkout.
+     *
+     * @param cartAgreement The priced cart.
+     * @param toolDtos The reserved tool of each line, in line order.
+     */
+    private record PreparedCart(CartAgreementImpl cartAgreement, List<ToolDto> toolDtos) {
+
+    }
+}
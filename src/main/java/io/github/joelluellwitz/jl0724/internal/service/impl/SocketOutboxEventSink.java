@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * An {@link io.github.joelluellwitz.jl0724.internal.service.impl.OutboxEventSink OutboxEventSink} that streams every
+ *   event as a line of JSON to a local listener on the 'jl0724.outbox.socket.path' Unix domain socket. Enabled by
+ *   setting that property.<p>
+ *
+ * The sink connects on the first batch and reconnects after any failure. While the listener is down, events stay in
+ *   the outbox and are streamed once it is back.<p>
+ *
+ * Note: A batch that fails part way is sent again in full on a new connection, so the listener should discard an
+ *   unterminated last line when a connection closes, and tolerate duplicates.
+ */
+@Component
+@ConditionalOnProperty(name = "jl0724.outbox.socket.path")
+public class SocketOutboxEventSink implements OutboxEventSink {
+    private static Logger LOGGER = LoggerFactory.getLogger(SocketOutboxEventSink.class);
+
+    private final UnixDomainSocketAddress socketAddress;
+    private final StringBuilder batchStringBuilder = new StringBuilder();
+
+    private SocketChannel socketChannel;
+
+    /**
+     * Constructor.
+     *
+     * @param path The path of the listener's socket.
+     */
+    // Intentionally package private.
+    SocketOutboxEventSink(@Value("${jl0724.outbox.socket.path}") final String path) {
+        socketAddress = UnixDomainSocketAddress.of(Path.of(path).toAbsolutePath());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final List<OutboxEvent> events) {
+        batchStringBuilder.setLength(0);
+        for (final OutboxEvent event : events) {
+            event.appendJsonLine(batchStringBuilder);
+        }
+
+        try {
+            if (socketChannel == null) {
+                socketChannel = SocketChannel.open(StandardProtocolFamily.UNIX);
+                socketChannel.connect(socketAddress);
+                LOGGER.debug("Connected to the outbox socket {}.", socketAddress);
+            }
+            final ByteBuffer byteBuffer = ByteBuffer.wrap(batchStringBuilder.toString()
+                    .getBytes(StandardCharsets.UTF_8));
+            while (byteBuffer.hasRemaining()) {
+                socketChannel.write(byteBuffer);
+            }
+        }
+        catch (final IOException exception) {
+            closeQuietly();
+            throw new UncheckedIOException(
+                    String.format("Failed to write to the outbox socket '%s'.", socketAddress), exception);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        closeQuietly();
+    }
+
+    /**
+     * Closes the connection, if open, ignoring any failure.
+     */
+    private void closeQuietly() {
+        if (socketChannel != null) {
+            try {
+                socketChannel.close();
+            }
+            catch (final IOException exception) {
+                LOGGER.debug("Failed to close the outbox socket {}.", socketAddress, exception);
+            }
+            socketChannel = null;
+        }
+    }
+}
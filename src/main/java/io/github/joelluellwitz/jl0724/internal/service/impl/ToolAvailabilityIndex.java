@@ -0,0 +1,234 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementRepo;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalPeriodDto;
+
+/**
+ * Tracks when each tool is rented so that the same tool cannot be checked out twice for overlapping dates.<p>
+ *
+ * For every Tool Code, the rental periods are kept in a {@link java.util.TreeMap TreeMap} from start date to end date.
+ *   The periods of a tool never overlap, so an overlap check is a single floor lookup. Each store has its own stock of
+ *   the catalog's tools, so availability is tracked per store and Tool Code. A store's periods are loaded from the
+ *   database on the store's first checkout and then maintained in memory as tools are checked out.<p>
+ *
+ * Concurrent checkouts are serialized per tool with a fixed array of striped locks selected by Tool Code hash, so
+ *   checkouts of different tools almost never wait on each other. A reservation is made before the rental agreement is
+ *   written and is released again if the surrounding transaction rolls back.<p>
+ *
+ * Note: A rental period starts on the checkout date and ends on the due date, exclusive. The due date is the day the
+ *   tool comes back, so the tool can be checked out again that same day.<p>
+ *
+ * Note: Striped in-memory locks were chosen over optimistic locking on the tool's version column because a checkout
+ *   does not otherwise modify the tool, so optimistic locking would require a dummy tool update and would retry every
+ *   concurrent checkout of the same tool, even for dates that do not overlap. The trade-off is that the index only
+ *   protects checkouts made through this process. Multiple processes sharing one database would need a database level
+ *   check.
+ */
+@Component
+public class ToolAvailabilityIndex {
+    private static final int LOCK_STRIPE_COUNT = 64;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/uu");
+
+    private static Logger LOGGER = LoggerFactory.getLogger(ToolAvailabilityIndex.class);
+
+    private final RentalAgreementHistory rentalAgreementHistory;
+    private final RentalAgreementRepo rentalAgreementRepo;
+    private final ReentrantLock[] lockStripes = new ReentrantLock[LOCK_STRIPE_COUNT];
+    // Each TreeMap is only read or modified while holding the lock stripe of its Tool Code.
+    private final Map<ToolKey, NavigableMap<LocalDate, LocalDate>> rentalPeriodsByToolKey = new ConcurrentHashMap<>();
+    // The default store is represented by an empty String, which is never a valid store ID.
+    private final Set<String> loadedStoreIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor.
+     *
+     * @param rentalAgreementHistory Reads every rental agreement of the default store, including archived rental
+     *   agreements.
+     * @param rentalAgreementRepo JPA Repository for
+     *   {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto RentalAgreementDto}.
+     */
+    // Intentionally package private.
+    ToolAvailabilityIndex(final RentalAgreementHistory rentalAgreementHistory,
+            final RentalAgreementRepo rentalAgreementRepo) {
+        this.rentalAgreementHistory = rentalAgreementHistory;
+        this.rentalAgreementRepo = rentalAgreementRepo;
+        for (int stripeIndex = 0; stripeIndex < lockStripes.length; stripeIndex++) {
+            lockStripes[stripeIndex] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Reserves a tool for the supplied rental period. If called within a transaction, the reservation is released
+     *   automatically if the transaction does not commit.
+     *
+     * @param storeId The ID of the store renting the tool, or null for the default store.
+     * @param toolCode The Tool Code of the tool to reserve.
+     * @param checkoutDate The first day of the rental period.
+     * @param dueDate The day the tool is due back.
+     * @throws IllegalArgumentException If the tool is already rented for any part of the rental period.
+     */
+    public void reserve(final String storeId, final String toolCode, final LocalDate checkoutDate,
+            final LocalDate dueDate) {
+        ensureLoaded(storeId);
+
+        final ToolKey toolKey = new ToolKey(storeId, toolCode);
+        final ReentrantLock lock = getLockStripe(toolKey);
+        lock.lock();
+        try {
+            final NavigableMap<LocalDate, LocalDate> rentalPeriods =
+                    rentalPeriodsByToolKey.computeIfAbsent(toolKey, key -> new TreeMap<>());
+            // Periods never overlap, so the only period that can overlap is the last one starting before the due date.
+            final Map.Entry<LocalDate, LocalDate> previousRentalPeriod = rentalPeriods.lowerEntry(dueDate);
+            if (previousRentalPeriod != null && previousRentalPeriod.getValue().isAfter(checkoutDate)) {
+                throw new IllegalArgumentException(String.format(
+                        "Tool %s is already rented from %s until %s. You specified: %s until %s", toolCode,
+                        DATE_FORMATTER.format(previousRentalPeriod.getKey()),
+                        DATE_FORMATTER.format(previousRentalPeriod.getValue()), DATE_FORMATTER.format(checkoutDate),
+                        DATE_FORMATTER.format(dueDate)));
+            }
+            rentalPeriods.put(checkoutDate, dueDate);
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    if (status != STATUS_COMMITTED) {
+                        LOGGER.debug("Releasing the reservation of tool {} after rollback.", toolCode);
+                        release(storeId, toolCode, checkoutDate, dueDate);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Releases a reservation previously made by
+     *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.ToolAvailabilityIndex#reserve(String, String,
+     *   LocalDate, LocalDate) reserve}.
+     *
+     * @param storeId The ID of the store that reserved the tool, or null for the default store.
+     * @param toolCode The Tool Code of the reserved tool.
+     * @param checkoutDate The first day of the reserved rental period.
+     * @param dueDate The day the tool was due back.
+     */
+    // Intentionally package private.
+    void release(final String storeId, final String toolCode, final LocalDate checkoutDate, final LocalDate dueDate) {
+        final ToolKey toolKey = new ToolKey(storeId, toolCode);
+        final ReentrantLock lock = getLockStripe(toolKey);
+        lock.lock();
+        try {
+            final NavigableMap<LocalDate, LocalDate> rentalPeriods = rentalPeriodsByToolKey.get(toolKey);
+            if (rentalPeriods != null) {
+                rentalPeriods.remove(checkoutDate, dueDate);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the rental periods of every existing rental agreement of a store the first time the store uses the index.
+     *   Must be called within the store's transaction, so that the store's database is read when store partitioning
+     *   is enabled.<p>
+     *
+     * Note: Rental agreements written before this check existed may overlap. Overlapping periods are merged so that
+     *   the index invariant (no overlapping periods per tool) holds.
+     *
+     * @param storeId The store ID, or null for the default store.
+     */
+    private void ensureLoaded(final String storeId) {
+        final String loadedStoreId = storeId == null ? "" : storeId;
+        if (loadedStoreIds.contains(loadedStoreId)) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!loadedStoreIds.contains(loadedStoreId)) {
+                LOGGER.debug("Loading tool availability for store '{}'.", loadedStoreId);
+                // Note: Without store partitioning every store shares one table, so other stores' rows are skipped.
+                //   Only the default store's rental agreements are ever archived, and checkouts may be back dated, so
+                //   the default store also loads its archived rental periods.
+                try (Stream<RentalPeriodDto> rentalPeriodDtos = storeId == null
+                        ? rentalAgreementHistory.streamRentalPeriods() : rentalAgreementRepo.streamRentalPeriods()) {
+                    rentalPeriodDtos.filter(rentalPeriodDto -> Objects.equals(rentalPeriodDto.storeId(), storeId))
+                            .forEach(rentalPeriodDto -> addMerged(rentalPeriodsByToolKey.computeIfAbsent(
+                                    new ToolKey(storeId, rentalPeriodDto.toolCode()), key -> new TreeMap<>()),
+                                    rentalPeriodDto.checkoutDate(), rentalPeriodDto.dueDate()));
+                }
+                loadedStoreIds.add(loadedStoreId);
+            }
+        }
+    }
+
+    /**
+     * Adds a rental period, merging it with any periods it overlaps.
+     *
+     * @param rentalPeriods The rental periods of a single tool. Updated in place.
+     * @param checkoutDate The first day of the rental period.
+     * @param dueDate The day the tool was due back.
+     */
+    private static void addMerged(final NavigableMap<LocalDate, LocalDate> rentalPeriods, final LocalDate checkoutDate,
+            final LocalDate dueDate) {
+        LocalDate mergedStart = checkoutDate;
+        LocalDate mergedEnd = dueDate;
+        Map.Entry<LocalDate, LocalDate> overlappingRentalPeriod = rentalPeriods.lowerEntry(mergedEnd);
+        while (overlappingRentalPeriod != null && overlappingRentalPeriod.getValue().isAfter(mergedStart)) {
+            rentalPeriods.remove(overlappingRentalPeriod.getKey());
+            if (overlappingRentalPeriod.getKey().isBefore(mergedStart)) {
+                mergedStart = overlappingRentalPeriod.getKey();
+            }
+            if (overlappingRentalPeriod.getValue().isAfter(mergedEnd)) {
+                mergedEnd = overlappingRentalPeriod.getValue();
+            }
+            overlappingRentalPeriod = rentalPeriods.lowerEntry(mergedEnd);
+        }
+        rentalPeriods.put(mergedStart, mergedEnd);
+    }
+
+    /**
+     * Returns the lock stripe guarding the supplied tool.
+     *
+     * @param toolKey A tool of a store.
+     * @return The lock stripe.
+     */
+    private ReentrantLock getLockStripe(final ToolKey toolKey) {
+        final int hash = toolKey.hashCode();
+        // Mix the high bits into the low bits that select the stripe.
+        return lockStripes[(hash ^ (hash >>> 16)) & (LOCK_STRIPE_COUNT - 1)];
+    }
+
+    /**
+     * Identifies a tool of a store.
+     *
+     * @param storeId The store ID, or null for the default store.
+     * @param toolCode The Tool Code.
+     */
+    private record ToolKey(String storeId, String toolCode) {
+
+    }
+}
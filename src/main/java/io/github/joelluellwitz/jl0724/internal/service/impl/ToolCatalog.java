@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.text.NumberFormat;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import dnl.utils.text.table.TextTable;
+import io.github.joelluellwitz.jl0724.exposed.service.api.Tool;
+import io.github.joelluellwitz.jl0724.exposed.service.api.ToolListFormat;
+import io.github.joelluellwitz.jl0724.internal.data.api.CatalogVersion;
+
+/**
+ * An immutable snapshot of the tool catalog at a specific
+ *   {@link io.github.joelluellwitz.jl0724.internal.data.api.CatalogVersion CatalogVersion}, including the tool list
+ *   pre-rendered in every {@link io.github.joelluellwitz.jl0724.exposed.service.api.ToolListFormat ToolListFormat}
+ *   and a {@link io.github.joelluellwitz.jl0724.internal.service.impl.ToolSearchIndex ToolSearchIndex}.<p>
+ *
+ * Note: Every format is rendered once, when the snapshot is constructed. Rendering is cheap for a small catalog, and
+ *   doing it eagerly means the snapshot never needs to synchronize after it is published.
+ */
+public class ToolCatalog {
+    private static final String[] TEXT_TABLE_COLUMN_NAMES = { "Tool Code", "Tool Type", "Brand", "Daily Charge",
+            "Weekday Charge?", "Weekend Charge?", "Holiday Charge?" };
+    private static final String CSV_HEADER =
+            "code,type,brand,dailyCharge,weekdayCharge,weekendCharge,holidayCharge\n";
+
+    private final CatalogVersion version;
+    private final List<Tool> tools;
+    private final Map<ToolListFormat, String> renderedToolLists;
+    private final ToolSearchIndex searchIndex;
+
+    /**
+     * Constructs an immutable ToolCatalog.
+     *
+     * @param version The catalog version the tools were loaded at.
+     * @param tools The tools sorted by Tool Code.
+     */
+    // Intentionally package private.
+    ToolCatalog(final CatalogVersion version, final List<Tool> tools) {
+        this.version = version;
+        this.tools = List.copyOf(tools);
+
+        final Map<ToolListFormat, String> renderedToolLists = new EnumMap<>(ToolListFormat.class);
+        renderedToolLists.put(ToolListFormat.TEXT_TABLE, renderTextTable(this.tools));
+        renderedToolLists.put(ToolListFormat.CSV, renderCsv(this.tools));
+        this.renderedToolLists = renderedToolLists;
+
+        searchIndex = new ToolSearchIndex(this.tools);
+    }
+
+    /**
+     * @return The catalog version the tools were loaded at.
+     */
+    public CatalogVersion getVersion() {
+        return version;
+    }
+
+    /**
+     * @return An unmodifiable List of the tools sorted by Tool Code.
+     */
+    public List<Tool> getTools() {
+        return tools;
+    }
+
+    /**
+     * Returns the pre-rendered tool list.
+     *
+     * @param format The desired format.
+     * @return The tool list rendered in the requested format.
+     */
+    public String getRenderedToolList(final ToolListFormat format) {
+        return renderedToolLists.get(format);
+    }
+
+    /**
+     * @return The search index over the tools in this snapshot.
+     */
+    public ToolSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Renders the tools as a human readable text table.
+     *
+     * @param tools The tools to render.
+     * @return The rendered table.
+     */
+    // Intentionally package private.
+    static String renderTextTable(final List<Tool> tools) {
+        final String[][] tableData = new String[tools.size()][];
+        for (int toolIndex = 0; toolIndex < tableData.length; toolIndex++) {
+            final Tool tool = tools.get(toolIndex);
+            tableData[toolIndex] = new String[] {
+                tool.getCode(), tool.getType(), tool.getBrand(),
+                NumberFormat.getCurrencyInstance(Locale.US).format(tool.getDailyCharge()),
+                Boolean.toString(tool.isWeekdayCharge()),
+                Boolean.toString(tool.isWeekendCharge()),
+                Boolean.toString(tool.isHolidayCharge())
+            };
+        }
+
+        final ByteArrayOutputStream tableOutputStream = new ByteArrayOutputStream();
+        // Unfortunately this table library doesn't print a bottom border.
+        new TextTable(TEXT_TABLE_COLUMN_NAMES, tableData).printTable(new PrintStream(tableOutputStream), 0);
+        // Remove carriage return characters so that the unit tests pass on Windows. This does not change the
+        //   appearance of the table even on Windows.
+        return tableOutputStream.toString().replace("\r", "");
+    }
+
+    /**
+     * Renders the tools as comma separated values. Values are quoted only when necessary.
+     *
+     * @param tools The tools to render.
+     * @return The rendered CSV, including a header row.
+     */
+    // Intentionally package private.
+    static String renderCsv(final List<Tool> tools) {
+        final StringBuilder csvStringBuilder = new StringBuilder(CSV_HEADER);
+        for (final Tool tool : tools) {
+            appendCsvValue(csvStringBuilder, tool.getCode()).append(',');
+            appendCsvValue(csvStringBuilder, tool.getType()).append(',');
+            appendCsvValue(csvStringBuilder, tool.getBrand()).append(',');
+            csvStringBuilder.append(tool.getDailyCharge().toPlainString()).append(',');
+            csvStringBuilder.append(tool.isWeekdayCharge()).append(',');
+            csvStringBuilder.append(tool.isWeekendCharge()).append(',');
+            csvStringBuilder.append(tool.isHolidayCharge()).append('\n');
+        }
+
+        return csvStringBuilder.toString();
+    }
+
+    /**
+     * Appends a single CSV value, quoting it per RFC 4180 if it contains a comma, a quote, or a line break.
+     *
+     * @param csvStringBuilder The StringBuilder to append to.
+     * @param value The value to append.
+     * @return The supplied StringBuilder.
+     */
+    private static StringBuilder appendCsvValue(final StringBuilder csvStringBuilder, final String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            csvStringBuilder.append(value);
+        }
+        else {
+            csvStringBuilder.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+
+        return csvStringBuilder;
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.CatalogVersion;
+import io.github.joelluellwitz.jl0724.internal.data.api.ToolRepo;
+
+/**
+ * Holds the most recent {@link io.github.joelluellwitz.jl0724.internal.service.impl.ToolCatalog ToolCatalog} snapshot
+ *   and rebuilds it whenever the catalog version in the database changes. The snapshot is shared by every caller, so
+ *   each catalog version is loaded and rendered exactly once no matter how many front ends request it.<p>
+ *
+ * The catalog version check can optionally be throttled with the
+ *   'jl0724.tool-catalog.version-check-interval-millis' property, in which case a snapshot is served without touching
+ *   the database until the interval elapses. The default of 0 checks the version on every call.<p>
+ *
+ * Note: Callers are expected to be inside a transaction (i.e., called from
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RetailPointOfSaleImpl RetailPointOfSaleImpl}).
+ */
+@Component
+public class ToolCatalogCache {
+    private static Logger LOGGER = LoggerFactory.getLogger(ToolCatalogCache.class);
+
+    private final ToolMapper toolMapper;
+    private final ToolRepo toolRepo;
+    private final long versionCheckIntervalNanos;
+
+    private volatile ToolCatalog toolCatalog;
+    private volatile long lastVersionCheckNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param toolMapper Mapper to convert data tier
+     *   {@link io.github.joelluellwitz.jl0724.internal.data.api.ToolDto ToolDtos} to business tier
+     *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.ToolImpl ToolImpls}.
+     * @param toolRepo JPA Repository for ToolDto.
+     * @param versionCheckIntervalMillis The minimum time between catalog version checks, in milliseconds.
+     */
+    // Intentionally package private.
+    ToolCatalogCache(final ToolMapper toolMapper, final ToolRepo toolRepo,
+            @Value("${jl0724.tool-catalog.version-check-interval-millis:0}") final long versionCheckIntervalMillis) {
+        this.toolMapper = toolMapper;
+        this.toolRepo = toolRepo;
+        versionCheckIntervalNanos = versionCheckIntervalMillis * 1_000_000L;
+    }
+
+    /**
+     * Returns the current tool catalog snapshot. The only database access in the common case is the single row
+     *   catalog version query, and even that is skipped if the version was checked within the configured interval.<p>
+     *
+     * Note: The version is read before the tools. If the catalog changes in between, the snapshot is labeled with an
+     *   older version than its contents, which only causes one unnecessary rebuild on the next call. The reverse order
+     *   could label stale contents with a current version, which would never be corrected.
+     *
+     * @return The tool catalog snapshot for the current catalog version.
+     */
+    public ToolCatalog getToolCatalog() {
+        ToolCatalog currentToolCatalog = toolCatalog;
+        final long checkStartNanos = System.nanoTime();
+        if (currentToolCatalog != null && versionCheckIntervalNanos > 0
+                && checkStartNanos - lastVersionCheckNanos < versionCheckIntervalNanos) {
+            return currentToolCatalog;
+        }
+
+        final CatalogVersion catalogVersion = toolRepo.getCatalogVersion();
+        lastVersionCheckNanos = checkStartNanos;
+
+        if (currentToolCatalog == null || !currentToolCatalog.getVersion().equals(catalogVersion)) {
+            // Only one thread rebuilds. Threads that waited on the lock reuse the snapshot the first thread built.
+            synchronized (this) {
+                currentToolCatalog = toolCatalog;
+                if (currentToolCatalog == null || !currentToolCatalog.getVersion().equals(catalogVersion)) {
+                    LOGGER.debug("Rebuilding the tool catalog for catalog version {}.", catalogVersion);
+                    currentToolCatalog = new ToolCatalog(catalogVersion,
+                            toolMapper.toolDtosToTools(toolRepo.listToolsSortedByToolCode()));
+                    toolCatalog = currentToolCatalog;
+                }
+            }
+        }
+
+        return currentToolCatalog;
+    }
+}
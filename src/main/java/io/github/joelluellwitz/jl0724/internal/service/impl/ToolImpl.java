@@ -18,6 +18,8 @@ public class ToolImpl implements Tool {
     private boolean weekdayCharge;
     private boolean weekendCharge;
     private boolean holidayCharge;
+    private BigDecimal weeklyChargeCap;
+    private BigDecimal monthlyChargeCap;
 
     /**
      * @return the code
@@ -110,4 +112,30 @@ public class ToolImpl implements Tool {
     public void setHolidayCharge(final boolean holidayCharge) {
         this.holidayCharge = holidayCharge;
     }
+    /**
+     * @return the most charged for each 7 rental days, or null if there is no weekly cap
+     */
+    @Override
+    public BigDecimal getWeeklyChargeCap() {
+        return weeklyChargeCap;
+    }
+    /**
+     * @param weeklyChargeCap the weeklyChargeCap to set. May be null.
+     */
+    public void setWeeklyChargeCap(final BigDecimal weeklyChargeCap) {
+        this.weeklyChargeCap = weeklyChargeCap;
+    }
+    /**
+     * @return the most charged for each 30 rental days, or null if there is no monthly cap
+     */
+    @Override
+    public BigDecimal getMonthlyChargeCap() {
+        return monthlyChargeCap;
+    }
+    /**
+     * @param monthlyChargeCap the monthlyChargeCap to set. May be null.
+     */
+    public void setMonthlyChargeCap(final BigDecimal monthlyChargeCap) {
+        this.monthlyChargeCap = monthlyChargeCap;
+    }
 }
@@ -4,6 +4,7 @@
 package io.github.joelluellwitz.jl0724.internal.service.impl;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -34,8 +35,19 @@ public interface ToolMapper {
     @Mapping(source = "toolType.weekdayCharge", target = "weekdayCharge")
     @Mapping(source = "toolType.weekendCharge", target = "weekendCharge")
     @Mapping(source = "toolType.holidayCharge", target = "holidayCharge")
+    @Mapping(source = "toolType.weeklyChargeCap", target = "weeklyChargeCap")
+    @Mapping(source = "toolType.monthlyChargeCap", target = "monthlyChargeCap")
     ToolImpl toolDtoToTool(ToolDto toolDto);
 
+    /**
+     * Copies a business tier tool, so that its charges can be changed without affecting the original (for example, a
+     *   tool shared through the tool catalog cache).
+     *
+     * @param tool A business logic tier representation of a tool.
+     * @return A copy of the tool.
+     */
+    ToolImpl copyTool(Tool tool);
+
     /**
      * Converts data tier {@link io.github.joelluellwitz.jl0724.internal.data.api.ToolDto ToolDtos} to business tier
      *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.ToolImpl ToolImpls}.
@@ -44,4 +56,14 @@ public interface ToolMapper {
      * @return A List of business logic tier representations of a tool.
      */
     List<Tool> toolDtosToTools(List<ToolDto> toolDtos);
+
+    /**
+     * Lazily converts a Stream of data tier {@link io.github.joelluellwitz.jl0724.internal.data.api.ToolDto ToolDtos}
+     *   to business tier {@link io.github.joelluellwitz.jl0724.internal.service.impl.ToolImpl ToolImpls}. Each tool is
+     *   converted only when the returned Stream reaches it.
+     *
+     * @param toolDtos A Stream of data tier representations of a tool.
+     * @return A Stream of business logic tier representations of a tool.
+     */
+    Stream<Tool> toolDtosToTools(Stream<ToolDto> toolDtos);
 }
\ No newline at end of file
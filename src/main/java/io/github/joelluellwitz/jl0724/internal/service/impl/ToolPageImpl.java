@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.List;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.Tool;
+import io.github.joelluellwitz.jl0724.exposed.service.api.ToolPage;
+
+/**
+ * Business logic tier representation of one page of tools. This class is immutable.
+ */
+public class ToolPageImpl implements ToolPage {
+    private final List<Tool> tools;
+    private final String nextPageToolCode;
+
+    private String renderedToolPage;
+
+    /**
+     * Constructs an immutable ToolPageImpl.
+     *
+     * @param tools The tools on this page, sorted by Tool Code.
+     * @param nextPageToolCode The last Tool Code on this page, or null if this is the last page.
+     */
+    // Intentionally package private.
+    ToolPageImpl(final List<Tool> tools, final String nextPageToolCode) {
+        this.tools = List.copyOf(tools);
+        this.nextPageToolCode = nextPageToolCode;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Tool> getTools() {
+        return tools;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNextPageToolCode() {
+        return nextPageToolCode;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        if (renderedToolPage == null) {
+            renderedToolPage = ToolCatalog.renderTextTable(tools);
+        }
+
+        return renderedToolPage;
+    }
+}
@@ -0,0 +1,274 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.Tool;
+
+/**
+ * An immutable, in-memory search index over Tool Codes, Tool Types, and brands. Supports exact, prefix, and
+ *   approximate (edit distance) matching without accessing the database.<p>
+ *
+ * Two prefix tries are maintained: one for Tool Codes and one for the words of the Tool Types and brands. Keeping
+ *   Tool Codes in their own trie lets Tool Code matches rank ahead of description matches without sorting the whole
+ *   result set. Approximate matching walks a trie while computing one row of the Levenshtein distance matrix per trie
+ *   node, so the cost is proportional to the number of trie nodes within the distance bound rather than the number of
+ *   tools.<p>
+ *
+ * Matching is case insensitive. Results are ranked as follows:
+ * <ol>
+ *   <li>Exact Tool Code match.</li>
+ *   <li>Tool Code prefix match.</li>
+ *   <li>Tool Type or brand prefix match.</li>
+ *   <li>Approximate Tool Code, Tool Type, or brand match, closest first.</li>
+ * </ol>
+ * Prefix matches are ordered by the matched term and approximate matches of equal distance are ordered by Tool Code.
+ *   A tool appears at most once, at its best rank.
+ */
+public class ToolSearchIndex {
+    private final List<Tool> tools;
+    private final Map<String, Integer> toolIndexesByCode;
+    private final TrieNode codeTrie = new TrieNode();
+    private final TrieNode descriptionTrie = new TrieNode();
+
+    /**
+     * Builds the search index.
+     *
+     * @param tools The tools to index, sorted by Tool Code. The List must not be modified after it is supplied.
+     */
+    // Intentionally package private.
+    ToolSearchIndex(final List<Tool> tools) {
+        this.tools = tools;
+        toolIndexesByCode = new HashMap<>(tools.size() * 2);
+
+        for (int toolIndex = 0; toolIndex < tools.size(); toolIndex++) {
+            final Tool tool = tools.get(toolIndex);
+            final String normalizedCode = normalize(tool.getCode());
+            toolIndexesByCode.putIfAbsent(normalizedCode, toolIndex);
+            codeTrie.insert(normalizedCode, toolIndex);
+
+            for (final String description : new String[] { tool.getType(), tool.getBrand() }) {
+                final String normalizedDescription = normalize(description);
+                descriptionTrie.insert(normalizedDescription, toolIndex);
+                // Also index the individual words of multi-word descriptions (e.g., "Little Giant").
+                for (final String word : normalizedDescription.split("\\s+")) {
+                    if (!word.isEmpty() && !word.equals(normalizedDescription)) {
+                        descriptionTrie.insert(word, toolIndex);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Searches for tools matching the supplied query.
+     *
+     * @param query The user supplied search text. Leading and trailing whitespace is ignored.
+     * @param limit The maximum number of tools to return.
+     * @return The matching tools, best match first.
+     */
+    public List<Tool> search(final String query, final int limit) {
+        final String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        // Keys are tool indexes. Insertion order is rank order.
+        final Map<Integer, Boolean> matches = new LinkedHashMap<>();
+
+        final Integer exactToolIndex = toolIndexesByCode.get(normalizedQuery);
+        if (exactToolIndex != null) {
+            matches.put(exactToolIndex, Boolean.TRUE);
+        }
+
+        addPrefixMatches(codeTrie, normalizedQuery, matches, limit);
+        addPrefixMatches(descriptionTrie, normalizedQuery, matches, limit);
+
+        if (matches.size() < limit) {
+            final int maxDistance = getMaxDistance(normalizedQuery);
+            if (maxDistance > 0) {
+                // Keys are tool indexes and values are the smallest distance found for that tool.
+                final Map<Integer, Integer> approximateMatches = new HashMap<>();
+                final int[] firstRow = new int[normalizedQuery.length() + 1];
+                for (int column = 0; column < firstRow.length; column++) {
+                    firstRow[column] = column;
+                }
+                codeTrie.addApproximateMatches(normalizedQuery, firstRow, maxDistance, approximateMatches);
+                descriptionTrie.addApproximateMatches(normalizedQuery, firstRow, maxDistance, approximateMatches);
+
+                approximateMatches.entrySet().stream()
+                        .sorted(Map.Entry.<Integer, Integer>comparingByValue()
+                                .thenComparing(Map.Entry.comparingByKey()))
+                        .forEachOrdered(entry -> {
+                            if (matches.size() < limit) {
+                                matches.putIfAbsent(entry.getKey(), Boolean.TRUE);
+                            }
+                        });
+            }
+        }
+
+        final List<Tool> results = new ArrayList<>(Math.min(limit, matches.size()));
+        for (final Integer toolIndex : matches.keySet()) {
+            if (results.size() == limit) {
+                break;
+            }
+            results.add(tools.get(toolIndex));
+        }
+
+        return results;
+    }
+
+    /**
+     * Adds tools with a term starting with the prefix, in term order, until the limit is reached.
+     *
+     * @param trie The trie to search.
+     * @param prefix The normalized prefix.
+     * @param matches The matches found so far. Updated in place.
+     * @param limit The maximum number of matches.
+     */
+    private void addPrefixMatches(final TrieNode trie, final String prefix, final Map<Integer, Boolean> matches,
+            final int limit) {
+        final TrieNode prefixNode = trie.find(prefix);
+        if (prefixNode != null) {
+            prefixNode.addToolIndexes(matches, limit);
+        }
+    }
+
+    /**
+     * Returns the maximum edit distance tolerated for the supplied query. Short queries tolerate fewer typos, since
+     *   otherwise nearly every short term would match.
+     *
+     * @param normalizedQuery The normalized query.
+     * @return The maximum edit distance.
+     */
+    private static int getMaxDistance(final String normalizedQuery) {
+        final int maxDistance;
+        if (normalizedQuery.length() <= 2) {
+            maxDistance = 0;
+        }
+        else if (normalizedQuery.length() <= 5) {
+            maxDistance = 1;
+        }
+        else {
+            maxDistance = 2;
+        }
+
+        return maxDistance;
+    }
+
+    /**
+     * Normalizes a term or query for case insensitive matching.
+     *
+     * @param value The value to normalize.
+     * @return The normalized value.
+     */
+    private static String normalize(final String value) {
+        return value.strip().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * A node in a prefix trie. Children are kept in a {@link java.util.TreeMap TreeMap} so that traversal is in
+     *   character order.
+     */
+    private static class TrieNode {
+        private final Map<Character, TrieNode> children = new TreeMap<>();
+        private final List<Integer> toolIndexes = new ArrayList<>(1);
+
+        /**
+         * Inserts a term into the trie.
+         *
+         * @param term The normalized term.
+         * @param toolIndex The index of the tool the term belongs to.
+         */
+        private void insert(final String term, final int toolIndex) {
+            TrieNode node = this;
+            for (int charIndex = 0; charIndex < term.length(); charIndex++) {
+                node = node.children.computeIfAbsent(term.charAt(charIndex), character -> new TrieNode());
+            }
+            if (node.toolIndexes.isEmpty() || node.toolIndexes.get(node.toolIndexes.size() - 1) != toolIndex) {
+                node.toolIndexes.add(toolIndex);
+            }
+        }
+
+        /**
+         * Finds the node for the supplied prefix.
+         *
+         * @param prefix The normalized prefix.
+         * @return The node, or null if no term starts with the prefix.
+         */
+        private TrieNode find(final String prefix) {
+            TrieNode node = this;
+            for (int charIndex = 0; node != null && charIndex < prefix.length(); charIndex++) {
+                node = node.children.get(prefix.charAt(charIndex));
+            }
+
+            return node;
+        }
+
+        /**
+         * Adds the tool indexes of this node and its descendants, in term order, until the limit is reached. The
+         *   traversal stops as soon as the limit is reached, so a short prefix does not visit the entire trie.
+         *
+         * @param matches The matches found so far. Updated in place.
+         * @param limit The maximum number of matches.
+         */
+        private void addToolIndexes(final Map<Integer, Boolean> matches, final int limit) {
+            for (final Integer toolIndex : toolIndexes) {
+                if (matches.size() >= limit) {
+                    return;
+                }
+                matches.putIfAbsent(toolIndex, Boolean.TRUE);
+            }
+            for (final TrieNode child : children.values()) {
+                if (matches.size() >= limit) {
+                    return;
+                }
+                child.addToolIndexes(matches, limit);
+            }
+        }
+
+        /**
+         * Finds terms within the maximum edit distance of the query in the subtree below this node.
+         *
+         * @param query The normalized query.
+         * @param previousRow The Levenshtein matrix row for this node.
+         * @param maxDistance The maximum edit distance.
+         * @param approximateMatches The smallest distance found per tool index. Updated in place.
+         */
+        private void addApproximateMatches(final String query, final int[] previousRow, final int maxDistance,
+                final Map<Integer, Integer> approximateMatches) {
+            for (final Map.Entry<Character, TrieNode> childEntry : children.entrySet()) {
+                final char character = childEntry.getKey();
+                final int[] row = new int[previousRow.length];
+                row[0] = previousRow[0] + 1;
+                int rowMinimum = row[0];
+                for (int column = 1; column < row.length; column++) {
+                    final int substitutionCost = query.charAt(column - 1) == character ? 0 : 1;
+                    row[column] = Math.min(Math.min(row[column - 1] + 1, previousRow[column] + 1),
+                            previousRow[column - 1] + substitutionCost);
+                    rowMinimum = Math.min(rowMinimum, row[column]);
+                }
+
+                final TrieNode child = childEntry.getValue();
+                final int distance = row[row.length - 1];
+                if (distance <= maxDistance) {
+                    for (final Integer toolIndex : child.toolIndexes) {
+                        approximateMatches.merge(toolIndex, distance, Math::min);
+                    }
+                }
+                // No descendant can be closer than the smallest value in this row.
+                if (rowMinimum <= maxDistance) {
+                    child.addApproximateMatches(query, row, maxDistance, approximateMatches);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.ToolTypePriceDto;
+
+/**
+ * The business tier representation of a scheduled price of a tool type. This record is immutable.
+ *
+ * @param effectiveDate The first checkout date the price applies to.
+ * @param dailyCharge The daily rental charge.
+ * @param weekdayCharge true if weekdays are charged.
+ * @param weekendCharge true if weekend days are charged.
+ * @param holidayCharge true if holidays are charged.
+ */
+public record ToolTypePrice(LocalDate effectiveDate, BigDecimal dailyCharge, boolean weekdayCharge,
+        boolean weekendCharge, boolean holidayCharge) {
+
+    /**
+     * Creates a scheduled price from its data tier representation.
+     *
+     * @param toolTypePriceDto The data tier scheduled price.
+     * @return The scheduled price.
+     */
+    // Intentionally package private.
+    static ToolTypePrice fromToolTypePriceDto(final ToolTypePriceDto toolTypePriceDto) {
+        return new ToolTypePrice(toolTypePriceDto.getEffectiveDate(), toolTypePriceDto.getDailyCharge(),
+                toolTypePriceDto.getWeekdayCharge(), toolTypePriceDto.getWeekendCharge(),
+                toolTypePriceDto.getHolidayCharge());
+    }
+
+    /**
+     * Replaces the charges of a tool with this price.
+     *
+     * @param tool The tool, usually freshly mapped for a checkout.
+     */
+    // Intentionally package private.
+    void applyTo(final ToolImpl tool) {
+        tool.setDailyCharge(dailyCharge);
+        tool.setWeekdayCharge(weekdayCharge);
+        tool.setWeekendCharge(weekendCharge);
+        tool.setHolidayCharge(holidayCharge);
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.ToolTypePriceDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.ToolTypePriceRepo;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * An in-memory index of the scheduled prices of every tool type, so that checkout finds the price in effect on the
+ *   checkout date in O(log n) without querying the database.<p>
+ *
+ * Each tool type's scheduled prices are kept in a {@link java.util.NavigableMap NavigableMap} keyed by effective
+ *   date, and the price of a checkout is the entry with the greatest effective date on or before the checkout date.
+ *   A checkout before a tool type's first scheduled price, or of a tool type with no scheduled prices, keeps the
+ *   charges on the tool type itself.<p>
+ *
+ * The index is loaded on first use and reloaded in the background every
+ *   'jl0724.tool-type-price.refresh-interval-millis' milliseconds (10 seconds by default), so a price scheduled in
+ *   the database is picked up without a restart and takes effect on its effective date.<p>
+ *
+ * Note: Each reload builds a new set of maps and publishes it through a single volatile write. Lookups never lock and
+ *   always see one complete schedule.
+ */
+@Component
+public class ToolTypePriceIndex {
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static Logger LOGGER = LoggerFactory.getLogger(ToolTypePriceIndex.class);
+
+    private final ToolTypePriceRepo toolTypePriceRepo;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ScheduledExecutorService scheduledExecutorService;
+
+    // Maps a Tool Type to its scheduled prices by effective date. Never modified once published.
+    private volatile Map<String, NavigableMap<LocalDate, ToolTypePrice>> toolTypePrices;
+
+    /**
+     * Constructor. Schedules the background reload.
+     *
+     * @param toolTypePriceRepo JPA Repository for
+     *   {@link io.github.joelluellwitz.jl0724.internal.data.api.ToolTypePriceDto ToolTypePriceDto}.
+     * @param platformTransactionManager Used to reload the index in the background.
+     * @param refreshIntervalMillis The time between reloads, in milliseconds.
+     */
+    // Intentionally package private.
+    ToolTypePriceIndex(final ToolTypePriceRepo toolTypePriceRepo,
+            final PlatformTransactionManager platformTransactionManager,
+            @Value("${jl0724.tool-type-price.refresh-interval-millis:10000}") final long refreshIntervalMillis) {
+        if (refreshIntervalMillis < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The tool type price refresh interval must be greater than 0. You specified: %d",
+                    refreshIntervalMillis));
+        }
+
+        this.toolTypePriceRepo = toolTypePriceRepo;
+        readOnlyTransactionTemplate = new TransactionTemplate(platformTransactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "tool-type-price-refresher");
+            // Note: Daemon so that a slow reload can never keep the JVM alive.
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutorService.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMillis,
+                refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replaces the charges of a tool with the price of its tool type in effect on a checkout date, if a scheduled
+     *   price applies. Loads the index within the caller's transaction on first use.
+     *
+     * @param tool The tool, freshly mapped from the database, so it carries the tool type's own charges.
+     * @param checkoutDate The checkout date.
+     */
+    public void applyPrice(final ToolImpl tool, final LocalDate checkoutDate) {
+        Map<String, NavigableMap<LocalDate, ToolTypePrice>> currentToolTypePrices = toolTypePrices;
+        if (currentToolTypePrices == null) {
+            currentToolTypePrices = load();
+        }
+
+        final NavigableMap<LocalDate, ToolTypePrice> scheduledPrices = currentToolTypePrices.get(tool.getType());
+        if (scheduledPrices != null) {
+            final Map.Entry<LocalDate, ToolTypePrice> priceEntry = scheduledPrices.floorEntry(checkoutDate);
+            if (priceEntry != null) {
+                priceEntry.getValue().applyTo(tool);
+            }
+        }
+    }
+
+    /**
+     * Reloads the index from the database now, rather than waiting for the next background reload.
+     */
+    public void refresh() {
+        readOnlyTransactionTemplate.executeWithoutResult(status -> load());
+    }
+
+    /**
+     * Stops the background reload, waiting a bounded time for a reload in progress to finish.
+     */
+    @PreDestroy
+    public void close() {
+        scheduledExecutorService.shutdown();
+        try {
+            if (!scheduledExecutorService.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("The tool type price refresher did not finish within {} ms.", SHUTDOWN_TIMEOUT_MILLIS);
+            }
+        }
+        catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs {@link #refresh()}, logging rather than throwing any failure so that later reloads are still scheduled. The
+     *   previous index stays in use until a reload succeeds.
+     */
+    private void refreshQuietly() {
+        try {
+            refresh();
+        }
+        catch (final RuntimeException exception) {
+            LOGGER.error("Failed to reload the tool type prices.", exception);
+        }
+    }
+
+    /**
+     * Reads every scheduled price and publishes a new index. Must be called within a transaction.
+     *
+     * @return The new index.
+     */
+    private Map<String, NavigableMap<LocalDate, ToolTypePrice>> load() {
+        final List<ToolTypePriceDto> toolTypePriceDtos = toolTypePriceRepo.listToolTypePrices();
+
+        final Map<String, NavigableMap<LocalDate, ToolTypePrice>> loadedToolTypePrices = new HashMap<>();
+        for (final ToolTypePriceDto toolTypePriceDto : toolTypePriceDtos) {
+            loadedToolTypePrices.computeIfAbsent(toolTypePriceDto.getToolType().getName(), key -> new TreeMap<>())
+                    .put(toolTypePriceDto.getEffectiveDate(), ToolTypePrice.fromToolTypePriceDto(toolTypePriceDto));
+        }
+
+        toolTypePrices = loadedToolTypePrices;
+        LOGGER.debug("Loaded {} scheduled prices for {} tool types.", toolTypePriceDtos.size(),
+                loadedToolTypePrices.size());
+        return loadedToolTypePrices;
+    }
+}
@@ -69,8 +69,8 @@ public class RetailConsoleTests {
     }
 
     /**
-     * Tests printing the tool list. The tool list is printed twice to get unit test code coverage for printing the
-     *   saved table data.
+     * Tests printing the tool list. The tool list is printed twice to verify it can be requested repeatedly. The tool
+     *   list fits on one page, so no next page prompt is displayed.
      *
      * @throws IOException Thrown if an error occurs with the streams used for input or output.
      * @throws InterruptedException Thrown if thread joining times out.
@@ -94,7 +94,7 @@ public class RetailConsoleTests {
             assertStandardOutputEquals(inputSreamForStandardOutput, toolListAndMainPrompt);
             outputStreamForStandardInput.write("p\n".getBytes());
 
-            // The table is printed again so that we get unit test coverage on the saved table data.
+            // The table is printed again to verify it can be requested repeatedly.
             assertStandardOutputEquals(inputSreamForStandardOutput, toolListAndMainPrompt);
             outputStreamForStandardInput.write("q\n".getBytes());
         });
@@ -171,6 +171,13 @@ public class RetailConsoleTests {
             assertStandardOutputEquals(inputSreamForStandardOutput, toolCodePrompt);
             outputStreamForStandardInput.write("INVD\n".getBytes());
 
+            assertStandardOutputEquals(inputSreamForStandardOutput, "Unrecognized tool code: INVD\n" + toolCodePrompt);
+            outputStreamForStandardInput.write("JAKE\n".getBytes());
+
+            assertStandardOutputEquals(inputSreamForStandardOutput,
+                    "Unrecognized tool code: JAKE. Did you mean: JAKD, JAKR?\n" + toolCodePrompt);
+            outputStreamForStandardInput.write("JAKD\n".getBytes());
+
             assertStandardOutputEquals(inputSreamForStandardOutput, "Enter the checkout date (MM/DD/YY): ");
             outputStreamForStandardInput.write("02/30/24\n".getBytes());
 
@@ -194,10 +201,10 @@ public class RetailConsoleTests {
             final String errorAndDiscountPrompt = "Value a is not an integer.\n"
                     + "Enter the discount percentage as an integer (0-100): ";
             assertStandardOutputEquals(inputSreamForStandardOutput, errorAndDiscountPrompt);
-            outputStreamForStandardInput.write("25\n".getBytes());
+            outputStreamForStandardInput.write("101\n".getBytes());
 
-            final String backendValidationErrorAndMainPrompt =
-                    "An error occurred during checkout: Unrecognized tool code. You specified: INVD\n"
+            final String backendValidationErrorAndMainPrompt = "An error occurred during checkout: Discount percentage "
+                    + "must be between 0 and 100 (inclusive). You specified: 101\n"
                     + "Type 'p' to print a list of tools, 'c' to checkout, and 'q' to quit: ";
             assertStandardOutputEquals(inputSreamForStandardOutput, backendValidationErrorAndMainPrompt);
             outputStreamForStandardInput.write("q\n".getBytes());
@@ -0,0 +1,25 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.data.api.CatalogValueDictionary CatalogValueDictionary}.
+ */
+public class CatalogValueDictionaryTests {
+    /**
+     * Verifies equal values read separately are canonicalized to the same instance and null is passed through.
+     */
+    @Test
+    public void canonicalizeReturnsSharedInstance() {
+        final String toolBrand = CatalogValueDictionary.canonicalize(new String("Werner"));
+
+        assertThat(CatalogValueDictionary.canonicalize(new String("Werner"))).isSameAs(toolBrand);
+        assertThat(new CatalogValueConverter().convertToEntityAttribute(new String("Werner"))).isSameAs(toolBrand);
+        assertThat(CatalogValueDictionary.canonicalize(null)).isNull();
+    }
+}
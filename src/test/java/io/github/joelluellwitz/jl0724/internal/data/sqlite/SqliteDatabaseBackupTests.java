@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.sqlite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.data.sqlite.SqliteDatabaseBackup SqliteDatabaseBackup}.
+ */
+public class SqliteDatabaseBackupTests {
+    private static final int INITIAL_ROW_COUNT = 2000;
+
+    @TempDir
+    private Path dataDirectory;
+
+    private Path databasePath;
+
+    /**
+     * Creates a default database with enough rows to span many pages.
+     *
+     * @throws SQLException If the database cannot be created.
+     */
+    @BeforeEach
+    public void createDatabase() throws SQLException {
+        databasePath = dataDirectory.resolve("pointOfSale.sqlite3");
+        try (Connection connection = openDatabase(databasePath);
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE rental_agreement (id INTEGER PRIMARY KEY, tool_code VARCHAR(255))");
+            statement.execute(String.format("WITH RECURSIVE sequence(id) AS (SELECT 1 UNION ALL SELECT id + 1 FROM "
+                    + "sequence WHERE id < %d) INSERT INTO rental_agreement SELECT id, printf('%%0200d', id) FROM "
+                    + "sequence", INITIAL_ROW_COUNT));
+        }
+    }
+
+    /**
+     * Verifies a backup holds every row of the database.
+     *
+     * @throws SQLException If the backup cannot be read.
+     */
+    @Test
+    public void backUpCopiesDatabase() throws SQLException {
+        final SqliteDatabaseBackup databaseBackup = createDatabaseBackup(Instant.parse("2015-09-03T10:15:30Z"), 7);
+
+        final Path backupPath = databaseBackup.backUp();
+
+        assertThat(backupPath.getFileName().toString()).isEqualTo("pointOfSale-20150903T101530000Z.sqlite3");
+        assertThat(databaseBackup.listBackups()).containsExactly(backupPath);
+        assertThat(countRentalAgreements(backupPath)).isEqualTo(INITIAL_ROW_COUNT);
+    }
+
+    /**
+     * Verifies only the newest backups are kept.
+     */
+    @Test
+    public void backUpRemovesOldestBackups() {
+        final Path firstBackupPath = createDatabaseBackup(Instant.parse("2015-09-03T10:15:30Z"), 2).backUp();
+        final Path secondBackupPath = createDatabaseBackup(Instant.parse("2015-09-04T10:15:30Z"), 2).backUp();
+        final SqliteDatabaseBackup databaseBackup = createDatabaseBackup(Instant.parse("2015-09-05T10:15:30Z"), 2);
+        final Path thirdBackupPath = databaseBackup.backUp();
+
+        assertThat(databaseBackup.listBackups()).containsExactly(secondBackupPath, thirdBackupPath);
+        assertThat(Files.exists(firstBackupPath)).isFalse();
+    }
+
+    /**
+     * Verifies a backup completes and is sound while another connection keeps writing to the database.
+     *
+     * @throws Exception If the writing thread or the backup cannot read the database.
+     */
+    @Test
+    public void backUpSucceedsWhileWriting() throws Exception {
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Integer> insertCountFuture = executorService.submit(() -> {
+                int insertCount = 0;
+                try (Connection connection = openDatabase(databasePath);
+                        PreparedStatement statement = connection.prepareStatement(
+                                "INSERT INTO rental_agreement (tool_code) VALUES ('LADW')")) {
+                    while (writing.get()) {
+                        statement.executeUpdate();
+                        insertCount++;
+                    }
+                }
+                return insertCount;
+            });
+
+            final Path backupPath = new SqliteDatabaseBackup(databasePath, dataDirectory.resolve("backup"), 1, 1, 7,
+                    Clock.systemUTC()).backUp();
+            writing.set(false);
+
+            assertThat(countRentalAgreements(backupPath)).isBetween(INITIAL_ROW_COUNT,
+                    INITIAL_ROW_COUNT + insertCountFuture.get());
+        }
+        finally {
+            writing.set(false);
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * @param instant The time the backup is taken.
+     * @param retainCount The number of backups to keep.
+     * @return A SqliteDatabaseBackup writing to the 'backup' directory.
+     */
+    private SqliteDatabaseBackup createDatabaseBackup(final Instant instant, final int retainCount) {
+        return new SqliteDatabaseBackup(databasePath, dataDirectory.resolve("backup"), 100, 0, retainCount,
+                Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    /**
+     * @param path A database file.
+     * @return A new connection to the database.
+     * @throws SQLException If the database cannot be opened.
+     */
+    private static Connection openDatabase(final Path path) throws SQLException {
+        return DriverManager.getConnection(StoreRoutingDataSource.SQLITE_URL_PREFIX + path);
+    }
+
+    /**
+     * @param path A database file.
+     * @return The number of rows in its rental_agreement table.
+     * @throws SQLException If the database cannot be read.
+     */
+    private static int countRentalAgreements(final Path path) throws SQLException {
+        try (Connection connection = openDatabase(path);
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM rental_agreement")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.sqlite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementChargeDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalPeriodDto;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.data.sqlite.SqliteRentalAgreementArchive
+ *   SqliteRentalAgreementArchive}.
+ */
+public class SqliteRentalAgreementArchiveTests {
+    private static final YearMonth ARCHIVE_MONTH = YearMonth.of(2015, 9);
+
+    @TempDir
+    private Path dataDirectory;
+
+    private HikariDataSource dataSource;
+    private SqliteRentalAgreementArchive rentalAgreementArchive;
+
+    /**
+     * Creates a default database with two tools and three rental agreements.
+     *
+     * @throws SQLException If the database cannot be created.
+     */
+    @BeforeEach
+    public void createDatabase() throws SQLException {
+        final String jdbcUrl = "jdbc:sqlite:" + dataDirectory.resolve("pointOfSale.sqlite3");
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(jdbcUrl);
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE tool (id INTEGER PRIMARY KEY, code VARCHAR(255))");
+            statement.execute("INSERT INTO tool (id, code) VALUES (1, 'JAKR'), (2, 'LADW')");
+            statement.execute("CREATE TABLE rental_agreement (id INTEGER PRIMARY KEY, tool_id INTEGER, "
+                    + "tool_code VARCHAR(255) NOT NULL, checkout_date DATE NOT NULL, due_date DATE NOT NULL, "
+                    + "rental_day_count INTEGER NOT NULL, discount_percent INTEGER NOT NULL, "
+                    + "final_charge NUMERIC(38,2) NOT NULL, store_id VARCHAR(255), "
+                    + "FOREIGN KEY (tool_id) REFERENCES tool)");
+        }
+        insertRentalAgreement(1, 1, "JAKR", LocalDate.of(2015, 9, 3), 5, "5.98");
+        insertRentalAgreement(2, 2, "LADW", LocalDate.of(2015, 9, 1), 3, "3.98");
+        insertRentalAgreement(3, 1, "JAKR", LocalDate.of(2020, 7, 2), 4, "2.99");
+
+        rentalAgreementArchive = new SqliteRentalAgreementArchive(dataSource, jdbcUrl, dataDirectory.toString(),
+                "archive");
+    }
+
+    /**
+     * Closes the default database.
+     */
+    @AfterEach
+    public void closeDatabase() {
+        dataSource.close();
+    }
+
+    /**
+     * Verifies archived rental agreements are removed from the rental_agreement table and read back unchanged from
+     *   the archive, with charges sorted by ID.
+     *
+     * @throws SQLException If the default database cannot be read.
+     */
+    @Test
+    public void archiveRentalAgreementsMovesRentalAgreements() throws SQLException {
+        assertThat(rentalAgreementArchive.archiveRentalAgreements(ARCHIVE_MONTH, List.of(2, 1, 99))).isEqualTo(2);
+
+        assertThat(rentalAgreementArchive.listArchiveMonths()).containsExactly(ARCHIVE_MONTH);
+        assertThat(countRentalAgreements()).isEqualTo(1);
+        try (Stream<RentalPeriodDto> rentalPeriodDtos = rentalAgreementArchive.streamRentalPeriods(ARCHIVE_MONTH)) {
+            assertThat(rentalPeriodDtos.toList()).containsExactlyInAnyOrder(
+                    new RentalPeriodDto(1, "JAKR", LocalDate.of(2015, 9, 3), LocalDate.of(2015, 9, 8), null),
+                    new RentalPeriodDto(2, "LADW", LocalDate.of(2015, 9, 1), LocalDate.of(2015, 9, 4), null));
+        }
+        try (Stream<RentalAgreementChargeDto> rentalAgreementChargeDtos =
+                rentalAgreementArchive.streamRentalAgreementCharges(ARCHIVE_MONTH)) {
+            assertThat(rentalAgreementChargeDtos.toList())
+                    .extracting("rentalAgreementId", "toolCode", "checkoutDate", "rentalDayCount")
+                    .containsExactly(tuple(1, "JAKR", LocalDate.of(2015, 9, 3), 5),
+                            tuple(2, "LADW", LocalDate.of(2015, 9, 1), 3));
+        }
+    }
+
+    /**
+     * Verifies a column added to the rental_agreement table after an archive was created is added to the archive
+     *   before more rental agreements are moved into it.
+     *
+     * @throws SQLException If the default database cannot be altered.
+     */
+    @Test
+    public void archiveRentalAgreementsAddsNewColumns() throws SQLException {
+        rentalAgreementArchive.archiveRentalAgreements(ARCHIVE_MONTH, List.of(1));
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE rental_agreement ADD COLUMN request_id VARCHAR(255)");
+        }
+
+        assertThat(rentalAgreementArchive.archiveRentalAgreements(ARCHIVE_MONTH, List.of(2))).isEqualTo(1);
+
+        try (Stream<RentalAgreementChargeDto> rentalAgreementChargeDtos =
+                rentalAgreementArchive.streamRentalAgreementCharges(ARCHIVE_MONTH)) {
+            assertThat(rentalAgreementChargeDtos.map(rentalAgreementChargeDto ->
+                    rentalAgreementChargeDto.finalCharge().toPlainString()).toList()).containsExactly("5.98", "3.98");
+        }
+    }
+
+    /**
+     * Inserts a rental agreement the way Hibernate binds its values.
+     *
+     * @param id The rental agreement ID.
+     * @param toolId The tool ID.
+     * @param toolCode The Tool Code.
+     * @param checkoutDate The checkout date.
+     * @param rentalDayCount The number of rental days.
+     * @param finalCharge The final charge.
+     * @throws SQLException If the rental agreement cannot be inserted.
+     */
+    private void insertRentalAgreement(final int id, final int toolId, final String toolCode,
+            final LocalDate checkoutDate, final int rentalDayCount, final String finalCharge) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO rental_agreement "
+                        + "(id, tool_id, tool_code, checkout_date, due_date, rental_day_count, discount_percent, "
+                        + "final_charge) VALUES (?, ?, ?, ?, ?, ?, 0, ?)")) {
+            preparedStatement.setInt(1, id);
+            preparedStatement.setInt(2, toolId);
+            preparedStatement.setString(3, toolCode);
+            preparedStatement.setDate(4, Date.valueOf(checkoutDate));
+            preparedStatement.setDate(5, Date.valueOf(checkoutDate.plusDays(rentalDayCount)));
+            preparedStatement.setInt(6, rentalDayCount);
+            preparedStatement.setBigDecimal(7, new BigDecimal(finalCharge));
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * @return The number of rows in the rental_agreement table.
+     * @throws SQLException If the table cannot be read.
+     */
+    private int countRentalAgreements() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM rental_agreement")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.data.sqlite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.StoreContext;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.data.sqlite.StoreRoutingDataSource StoreRoutingDataSource}.
+ */
+public class StoreRoutingDataSourceTests {
+    @TempDir
+    private Path dataDirectory;
+
+    /**
+     * Verifies a store's rental agreements are written to the store's own database, which can still read the shared
+     *   catalog but cannot modify it.
+     *
+     * @throws SQLException If a database operation fails unexpectedly.
+     */
+    @Test
+    public void getConnectionRoutesToStoreDatabase() throws SQLException {
+        final HikariDataSource defaultDataSource = new HikariDataSource();
+        defaultDataSource.setJdbcUrl("jdbc:sqlite:" + dataDirectory.resolve("pointOfSale.sqlite3"));
+        try (Connection connection = defaultDataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE tool (id INTEGER PRIMARY KEY, code VARCHAR(255))");
+            statement.execute("INSERT INTO tool (code) VALUES ('JAKR')");
+            statement.execute("CREATE TABLE rental_agreement (id INTEGER PRIMARY KEY AUTOINCREMENT, tool_id INTEGER, "
+                    + "request_id VARCHAR(255) UNIQUE, store_id VARCHAR(255))");
+        }
+
+        try (StoreRoutingDataSource storeRoutingDataSource = new StoreRoutingDataSource(defaultDataSource,
+                dataDirectory.resolve("stores"))) {
+            final DataSource dataSource = new LazyConnectionDataSourceProxy(storeRoutingDataSource);
+
+            StoreContext.setStoreId("east");
+            try (Connection connection = dataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO rental_agreement (tool_id, store_id) SELECT id, 'east' FROM tool");
+                assertThat(count(statement, "SELECT COUNT(*) FROM rental_agreement rentalAgreement "
+                        + "INNER JOIN tool tool ON tool.id = rentalAgreement.tool_id")).isEqualTo(1);
+                assertThatThrownBy(() -> {
+                    statement.execute("INSERT INTO tool (code) VALUES ('CHNS')");
+                }).isInstanceOf(SQLException.class);
+            }
+            finally {
+                StoreContext.setStoreId(null);
+            }
+
+            try (Connection connection = dataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                assertThat(count(statement, "SELECT COUNT(*) FROM rental_agreement")).isZero();
+                assertThat(count(statement, "SELECT COUNT(*) FROM tool")).isEqualTo(1);
+            }
+        }
+
+        assertThat(Files.exists(dataDirectory.resolve("stores").resolve("store-east.sqlite3"))).isTrue();
+    }
+
+    /**
+     * Verifies a store database created before a column was added to the default database gains the column, and its
+     *   unique constraint, when it is opened.
+     *
+     * @throws IOException If the store directory cannot be created.
+     * @throws SQLException If a database operation fails unexpectedly.
+     */
+    @Test
+    public void getConnectionAddsMissingColumnsToStoreDatabase() throws IOException, SQLException {
+        final HikariDataSource defaultDataSource = new HikariDataSource();
+        defaultDataSource.setJdbcUrl("jdbc:sqlite:" + dataDirectory.resolve("pointOfSale.sqlite3"));
+        try (Connection connection = defaultDataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE rental_agreement (id INTEGER PRIMARY KEY AUTOINCREMENT, tool_id INTEGER, "
+                    + "request_id VARCHAR(255) UNIQUE, store_id VARCHAR(255))");
+            statement.execute("CREATE INDEX rental_agreement_tool_id ON rental_agreement (tool_id)");
+        }
+        final Path storeDirectory = Files.createDirectories(dataDirectory.resolve("stores"));
+        final HikariDataSource oldStoreDataSource = new HikariDataSource();
+        oldStoreDataSource.setJdbcUrl("jdbc:sqlite:" + storeDirectory.resolve("store-east.sqlite3"));
+        try (oldStoreDataSource;
+                Connection connection = oldStoreDataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE rental_agreement (id INTEGER PRIMARY KEY AUTOINCREMENT, tool_id INTEGER)");
+            statement.execute("INSERT INTO rental_agreement (tool_id) VALUES (1)");
+        }
+
+        try (StoreRoutingDataSource storeRoutingDataSource = new StoreRoutingDataSource(defaultDataSource,
+                storeDirectory)) {
+            StoreContext.setStoreId("east");
+            try (Connection connection = storeRoutingDataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO rental_agreement (tool_id, request_id, store_id) "
+                        + "VALUES (2, 'register-1-0001', 'east')");
+                assertThat(count(statement, "SELECT COUNT(*) FROM rental_agreement WHERE store_id = 'east'"))
+                        .isEqualTo(1);
+                assertThat(count(statement, "SELECT COUNT(*) FROM main.sqlite_master "
+                        + "WHERE name = 'rental_agreement_tool_id'")).isEqualTo(1);
+                assertThatThrownBy(() -> {
+                    statement.execute("INSERT INTO rental_agreement (tool_id, request_id) "
+                            + "VALUES (3, 'register-1-0001')");
+                }).isInstanceOf(SQLException.class);
+            }
+            finally {
+                StoreContext.setStoreId(null);
+            }
+        }
+    }
+
+    /**
+     * Verifies a store ID that is not safe to use in a file name is rejected.
+     */
+    @Test
+    public void setStoreIdFailsWithUnsafeStoreId() {
+        assertThatThrownBy(() -> {
+            StoreContext.setStoreId("../store");
+        }).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("A store ID must be 1 to 32 letters, digits, '-', or '_'. You specified: "
+                        + "../store");
+    }
+
+    /**
+     * @param statement A statement.
+     * @param sql A query returning a single count.
+     * @return The count.
+     * @throws SQLException If the query fails.
+     */
+    private static int count(final Statement statement, final String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -12,7 +12,14 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,12 +31,18 @@ import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import io.github.joelluellwitz.jl0724.TestConfiguration;
+import io.github.joelluellwitz.jl0724.exposed.service.api.CartAgreement;
+import io.github.joelluellwitz.jl0724.exposed.service.api.CartParameters;
 import io.github.joelluellwitz.jl0724.exposed.service.api.ContractParameters;
+import io.github.joelluellwitz.jl0724.exposed.service.api.DailyRevenue;
 import io.github.joelluellwitz.jl0724.exposed.service.api.RentalAgreement;
 import io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale;
 import io.github.joelluellwitz.jl0724.exposed.service.api.Tool;
+import io.github.joelluellwitz.jl0724.exposed.service.api.ToolPage;
 import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto;
 import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementRepo;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalOrderDto;
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalOrderRepo;
 import io.github.joelluellwitz.jl0724.internal.data.api.ToolDto;
 
 /**
@@ -41,23 +54,30 @@ import io.github.joelluellwitz.jl0724.internal.data.api.ToolDto;
 @DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
 @Sql("/io/github/joelluellwitz/jl0724/internal/data/api/ToolRepoTests.sql")
 public class AdditionalRetailPointOfSaleImplTests {
+    private final OutboxEventBus outboxEventBus;
     private final RentalAgreementRepo retailAgreementRepo;
+    private final RentalOrderRepo rentalOrderRepo;
     private final RetailPointOfSale retailPointOfSale;
 
     /**
      * Constructor.
      *
+     * @param outboxEventBus Used to verify an outbox event is relayed for every checkout.
      * @param retailAgreementRepo Used to verify a
      *   {@link io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto RentalAgreementDto} is saved to the
      *   database during checkout.
+     * @param rentalOrderRepo Used to verify a cart checkout saves its order.
      * @param retailPointOfSale A
      *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RetailPointOfSaleImpl RetailPointOfSaleImpl}
      *   instance to test.
      */
     @Autowired
-    public AdditionalRetailPointOfSaleImplTests(final RentalAgreementRepo retailAgreementRepo,
+    public AdditionalRetailPointOfSaleImplTests(final OutboxEventBus outboxEventBus,
+            final RentalAgreementRepo retailAgreementRepo, final RentalOrderRepo rentalOrderRepo,
             final RetailPointOfSale retailPointOfSale) {
+        this.outboxEventBus = outboxEventBus;
         this.retailAgreementRepo = retailAgreementRepo;
+        this.rentalOrderRepo = rentalOrderRepo;
         this.retailPointOfSale = retailPointOfSale;
     }
 
@@ -76,6 +96,74 @@ public class AdditionalRetailPointOfSaleImplTests {
                         tuple("LADW", "Ladder", "Werner", new BigDecimal("1.99"), true, true, false));
     }
 
+    /**
+     * Verifies the tool list can be paged through by Tool Code.
+     */
+    @Test
+    public void listToolsByPageSucceeds() {
+        final ToolPage firstToolPage = retailPointOfSale.listTools(null, 3);
+
+        assertThat(firstToolPage.getTools()).extracting("code").containsExactly("CHNS", "JAKD", "JAKR");
+        assertThat(firstToolPage.getNextPageToolCode()).isEqualTo("JAKR");
+
+        final ToolPage secondToolPage = retailPointOfSale.listTools(firstToolPage.getNextPageToolCode(), 3);
+
+        assertThat(secondToolPage.getTools()).extracting("code").containsExactly("LADW");
+        assertThat(secondToolPage.getNextPageToolCode()).isNull();
+    }
+
+    /**
+     * Verifies the next page Tool Code is null when the last page is exactly full.
+     */
+    @Test
+    public void listToolsByPageWithExactlyFullLastPageSucceeds() {
+        final ToolPage toolPage = retailPointOfSale.listTools(null, 4);
+
+        assertThat(toolPage.getTools()).hasSize(4);
+        assertThat(toolPage.getNextPageToolCode()).isNull();
+    }
+
+    /**
+     * Verifies a tool page renders as a text table.
+     */
+    @Test
+    public void listToolsByPageRendersTextTable() {
+        final ToolPage toolPage = retailPointOfSale.listTools("JAKR", 3);
+
+        final String expectedToolPage =
+                "_______________________________________________________________________________________________\n"
+                + "| Tool Code| Tool Type| Brand | Daily Charge| Weekday Charge?| Weekend Charge?| Holiday Charge?|\n"
+                + "|==============================================================================================|\n"
+                + "| LADW     | Ladder   | Werner| $1.99       | true           | true           | false          |\n";
+
+        assertThat(toolPage.toString()).isEqualTo(expectedToolPage);
+    }
+
+    /**
+     * Verifies {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#listTools(String, int)
+     *   listTools} throws an {@link java.lang.IllegalArgumentException IllegalArgumentException} when the page size is
+     *   0.
+     */
+    @Test
+    public void listToolsByPageFailsWithPageSizeOfZero() {
+        assertThatThrownBy(() -> {
+            retailPointOfSale.listTools(null, 0);
+        }).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Page size must be between 1 and 1000 (inclusive). You specified: 0");
+    }
+
+    /**
+     * Verifies every tool is streamed in Tool Code order.
+     */
+    @Test
+    public void forEachToolSucceeds() {
+        final List<String> toolCodes = new ArrayList<>();
+
+        retailPointOfSale.forEachTool(tool -> toolCodes.add(tool.getCode()));
+
+        assertThat(toolCodes).containsExactly("CHNS", "JAKD", "JAKR", "LADW");
+    }
+
     /**
      * Verifies {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#checkout checkout} throws an
      *   {@link java.lang.IllegalArgumentException IllegalArgumentException} when the rental duration is 0.
@@ -291,4 +379,500 @@ public class AdditionalRetailPointOfSaleImplTests {
         final ToolDto toolDto = rentalAgreementDto.getTool();
         assertThat(toolDto.getCode()).isEqualTo(toolCode);
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#checkout checkout} throws an
+     *   {@link java.lang.IllegalArgumentException IllegalArgumentException} when the tool is already rented for part of
+     *   the requested period, and that a different tool can still be rented for the same period.
+     */
+    @Test
+    public void checkoutFailsWithOverlappingRentalPeriod() {
+        retailPointOfSale.checkout(createContractParameters("JAKR", LocalDate.of(2015, 9, 3), 5));
+
+        assertThatThrownBy(() -> {
+            retailPointOfSale.checkout(createContractParameters("JAKR", LocalDate.of(2015, 9, 7), 2));
+        }).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Tool JAKR is already rented from 09/03/15 until 09/08/15. "
+                        + "You specified: 09/07/15 until 09/09/15");
+
+        retailPointOfSale.checkout(createContractParameters("JAKD", LocalDate.of(2015, 9, 7), 2));
+        assertThat(retailAgreementRepo.count()).isEqualTo(2);
+    }
+
+    /**
+     * Verifies {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#checkout checkout} allows a
+     *   tool to be checked out again on the day it is due back.
+     */
+    @Test
+    public void checkoutSucceedsOnPreviousDueDate() {
+        retailPointOfSale.checkout(createContractParameters("LADW", LocalDate.of(2020, 7, 2), 3));
+        retailPointOfSale.checkout(createContractParameters("LADW", LocalDate.of(2020, 7, 5), 3));
+        retailPointOfSale.checkout(createContractParameters("LADW", LocalDate.of(2020, 6, 30), 2));
+
+        assertThat(retailAgreementRepo.count()).isEqualTo(3);
+    }
+
+    /**
+     * Verifies exactly one of many concurrent checkouts of the same tool for the same period succeeds.
+     *
+     * @throws Exception If a checkout thread fails unexpectedly.
+     */
+    @Test
+    public void checkoutSucceedsOnceWithConcurrentOverlappingCheckouts() throws Exception {
+        final int threadCount = 8;
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<>();
+            for (int threadIndex = 0; threadIndex < threadCount; threadIndex++) {
+                futures.add(executorService.submit(() -> {
+                    try {
+                        retailPointOfSale.checkout(createContractParameters("CHNS", LocalDate.of(2015, 7, 2), 5));
+                        return true;
+                    }
+                    catch (final IllegalArgumentException exception) {
+                        return false;
+                    }
+                }));
+            }
+
+            int successCount = 0;
+            for (final Future<Boolean> future : futures) {
+                successCount += future.get() ? 1 : 0;
+            }
+            assertThat(successCount).isEqualTo(1);
+            assertThat(retailAgreementRepo.count()).isEqualTo(1);
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifies many concurrent checkouts of distinct rental periods all succeed and are all saved, whether or not the
+     *   rental agreement writer commits them together.
+     *
+     * @throws Exception If a checkout thread fails unexpectedly.
+     */
+    @Test
+    public void checkoutSucceedsWithConcurrentDistinctCheckouts() throws Exception {
+        final int threadCount = 8;
+        final int checkoutCount = 64;
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<RentalAgreement>> futures = new ArrayList<>();
+            for (int checkoutIndex = 0; checkoutIndex < checkoutCount; checkoutIndex++) {
+                final LocalDate checkoutDate = LocalDate.of(2015, 7, 2).plusDays(checkoutIndex * 2L);
+                futures.add(executorService.submit(
+                        () -> retailPointOfSale.checkout(createContractParameters("CHNS", checkoutDate, 1))));
+            }
+
+            for (final Future<RentalAgreement> future : futures) {
+                assertThat(future.get()).isNotNull();
+            }
+            assertThat(retailAgreementRepo.count()).isEqualTo(checkoutCount);
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifies a checkout's outbox event is relayed to in-process subscribers.
+     *
+     * @throws InterruptedException If interrupted while waiting for the event.
+     */
+    @Test
+    public void checkoutRelaysOutboxEvent() throws InterruptedException {
+        final BlockingQueue<OutboxEvent> outboxEvents = new LinkedBlockingQueue<>();
+        final Runnable unsubscriber = outboxEventBus.subscribe(outboxEvents::add);
+        try {
+            retailPointOfSale.checkout(createContractParameters("LADW", LocalDate.of(2020, 7, 2), 3));
+
+            final OutboxEvent outboxEvent = outboxEvents.poll(10, TimeUnit.SECONDS);
+            assertThat(outboxEvent).isNotNull();
+            assertThat(outboxEvent.eventType()).isEqualTo(OutboxRelay.RENTAL_AGREEMENT_CREATED);
+            assertThat(outboxEvent.rentalAgreementId()).isEqualTo(retailAgreementRepo.findAll().get(0).getId());
+            assertThat(outboxEvent.payload()).contains("\"toolCode\":\"LADW\"", "\"finalCharge\":3.98");
+        }
+        finally {
+            unsubscriber.run();
+        }
+    }
+
+    /**
+     * Verifies a retried checkout with the same request ID returns the original rental agreement without saving
+     *   another one, even though the tool is no longer available for the period.
+     */
+    @Test
+    public void checkoutSucceedsOnceWithRetriedRequestId() {
+        final ContractParameters contractParameters = createContractParameters("JAKR", LocalDate.of(2015, 9, 3), 5);
+        contractParameters.setRequestId("register-1-0001");
+
+        final RentalAgreement originalRentalAgreement = retailPointOfSale.checkout(contractParameters);
+        final RentalAgreement retriedRentalAgreement = retailPointOfSale.checkout(contractParameters);
+
+        assertThat(retriedRentalAgreement.toString()).isEqualTo(originalRentalAgreement.toString())
+                .contains("Final charge: $5.98");
+        final List<RentalAgreementDto> rentalAgreementDtos = retailAgreementRepo.findAll();
+        assertThat(rentalAgreementDtos).extracting("requestId").containsExactly("register-1-0001");
+    }
+
+    /**
+     * Verifies concurrent retries of a checkout with the same request ID all return the original rental agreement
+     *   without saving another one, even when they arrive before the original is committed.
+     *
+     * @throws Exception If a checkout thread fails unexpectedly.
+     */
+    @Test
+    public void checkoutSucceedsOnceWithConcurrentRetriedRequestIds() throws Exception {
+        final int threadCount = 8;
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<RentalAgreement>> futures = new ArrayList<>();
+            for (int threadIndex = 0; threadIndex < threadCount; threadIndex++) {
+                futures.add(executorService.submit(() -> {
+                    final ContractParameters contractParameters = createContractParameters("JAKR",
+                            LocalDate.of(2015, 9, 3), 5);
+                    contractParameters.setRequestId("register-1-0001");
+                    return retailPointOfSale.checkout(contractParameters);
+                }));
+            }
+
+            final String originalRentalAgreement = futures.get(0).get().toString();
+            assertThat(originalRentalAgreement).contains("Final charge: $5.98");
+            for (final Future<RentalAgreement> future : futures) {
+                assertThat(future.get().toString()).isEqualTo(originalRentalAgreement);
+            }
+            assertThat(retailAgreementRepo.findAll()).extracting("requestId").containsExactly("register-1-0001");
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifies {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#checkout checkout} throws an
+     *   {@link java.lang.IllegalArgumentException IllegalArgumentException} when a request ID is reused for a
+     *   different rental.
+     */
+    @Test
+    public void checkoutFailsWithReusedRequestId() {
+        final ContractParameters contractParameters = createContractParameters("JAKR", LocalDate.of(2015, 9, 3), 5);
+        contractParameters.setRequestId("register-1-0001");
+        retailPointOfSale.checkout(contractParameters);
+
+        final ContractParameters otherContractParameters = createContractParameters("JAKD", LocalDate.of(2015, 9, 3),
+                5);
+        otherContractParameters.setRequestId("register-1-0001");
+        assertThatThrownBy(() -> {
+            retailPointOfSale.checkout(otherContractParameters);
+        }).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("The request ID was already used for a different checkout. You specified: "
+                        + "register-1-0001");
+        assertThat(retailAgreementRepo.count()).isEqualTo(1);
+    }
+
+    /**
+     * Verifies a request ID is scoped to the store, so another store's checkout with the same request ID is a new
+     *   checkout, and each store's retry returns its own original rental agreement.
+     */
+    @Test
+    public void checkoutSucceedsWithSameRequestIdAtDifferentStores() {
+        final ContractParameters firstStoreContractParameters = createContractParameters("JAKR",
+                LocalDate.of(2015, 9, 3), 5);
+        firstStoreContractParameters.setStoreId("store-1");
+        firstStoreContractParameters.setRequestId("register-1-0001");
+        final RentalAgreement firstStoreRentalAgreement = retailPointOfSale.checkout(firstStoreContractParameters);
+
+        final ContractParameters secondStoreContractParameters = createContractParameters("LADW",
+                LocalDate.of(2020, 7, 2), 3);
+        secondStoreContractParameters.setStoreId("store-2");
+        secondStoreContractParameters.setRequestId("register-1-0001");
+        final RentalAgreement secondStoreRentalAgreement = retailPointOfSale.checkout(secondStoreContractParameters);
+
+        assertThat(retailPointOfSale.checkout(firstStoreContractParameters).toString())
+                .isEqualTo(firstStoreRentalAgreement.toString()).contains("Final charge: $5.98");
+        assertThat(retailPointOfSale.checkout(secondStoreContractParameters).toString())
+                .isEqualTo(secondStoreRentalAgreement.toString()).contains("Final charge: $3.98");
+        assertThat(retailAgreementRepo.findAll()).extracting("storeId", "requestId").containsExactlyInAnyOrder(
+                tuple("store-1", "register-1-0001"), tuple("store-2", "register-1-0001"));
+    }
+
+    /**
+     * Verifies tool availability is tracked per store and that the store is saved with the rental agreement.
+     */
+    @Test
+    public void checkoutSucceedsWithSameToolAtDifferentStores() {
+        final ContractParameters firstStoreContractParameters = createContractParameters("JAKR",
+                LocalDate.of(2015, 9, 3), 5);
+        firstStoreContractParameters.setStoreId("store-1");
+        retailPointOfSale.checkout(firstStoreContractParameters);
+
+        final ContractParameters secondStoreContractParameters = createContractParameters("JAKR",
+                LocalDate.of(2015, 9, 3), 5);
+        secondStoreContractParameters.setStoreId("store-2");
+        retailPointOfSale.checkout(secondStoreContractParameters);
+
+        assertThatThrownBy(() -> {
+            retailPointOfSale.checkout(firstStoreContractParameters);
+        }).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Tool JAKR is already rented");
+
+        assertThat(retailAgreementRepo.findAll()).extracting("storeId").containsExactlyInAnyOrder("store-1",
+                "store-2");
+        // Store rentals are not part of the default store's due date queries.
+        assertThat(retailPointOfSale.listRentalsOutOn(LocalDate.of(2015, 9, 4))).isEmpty();
+    }
+
+    /**
+     * Verifies the due date and overdue queries reflect committed checkouts.
+     */
+    @Test
+    public void listRentalsDueSucceeds() {
+        retailPointOfSale.checkout(createContractParameters("LADW", LocalDate.of(2020, 7, 2), 3));
+        retailPointOfSale.checkout(createContractParameters("CHNS", LocalDate.of(2020, 7, 1), 10));
+
+        assertThat(retailPointOfSale.listRentalsOutOn(LocalDate.of(2020, 7, 4))).extracting("toolCode")
+                .containsExactly("CHNS", "LADW");
+        assertThat(retailPointOfSale.listRentalsOutOn(LocalDate.of(2020, 7, 5))).extracting("toolCode")
+                .containsExactly("CHNS");
+        assertThat(retailPointOfSale.listRentalsDueBetween(LocalDate.of(2020, 7, 5), LocalDate.of(2020, 7, 11)))
+                .extracting("toolCode", "dueDate")
+                .containsExactly(tuple("LADW", LocalDate.of(2020, 7, 5)),
+                        tuple("CHNS", LocalDate.of(2020, 7, 11)));
+        assertThat(retailPointOfSale.listOverdueRentals(LocalDate.of(2020, 7, 1), LocalDate.of(2020, 7, 6)))
+                .extracting("toolCode").containsExactly("LADW");
+        // The first due date excludes the LADW rental, which was due on 07/05/20.
+        assertThat(retailPointOfSale.listOverdueRentals(LocalDate.of(2020, 7, 6), LocalDate.of(2020, 7, 12)))
+                .extracting("toolCode").containsExactly("CHNS");
+    }
+
+    /**
+     * Verifies {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#listRentalsDueBetween
+     *   listRentalsDueBetween} throws an {@link java.lang.IllegalArgumentException IllegalArgumentException} when the
+     *   dates are reversed.
+     */
+    @Test
+    public void listRentalsDueBetweenFailsWithReversedDates() {
+        assertThatThrownBy(() -> {
+            retailPointOfSale.listRentalsDueBetween(LocalDate.of(2020, 7, 5), LocalDate.of(2020, 7, 4));
+        }).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("The end date must not be before the start date. You specified: 2020-07-05 to "
+                        + "2020-07-04");
+    }
+
+    /**
+     * Verifies the daily revenue summary reflects committed checkouts and matches a rebuild from the rental agreements.
+     */
+    @Test
+    public void listDailyRevenueSucceeds() {
+        retailPointOfSale.checkout(createContractParameters("JAKD", LocalDate.of(2015, 9, 3), 5));
+        retailPointOfSale.checkout(createContractParameters("JAKR", LocalDate.of(2015, 9, 3), 5));
+        retailPointOfSale.checkout(createContractParameters("LADW", LocalDate.of(2020, 7, 2), 3));
+
+        final List<DailyRevenue> dailyRevenues = retailPointOfSale.listDailyRevenue(LocalDate.of(2015, 9, 1),
+                LocalDate.of(2020, 7, 2));
+
+        assertThat(dailyRevenues)
+                .extracting("date", "toolType", "rentalAgreementCount", "chargeDayCount", "finalCharge")
+                .containsExactly(tuple(LocalDate.of(2015, 9, 3), "Jackhammer", 2, 4L, new BigDecimal("11.96")),
+                        tuple(LocalDate.of(2020, 7, 2), "Ladder", 1, 2L, new BigDecimal("3.98")));
+        assertThat(retailPointOfSale.listDailyRevenue(LocalDate.of(2015, 9, 4), LocalDate.of(2020, 7, 1))).isEmpty();
+
+        assertThat(retailPointOfSale.rebuildDailyRevenue()).isEqualTo(2);
+        assertThat(retailPointOfSale.listDailyRevenue(LocalDate.of(2015, 9, 1), LocalDate.of(2020, 7, 2)))
+                .isEqualTo(dailyRevenues);
+    }
+
+    /**
+     * Verifies checkout charges the tool type price in effect on the checkout date, and the tool type's own charges
+     *   before its first scheduled price.
+     */
+    @Test
+    @Sql({ "/io/github/joelluellwitz/jl0724/internal/data/api/ToolRepoTests.sql",
+            "/io/github/joelluellwitz/jl0724/internal/service/impl/ToolTypePriceTests.sql" })
+    public void checkoutSucceedsWithScheduledPrices() {
+        final RentalAgreement basePriceRentalAgreement = retailPointOfSale.checkout(
+                createContractParameters("LADW", LocalDate.of(2020, 6, 1), 3));
+        final RentalAgreement firstScheduledPriceRentalAgreement = retailPointOfSale.checkout(
+                createContractParameters("LADW", LocalDate.of(2020, 7, 2), 3));
+        final RentalAgreement secondScheduledPriceRentalAgreement = retailPointOfSale.checkout(
+                createContractParameters("LADW", LocalDate.of(2020, 8, 7), 3));
+
+        assertThat(basePriceRentalAgreement.toString()).contains("Daily rental charge: $1.99\n",
+                "Charge days: 3\n", "Final charge: $5.97\n");
+        assertThat(firstScheduledPriceRentalAgreement.toString()).contains("Daily rental charge: $2.49\n",
+                "Charge days: 2\n", "Final charge: $4.98\n");
+        // The second scheduled price no longer charges weekends.
+        assertThat(secondScheduledPriceRentalAgreement.toString()).contains("Daily rental charge: $2.99\n",
+                "Charge days: 1\n", "Final charge: $2.99\n");
+    }
+
+    /**
+     * Verifies checkout applies the weekly and monthly caps of the tool type, and leaves uncapped tool types alone.
+     */
+    @Test
+    @Sql({ "/io/github/joelluellwitz/jl0724/internal/data/api/ToolRepoTests.sql",
+            "/io/github/joelluellwitz/jl0724/internal/service/impl/RateCapTests.sql" })
+    public void checkoutSucceedsWithRateCaps() {
+        final RentalAgreement cappedRentalAgreement = retailPointOfSale.checkout(
+                createContractParameters("JAKD", LocalDate.of(2015, 9, 3), 365));
+        final RentalAgreement uncappedRentalAgreement = retailPointOfSale.checkout(
+                createContractParameters("LADW", LocalDate.of(2020, 7, 2), 3));
+
+        // 12 months at $35.00, then 5 weekdays capped at $10.00.
+        assertThat(cappedRentalAgreement.toString()).contains("Pre-discount charge: $430.00\n",
+                "Final charge: $430.00\n");
+        assertThat(uncappedRentalAgreement.toString()).contains("Charge days: 2\n", "Final charge: $3.98\n");
+    }
+
+    /**
+     * Verifies {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#checkoutCart checkoutCart}
+     *   prices every line, applies the order discount to the total of the lines, and saves the order with its lines.
+     */
+    @Test
+    public void checkoutCartSucceeds() {
+        final ContractParameters discountedLine = createContractParameters("LADW", LocalDate.of(2020, 7, 2), 3);
+        discountedLine.setDiscountPercent(10);
+        final CartParameters cartParameters = new CartParameters();
+        cartParameters.setLines(List.of(createContractParameters("JAKD", LocalDate.of(2015, 9, 3), 5),
+                discountedLine));
+        cartParameters.setDiscountPercent(10);
+
+        final CartAgreement cartAgreement = retailPointOfSale.checkoutCart(cartParameters);
+
+        assertThat(cartAgreement.getRentalAgreements()).hasSize(2);
+        assertThat(cartAgreement.getRentalAgreements().get(0).toString()).contains("Final charge: $5.98\n");
+        assertThat(cartAgreement.getRentalAgreements().get(1).toString()).contains("Final charge: $3.58\n");
+        assertThat(cartAgreement.toString()).endsWith(
+                "Order subtotal: $9.56\n"
+                + "Order discount percent: 10%\n"
+                + "Order discount amount: $0.96\n"
+                + "Order total: $8.60\n");
+
+        assertThat(retailAgreementRepo.count()).isEqualTo(2);
+        final List<RentalOrderDto> rentalOrderDtos = rentalOrderRepo.findAll();
+        assertThat(rentalOrderDtos).hasSize(1);
+        assertThat(rentalOrderDtos.get(0).getRentalAgreementIds()).hasSize(2);
+        assertThat(rentalOrderDtos.get(0).getDiscountPercent()).isEqualTo(10);
+    }
+
+    /**
+     * Verifies the order discount of a cart is allocated across its lines, so that the saved rental agreements and the
+     *   daily revenue add up to the order total.
+     */
+    @Test
+    public void checkoutCartRecordsDiscountedDailyRevenue() {
+        final ContractParameters discountedLine = createContractParameters("LADW", LocalDate.of(2020, 7, 2), 3);
+        discountedLine.setDiscountPercent(10);
+        final CartParameters cartParameters = new CartParameters();
+        cartParameters.setLines(List.of(createContractParameters("JAKD", LocalDate.of(2015, 9, 3), 5),
+                discountedLine));
+        cartParameters.setDiscountPercent(10);
+
+        retailPointOfSale.checkoutCart(cartParameters);
+
+        // The $0.96 order discount splits into $0.6005 and $0.3595, so the leftover cent goes to the second line.
+        assertThat(retailAgreementRepo.findAll()).extracting("toolCode", "discountAmount", "finalCharge")
+                .containsExactlyInAnyOrder(tuple("JAKD", new BigDecimal("0.60"), new BigDecimal("5.38")),
+                        tuple("LADW", new BigDecimal("0.76"), new BigDecimal("3.22")));
+        final List<DailyRevenue> dailyRevenues = retailPointOfSale.listDailyRevenue(LocalDate.of(2015, 9, 1),
+                LocalDate.of(2020, 7, 2));
+        assertThat(dailyRevenues)
+                .extracting("date", "toolType", "rentalAgreementCount", "chargeDayCount", "finalCharge")
+                .containsExactly(tuple(LocalDate.of(2015, 9, 3), "Jackhammer", 1, 2L, new BigDecimal("5.38")),
+                        tuple(LocalDate.of(2020, 7, 2), "Ladder", 1, 2L, new BigDecimal("3.22")));
+
+        assertThat(retailPointOfSale.rebuildDailyRevenue()).isEqualTo(2);
+        assertThat(retailPointOfSale.listDailyRevenue(LocalDate.of(2015, 9, 1), LocalDate.of(2020, 7, 2)))
+                .isEqualTo(dailyRevenues);
+    }
+
+    /**
+     * Verifies {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#checkoutCart checkoutCart}
+     *   saves nothing and reserves nothing when one line's tool is unavailable.
+     */
+    @Test
+    public void checkoutCartFailsWithOverlappingLines() {
+        final CartParameters cartParameters = new CartParameters();
+        cartParameters.setLines(List.of(createContractParameters("JAKD", LocalDate.of(2015, 9, 3), 5),
+                createContractParameters("JAKD", LocalDate.of(2015, 9, 7), 2)));
+
+        assertThatThrownBy(() -> {
+            retailPointOfSale.checkoutCart(cartParameters);
+        }).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Tool JAKD is already rented from 09/03/15 until 09/08/15. "
+                        + "You specified: 09/07/15 until 09/09/15");
+        assertThat(retailAgreementRepo.count()).isEqualTo(0);
+        assertThat(rentalOrderRepo.count()).isEqualTo(0);
+
+        retailPointOfSale.checkout(createContractParameters("JAKD", LocalDate.of(2015, 9, 3), 5));
+        assertThat(retailAgreementRepo.count()).isEqualTo(1);
+    }
+
+    /**
+     * Verifies checkout applies the best promotion whose conditions the checkout meets, accepts coupon codes in any
+     *   case, and rejects a coupon code that does not apply.
+     */
+    @Test
+    @Sql({ "/io/github/joelluellwitz/jl0724/internal/data/api/ToolRepoTests.sql",
+            "/io/github/joelluellwitz/jl0724/internal/service/impl/PromotionTests.sql" })
+    public void checkoutSucceedsWithPromotions() {
+        final RentalAgreement promotedRentalAgreement = retailPointOfSale.checkout(
+                createContractParameters("LADW", LocalDate.of(2020, 7, 2), 3));
+        // Too short for the Ladder promotion.
+        final RentalAgreement shortRentalAgreement = retailPointOfSale.checkout(
+                createContractParameters("LADW", LocalDate.of(2020, 7, 10), 2));
+        final ContractParameters couponContractParameters = createContractParameters("JAKR", LocalDate.of(2015, 9, 3),
+                5);
+        couponContractParameters.setCouponCode("welcome10");
+        final RentalAgreement couponRentalAgreement = retailPointOfSale.checkout(couponContractParameters);
+
+        assertThat(promotedRentalAgreement.toString()).contains("Discount percent: 15%\n", "Final charge: $3.38\n");
+        assertThat(shortRentalAgreement.toString()).contains("Discount percent: 0%\n", "Final charge: $3.98\n");
+        assertThat(couponRentalAgreement.toString()).contains("Discount percent: 10%\n", "Final charge: $5.38\n");
+
+        final ContractParameters unknownCouponContractParameters = createContractParameters("JAKD",
+                LocalDate.of(2015, 9, 3), 5);
+        unknownCouponContractParameters.setCouponCode("BOGUS");
+        assertThatThrownBy(() -> {
+            retailPointOfSale.checkout(unknownCouponContractParameters);
+        }).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("The coupon code does not apply to this checkout. You specified: BOGUS");
+        assertThat(retailAgreementRepo.count()).isEqualTo(3);
+    }
+
+    /**
+     * Verifies {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#checkout checkout} throws an
+     *   {@link java.lang.IllegalArgumentException IllegalArgumentException} when the coupon code is blank.
+     */
+    @Test
+    public void checkoutFailsWithBlankCouponCode() {
+        final ContractParameters contractParameters = createContractParameters("JAKR", LocalDate.of(2015, 9, 3), 5);
+        contractParameters.setCouponCode("  ");
+
+        assertThatThrownBy(() -> {
+            retailPointOfSale.checkout(contractParameters);
+        }).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("The coupon code must not be blank. You specified: '  '");
+        assertThat(retailAgreementRepo.count()).isEqualTo(0);
+    }
+
+    /**
+     * Creates checkout parameters with no discount.
+     *
+     * @param toolCode The Tool Code.
+     * @param checkoutDate The checkout date.
+     * @param rentalDayCount The number of rental days.
+     * @return The contract parameters.
+     */
+    private static ContractParameters createContractParameters(final String toolCode, final LocalDate checkoutDate,
+            final int rentalDayCount) {
+        final ContractParameters contractParameters = new ContractParameters();
+        contractParameters.setToolCode(toolCode);
+        contractParameters.setCheckoutDate(checkoutDate);
+        contractParameters.setRentalDayCount(rentalDayCount);
+        contractParameters.setDiscountPercent(0);
+
+        return contractParameters;
+    }
+}
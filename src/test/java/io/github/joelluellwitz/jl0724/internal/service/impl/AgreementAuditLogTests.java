@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.AgreementAuditLog AgreementAuditLog}.
+ */
+public class AgreementAuditLogTests {
+    /**
+     * Verifies every accepted checkout reaches the sink, in order, and the sink is closed on shutdown.
+     */
+    @Test
+    public void closeWritesEveryAcceptedCheckout() {
+        final CapturingAgreementAuditSink capturingSink = new CapturingAgreementAuditSink(null, null);
+        final AgreementAuditLog agreementAuditLog = new AgreementAuditLog(List.of(capturingSink), 8192,
+                AgreementAuditLog.OverflowPolicy.DROP, 0);
+
+        for (int rentalDayCount = 1; rentalDayCount <= 1000; rentalDayCount++) {
+            accept(agreementAuditLog, rentalDayCount);
+        }
+        agreementAuditLog.close();
+
+        assertThat(capturingSink.records).hasSize(1000);
+        assertThat(capturingSink.records.get(0).rentalDayCount()).isEqualTo(1);
+        assertThat(capturingSink.records.get(999).rentalDayCount()).isEqualTo(1000);
+        assertThat(capturingSink.closed).isTrue();
+        assertThat(agreementAuditLog.getDroppedRecordCount()).isZero();
+    }
+
+    /**
+     * Verifies records are dropped rather than blocking the completed checkout consumer thread when a slow sink lets
+     *   the queue fill up.
+     *
+     * @throws InterruptedException If interrupted while waiting for the writer thread.
+     */
+    @Test
+    public void acceptDropsRecordsWhenQueueIsFull() throws InterruptedException {
+        final CountDownLatch sinkEnteredLatch = new CountDownLatch(1);
+        final CountDownLatch sinkReleaseLatch = new CountDownLatch(1);
+        final CapturingAgreementAuditSink capturingSink = new CapturingAgreementAuditSink(sinkEnteredLatch,
+                sinkReleaseLatch);
+        final AgreementAuditLog agreementAuditLog = new AgreementAuditLog(List.of(capturingSink), 1,
+                AgreementAuditLog.OverflowPolicy.DROP, 0);
+
+        accept(agreementAuditLog, 1);
+        assertThat(sinkEnteredLatch.await(10, TimeUnit.SECONDS)).isTrue();
+        // The writer is stuck in the sink holding record 1, so only record 2 fits in the queue.
+        accept(agreementAuditLog, 2);
+        accept(agreementAuditLog, 3);
+        accept(agreementAuditLog, 4);
+
+        assertThat(agreementAuditLog.getDroppedRecordCount()).isEqualTo(2);
+
+        sinkReleaseLatch.countDown();
+        agreementAuditLog.close();
+
+        assertThat(capturingSink.records).extracting("rentalDayCount").containsExactly(1, 2);
+    }
+
+    /**
+     * Verifies a failing sink does not prevent other sinks from receiving records.
+     */
+    @Test
+    public void acceptSurvivesFailingSink() {
+        final AgreementAuditSink failingSink = records -> {
+            throw new IllegalStateException("Simulated sink failure.");
+        };
+        final CapturingAgreementAuditSink capturingSink = new CapturingAgreementAuditSink(null, null);
+        final AgreementAuditLog agreementAuditLog = new AgreementAuditLog(List.of(failingSink, capturingSink), 16,
+                AgreementAuditLog.OverflowPolicy.BLOCK, 50);
+
+        accept(agreementAuditLog, 1);
+        accept(agreementAuditLog, 2);
+        agreementAuditLog.close();
+
+        assertThat(capturingSink.records).extracting("rentalDayCount").containsExactly(1, 2);
+    }
+
+    /**
+     * Hands a checkout to the log the way the completed checkout ring does. Only the rental day count, which
+     *   identifies the checkout, matters to these tests.
+     *
+     * @param agreementAuditLog The log.
+     * @param rentalDayCount The rental day count.
+     */
+    private static void accept(final AgreementAuditLog agreementAuditLog, final int rentalDayCount) {
+        final RentalAgreementDto rentalAgreementDto = new RentalAgreementDto();
+        rentalAgreementDto.setToolCode("JAKR");
+        rentalAgreementDto.setRentalDayCount(rentalDayCount);
+        final CompletedCheckout completedCheckout = new CompletedCheckout();
+        completedCheckout.set(rentalAgreementDto);
+        agreementAuditLog.accept(completedCheckout, true);
+    }
+
+    /**
+     * A sink that keeps every record and can optionally pause in its first write.
+     */
+    private static class CapturingAgreementAuditSink implements AgreementAuditSink {
+        private final List<AgreementAuditRecord> records = new ArrayList<>();
+        private final CountDownLatch enteredLatch;
+        private final CountDownLatch releaseLatch;
+        private volatile boolean closed;
+
+        /**
+         * Constructor.
+         *
+         * @param enteredLatch Counted down when a write starts. May be null.
+         * @param releaseLatch Awaited before a write completes. May be null.
+         */
+        private CapturingAgreementAuditSink(final CountDownLatch enteredLatch, final CountDownLatch releaseLatch) {
+            this.enteredLatch = enteredLatch;
+            this.releaseLatch = releaseLatch;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(final List<AgreementAuditRecord> batch) {
+            if (enteredLatch != null) {
+                enteredLatch.countDown();
+            }
+            if (releaseLatch != null) {
+                try {
+                    releaseLatch.await();
+                }
+                catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            records.addAll(batch);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
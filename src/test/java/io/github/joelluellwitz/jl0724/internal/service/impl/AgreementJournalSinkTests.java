@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.AgreementJournalSink AgreementJournalSink} and
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.AgreementJournalReader AgreementJournalReader}.
+ */
+public class AgreementJournalSinkTests {
+    private static final LocalDate JOURNAL_DATE = LocalDate.of(2024, 7, 1);
+
+    @TempDir
+    private Path journalDirectory;
+
+    /**
+     * Verifies every record survives a round trip through rotated, compressed segments, in order and unchanged.
+     *
+     * @throws IOException If the journal cannot be read.
+     */
+    @Test
+    public void writeRotatesAndCompressesSegments() throws IOException {
+        final AgreementJournalSink agreementJournalSink = createSink(4096, AgreementJournalSink.Compression.GZIP,
+                false);
+        final List<AgreementAuditRecord> writtenRecords = new ArrayList<>();
+        for (int batchIndex = 0; batchIndex < 20; batchIndex++) {
+            final List<AgreementAuditRecord> batch = new ArrayList<>();
+            for (int recordIndex = 1; recordIndex <= 10; recordIndex++) {
+                batch.add(createRecord(batchIndex * 10 + recordIndex, "Ridgid \"Pro\"\nLine\\2"));
+            }
+            agreementJournalSink.write(batch);
+            writtenRecords.addAll(batch);
+        }
+        agreementJournalSink.close();
+
+        final Collection<Path> segmentPaths = AgreementJournalReader.listSegments(journalDirectory, JOURNAL_DATE)
+                .values();
+        assertThat(segmentPaths).hasSizeGreaterThan(1);
+        assertThat(segmentPaths).allMatch(path -> path.toString().endsWith(".jsonl.gz"));
+
+        final List<AgreementAuditRecord> readRecords = new ArrayList<>();
+        assertThat(AgreementJournalReader.forEachRecord(journalDirectory, JOURNAL_DATE, readRecords::add))
+                .isEqualTo(200);
+        assertThat(readRecords).isEqualTo(writtenRecords);
+    }
+
+    /**
+     * Verifies a restarted sink starts a new segment rather than appending to an existing one, and that a partial
+     *   last line left by a crash is skipped.
+     *
+     * @throws IOException If the journal cannot be read or written.
+     */
+    @Test
+    public void forEachRecordSkipsPartialLastLine() throws IOException {
+        final AgreementJournalSink firstSink = createSink(1 << 20, AgreementJournalSink.Compression.NONE, true);
+        firstSink.write(List.of(createRecord(1, "Ridgid"), createRecord(2, "Ridgid")));
+        firstSink.close();
+        // Simulates a crash part way through writing a record.
+        Files.writeString(journalDirectory.resolve(AgreementJournalReader.getSegmentFileName(JOURNAL_DATE, 0)),
+                "{\"rentalAgreementId\":3,\"createdOn\":\"2024-07", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        final AgreementJournalSink secondSink = createSink(1 << 20, AgreementJournalSink.Compression.NONE, true);
+        secondSink.write(List.of(createRecord(4, "Ridgid")));
+        secondSink.close();
+
+        assertThat(Files.exists(journalDirectory.resolve(AgreementJournalReader.getSegmentFileName(JOURNAL_DATE, 1))))
+                .isTrue();
+        final List<AgreementAuditRecord> readRecords = new ArrayList<>();
+        assertThat(AgreementJournalReader.forEachRecord(journalDirectory, JOURNAL_DATE, readRecords::add))
+                .isEqualTo(3);
+        assertThat(readRecords).extracting("rentalAgreementId").containsExactly(1, 2, 4);
+    }
+
+    /**
+     * Verifies the rental agreements of relayed outbox events are journaled and other events are ignored.
+     *
+     * @throws IOException If the journal cannot be read.
+     */
+    @Test
+    public void publishJournalsRentalAgreementCreatedEvents() throws IOException {
+        final List<AgreementAuditRecord> publishedRecords = List.of(createRecord(1, "Ridgid"),
+                createRecord(2, "DeWalt"));
+        final List<OutboxEvent> events = new ArrayList<>();
+        for (final AgreementAuditRecord record : publishedRecords) {
+            final StringBuilder payloadStringBuilder = new StringBuilder();
+            AgreementJournalCodec.encode(record, payloadStringBuilder);
+            payloadStringBuilder.setLength(payloadStringBuilder.length() - 1);
+            events.add(new OutboxEvent(OutboxRelay.RENTAL_AGREEMENT_CREATED, null, record.rentalAgreementId(),
+                    record.createdOn(), payloadStringBuilder.toString()));
+        }
+        events.add(new OutboxEvent("SomethingElse", null, 3, JOURNAL_DATE.atStartOfDay(), "{}"));
+
+        final AgreementJournalSink agreementJournalSink = createSink(1 << 20, AgreementJournalSink.Compression.NONE,
+                true);
+        agreementJournalSink.publish(events);
+        agreementJournalSink.close();
+
+        final List<AgreementAuditRecord> readRecords = new ArrayList<>();
+        assertThat(AgreementJournalReader.forEachRecord(journalDirectory, JOURNAL_DATE, readRecords::add))
+                .isEqualTo(2);
+        assertThat(readRecords).isEqualTo(publishedRecords);
+    }
+
+    /**
+     * Creates a sink whose journal directory is given relative to its parent, the data directory.
+     *
+     * @param maxSegmentBytes The size at which a segment is closed.
+     * @param compression How closed segments are compressed.
+     * @param force Whether to force every batch to disk.
+     * @return The sink.
+     */
+    private AgreementJournalSink createSink(final long maxSegmentBytes,
+            final AgreementJournalSink.Compression compression, final boolean force) {
+        return new AgreementJournalSink(journalDirectory.getParent().toString(),
+                journalDirectory.getFileName().toString(), maxSegmentBytes, compression, force);
+    }
+
+    /**
+     * Creates an audit record created on the journal date.
+     *
+     * @param rentalAgreementId The rental agreement ID.
+     * @param toolBrand The tool brand.
+     * @return The audit record.
+     */
+    private static AgreementAuditRecord createRecord(final int rentalAgreementId, final String toolBrand) {
+        return new AgreementAuditRecord(rentalAgreementId, JOURNAL_DATE.atTime(12, 0, 0, rentalAgreementId * 1000),
+                "JAKR", "Jackhammer", toolBrand, new BigDecimal("2.99"), 5, LocalDate.of(2015, 9, 3),
+                LocalDate.of(2015, 9, 8), 2, new BigDecimal("5.98"), 10, new BigDecimal("0.60"),
+                new BigDecimal("5.38"));
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.CheckoutRecordingAnalyzer
+ *   CheckoutRecordingAnalyzer} against a recording of synthetic checkout events.
+ */
+public class CheckoutRecordingAnalyzerTests {
+    /**
+     * Verifies every recorded phase is summarized and failed checkouts are reported separately.
+     *
+     * @param temporaryDirectory Holds the recording.
+     * @throws Exception If recording or analysis fails.
+     */
+    @Test
+    public void analyzeSummarizesPhases(@TempDir final Path temporaryDirectory) throws Exception {
+        final Path recordingPath = temporaryDirectory.resolve("checkout.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CheckoutEvent.class).withoutThreshold();
+            recording.enable(CheckoutPhaseEvent.class).withoutThreshold();
+            recording.enable(PricingEvent.class).withoutThreshold();
+            recording.start();
+
+            commitCheckout("JAKR", 5, true);
+            commitCheckout("LADW", 3, true);
+            commitCheckout("CHNS", 0, false);
+            CheckoutPhaseEvent.begin(CheckoutPhaseEvent.Phase.PRICING, "JAKR", 5).commit();
+
+            recording.stop();
+            recording.dump(recordingPath);
+        }
+
+        final String summary = CheckoutRecordingAnalyzer.analyze(recordingPath);
+
+        assertThat(summary).containsPattern("(?m)^Checkout +2 ");
+        assertThat(summary).containsPattern("(?m)^Checkout \\(failed\\) +1 ");
+        assertThat(summary).containsPattern("(?m)^PRICING +1 ");
+        assertThat(summary).doesNotContain("PERSISTENCE");
+        assertThat(summary).contains("Slowest checkouts:\n").contains("CHNS, 0 days (failed)\n")
+                .contains("JAKR, 5 days\n");
+    }
+
+    /**
+     * Commits a checkout event.
+     *
+     * @param toolCode The Tool Code.
+     * @param rentalDayCount The number of rental days.
+     * @param succeeded Whether the checkout succeeded.
+     */
+    private static void commitCheckout(final String toolCode, final int rentalDayCount, final boolean succeeded) {
+        final CheckoutEvent checkoutEvent = new CheckoutEvent();
+        checkoutEvent.begin();
+        checkoutEvent.toolCode = toolCode;
+        checkoutEvent.rentalDayCount = rentalDayCount;
+        checkoutEvent.succeeded = succeeded;
+        checkoutEvent.commit();
+    }
+}
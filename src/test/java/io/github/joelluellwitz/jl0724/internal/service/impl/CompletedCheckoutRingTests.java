@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementDto;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.CompletedCheckoutRing CompletedCheckoutRing}.
+ */
+public class CompletedCheckoutRingTests {
+    /**
+     * Verifies every consumer sees every published checkout, in order, as the ring wraps around many times.
+     */
+    @Test
+    public void closeDeliversEveryCheckoutToEveryConsumer() {
+        final CapturingConsumer firstConsumer = new CapturingConsumer(null, null);
+        final CapturingConsumer secondConsumer = new CapturingConsumer(null, null);
+        final CompletedCheckoutRing completedCheckoutRing = new CompletedCheckoutRing(
+                List.of(firstConsumer, secondConsumer), 8);
+
+        for (int rentalDayCount = 1; rentalDayCount <= 1000; rentalDayCount++) {
+            completedCheckoutRing.publish(createRentalAgreementDto(rentalDayCount));
+        }
+        completedCheckoutRing.close();
+
+        assertThat(firstConsumer.rentalDayCounts).hasSize(1000);
+        assertThat(firstConsumer.rentalDayCounts).isSorted();
+        assertThat(secondConsumer.rentalDayCounts).isEqualTo(firstConsumer.rentalDayCounts);
+        assertThat(firstConsumer.endOfBatchRentalDayCount).isEqualTo(1000);
+    }
+
+    /**
+     * Verifies the producer waits for a consumer that is a full ring behind rather than overwriting a slot it has not
+     *   consumed.
+     *
+     * @throws InterruptedException If interrupted while waiting for the consumer.
+     */
+    @Test
+    public void publishWaitsWhenRingIsFull() throws InterruptedException {
+        final CountDownLatch consumerEnteredLatch = new CountDownLatch(1);
+        final CountDownLatch consumerReleaseLatch = new CountDownLatch(1);
+        final CapturingConsumer capturingConsumer = new CapturingConsumer(consumerEnteredLatch,
+                consumerReleaseLatch);
+        final CompletedCheckoutRing completedCheckoutRing = new CompletedCheckoutRing(List.of(capturingConsumer), 2);
+
+        completedCheckoutRing.publish(createRentalAgreementDto(1));
+        assertThat(consumerEnteredLatch.await(10, TimeUnit.SECONDS)).isTrue();
+        // The consumer is stuck on checkout 1, so checkout 2 takes the free slot but checkout 3 needs its slot.
+        completedCheckoutRing.publish(createRentalAgreementDto(2));
+        final CompletableFuture<Void> publishFuture = CompletableFuture.runAsync(
+                () -> completedCheckoutRing.publish(createRentalAgreementDto(3)));
+        Thread.sleep(100);
+        assertThat(publishFuture.isDone()).isFalse();
+
+        consumerReleaseLatch.countDown();
+        publishFuture.join();
+        completedCheckoutRing.close();
+
+        assertThat(capturingConsumer.rentalDayCounts).containsExactly(1, 2, 3);
+    }
+
+    /**
+     * Verifies a failing consumer neither stops other consumers nor its own later checkouts.
+     */
+    @Test
+    public void publishSurvivesFailingConsumer() {
+        final List<Integer> survivingRentalDayCounts = new ArrayList<>();
+        final CompletedCheckoutConsumer failingConsumer = (completedCheckout, endOfBatch) -> {
+            if (completedCheckout.getRentalDayCount() == 1) {
+                throw new IllegalStateException("Simulated consumer failure.");
+            }
+            survivingRentalDayCounts.add(completedCheckout.getRentalDayCount());
+        };
+        final CapturingConsumer capturingConsumer = new CapturingConsumer(null, null);
+        final CompletedCheckoutRing completedCheckoutRing = new CompletedCheckoutRing(
+                List.of(failingConsumer, capturingConsumer), 4);
+
+        completedCheckoutRing.publish(createRentalAgreementDto(1));
+        completedCheckoutRing.publish(createRentalAgreementDto(2));
+        completedCheckoutRing.close();
+
+        assertThat(survivingRentalDayCounts).containsExactly(2);
+        assertThat(capturingConsumer.rentalDayCounts).containsExactly(1, 2);
+    }
+
+    /**
+     * Creates a rental agreement. Only the rental day count, which identifies the checkout, matters to these tests.
+     *
+     * @param rentalDayCount The rental day count.
+     * @return The rental agreement.
+     */
+    private static RentalAgreementDto createRentalAgreementDto(final int rentalDayCount) {
+        final RentalAgreementDto rentalAgreementDto = new RentalAgreementDto();
+        rentalAgreementDto.setToolCode("JAKR");
+        rentalAgreementDto.setRentalDayCount(rentalDayCount);
+        return rentalAgreementDto;
+    }
+
+    /**
+     * A consumer that keeps the rental day count of every checkout and can optionally pause on its first checkout.
+     */
+    private static class CapturingConsumer implements CompletedCheckoutConsumer {
+        private final List<Integer> rentalDayCounts = new ArrayList<>();
+        private final CountDownLatch enteredLatch;
+        private final CountDownLatch releaseLatch;
+        private int endOfBatchRentalDayCount;
+
+        /**
+         * Constructor.
+         *
+         * @param enteredLatch Counted down when a checkout is consumed. May be null.
+         * @param releaseLatch Awaited before a checkout is consumed. May be null.
+         */
+        private CapturingConsumer(final CountDownLatch enteredLatch, final CountDownLatch releaseLatch) {
+            this.enteredLatch = enteredLatch;
+            this.releaseLatch = releaseLatch;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void accept(final CompletedCheckout completedCheckout, final boolean endOfBatch) {
+            if (enteredLatch != null) {
+                enteredLatch.countDown();
+            }
+            if (releaseLatch != null) {
+                try {
+                    releaseLatch.await();
+                }
+                catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            rentalDayCounts.add(completedCheckout.getRentalDayCount());
+            if (endOfBatch) {
+                endOfBatchRentalDayCount = completedCheckout.getRentalDayCount();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.PromotionIndex PromotionIndex}.
+ */
+public class PromotionIndexTests {
+    private static final String[] TOOL_TYPES = { "Chainsaw", "Jackhammer", "Ladder" };
+
+    /**
+     * Verifies a Tool Type promotion only applies to its Tool Type, within its date window (inclusive).
+     */
+    @Test
+    public void findBestPromotionMatchesToolTypeAndDateWindow() {
+        final Promotion summerLadders = new Promotion(1, "Summer Ladders", null, "Ladder", LocalDate.of(2020, 7, 1),
+                LocalDate.of(2020, 7, 31), 1, 15);
+        final PromotionIndex promotionIndex = new PromotionIndex(List.of(summerLadders));
+
+        assertThat(promotionIndex.findBestPromotion(null, "Ladder", LocalDate.of(2020, 6, 30), 3)).isNull();
+        assertThat(promotionIndex.findBestPromotion(null, "Ladder", LocalDate.of(2020, 7, 1), 3))
+                .isEqualTo(summerLadders);
+        assertThat(promotionIndex.findBestPromotion(null, "Ladder", LocalDate.of(2020, 7, 31), 3))
+                .isEqualTo(summerLadders);
+        assertThat(promotionIndex.findBestPromotion(null, "Ladder", LocalDate.of(2020, 8, 1), 3)).isNull();
+        assertThat(promotionIndex.findBestPromotion(null, "Chainsaw", LocalDate.of(2020, 7, 15), 3)).isNull();
+    }
+
+    /**
+     * Verifies the greatest discount wins, whether the promotion is for the Tool Type or for every Tool Type, and that
+     *   a promotion whose minimum rental length is not met is passed over.
+     */
+    @Test
+    public void findBestPromotionPrefersGreatestApplicableDiscount() {
+        final Promotion everything = new Promotion(1, "Everything", null, null, null, null, 1, 5);
+        final Promotion ladders = new Promotion(2, "Ladders", null, "Ladder", null, null, 1, 10);
+        final Promotion longLadders = new Promotion(3, "Long Ladders", null, "Ladder", null, null, 7, 25);
+        final Promotion longEverything = new Promotion(4, "Long Everything", null, null, null, null, 14, 30);
+        final PromotionIndex promotionIndex = new PromotionIndex(List.of(everything, ladders, longLadders,
+                longEverything));
+
+        final LocalDate checkoutDate = LocalDate.of(2024, 7, 1);
+        assertThat(promotionIndex.findBestPromotion(null, "Ladder", checkoutDate, 1)).isEqualTo(ladders);
+        assertThat(promotionIndex.findBestPromotion(null, "Ladder", checkoutDate, 7)).isEqualTo(longLadders);
+        assertThat(promotionIndex.findBestPromotion(null, "Ladder", checkoutDate, 14)).isEqualTo(longEverything);
+        assertThat(promotionIndex.findBestPromotion(null, "Chainsaw", checkoutDate, 7)).isEqualTo(everything);
+    }
+
+    /**
+     * Verifies coupon promotions are only found with their coupon code, and never without one.
+     */
+    @Test
+    public void findBestPromotionSeparatesCouponCodes() {
+        final Promotion welcome = new Promotion(1, "Welcome", "WELCOME10", null, null, null, 1, 10);
+        final PromotionIndex promotionIndex = new PromotionIndex(List.of(welcome));
+
+        final LocalDate checkoutDate = LocalDate.of(2024, 7, 1);
+        assertThat(promotionIndex.findBestPromotion("WELCOME10", "Ladder", checkoutDate, 1)).isEqualTo(welcome);
+        assertThat(promotionIndex.findBestPromotion(null, "Ladder", checkoutDate, 1)).isNull();
+        assertThat(promotionIndex.findBestPromotion("OTHER", "Ladder", checkoutDate, 1)).isNull();
+    }
+
+    /**
+     * Verifies the compiled index agrees with a linear scan of thousands of overlapping promotions.
+     */
+    @Test
+    public void findBestPromotionMatchesLinearScan() {
+        final Random random = new Random(49);
+        final LocalDate firstDate = LocalDate.of(2024, 1, 1);
+        final List<Promotion> promotions = new ArrayList<>();
+        for (int id = 1; id <= 5000; id++) {
+            final LocalDate startDate = random.nextInt(10) == 0 ? null : firstDate.plusDays(random.nextInt(366));
+            final LocalDate endDate = random.nextInt(10) == 0 ? null
+                    : (startDate == null ? firstDate : startDate).plusDays(random.nextInt(60));
+            promotions.add(new Promotion(id, "Promotion " + id, random.nextInt(4) == 0 ? "C" + random.nextInt(5) : null,
+                    random.nextInt(4) == 0 ? null : TOOL_TYPES[random.nextInt(TOOL_TYPES.length)], startDate, endDate,
+                    1 + random.nextInt(10), 1 + random.nextInt(100)));
+        }
+        final PromotionIndex promotionIndex = new PromotionIndex(promotions);
+
+        for (int lookup = 0; lookup < 2000; lookup++) {
+            final String couponCode = random.nextBoolean() ? null : "C" + random.nextInt(6);
+            final String toolType = TOOL_TYPES[random.nextInt(TOOL_TYPES.length)];
+            final LocalDate checkoutDate = firstDate.plusDays(random.nextInt(450) - 20);
+            final int rentalDayCount = 1 + random.nextInt(12);
+
+            assertThat(promotionIndex.findBestPromotion(couponCode, toolType, checkoutDate, rentalDayCount))
+                    .isEqualTo(scan(promotions, couponCode, toolType, checkoutDate, rentalDayCount));
+        }
+    }
+
+    /**
+     * Finds the best promotion by checking every promotion.
+     *
+     * @param promotions The promotions.
+     * @param couponCode The coupon code, or null.
+     * @param toolType The Tool Type.
+     * @param checkoutDate The checkout date.
+     * @param rentalDayCount The number of rental days.
+     * @return The best applicable promotion, or null.
+     */
+    private static Promotion scan(final List<Promotion> promotions, final String couponCode, final String toolType,
+            final LocalDate checkoutDate, final int rentalDayCount) {
+        return promotions.stream()
+                .filter(promotion -> couponCode == null ? promotion.couponCode() == null
+                        : couponCode.equals(promotion.couponCode()))
+                .filter(promotion -> promotion.toolType() == null || promotion.toolType().equals(toolType))
+                .filter(promotion -> promotion.startDate() == null || !promotion.startDate().isAfter(checkoutDate))
+                .filter(promotion -> promotion.endDate() == null || !promotion.endDate().isBefore(checkoutDate))
+                .filter(promotion -> rentalDayCount >= promotion.minimumRentalDayCount())
+                .min(Comparator.comparingInt(Promotion::discountPercent).reversed().thenComparingInt(Promotion::id))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementHistory RentalAgreementHistory}.
+ */
+public class RentalAgreementHistoryTests {
+    /**
+     * Verifies sorted Streams, including an empty one, are merged in order and every source Stream is closed.
+     */
+    @Test
+    public void mergeSortedMergesAndClosesStreams() {
+        final List<String> closedStreamNames = new ArrayList<>();
+        final List<Stream<Integer>> sortedStreams = List.of(
+                Stream.of(1, 4, 9).onClose(() -> closedStreamNames.add("hot")),
+                Stream.<Integer>empty().onClose(() -> closedStreamNames.add("2015-08")),
+                Stream.of(2, 3, 10).onClose(() -> closedStreamNames.add("2015-09")));
+
+        try (Stream<Integer> mergedStream = RentalAgreementHistory.mergeSorted(sortedStreams,
+                Comparator.naturalOrder())) {
+            assertThat(mergedStream.toList()).containsExactly(1, 2, 3, 4, 9, 10);
+        }
+
+        assertThat(closedStreamNames).containsExactly("hot", "2015-08", "2015-09");
+    }
+}
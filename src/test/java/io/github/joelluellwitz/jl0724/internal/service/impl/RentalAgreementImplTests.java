@@ -10,6 +10,8 @@ import java.io.PrintStream;
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -559,6 +561,35 @@ public class RentalAgreementImplTests {
         assertThat(new RentalAgreementImpl(contractParameters, tool).getChargeDayCount()).isEqualTo(714);
     }
 
+    /**
+     * Verifies that no weekdays are counted when the chargeable rental period falls entirely on a weekend. This is a
+     *   weekend edge case test.
+     */
+    @Test
+    public void getChargeDayCountCountingWeekdaysWithinWeekend() {
+        final ContractParameters contractParameters = new ContractParameters();
+        contractParameters.setToolCode("CHNS");
+        contractParameters.setCheckoutDate(LocalDate.of(2024, 7, 5));
+        contractParameters.setRentalDayCount(2);
+        contractParameters.setDiscountPercent(25);
+
+        final ToolImpl tool = new ToolImpl();
+        tool.setCode("CHNS");
+        tool.setType("Chainsaw");
+        tool.setBrand("Stihl");
+        tool.setDailyCharge(new BigDecimal("1.49"));
+        tool.setWeekdayCharge(true);
+        tool.setWeekendCharge(false);
+        tool.setHolidayCharge(true);
+
+        assertThat(new RentalAgreementImpl(contractParameters, tool).getChargeDayCount()).isEqualTo(0);
+
+        contractParameters.setCheckoutDate(LocalDate.of(2024, 7, 6));
+        contractParameters.setRentalDayCount(1);
+
+        assertThat(new RentalAgreementImpl(contractParameters, tool).getChargeDayCount()).isEqualTo(0);
+    }
+
     /**
      * Verifies that no holidays are excluded from the chargeable day count over a large rental period that starts and
      *   ends within the same year. This test is <i>edge case</i> testing that multi-year holiday counting logic is
@@ -1146,6 +1177,123 @@ public class RentalAgreementImplTests {
         assertThat(preDiscountCharge0).isSameAs(preDiscountCharge1);
     }
 
+    /**
+     * Verifies a year long rental is charged each whole month's cap plus the remaining days' charges, capped at a
+     *   week's cap.
+     */
+    @Test
+    public void getPreDiscountChargeAppliesWeeklyAndMonthlyCaps() {
+        final ContractParameters contractParameters = new ContractParameters();
+        contractParameters.setToolCode("JAKR");
+        contractParameters.setCheckoutDate(LocalDate.of(2015, 9, 3));
+        contractParameters.setRentalDayCount(365);
+        contractParameters.setDiscountPercent(0);
+
+        final ToolImpl tool = new ToolImpl();
+        tool.setCode("JAKR");
+        tool.setType("Jackhammer");
+        tool.setBrand("Ridgid");
+        tool.setDailyCharge(new BigDecimal("2.99"));
+        tool.setWeekdayCharge(true);
+        tool.setWeekendCharge(false);
+        tool.setHolidayCharge(false);
+        tool.setWeeklyChargeCap(new BigDecimal("10.00"));
+        tool.setMonthlyChargeCap(new BigDecimal("35.00"));
+
+        final RentalAgreementImpl rentalAgreement = new RentalAgreementImpl(contractParameters, tool);
+
+        // 12 months at $35.00, then 5 weekdays capped at $10.00.
+        assertThat(rentalAgreement.getPreDiscountCharge()).isEqualTo("430.00");
+    }
+
+    /**
+     * Verifies a weekly cap only applies to whole weeks and the remaining days, and never raises the charge of a week
+     *   that costs less than the cap.
+     */
+    @Test
+    public void getPreDiscountChargeAppliesWeeklyCap() {
+        final ContractParameters contractParameters = new ContractParameters();
+        contractParameters.setToolCode("LADW");
+        contractParameters.setCheckoutDate(LocalDate.of(2020, 7, 2));
+        contractParameters.setRentalDayCount(17);
+        contractParameters.setDiscountPercent(0);
+
+        final ToolImpl tool = new ToolImpl();
+        tool.setCode("LADW");
+        tool.setType("Ladder");
+        tool.setBrand("Werner");
+        tool.setDailyCharge(new BigDecimal("1.99"));
+        tool.setWeekdayCharge(true);
+        tool.setWeekendCharge(true);
+        tool.setHolidayCharge(false);
+        tool.setWeeklyChargeCap(new BigDecimal("10.00"));
+
+        // 2 weeks at $10.00 each, then 3 days at $1.99 each.
+        assertThat(new RentalAgreementImpl(contractParameters, tool).getPreDiscountCharge()).isEqualTo("25.97");
+
+        tool.setWeeklyChargeCap(new BigDecimal("100.00"));
+
+        // The cap is higher than any week's charge, so the 16 charge days are charged as usual.
+        assertThat(new RentalAgreementImpl(contractParameters, tool).getPreDiscountCharge()).isEqualTo("31.84");
+    }
+
+    /**
+     * Verifies each whole week is capped on its own, so a week holding a holiday that costs less than the cap is
+     *   charged its own charge while the other weeks are charged the cap.
+     */
+    @Test
+    public void getPreDiscountChargeCapsEachWeekOnItsOwn() {
+        final ContractParameters contractParameters = new ContractParameters();
+        contractParameters.setToolCode("LADW");
+        contractParameters.setCheckoutDate(LocalDate.of(2020, 7, 2));
+        contractParameters.setRentalDayCount(17);
+        contractParameters.setDiscountPercent(0);
+
+        final ToolImpl tool = new ToolImpl();
+        tool.setCode("LADW");
+        tool.setType("Ladder");
+        tool.setBrand("Werner");
+        tool.setDailyCharge(new BigDecimal("1.99"));
+        tool.setWeekdayCharge(true);
+        tool.setWeekendCharge(true);
+        tool.setHolidayCharge(false);
+        tool.setWeeklyChargeCap(new BigDecimal("13.00"));
+
+        // The first week holds the observed Independence Day, so its 6 charge days cost $11.94, less than the cap. The
+        //   second week is capped at $13.00, then 3 days at $1.99 each.
+        assertThat(new RentalAgreementImpl(contractParameters, tool).getPreDiscountCharge()).isEqualTo("30.91");
+    }
+
+    /**
+     * Verifies the capped charge of many random rentals matches a reference implementation that charges each day
+     *   individually.
+     */
+    @Test
+    public void getPreDiscountChargeMatchesDayByDayCaps() {
+        final Random random = new Random(724);
+        for (int iteration = 0; iteration < 2000; iteration++) {
+            final ContractParameters contractParameters = new ContractParameters();
+            contractParameters.setToolCode("JAKD");
+            contractParameters.setCheckoutDate(LocalDate.of(2014, 1, 1).plusDays(random.nextInt(3650)));
+            contractParameters.setRentalDayCount(1 + random.nextInt(400));
+            contractParameters.setDiscountPercent(0);
+
+            final ToolImpl tool = new ToolImpl();
+            tool.setCode("JAKD");
+            tool.setType("Jackhammer");
+            tool.setBrand("DeWalt");
+            tool.setDailyCharge(new BigDecimal("2.99"));
+            tool.setWeekdayCharge(random.nextBoolean());
+            tool.setWeekendCharge(random.nextBoolean());
+            tool.setHolidayCharge(random.nextBoolean());
+            tool.setWeeklyChargeCap(random.nextBoolean() ? null : new BigDecimal(5 + random.nextInt(20) + ".00"));
+            tool.setMonthlyChargeCap(random.nextBoolean() ? null : new BigDecimal(20 + random.nextInt(80) + ".00"));
+
+            assertThat(new RentalAgreementImpl(contractParameters, tool).getPreDiscountCharge())
+                    .isEqualByComparingTo(getDayByDayCappedCharge(contractParameters, tool));
+        }
+    }
+
     /**
      * Verifies the discount amount is calculated correctly when the discount percent is 0. (Edge case testing.)
      */
@@ -1565,4 +1713,94 @@ public class RentalAgreementImplTests {
             System.setOut(originalSystemOut);
         }
     }
+
+    /**
+     * Reference implementation of the capped charge that charges each day individually, then caps each whole month,
+     *   each whole week, and the remaining days on their own.
+     *
+     * @param contractParameters The rental.
+     * @param tool The rented tool.
+     * @return The capped charge.
+     */
+    private static BigDecimal getDayByDayCappedCharge(final ContractParameters contractParameters,
+            final ToolImpl tool) {
+        final int rentalDayCount = contractParameters.getRentalDayCount();
+        final int monthCount = tool.getMonthlyChargeCap() == null ? 0 : rentalDayCount / 30;
+        final int weekTierDayCount = rentalDayCount - monthCount * 30;
+        final int weekCount = tool.getWeeklyChargeCap() == null ? 0 : weekTierDayCount / 7;
+        final int remainingDayCount = weekTierDayCount - weekCount * 7;
+
+        BigDecimal weekTierCharge = getDayByDayCharge(contractParameters, tool, rentalDayCount - remainingDayCount,
+                remainingDayCount);
+        if (tool.getWeeklyChargeCap() != null) {
+            weekTierCharge = weekTierCharge.min(tool.getWeeklyChargeCap());
+            for (int week = 0; week < weekCount; week++) {
+                weekTierCharge = weekTierCharge.add(getDayByDayCharge(contractParameters, tool,
+                        monthCount * 30 + week * 7, 7).min(tool.getWeeklyChargeCap()));
+            }
+        }
+
+        BigDecimal charge = weekTierCharge;
+        if (tool.getMonthlyChargeCap() != null) {
+            charge = weekTierCharge.min(tool.getMonthlyChargeCap());
+            for (int month = 0; month < monthCount; month++) {
+                charge = charge.add(getDayByDayCharge(contractParameters, tool, month * 30, 30)
+                        .min(tool.getMonthlyChargeCap()));
+            }
+        }
+
+        return charge;
+    }
+
+    /**
+     * Charges part of a rental one day at a time.
+     *
+     * @param contractParameters The rental.
+     * @param tool The rented tool.
+     * @param skippedDayCount The number of days of the rental period before the first day to charge.
+     * @param dayCount The number of days to charge.
+     * @return The uncapped charge of those days.
+     */
+    private static BigDecimal getDayByDayCharge(final ContractParameters contractParameters, final ToolImpl tool,
+            final int skippedDayCount, final int dayCount) {
+        final LocalDate firstDate = contractParameters.getCheckoutDate().plusDays(skippedDayCount + 1);
+        BigDecimal charge = BigDecimal.ZERO;
+        for (LocalDate date = firstDate; date.isBefore(firstDate.plusDays(dayCount)); date = date.plusDays(1)) {
+            final boolean weekend = date.getDayOfWeek() == DayOfWeek.SATURDAY
+                    || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+            final boolean charged;
+            if (weekend) {
+                charged = tool.isWeekendCharge();
+            }
+            else if (isHoliday(date)) {
+                charged = tool.isWeekdayCharge() && tool.isHolidayCharge();
+            }
+            else {
+                charged = tool.isWeekdayCharge();
+            }
+            if (charged) {
+                charge = charge.add(tool.getDailyCharge());
+            }
+        }
+
+        return charge;
+    }
+
+    /**
+     * @param date A weekday.
+     * @return true if the date is the observed Independence Day or Labor Day.
+     */
+    private static boolean isHoliday(final LocalDate date) {
+        LocalDate independenceDay = LocalDate.of(date.getYear(), 7, 4);
+        if (independenceDay.getDayOfWeek() == DayOfWeek.SATURDAY) {
+            independenceDay = independenceDay.minusDays(1);
+        }
+        else if (independenceDay.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            independenceDay = independenceDay.plusDays(1);
+        }
+        final LocalDate laborDay = LocalDate.of(date.getYear(), 9, 1)
+                .with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+
+        return date.equals(independenceDay) || date.equals(laborDay);
+    }
 }
\ No newline at end of file
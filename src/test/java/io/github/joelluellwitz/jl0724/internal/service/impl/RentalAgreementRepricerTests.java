@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.github.joelluellwitz.jl0724.TestConfiguration;
+import io.github.joelluellwitz.jl0724.exposed.service.api.CartParameters;
+import io.github.joelluellwitz.jl0724.exposed.service.api.ContractParameters;
+import io.github.joelluellwitz.jl0724.exposed.service.api.RepricingSummary;
+import io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementRepricer RentalAgreementRepricer}
+ *   through {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#repriceRentalAgreements
+ *   RetailPointOfSale#repriceRentalAgreements}.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestConfiguration.class)
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+@Sql("/io/github/joelluellwitz/jl0724/internal/data/api/ToolRepoTests.sql")
+public class RentalAgreementRepricerTests {
+    private final JdbcTemplate jdbcTemplate;
+    private final RetailPointOfSale retailPointOfSale;
+
+    /**
+     * Constructor.
+     *
+     * @param jdbcTemplate Used to change a tool type daily charge.
+     * @param retailPointOfSale A
+     *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RetailPointOfSaleImpl RetailPointOfSaleImpl}
+     *   instance to test.
+     */
+    @Autowired
+    public RentalAgreementRepricerTests(final JdbcTemplate jdbcTemplate, final RetailPointOfSale retailPointOfSale) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retailPointOfSale = retailPointOfSale;
+    }
+
+    /**
+     * Verifies only the rental agreements affected by a daily charge change are reported and that the totals include
+     *   every rental agreement.
+     */
+    @Test
+    public void repriceRentalAgreementsReportsChangedAgreements() {
+        checkout("JAKR", LocalDate.of(2015, 9, 3), 5);
+        checkout("LADW", LocalDate.of(2020, 7, 2), 3);
+
+        jdbcTemplate.update(
+                "UPDATE tool_type SET daily_charge = 3.99, version = version + 1 WHERE name = 'Jackhammer'");
+
+        final StringWriter reportWriter = new StringWriter();
+        final RepricingSummary repricingSummary = retailPointOfSale.repriceRentalAgreements(reportWriter);
+
+        assertThat(reportWriter.toString()).isEqualTo("rentalAgreementId,toolCode,checkoutDate,rentalDayCount,"
+                + "discountPercent,originalFinalCharge,repricedFinalCharge,difference\n"
+                + "1,JAKR,2015-09-03,5,0,5.98,7.98,2.00\n");
+        assertThat(repricingSummary.getRentalAgreementCount()).isEqualTo(2);
+        assertThat(repricingSummary.getChangedRentalAgreementCount()).isEqualTo(1);
+        assertThat(repricingSummary.getOriginalFinalChargeTotal()).isEqualByComparingTo(new BigDecimal("9.96"));
+        assertThat(repricingSummary.getRepricedFinalChargeTotal()).isEqualByComparingTo(new BigDecimal("11.96"));
+    }
+
+    /**
+     * Verifies rental agreements are repriced with the scheduled tool type price in effect on their checkout date, so
+     *   a change to the tool type's own charges only affects rental agreements from before its first scheduled price.
+     */
+    @Test
+    @Sql({ "/io/github/joelluellwitz/jl0724/internal/data/api/ToolRepoTests.sql",
+            "/io/github/joelluellwitz/jl0724/internal/service/impl/ToolTypePriceTests.sql" })
+    public void repriceRentalAgreementsAppliesScheduledPrices() {
+        checkout("LADW", LocalDate.of(2020, 6, 1), 3);
+        checkout("LADW", LocalDate.of(2020, 7, 2), 3);
+        checkout("LADW", LocalDate.of(2020, 8, 7), 3);
+
+        jdbcTemplate.update("UPDATE tool_type SET daily_charge = 2.19, version = version + 1 WHERE name = 'Ladder'");
+
+        final StringWriter reportWriter = new StringWriter();
+        final RepricingSummary repricingSummary = retailPointOfSale.repriceRentalAgreements(reportWriter);
+
+        assertThat(reportWriter.toString()).isEqualTo("rentalAgreementId,toolCode,checkoutDate,rentalDayCount,"
+                + "discountPercent,originalFinalCharge,repricedFinalCharge,difference\n"
+                + "1,LADW,2020-06-01,3,0,5.97,6.57,0.60\n");
+        assertThat(repricingSummary.getRentalAgreementCount()).isEqualTo(3);
+        assertThat(repricingSummary.getChangedRentalAgreementCount()).isEqualTo(1);
+        assertThat(repricingSummary.getOriginalFinalChargeTotal()).isEqualByComparingTo(new BigDecimal("13.94"));
+        assertThat(repricingSummary.getRepricedFinalChargeTotal()).isEqualByComparingTo(new BigDecimal("14.54"));
+    }
+
+    /**
+     * Verifies the share of a cart's order discount allocated to each line is kept, so unchanged cart lines are not
+     *   reported.
+     */
+    @Test
+    public void repriceRentalAgreementsKeepsOrderDiscounts() {
+        final ContractParameters discountedLine = createContractParameters("LADW", LocalDate.of(2020, 7, 2), 3);
+        discountedLine.setDiscountPercent(10);
+        final CartParameters cartParameters = new CartParameters();
+        cartParameters.setLines(List.of(createContractParameters("JAKD", LocalDate.of(2015, 9, 3), 5),
+                discountedLine));
+        cartParameters.setDiscountPercent(10);
+        retailPointOfSale.checkoutCart(cartParameters);
+
+        final StringWriter reportWriter = new StringWriter();
+        final RepricingSummary repricingSummary = retailPointOfSale.repriceRentalAgreements(reportWriter);
+
+        assertThat(reportWriter.toString()).isEqualTo("rentalAgreementId,toolCode,checkoutDate,rentalDayCount,"
+                + "discountPercent,originalFinalCharge,repricedFinalCharge,difference\n");
+        assertThat(repricingSummary.getRentalAgreementCount()).isEqualTo(2);
+        assertThat(repricingSummary.getChangedRentalAgreementCount()).isZero();
+        assertThat(repricingSummary.getRepricedFinalChargeTotal()).isEqualByComparingTo(new BigDecimal("8.60"));
+    }
+
+    /**
+     * Verifies a rental agreement whose tool was renamed after checkout is reported as skipped rather than aborting the
+     *   run.
+     */
+    @Test
+    public void repriceRentalAgreementsSkipsMissingTools() {
+        checkout("JAKR", LocalDate.of(2015, 9, 3), 5);
+        checkout("LADW", LocalDate.of(2020, 7, 2), 3);
+
+        jdbcTemplate.update("UPDATE tool SET code = 'JAKX', version = version + 1 WHERE code = 'JAKR'");
+
+        final StringWriter reportWriter = new StringWriter();
+        final RepricingSummary repricingSummary = retailPointOfSale.repriceRentalAgreements(reportWriter);
+
+        assertThat(reportWriter.toString()).isEqualTo("rentalAgreementId,toolCode,checkoutDate,rentalDayCount,"
+                + "discountPercent,originalFinalCharge,repricedFinalCharge,difference\n"
+                + "1,JAKR,2015-09-03,5,0,5.98,,\n");
+        assertThat(repricingSummary.getRentalAgreementCount()).isEqualTo(1);
+        assertThat(repricingSummary.getChangedRentalAgreementCount()).isZero();
+        assertThat(repricingSummary.getSkippedRentalAgreementCount()).isEqualTo(1);
+        assertThat(repricingSummary.getOriginalFinalChargeTotal()).isEqualByComparingTo(new BigDecimal("3.98"));
+    }
+
+    /**
+     * Verifies an empty report when nothing has been rented.
+     */
+    @Test
+    public void repriceRentalAgreementsSucceedsWithNoAgreements() {
+        final StringWriter reportWriter = new StringWriter();
+        final RepricingSummary repricingSummary = retailPointOfSale.repriceRentalAgreements(reportWriter);
+
+        assertThat(reportWriter.toString()).isEqualTo("rentalAgreementId,toolCode,checkoutDate,rentalDayCount,"
+                + "discountPercent,originalFinalCharge,repricedFinalCharge,difference\n");
+        assertThat(repricingSummary.getRentalAgreementCount()).isZero();
+        assertThat(repricingSummary.getRepricedFinalChargeTotal()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    /**
+     * Checks out a tool with no discount.
+     *
+     * @param toolCode The Tool Code.
+     * @param checkoutDate The checkout date.
+     * @param rentalDayCount The number of rental days.
+     */
+    private void checkout(final String toolCode, final LocalDate checkoutDate, final int rentalDayCount) {
+        retailPointOfSale.checkout(createContractParameters(toolCode, checkoutDate, rentalDayCount));
+    }
+
+    /**
+     * Creates the parameters of a checkout with no discount.
+     *
+     * @param toolCode The Tool Code.
+     * @param checkoutDate The checkout date.
+     * @param rentalDayCount The number of rental days.
+     * @return The contract parameters.
+     */
+    private static ContractParameters createContractParameters(final String toolCode, final LocalDate checkoutDate,
+            final int rentalDayCount) {
+        final ContractParameters contractParameters = new ContractParameters();
+        contractParameters.setToolCode(toolCode);
+        contractParameters.setCheckoutDate(checkoutDate);
+        contractParameters.setRentalDayCount(rentalDayCount);
+        contractParameters.setDiscountPercent(0);
+
+        return contractParameters;
+    }
+}
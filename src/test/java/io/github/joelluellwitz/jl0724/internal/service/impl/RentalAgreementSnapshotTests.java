@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.joelluellwitz.jl0724.internal.data.api.RentalAgreementFactDto;
+import io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementSnapshotQuery.Dimension;
+import io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementSnapshotQuery.Measure;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementSnapshot RentalAgreementSnapshot}
+ *   and the files written by
+ *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalAgreementSnapshotWriter
+ *   RentalAgreementSnapshotWriter}.
+ */
+public class RentalAgreementSnapshotTests {
+    private static final Instant CREATED_ON = Instant.parse("2020-07-10T12:00:00Z");
+
+    @TempDir
+    private Path snapshotDirectory;
+
+    private RentalAgreementSnapshot snapshot;
+
+    /**
+     * Writes and opens a snapshot of four rental agreements.
+     *
+     * @throws IOException If the snapshot cannot be written.
+     */
+    @BeforeEach
+    public void writeSnapshot() throws IOException {
+        final RentalAgreementSnapshotWriter rentalAgreementSnapshotWriter = new RentalAgreementSnapshotWriter();
+        rentalAgreementSnapshotWriter.add(new RentalAgreementFactDto(1, "LADW", "Ladder", "Werner",
+                LocalDate.of(2015, 9, 3), 3, 2, 10, new BigDecimal("0.40"), new BigDecimal("3.58")));
+        rentalAgreementSnapshotWriter.add(new RentalAgreementFactDto(2, "CHNS", "Chainsaw", "Stihl",
+                LocalDate.of(2015, 7, 2), 5, 3, 25, new BigDecimal("1.12"), new BigDecimal("3.35")));
+        rentalAgreementSnapshotWriter.add(new RentalAgreementFactDto(3, "JAKD", "Jackhammer", "DeWalt",
+                LocalDate.of(2015, 9, 3), 6, 3, 0, new BigDecimal("0.00"), new BigDecimal("8.97")));
+        rentalAgreementSnapshotWriter.add(new RentalAgreementFactDto(4, "LADW", "Ladder", "Werner",
+                LocalDate.of(2020, 7, 2), 4, 3, 50, new BigDecimal("2.99"), new BigDecimal("2.98")));
+
+        final Path snapshotPath = snapshotDirectory.resolve("snapshot.jlra");
+        rentalAgreementSnapshotWriter.write(snapshotPath, CREATED_ON);
+        snapshot = RentalAgreementSnapshot.open(snapshotPath);
+    }
+
+    /**
+     * Verifies an ungrouped query sums every rental agreement.
+     */
+    @Test
+    public void sumWithoutGroupBySumsEveryRentalAgreement() {
+        assertThat(snapshot.getRowCount()).isEqualTo(4);
+        assertThat(snapshot.getCreatedOn()).isEqualTo(CREATED_ON);
+        assertThat(snapshot.query().sum(Measure.FINAL_CHARGE)).containsExactly(
+                new RentalAgreementSnapshotGroup(null, 4, new BigDecimal("18.88")));
+        assertThat(snapshot.query().sum(Measure.PRE_DISCOUNT_CHARGE)).containsExactly(
+                new RentalAgreementSnapshotGroup(null, 4, new BigDecimal("23.39")));
+    }
+
+    /**
+     * Verifies groups are sorted by key and filters and checkout date ranges are applied.
+     */
+    @Test
+    public void sumGroupsAndFilters() {
+        assertThat(snapshot.query().groupBy(Dimension.TOOL_TYPE).sum(Measure.CHARGE_DAY_COUNT)).containsExactly(
+                new RentalAgreementSnapshotGroup("Chainsaw", 1, new BigDecimal("3")),
+                new RentalAgreementSnapshotGroup("Jackhammer", 1, new BigDecimal("3")),
+                new RentalAgreementSnapshotGroup("Ladder", 2, new BigDecimal("5")));
+
+        assertThat(snapshot.query().checkoutBetween(LocalDate.of(2015, 1, 1), LocalDate.of(2015, 12, 31))
+                .groupBy(Dimension.CHECKOUT_MONTH).sum(Measure.DISCOUNT_AMOUNT)).containsExactly(
+                        new RentalAgreementSnapshotGroup("2015-07", 1, new BigDecimal("1.12")),
+                        new RentalAgreementSnapshotGroup("2015-09", 2, new BigDecimal("0.40")));
+
+        assertThat(snapshot.query().where(Dimension.TOOL_BRAND, "Werner").groupBy(Dimension.CHECKOUT_YEAR)
+                .sum(Measure.FINAL_CHARGE)).containsExactly(
+                        new RentalAgreementSnapshotGroup("2015", 1, new BigDecimal("3.58")),
+                        new RentalAgreementSnapshotGroup("2020", 1, new BigDecimal("2.98")));
+    }
+
+    /**
+     * Verifies a filter on a value no rental agreement has matches nothing, and a date dimension cannot be used as a
+     *   filter.
+     */
+    @Test
+    public void whereUnknownValueMatchesNothing() {
+        assertThat(snapshot.query().where(Dimension.TOOL_CODE, "XXXX").sum(Measure.RENTAL_DAY_COUNT)).containsExactly(
+                new RentalAgreementSnapshotGroup(null, 0, BigDecimal.ZERO));
+        assertThat(snapshot.query().where(Dimension.TOOL_CODE, "XXXX").groupBy(Dimension.TOOL_CODE)
+                .sum(Measure.RENTAL_DAY_COUNT)).isEmpty();
+        assertThatThrownBy(() -> snapshot.query().where(Dimension.CHECKOUT_YEAR, "2015"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
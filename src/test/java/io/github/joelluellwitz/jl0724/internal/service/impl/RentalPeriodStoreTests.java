@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalPeriodStore RentalPeriodStore}.
+ */
+public class RentalPeriodStoreTests {
+    /**
+     * Verifies rental periods are read back unchanged, including past the first chunk, and Tool Codes are stored once.
+     */
+    @Test
+    public void appendStoresRentalPeriods() {
+        final RentalPeriodStore rentalPeriodStore = new RentalPeriodStore();
+        final LocalDate baseDate = LocalDate.of(2015, 9, 3);
+        for (int rentalAgreementId = 1; rentalAgreementId <= 70_000; rentalAgreementId++) {
+            rentalPeriodStore.append(rentalAgreementId, rentalAgreementId % 2 == 0 ? "LADW" : "JAKR",
+                    baseDate.plusDays(rentalAgreementId), baseDate.plusDays(rentalAgreementId + 5));
+        }
+
+        assertThat(rentalPeriodStore.size()).isEqualTo(70_000);
+        assertThat(rentalPeriodStore.toRentalPeriod(69_999)).isEqualTo(new RentalPeriodImpl(70_000, "LADW",
+                baseDate.plusDays(70_000), baseDate.plusDays(70_005)));
+        assertThat(rentalPeriodStore.getInt(69_999, RentalPeriodStore.TOOL_CODE_FIELD)).isEqualTo(
+                rentalPeriodStore.getInt(1, RentalPeriodStore.TOOL_CODE_FIELD));
+        assertThat(rentalPeriodStore.getInt(0, RentalPeriodStore.LEFT_FIELD)).isEqualTo(RentalPeriodStore.NO_RECORD);
+
+        rentalPeriodStore.removeLast();
+        assertThat(rentalPeriodStore.size()).isEqualTo(69_999);
+        assertThat(RentalPeriodStore.toQueryEpochDay(LocalDate.MAX)).isEqualTo(Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.RentalPeriod;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.RentalPeriodTree RentalPeriodTree}.
+ */
+public class RentalPeriodTreeTests {
+    /**
+     * Verifies overlap queries match a brute force scan over randomly generated rental periods.
+     */
+    @Test
+    public void findOverlappingMatchesBruteForce() {
+        final Random random = new Random(724);
+        final LocalDate baseDate = LocalDate.of(2024, 1, 1);
+        final RentalPeriodTree rentalPeriodTree = new RentalPeriodTree();
+        final List<RentalPeriod> allRentalPeriods = new ArrayList<>();
+        for (int rentalAgreementId = 1; rentalAgreementId <= 2000; rentalAgreementId++) {
+            final LocalDate checkoutDate = baseDate.plusDays(random.nextInt(365));
+            final RentalPeriod rentalPeriod = new RentalPeriodImpl(rentalAgreementId, "JAKR", checkoutDate,
+                    checkoutDate.plusDays(1 + random.nextInt(30)));
+            assertThat(rentalPeriodTree.insert(rentalPeriod)).isTrue();
+            allRentalPeriods.add(rentalPeriod);
+        }
+        assertThat(rentalPeriodTree.size()).isEqualTo(2000);
+
+        for (int queryIndex = 0; queryIndex < 200; queryIndex++) {
+            final LocalDate fromDate = baseDate.plusDays(random.nextInt(400) - 20);
+            final LocalDate toDate = fromDate.plusDays(1 + random.nextInt(10));
+
+            final List<RentalPeriod> expectedRentalPeriods = allRentalPeriods.stream()
+                    .filter(rentalPeriod -> rentalPeriod.getCheckoutDate().isBefore(toDate)
+                            && rentalPeriod.getDueDate().isAfter(fromDate))
+                    .sorted(Comparator.comparing(RentalPeriod::getCheckoutDate)
+                            .thenComparingInt(RentalPeriod::getRentalAgreementId))
+                    .toList();
+
+            assertThat(rentalPeriodTree.findOverlapping(fromDate, toDate)).containsExactlyElementsOf(
+                    expectedRentalPeriods);
+        }
+    }
+
+    /**
+     * Verifies a rental period is not out on its due date and that duplicates are ignored.
+     */
+    @Test
+    public void findOverlappingExcludesDueDate() {
+        final RentalPeriodTree rentalPeriodTree = new RentalPeriodTree();
+        final RentalPeriod rentalPeriod = new RentalPeriodImpl(1, "LADW", LocalDate.of(2020, 7, 2),
+                LocalDate.of(2020, 7, 5));
+        rentalPeriodTree.insert(rentalPeriod);
+
+        assertThat(rentalPeriodTree.insert(rentalPeriod)).isFalse();
+        assertThat(rentalPeriodTree.findOverlapping(LocalDate.of(2020, 7, 4), LocalDate.of(2020, 7, 5)))
+                .containsExactly(rentalPeriod);
+        assertThat(rentalPeriodTree.findOverlapping(LocalDate.of(2020, 7, 5), LocalDate.of(2020, 7, 6))).isEmpty();
+        assertThat(rentalPeriodTree.findOverlapping(LocalDate.of(2020, 7, 1), LocalDate.of(2020, 7, 2))).isEmpty();
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import io.github.joelluellwitz.jl0724.TestConfiguration;
+import io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale;
+import io.github.joelluellwitz.jl0724.exposed.service.api.ToolListFormat;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.ToolCatalogCache ToolCatalogCache} through
+ *   {@link io.github.joelluellwitz.jl0724.exposed.service.api.RetailPointOfSale#renderToolList
+ *   RetailPointOfSale#renderToolList}.<p>
+ *
+ * Note: The text table format is verified by RetailConsoleTests, so it is only used here to test cache invalidation.
+ */
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestConfiguration.class)
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+@Sql("/io/github/joelluellwitz/jl0724/internal/data/api/ToolRepoTests.sql")
+public class ToolCatalogCacheTests {
+    private final JdbcTemplate jdbcTemplate;
+    private final RetailPointOfSale retailPointOfSale;
+
+    /**
+     * Constructor.
+     *
+     * @param jdbcTemplate Used to change the catalog behind the cache's back.
+     * @param retailPointOfSale A
+     *   {@link io.github.joelluellwitz.jl0724.internal.service.impl.RetailPointOfSaleImpl RetailPointOfSaleImpl}
+     *   instance to test.
+     */
+    @Autowired
+    public ToolCatalogCacheTests(final JdbcTemplate jdbcTemplate, final RetailPointOfSale retailPointOfSale) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retailPointOfSale = retailPointOfSale;
+    }
+
+    /**
+     * Verifies the CSV rendering of the tool list.
+     */
+    @Test
+    public void renderToolListAsCsvSucceeds() {
+        final String expectedCsv =
+                "code,type,brand,dailyCharge,weekdayCharge,weekendCharge,holidayCharge\n"
+                + "CHNS,Chainsaw,Stihl,1.49,true,false,true\n"
+                + "JAKD,Jackhammer,DeWalt,2.99,true,false,false\n"
+                + "JAKR,Jackhammer,Ridgid,2.99,true,false,false\n"
+                + "LADW,Ladder,Werner,1.99,true,true,false\n";
+
+        assertThat(retailPointOfSale.renderToolList(ToolListFormat.CSV)).isEqualTo(expectedCsv);
+    }
+
+    /**
+     * Verifies the same rendered instance is returned while the catalog is unchanged.
+     */
+    @Test
+    public void renderToolListReturnsCachedResult() {
+        final String toolList0 = retailPointOfSale.renderToolList(ToolListFormat.TEXT_TABLE);
+        final String toolList1 = retailPointOfSale.renderToolList(ToolListFormat.TEXT_TABLE);
+
+        assertThat(toolList0).isSameAs(toolList1);
+    }
+
+    /**
+     * Verifies the rendered tool list is rebuilt when a tool type version changes.
+     */
+    @Test
+    public void renderToolListRefreshesWhenToolTypeChanges() {
+        final String toolList0 = retailPointOfSale.renderToolList(ToolListFormat.CSV);
+
+        jdbcTemplate.update(
+                "UPDATE tool_type SET daily_charge = 3.49, version = version + 1 WHERE name = 'Jackhammer'");
+
+        final String toolList1 = retailPointOfSale.renderToolList(ToolListFormat.CSV);
+
+        assertThat(toolList0).contains("JAKD,Jackhammer,DeWalt,2.99,true,false,false\n");
+        assertThat(toolList1).contains("JAKD,Jackhammer,DeWalt,3.49,true,false,false\n");
+    }
+
+    /**
+     * Verifies the rendered tool list is rebuilt when a tool is added.
+     */
+    @Test
+    public void renderToolListRefreshesWhenToolIsAdded() {
+        retailPointOfSale.renderToolList(ToolListFormat.CSV);
+
+        jdbcTemplate.update("INSERT INTO tool (version, created_on, updated_on, code, tool_type_id, brand) "
+                + "VALUES (0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 'LADR', 1, 'Little Giant')");
+
+        assertThat(retailPointOfSale.renderToolList(ToolListFormat.CSV))
+                .contains("LADR,Ladder,Little Giant,1.99,true,true,false\n");
+    }
+}
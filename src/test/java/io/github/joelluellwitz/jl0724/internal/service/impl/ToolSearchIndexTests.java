@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) Joel Luellwitz 2024
+ */
+package io.github.joelluellwitz.jl0724.internal.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.joelluellwitz.jl0724.exposed.service.api.Tool;
+
+/**
+ * Tests {@link io.github.joelluellwitz.jl0724.internal.service.impl.ToolSearchIndex ToolSearchIndex}.
+ */
+public class ToolSearchIndexTests {
+    private final ToolSearchIndex toolSearchIndex = new ToolSearchIndex(List.of(
+            createTool("CHNS", "Chainsaw", "Stihl"),
+            createTool("JAKD", "Jackhammer", "DeWalt"),
+            createTool("JAKR", "Jackhammer", "Ridgid"),
+            createTool("LADG", "Ladder", "Little Giant"),
+            createTool("LADW", "Ladder", "Werner")));
+
+    /**
+     * Verifies an exact Tool Code match is returned first, even though other Tool Codes share the prefix.
+     */
+    @Test
+    public void searchReturnsExactMatchFirst() {
+        final List<Tool> tools = toolSearchIndex.search("JAKR", 5);
+
+        assertThat(tools).extracting("code").startsWith("JAKR");
+    }
+
+    /**
+     * Verifies Tool Code prefix matches are returned before Tool Type and brand prefix matches.
+     */
+    @Test
+    public void searchRanksToolCodePrefixBeforeDescriptionPrefix() {
+        final List<Tool> tools = toolSearchIndex.search("la", 5);
+
+        assertThat(tools).extracting("code").containsExactly("LADG", "LADW");
+    }
+
+    /**
+     * Verifies Tool Types and individual words of multi-word brands are searchable.
+     */
+    @Test
+    public void searchMatchesToolTypeAndBrandWords() {
+        assertThat(toolSearchIndex.search("jackham", 5)).extracting("code").containsExactly("JAKD", "JAKR");
+        assertThat(toolSearchIndex.search("giant", 5)).extracting("code").containsExactly("LADG");
+    }
+
+    /**
+     * Verifies a mistyped Tool Code returns the Tool Codes within one edit.
+     */
+    @Test
+    public void searchMatchesMistypedToolCode() {
+        final List<Tool> tools = toolSearchIndex.search("JAKE", 5);
+
+        assertThat(tools).extracting("code").containsExactly("JAKD", "JAKR");
+    }
+
+    /**
+     * Verifies a transposition in a longer term is tolerated.
+     */
+    @Test
+    public void searchMatchesMistypedBrand() {
+        final List<Tool> tools = toolSearchIndex.search("Rigdid", 5);
+
+        assertThat(tools).extracting("code").containsExactly("JAKR");
+    }
+
+    /**
+     * Verifies no results are returned when nothing is close.
+     */
+    @Test
+    public void searchReturnsNothingForUnrelatedQuery() {
+        assertThat(toolSearchIndex.search("INVD", 5)).isEmpty();
+        assertThat(toolSearchIndex.search("  ", 5)).isEmpty();
+    }
+
+    /**
+     * Verifies the result count never exceeds the limit.
+     */
+    @Test
+    public void searchHonorsLimit() {
+        assertThat(toolSearchIndex.search("JAK", 1)).extracting("code").containsExactly("JAKD");
+    }
+
+    /**
+     * Creates a tool for the index. Charges are irrelevant to searching.
+     *
+     * @param code The Tool Code.
+     * @param type The Tool Type.
+     * @param brand The brand.
+     * @return The tool.
+     */
+    private static Tool createTool(final String code, final String type, final String brand) {
+        final ToolImpl tool = new ToolImpl();
+        tool.setCode(code);
+        tool.setType(type);
+        tool.setBrand(brand);
+        tool.setDailyCharge(new BigDecimal("1.99"));
+
+        return tool;
+    }
+}
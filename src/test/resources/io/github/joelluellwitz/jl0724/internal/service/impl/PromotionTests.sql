@@ -0,0 +1,6 @@
+INSERT INTO promotion
+  (version, created_on, updated_on, name, coupon_code, tool_type, start_date, end_date, minimum_rental_day_count,
+    discount_percent)
+VALUES
+  (0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 'Summer Ladders', NULL, 'Ladder', '2020-07-01', '2020-07-31', 3, 15),
+  (0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 'Welcome', 'WELCOME10', NULL, NULL, NULL, 1, 10);
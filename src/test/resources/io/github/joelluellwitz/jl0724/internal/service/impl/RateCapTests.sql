@@ -0,0 +1,3 @@
+UPDATE tool_type
+SET weekly_charge_cap = '10.00', monthly_charge_cap = '35.00'
+WHERE name = 'Jackhammer';
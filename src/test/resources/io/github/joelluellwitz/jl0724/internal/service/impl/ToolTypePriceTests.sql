@@ -0,0 +1,6 @@
+INSERT INTO tool_type_price
+  (version, created_on, updated_on, tool_type_id, effective_date, daily_charge, weekday_charge, weekend_charge,
+    holiday_charge)
+VALUES
+  (0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 1, '2020-07-01', '2.49', true, true, false),
+  (0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 1, '2020-08-01', '2.99', true, false, false);